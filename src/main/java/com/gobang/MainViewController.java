@@ -130,6 +130,8 @@ public class MainViewController {
                 }
 
                 controller.initPVE(game, playerColor);
+                // 关闭窗口时释放 AI 的搜索线程与置换表
+                stage.setOnHidden(hidden -> controller.dispose());
                 stage.show();
 
             } catch (IOException e) {
@@ -146,7 +148,7 @@ public class MainViewController {
 
             Stage stage = new Stage();
             stage.setTitle("五子棋 - 联机对战");
-            stage.setScene(new Scene(root, 400, 350));
+            stage.setScene(new Scene(root, 400, 400));
             stage.setResizable(true);
 
             // 设置控制器的舞台引用
@@ -1,6 +1,7 @@
 package com.gobang.client.controller;
 
 import com.gobang.client.network.NetClient;
+import com.gobang.common.logic.Game;
 import com.gobang.common.network.Message;
 import com.gobang.common.network.MessageType;
 import javafx.application.Platform;
@@ -21,6 +22,7 @@ public class ClientConnectController implements NetClient.ClientListener {
     @FXML private TextField tfServerPort;
     @FXML private TextField tfUserName;
     @FXML private TextField tfRoomId;
+    @FXML private TextField tfBoardSize;
     @FXML private Button btnConnect;
     @FXML private Button btnDisconnect;
     @FXML private Label lblConnectStatus;
@@ -61,7 +63,11 @@ public class ClientConnectController implements NetClient.ClientListener {
                 updateUIOnConnect();
 
                 // 发送加入房间请求
-                String joinRoomMsg = roomId.isEmpty() ? "random" : roomId;
+                // 随机匹配时附带棋盘大小，加入指定房间时以房间设置为准
+                String boardSize = tfBoardSize.getText().trim();
+                String joinRoomMsg = roomId.isEmpty()
+                        ? (boardSize.isEmpty() ? "random" : "random:" + boardSize)
+                        : roomId;
                 netClient.sendMessage(new Message(MessageType.JOIN_ROOM, joinRoomMsg));
             }
         } catch (NumberFormatException e) {
@@ -88,11 +94,13 @@ public class ClientConnectController implements NetClient.ClientListener {
                 String roomId = "";
                 String color = "";
                 String role = "";
+                int boardSize = Game.DEFAULT_BOARD_SIZE;
 
                 for (String part : parts) {
                     if (part.startsWith("ROOM_ID=")) roomId = part.substring(8);
                     if (part.startsWith("COLOR=")) color = part.substring(6);
                     if (part.startsWith("ROLE=")) role = part.substring(5);
+                    if (part.startsWith("BOARD_SIZE=")) boardSize = Integer.parseInt(part.substring(11));
                 }
 
                 // 加载游戏界面
@@ -106,7 +114,7 @@ public class ClientConnectController implements NetClient.ClientListener {
                 netClient.setListener(gameController);
 
                 // 修复点 2: 传入 netClient 对象即可，不要在外面拿流
-                gameController.initOnlineGame(netClient, color, roomId);
+                gameController.initOnlineGame(netClient, color, roomId, boardSize);
 
                 Stage currentStage = (stage != null) ? stage : (Stage) btnConnect.getScene().getWindow();
                 currentStage.setScene(new Scene(gameRoot, 800, 600));
@@ -167,6 +175,7 @@ public class ClientConnectController implements NetClient.ClientListener {
             tfServerPort.setDisable(true);
             tfUserName.setDisable(true);
             tfRoomId.setDisable(true);
+            tfBoardSize.setDisable(true);
         });
     }
 
@@ -179,6 +188,7 @@ public class ClientConnectController implements NetClient.ClientListener {
             tfServerPort.setDisable(false);
             tfUserName.setDisable(false);
             tfRoomId.setDisable(false);
+            tfBoardSize.setDisable(false);
         });
     }
 
@@ -4,10 +4,13 @@ package com.gobang.client.controller;
 import com.gobang.client.network.NetClient;
 import com.gobang.client.player.AIPlayer;
 import com.gobang.client.player.LocalPlayer;
+import com.gobang.client.player.Player;
 import com.gobang.client.service.NetworkGameService;
 import com.gobang.common.logic.Game;
 import com.gobang.common.model.Move;
 import com.gobang.common.model.Piece;
+import com.gobang.common.model.Threat;
+import com.gobang.common.model.ThreatType;
 import com.gobang.common.network.Message;
 import com.gobang.common.network.MessageType;
 
@@ -50,6 +53,8 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
     private GameService gameService;
     private NetClient netClient;
     String currentMode = "Local";
+    // 棋盘边长，联机模式由服务端的 GAME_START 指定
+    private int boardSize = Game.DEFAULT_BOARD_SIZE;
 
     private static Game sharedGame; // 本地对弈共享游戏实例
 
@@ -57,7 +62,7 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
     public void initializeLocal() {
         currentMode = "Local";
         chessCanvas = new ChessCanvas();
-        chessCanvas.initBoard(600);
+        chessCanvas.initBoard(600, boardSize);
         boardContainer.getChildren().addFirst(chessCanvas);
 
         // 确保所有窗口共享同一个游戏实例
@@ -69,7 +74,7 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
         // 创建本地双人服务（修改LocalGameService支持双人）
         this.gameService = new LocalGameService(game);
         game.setListener(this);
-        game.reset();
+        game.submitReset();
         appendChatMessage("[系统]: 游戏已准备就绪，黑方先行。");
     }
 
@@ -77,7 +82,7 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
     public void initialize() {
         // 初始化棋盘绘制组件
         chessCanvas = new ChessCanvas();
-        chessCanvas.initBoard(600);
+        chessCanvas.initBoard(600, boardSize);
         boardContainer.getChildren().addFirst(chessCanvas); // 确保在底层绘制
 
         // 初始化游戏
@@ -100,7 +105,7 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
 
         // 2. 重新初始化棋盘
         this.chessCanvas = new ChessCanvas();
-        this.chessCanvas.initBoard(600);
+        this.chessCanvas.initBoard(600, boardSize);
         this.chessCanvas.setOnMouseClicked(this::handleBoardClick);
         boardContainer.getChildren().add(this.chessCanvas);
 
@@ -109,8 +114,8 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
         this.gameService = new PVEGameService(game);
         this.game.setListener(this);
 
-        // 4. 重置游戏开始
-        game.reset();
+        // 4. 重置游戏开始（交给棋局的写线程，界面线程不等待）
+        game.submitReset();
 
         appendChatMessage("[系统]: 人机对战已准备就绪，黑方先行。");
         appendChatMessage("[系统]: 您使用的是 " + playerColor.getName());
@@ -141,7 +146,7 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
         game.setListener(this);
 
         // 初始化游戏状态
-        game.reset();
+        game.submitReset();
         appendChatMessage("[系统]: 游戏已准备就绪，黑方先行。");
 
         startTimer();
@@ -163,7 +168,7 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
         int row = chessCanvas.getRowByY(event.getY());
         int col = chessCanvas.getColByX(event.getX());
 
-        if (row < 0 || row >= 15 || col < 0 || col >= 15) return;
+        if (!game.getBoardModel().contains(row, col)) return;
 
         // 检查位置是否已有棋子
         if (game.getPiece(row, col) != Piece.EMPTY) {
@@ -171,11 +176,18 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
             return;
         }
 
+        // 检查是否为当前规则下的禁手
+        Piece mover = "ONLINE".equals(currentMode) ? myColor : game.getCurrentTurn();
+        if (game.isForbidden(row, col, mover)) {
+            appendChatMessage("[系统]: 该位置为禁手（" + game.getRule().getName() + "）");
+            return;
+        }
+
         // 处理不同模式
         if ("ONLINE".equals(currentMode)) {
-            // 联机模式：立即更新本地UI，然后发送消息
-            boolean success = game.placePiece(row, col, myColor);
-            if (success) {
+            // 联机模式：本地落子成功后再发送消息，结果回到界面线程处理
+            game.submitMove(row, col, myColor).thenAcceptAsync(success -> {
+                if (!success) return;
                 // 发送网络消息
                 gameService.requestMove(row, col, myColor);
                 // 更新回合状态
@@ -183,7 +195,7 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
                 statusLabel.setText("等待对手落子...");
                 turnIndicator.setFill(myColor.getOpposite() == Piece.BLACK ? Color.BLACK : Color.WHITE);
                 appendChatMessage("[我]: 落子于 (" + row + "," + col + ")");
-            }
+            }, Platform::runLater);
         } else if ("PVE".equals(currentMode)) {
             Piece currentColor = game.getCurrentTurn();
             System.out.println("[PVE点击] 当前回合颜色: " + currentColor + ", 玩家颜色: " + myColor);
@@ -260,7 +272,7 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
 
         // 重新初始化棋盘
         chessCanvas = new ChessCanvas();
-        chessCanvas.initBoard(600);
+        chessCanvas.initBoard(600, boardSize);
         chessCanvas.setOnMouseClicked(this::handleBoardClick);
         boardContainer.getChildren().add(chessCanvas);
 
@@ -275,7 +287,7 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
         game.setListener(this);
 
         // 重置游戏
-        game.reset();
+        game.submitReset();
 
         // 重置计时器
         stopTimer();
@@ -309,11 +321,12 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
 
         // 2. 重新初始化棋盘
         chessCanvas = new ChessCanvas();
-        chessCanvas.initBoard(600);
+        chessCanvas.initBoard(600, boardSize);
         chessCanvas.setOnMouseClicked(this::handleBoardClick);
         boardContainer.getChildren().add(chessCanvas);
 
-        // 3. 创建新的游戏实例
+        // 3. 创建新的游戏实例（旧棋局的事件循环与 AI 随之关闭）
+        disposeGame();
         this.game = new Game();
         this.game.setListener(this);
 
@@ -336,14 +349,12 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
         // 6. 关联服务（使用新的Game实例）
         this.gameService = new PVEGameService(game);
 
-        // 7. 重置游戏
-        game.reset();
+        // 7. 重置游戏，重置后由棋局触发先手玩家的回合
+        game.submitReset();
 
         // 8. 如果是白棋，等待AI先走
         if (myColor == Piece.WHITE) {
             appendChatMessage("[系统]: AI先手，请等待AI落子");
-            // 触发AI下棋
-            game.playerBlack.onTurn(game);
         }
 
         // 9. 重置计时器
@@ -360,7 +371,14 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
     @Override
     public void onChessPlaced(int row, int col, Piece color) {
         System.out.println("UI收到落子通知: " + row + "," + col + " 颜色: " + color); // 调试行
-        Platform.runLater(() -> chessCanvas.drawPiece(row, col, color));
+        Platform.runLater(() -> {
+            // 无边界棋盘落子靠近视窗边缘时扩大视窗并整体重绘
+            if (chessCanvas.ensureVisible(row, col)) {
+                onRedrawAll();
+            } else {
+                chessCanvas.drawPiece(row, col, color);
+            }
+        });
     }
 
     @Override
@@ -370,7 +388,7 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
                 // 联机模式下，判断是否轮到自己
                 isMyTurn = (nextTurn == myColor);
                 if (isMyTurn) {
-                    statusLabel.setText("轮到您落子");
+                    statusLabel.setText("轮到您落子" + threatHint(myColor));
                     turnIndicator.setFill(myColor == Piece.BLACK ? Color.BLACK : Color.WHITE);
                 } else {
                     statusLabel.setText("等待对手落子...");
@@ -378,12 +396,29 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
                 }
             } else {
                 // 非联机模式
-                statusLabel.setText(nextTurn == Piece.BLACK ? "黑方落子" : "白方落子");
+                statusLabel.setText((nextTurn == Piece.BLACK ? "黑方落子" : "白方落子") + threatHint(nextTurn));
                 turnIndicator.setFill(nextTurn == Piece.BLACK ? Color.BLACK : Color.WHITE);
             }
         });
     }
 
+    /** 提醒行棋方对方已有的成五点或活四点，查询威胁索引，不扫描棋盘 */
+    private String threatHint(Piece side) {
+        if (game == null) return "";
+        Piece opponent = side.getOpposite();
+        List<Threat> fives = game.getThreats(opponent, ThreatType.FIVE);
+        if (!fives.isEmpty()) {
+            Threat t = fives.get(0);
+            return String.format("（注意：%s在(%d, %d)可成五）", opponent.getName(), t.row(), t.col());
+        }
+        List<Threat> fours = game.getThreats(opponent, ThreatType.OPEN_FOUR);
+        if (!fours.isEmpty()) {
+            Threat t = fours.get(0);
+            return String.format("（注意：%s在(%d, %d)可成活四）", opponent.getName(), t.row(), t.col());
+        }
+        return "";
+    }
+
     @Override
     public void onGameOver(Piece winner) {
         Platform.runLater(() -> {
@@ -451,6 +486,11 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
 
     @Override
     public void onUndo(int row, int col) {
+        // 事件循环模式下回调来自事件线程，绘制需回到 UI 线程
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> onUndo(row, col));
+            return;
+        }
         // 悔棋时重绘棋盘确保准确
         chessCanvas.drawPiece(row,col, Piece.EMPTY);
     }
@@ -458,16 +498,14 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
     @Override
     public void onRedrawAll()
     {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(this::onRedrawAll);
+            return;
+        }
         chessCanvas.drawBoard();
-        // 遍历棋盘所有位置，重新绘制非空棋子
-        Piece[][] board = game.getBoard();
-        for (int i = 0; i < Game.BOARD_SIZE; i++) {
-            for (int j = 0; j < Game.BOARD_SIZE; j++) {
-                Piece piece = board[i][j];
-                if (piece != Piece.EMPTY) {
-                    chessCanvas.drawPiece(i, j, piece);
-                }
-            }
+        // 按落子记录重新绘制所有棋子（有边界与无边界棋盘通用）
+        for (Move move : game.getMoveHistory()) {
+            chessCanvas.drawPiece(move.row(), move.col(), move.color());
         }
     }
 
@@ -478,14 +516,31 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
 
 
     public void initOnlineGame(NetClient netClient, String colorStr, String roomId) {
+        initOnlineGame(netClient, colorStr, roomId, Game.DEFAULT_BOARD_SIZE);
+    }
+
+    /**
+     * @param boardSize 服务端指定的棋盘边长，{@link com.gobang.common.logic.Board#UNBOUNDED} 表示无边界棋盘
+     */
+    public void initOnlineGame(NetClient netClient, String colorStr, String roomId, int boardSize) {
         this.netClient = netClient;
         this.currentMode = "ONLINE";
         this.myColor = colorStr.equalsIgnoreCase("BLACK") ? Piece.BLACK : Piece.WHITE;
         this.isMyTurn = (myColor == Piece.BLACK); // 黑棋先行
+        this.boardSize = boardSize;
 
-        // 初始化游戏逻辑
-        this.game = new Game();
+        // 按房间的棋盘大小重新初始化棋盘
+        boardContainer.getChildren().clear();
+        chessCanvas = new ChessCanvas();
+        chessCanvas.initBoard(600, boardSize);
+        chessCanvas.setOnMouseClicked(this::handleBoardClick);
+        boardContainer.getChildren().add(chessCanvas);
+
+        // 初始化游戏逻辑；界面线程与网络接收线程的指令都交给棋局的写线程
+        disposeGame();
+        this.game = new Game(boardSize);
         this.game.setListener(this);
+        this.game.startEventLoop();
 
         // 设置玩家
         LocalPlayer myPlayer = new LocalPlayer("玩家", myColor);
@@ -542,10 +597,10 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
             if ("AGREE".equals(response)) {
                 appendChatMessage("[系统]: 对手同意悔棋");
                 // 执行悔棋操作
-                if (game != null) {
-                    // 连续悔棋两步
-                    game.undo();
-                    game.undo();
+                Game current = game;
+                if (current != null) {
+                    // 连续悔棋两步，网络线程不等待
+                    current.submitUndo().thenCompose(done -> current.submitUndo());
                 }
             } else {
                 appendChatMessage("[系统]: 对手拒绝悔棋");
@@ -573,30 +628,33 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
                     return;
                 }
 
-                // 1. 更新游戏逻辑
-                boolean success = game.placePiece(row, col, color);
-                System.out.println("落子结果: " + success);
-
-                // 2. 如果落子成功，更新UI（这一步会通过onChessPlaced自动完成）
-
-                // 3. 切换回合指示
-                if ("ONLINE".equals(currentMode)) {
-                    // 如果刚落子的是对手，现在轮到我了
-                    if (color != myColor) {
-                        isMyTurn = true;
-                        statusLabel.setText("轮到您落子");
-                        turnIndicator.setFill(myColor == Piece.BLACK ? Color.BLACK : Color.WHITE);
-                    } else {
-                        // 如果刚落子的是我，现在轮到对手
-                        isMyTurn = false;
-                        statusLabel.setText("等待对手落子...");
-                        turnIndicator.setFill(myColor.getOpposite() == Piece.BLACK ? Color.BLACK : Color.WHITE);
-                    }
-                }
+                // 1. 更新游戏逻辑，落子成功后 UI 通过 onChessPlaced 自动更新
+                game.submitMove(row, col, color).thenAcceptAsync(success -> {
+                    System.out.println("落子结果: " + success);
+                    updateOnlineTurn(color);
+                }, Platform::runLater);
             });
         }
     }
 
+    /** 联机模式下 color 刚落子后的回合指示 */
+    private void updateOnlineTurn(Piece color) {
+        // 切换回合指示
+        if ("ONLINE".equals(currentMode)) {
+            // 如果刚落子的是对手，现在轮到我了
+            if (color != myColor) {
+                isMyTurn = true;
+                statusLabel.setText("轮到您落子");
+                turnIndicator.setFill(myColor == Piece.BLACK ? Color.BLACK : Color.WHITE);
+            } else {
+                // 如果刚落子的是我，现在轮到对手
+                isMyTurn = false;
+                statusLabel.setText("等待对手落子...");
+                turnIndicator.setFill(myColor.getOpposite() == Piece.BLACK ? Color.BLACK : Color.WHITE);
+            }
+        }
+    }
+
     @Override
     public void onStatusUpdate(String status) {
         Platform.runLater(() -> statusLabel.setText(status));
@@ -644,6 +702,28 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
         isTimerRunning = true;
     }
 
+    /** 窗口关闭时调用：停止计时，关闭当前棋局与玩家（AI 的搜索与置换表随之释放） */
+    public void dispose() {
+        stopTimer();
+        disposeGame();
+    }
+
+    /**
+     * 换下当前棋局：先摘掉监听器，即使 AI 的落子已在途中也画不到新棋盘上；
+     * 再取消双方的回合并关闭玩家，最后关闭事件循环
+     */
+    private void disposeGame() {
+        Game old = this.game;
+        if (old == null) return;
+        old.setListener(null);
+        for (Player player : new Player[]{old.playerBlack, old.playerWhite}) {
+            if (player == null) continue;
+            player.cancelTurn();
+            player.close();
+        }
+        old.shutdownEventLoop();
+    }
+
     private void stopTimer() {
         isTimerRunning = false;
         if (gameTimer != null) {
@@ -737,7 +817,7 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
             chessCanvas.drawPiece(row, col, color);
 
             // 更新游戏逻辑
-            game.placePiece(row, col, color);
+            game.submitMove(row, col, color);
 
             // 联机模式下，轮到我了
             if ("ONLINE".equals(currentMode)) {
@@ -771,9 +851,10 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
                         netClient.sendMessage(new Message(MessageType.REGRET_RESPONSE, "AGREE"));
 
                         // 执行悔棋操作（两步）
-                        if (game != null) {
-                            game.undo(); // 悔自己的棋
-                            game.undo(); // 悔对手的棋
+                        Game current = game;
+                        if (current != null) {
+                            // 先悔自己的棋，再悔对手的棋
+                            current.submitUndo().thenCompose(done -> current.submitUndo());
                         }
 
                         appendChatMessage("[系统]: 已同意对手悔棋请求");
@@ -831,14 +912,16 @@ public class GameSceneController implements GameListener, NetClient.ClientListen
 
             // 2. 重新初始化棋盘
             chessCanvas = new ChessCanvas();
-            chessCanvas.initBoard(600);
+            chessCanvas.initBoard(600, boardSize);
             chessCanvas.setOnMouseClicked(this::handleBoardClick);
             boardContainer.getChildren().add(chessCanvas);
 
-            // 3. 重置游戏逻辑
-            this.game = new Game();
+            // 3. 重置游戏逻辑，旧棋局的事件循环随之关闭
+            disposeGame();
+            this.game = new Game(boardSize);
             this.game.setListener(this);
-            this.game.reset();
+            this.game.startEventLoop();
+            this.game.submitReset();
 
             // 4. 重置玩家状态
             this.isMyTurn = (myColor == Piece.BLACK); // 黑棋先行
@@ -1,19 +1,62 @@
 package com.gobang.client.player;
 
+import com.gobang.client.player.engine.Evaluator;
+import com.gobang.client.player.engine.NnueEvaluator;
+import com.gobang.client.player.engine.OpeningBook;
+import com.gobang.client.player.engine.SearchEngine;
+import com.gobang.client.player.engine.SearchExecutor;
+import com.gobang.client.player.engine.SearchHandle;
+import com.gobang.client.player.engine.SearchResult;
+import com.gobang.client.player.engine.TimeManager;
 import com.gobang.common.logic.Game;
+import com.gobang.common.logic.Position;
 import com.gobang.common.model.Piece;
-import javafx.application.Platform;
+import com.gobang.common.trace.Tracer;
+
+import java.util.function.Consumer;
 
 /**
  * AI玩家类：实现自动下子逻辑
+ * 搜索提交给 {@link SearchExecutor} 执行，悔棋或重新开局时由 {@link Game} 调用 {@link #cancelTurn} 取消
+ * 系统属性 {@value NnueEvaluator#PROPERTY} 指定网络文件时用 {@link NnueEvaluator} 代替棋型估值
  */
 public class AIPlayer implements Player {
+    private static final Tracer TRACE = Tracer.get("AI");
+    public static final long DEFAULT_THINK_TIME = 1000;
+    public static final long DEFAULT_MIN_THINK_TIME = 300;
+
     private Piece myColor;
     private String name = "AI";
+    // 每步的搜索时间（毫秒），未设置棋钟时使用
+    private volatile long thinkTime = DEFAULT_THINK_TIME;
+    // 棋钟：总时间与每步加秒（毫秒），总时间为 0 表示不用棋钟；剩余时间与已走步数只在搜索回调中修改
+    private volatile long clockBase, clockIncrement;
+    private volatile long clockRemaining;
+    private volatile int movesPlayed;
+    // 每步至少间隔的时间（毫秒），避免 AI 落子快得让人看不清
+    private volatile long minThinkTime = DEFAULT_MIN_THINK_TIME;
+    // 落子后是否在对手思考期间继续搜索
+    private volatile boolean pondering = true;
+    private final SearchEngine engine;
+    private final SearchExecutor executor;
+    // 尚未交付的搜索
+    private volatile SearchHandle pending;
+    private volatile Consumer<SearchResult> resultListener;
+    private volatile boolean closed;
 
     public AIPlayer(String name, Piece color) {
+        this(name, color, SearchExecutor.shared());
+    }
+
+    public AIPlayer(String name, Piece color, SearchExecutor executor) {
         this.name = name;
         this.myColor = color;
+        this.executor = executor;
+        Evaluator nnue = NnueEvaluator.shared();
+        this.engine = nnue != null ? new SearchEngine(nnue) : new SearchEngine();
+        engine.setOpeningBook(OpeningBook.shared());
+        engine.useSharedAnalysisCache();
+        engine.setExecutor(executor);
     }
 
     @Override
@@ -25,88 +68,126 @@ public class AIPlayer implements Player {
     @Override
     public String getName() { return name; }
 
+    public long getThinkTime() { return thinkTime; }
+
+    /** 设置每步的搜索时间（毫秒） */
+    public void setThinkTime(long millis) { this.thinkTime = millis; }
+
+    /**
+     * 按棋钟用时：每步由 {@link TimeManager#forClock} 根据剩余时间、加秒和步数分配，之后 thinkTime 不再起作用
+     * 每局开始时（{@link #newGame}）时钟复位；baseMillis 为 0 时恢复每步固定用时
+     */
+    public void setTimeControl(long baseMillis, long incrementMillis) {
+        this.clockBase = Math.max(0, baseMillis);
+        this.clockIncrement = Math.max(0, incrementMillis);
+        this.clockRemaining = clockBase;
+        this.movesPlayed = 0;
+    }
+
+    /** 棋钟剩余时间（毫秒），未设置棋钟时为 0 */
+    public long getRemainingTime() { return clockRemaining; }
+
+    public long getMinThinkTime() { return minThinkTime; }
+
+    /** 设置每步的最短思考时间（毫秒），搜索提前结束时延后落子，0 表示算完立即落子 */
+    public void setMinThinkTime(long millis) { this.minThinkTime = Math.max(0, millis); }
+
+    public boolean isPondering() { return pondering; }
+
+    /** 是否在对手思考期间后台搜索预测的应着，关闭时立即停止正在进行的思考 */
+    public void setPondering(boolean enabled) {
+        this.pondering = enabled;
+        if (!enabled) engine.stopPondering();
+    }
+
+    /** 所用的搜索引擎，可调整线程数、开局库、分析缓存等 */
+    public SearchEngine getEngine() { return engine; }
+
+    /** 每步搜索完成、落子之前回调一次，在搜索线程中执行，用于统计用时与结点数 */
+    public void setResultListener(Consumer<SearchResult> listener) { this.resultListener = listener; }
+
+    /** 停止后台思考，悔棋或重新开局后调用，避免继续搜索已经不存在的局面 */
+    public void stopPondering() { engine.stopPondering(); }
+
     /**
-     * 当轮到AI时，直接计算并下子
+     * 当轮到AI时，在搜索执行器中计算，算完后提交落子
      */
     @Override
     public void onTurn(Game game) {
-        System.out.println("[AI] 轮到AI下棋，颜色: " + myColor);
-
-        // 开启新线程计算，防止UI卡顿
-        new Thread(() -> {
-            try {
-                Thread.sleep(300); // 模拟思考时间
-                int[] pos = calculateBestMove(game);
-
-                // 计算完成后，回到UI线程落子
-                Platform.runLater(() -> {
-                    if (pos != null) {
-                        System.out.println("[AI] 决定下棋位置: (" + pos[0] + "," + pos[1] + ")");
-                        game.placePiece(pos[0], pos[1], myColor);
-                    } else {
-                        System.out.println("[AI] 无法找到下棋位置");
-                    }
-                });
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }).start();
+        TRACE.debug("轮到AI下棋，颜色: {}", myColor);
+
+        // 同一回合被重复触发时只保留最新的一次
+        SearchHandle previous = pending;
+        if (previous != null) previous.cancel();
+        // 只搜索自己的快照，不触碰实时棋局
+        Position position = game.snapshot();
+        TimeManager.Budget budget = budget();
+        long started = System.nanoTime();
+        // 取消只置位这一次搜索的停止标志，不会误停之后的搜索
+        pending = executor.submit(stop -> engine.search(position, budget, stop), minThinkTime,
+                result -> play(game, position, result, started));
     }
 
-    private int[] calculateBestMove(Game game) {
-        Piece[][] board = game.getBoard();
-        Piece enemyColor = myColor.getOpposite();
-
-        // 1. 进攻：找自己能赢的点
-        int[] winPos = findWinningPos(game, myColor);
-        if (winPos != null) return winPos;
-
-        // 2. 防守：找敌人能赢的点并堵住
-        int[] defendPos = findWinningPos(game, enemyColor);
-        if (defendPos != null) return defendPos;
-
-        // 3. 占据中心点
-        int center = Game.BOARD_SIZE / 2;
-        if (board[center][center] == Piece.EMPTY) return new int[]{center, center};
-
-        // 4. 中心扩散搜索空位
-        for (int step = 1; step <= center; step++) {
-            int[][] neighbors = {
-                    {center-step, center}, {center+step, center},
-                    {center, center-step}, {center, center+step}
-            };
-            for (int[] p : neighbors) {
-                if (isValid(p[0], p[1]) && board[p[0]][p[1]] == Piece.EMPTY) return p;
-            }
-        }
+    /** 取消尚未落子的搜索并停止后台思考 */
+    @Override
+    public void cancelTurn() {
+        SearchHandle handle = pending;
+        if (handle != null && handle.cancel()) TRACE.debug("AI 搜索已取消");
+        engine.stopPondering();
+    }
 
-        // 5. 最后的保底遍历
-        for (int i = 0; i < Game.BOARD_SIZE; i++) {
-            for (int j = 0; j < Game.BOARD_SIZE; j++) {
-                if (board[i][j] == Piece.EMPTY) return new int[]{i, j};
-            }
-        }
-        return null;
+    /** 新一局：棋钟复位，引擎丢弃上一局的威胁求解结论 */
+    @Override
+    public void newGame() {
+        clockRemaining = clockBase;
+        movesPlayed = 0;
+        engine.newGame();
+    }
+
+    /** 取消回合并关闭引擎，释放置换表 */
+    @Override
+    public void close() {
+        closed = true;
+        cancelTurn();
+        engine.close();
     }
 
-    private int[] findWinningPos(Game game, Piece color) {
-        Piece[][] board = game.getBoard();
-        for (int r = 0; r < Game.BOARD_SIZE; r++) {
-            for (int c = 0; c < Game.BOARD_SIZE; c++) {
-                if (board[r][c] == Piece.EMPTY) {
-                    // 模拟落子
-                    board[r][c] = color;
-                    boolean isWin = game.checkWinExternal(r, c, color);
-                    // 撤销模拟
-                    board[r][c] = Piece.EMPTY;
-                    if (isWin) return new int[]{r, c};
-                }
-            }
+    /** 本步的时限：有棋钟时按剩余时间分配，否则每步固定用 thinkTime */
+    private TimeManager.Budget budget() {
+        if (clockBase == 0) return TimeManager.fixed(thinkTime);
+        return TimeManager.forClock(clockRemaining, clockIncrement, movesPlayed);
+    }
+
+    private void play(Game game, Position position, SearchResult result, long started) {
+        if (closed) return;
+        if (!result.hasMove()) {
+            TRACE.warn("无法找到下棋位置");
+            return;
+        }
+        if (clockBase > 0) {
+            // 从轮到己方到落子的全部时间都计入棋钟
+            clockRemaining += clockIncrement - (System.nanoTime() - started) / 1_000_000L;
+            movesPlayed++;
+            if (clockRemaining <= 0) TRACE.warn("AI 超时，剩余 {}ms", clockRemaining);
         }
-        return null;
+        TRACE.info("搜索完成: {}", result);
+        Consumer<SearchResult> listener = resultListener;
+        if (listener != null) listener.accept(result);
+        TRACE.debug("{}，后台思考猜中 {} 次、猜错 {} 次", engine.getTable().stats(),
+                engine.getPonderHits(), engine.getPonderMisses());
+        TRACE.debug("决定下棋位置: ({},{})", result.row(), result.col());
+        // 由棋局的写线程执行；局面在搜索期间变化时着法作废
+        game.submitMove(result.row(), result.col(), myColor, position.hash()).thenAccept(placed -> {
+            if (!placed) TRACE.debug("局面已变化，放弃落子 ({},{})", result.row(), result.col());
+            else if (pondering) ponder(position, result);
+        });
     }
 
-    private boolean isValid(int r, int c) {
-        return r >= 0 && r < Game.BOARD_SIZE && c >= 0 && c < Game.BOARD_SIZE;
+    /** 落子成功后，按主要变例的第二手预测对手的应着并开始后台思考 */
+    private void ponder(Position searched, SearchResult result) {
+        Position after = searched.copy();
+        after.make(result.row(), result.col());
+        int[] pv = result.pv();
+        engine.ponder(after, pv.length > 1 ? pv[1] : -1);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,321 @@
+package com.gobang.client.player;
+
+import com.gobang.client.player.engine.Evaluator;
+import com.gobang.client.player.engine.NnueEvaluator;
+import com.gobang.client.player.engine.OpeningBook;
+import com.gobang.client.player.engine.PatternEvaluator;
+import com.gobang.client.player.engine.SearchEngine;
+import com.gobang.client.player.engine.SearchResult;
+import com.gobang.client.player.engine.TimeManager;
+import com.gobang.client.player.engine.TranspositionTable;
+import com.gobang.common.logic.MoveStack;
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+import com.gobang.common.trace.Tracer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Gomocup（Piskvork）协议入口：从标准输入读命令、向标准输出写应答，不依赖 JavaFX 和 Game，
+ * 可以作为 pbrain 由 Piskvork 或其他对弈管理器调用，与其他引擎对局
+ *
+ * 支持 START、RESTART、BEGIN、TURN、BOARD、TAKEBACK、INFO、ABOUT、END；坐标为 "x,y"，x 为列、y 为行
+ * INFO 中的 timeout_turn、timeout_match、time_left 经 {@link TimeManager} 决定每步用时，max_memory 决定置换表大小，
+ * rule 选择规则（1 为恰好五连，4 为连珠），thread_num 设置搜索线程数；系统属性 gobang.nnue 指定网络文件时改用 {@link NnueEvaluator} 估值
+ * 跟踪日志改写到标准错误，标准输出只有协议应答（管理器会显示 ERROR/MESSAGE，这些文字用 ASCII）；
+ * 不在对手思考期间后台搜索
+ *
+ * <pre>
+ *   java -cp target/classes com.gobang.client.player.GomocupBrain
+ * </pre>
+ */
+public final class GomocupBrain {
+    private static final Tracer TRACE = Tracer.get("BRAIN");
+
+    static final String ABOUT = "name=\"Gobang\", version=\"1.0\", country=\"China\"";
+    // 协议未给出时的默认每步用时
+    static final long DEFAULT_TIMEOUT_TURN = 5_000;
+    // 为进程调度和输出留出的余量，以及每步至少的用时
+    static final long OVERHEAD_MILLIS = 50, MIN_MILLIS = 10;
+    // 置换表最多占内存限制的几分之一，以及不限内存时的大小
+    static final int HASH_SHARE = 4, DEFAULT_HASH_MB = 64;
+
+    private final BufferedReader in;
+    private final PrintStream out;
+
+    private Position position;
+    private RuleSet rule = RuleSet.FREESTYLE;
+    private long timeoutTurn = DEFAULT_TIMEOUT_TURN;
+    private long timeoutMatch;
+    private long timeLeft = Long.MAX_VALUE;
+    private long maxMemory;
+    private int threads = 1;
+    private SearchEngine engine;
+    // 当前引擎的置换表大小，内存限制改变后重建引擎
+    private int engineHashMb;
+
+    public GomocupBrain(BufferedReader in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    /** 处理命令直到 END 或输入结束 */
+    public void run() throws IOException {
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+            line = line.strip();
+            if (line.isEmpty()) continue;
+            if (!handle(line)) break;
+        }
+    }
+
+    /**
+     * 处理一条命令
+     * @return 收到 END 时返回 false
+     */
+    boolean handle(String line) throws IOException {
+        int space = line.indexOf(' ');
+        String command = (space < 0 ? line : line.substring(0, space)).toUpperCase(Locale.ROOT);
+        String args = space < 0 ? "" : line.substring(space + 1).strip();
+        switch (command) {
+            case "START" -> start(args);
+            case "RESTART" -> {
+                if (position == null) error("no START yet");
+                else {
+                    position = Position.empty(position.size(), rule);
+                    newGame();
+                    out.println("OK");
+                }
+            }
+            case "BEGIN" -> {
+                if (ready()) move();
+            }
+            case "TURN" -> {
+                if (ready() && play(args)) move();
+            }
+            case "BOARD" -> board();
+            case "TAKEBACK" -> takeback(args);
+            case "INFO" -> info(args);
+            case "ABOUT" -> out.println(ABOUT);
+            case "END" -> {
+                return false;
+            }
+            default -> out.println("UNKNOWN " + line);
+        }
+        out.flush();
+        return true;
+    }
+
+    private void start(String args) {
+        int size;
+        try {
+            size = Integer.parseInt(args);
+        } catch (NumberFormatException e) {
+            error("invalid board size: " + args);
+            return;
+        }
+        if (size < 5 || size > 64) {
+            error("unsupported board size: " + size);
+            return;
+        }
+        position = Position.empty(size, rule);
+        newGame();
+        out.println("OK");
+    }
+
+    /** 新一局或换了规则：上一局的置换表与威胁求解结论不再使用 */
+    private void newGame() {
+        if (engine != null) engine.newGame();
+    }
+
+    /** 对手落子；不合法时输出 ERROR 并返回 false */
+    private boolean play(String args) {
+        int[] xy = parse(args);
+        if (xy == null || !position.contains(xy[1], xy[0]) || !position.isEmpty(xy[1], xy[0])) {
+            error("invalid move: " + args);
+            return false;
+        }
+        position.make(xy[1], xy[0]);
+        return true;
+    }
+
+    /**
+     * BOARD：之后每行 "x,y,棋子"（1 为己方、2 为对方、3 为连续对局模式下的己方），以 DONE 结束
+     * 双方各自按出现顺序交替排列：双方子数相等时己方执黑，对方多一子时对方执黑
+     */
+    private void board() throws IOException {
+        List<int[]> own = new ArrayList<>(), other = new ArrayList<>();
+        boolean valid = position != null;
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+            line = line.strip();
+            if (line.equalsIgnoreCase("DONE")) break;
+            if (line.isEmpty()) continue;
+            int[] field = parse(line);
+            if (field == null || field.length != 3) {
+                valid = false;
+                continue;
+            }
+            (field[2] == 2 ? other : own).add(field);
+        }
+        if (!valid) {
+            error(position == null ? "no START yet" : "malformed BOARD");
+            return;
+        }
+        List<int[]> first, second;
+        if (own.size() == other.size()) {
+            first = own;
+            second = other;
+        } else if (other.size() == own.size() + 1) {
+            first = other;
+            second = own;
+        } else {
+            error("stone counts do not alternate: " + own.size() + "/" + other.size());
+            return;
+        }
+        Position setup = Position.empty(position.size(), rule);
+        for (int i = 0; i < first.size(); i++) {
+            for (int[] stone : i < second.size() ? new int[][]{first.get(i), second.get(i)} : new int[][]{first.get(i)}) {
+                if (!setup.contains(stone[1], stone[0]) || !setup.isEmpty(stone[1], stone[0])) {
+                    error("invalid move: " + stone[0] + "," + stone[1]);
+                    return;
+                }
+                setup.make(stone[1], stone[0]);
+            }
+        }
+        position = setup;
+        move();
+    }
+
+    private void takeback(String args) {
+        int[] xy = parse(args);
+        if (position == null || xy == null || position.moveCount() == 0) {
+            error("cannot take back: " + args);
+            return;
+        }
+        int last = position.lastMove();
+        if (MoveStack.row(last) != xy[1] || MoveStack.col(last) != xy[0]) {
+            error("not the last move: " + args);
+            return;
+        }
+        position.unmake();
+        out.println("OK");
+    }
+
+    /** INFO 键 值：未知的键按协议要求忽略 */
+    private void info(String args) {
+        int space = args.indexOf(' ');
+        if (space < 0) return;
+        String key = args.substring(0, space).toLowerCase(Locale.ROOT);
+        String value = args.substring(space + 1).strip();
+        try {
+            switch (key) {
+                case "timeout_turn" -> timeoutTurn = Long.parseLong(value);
+                case "timeout_match" -> timeoutMatch = Long.parseLong(value);
+                case "time_left" -> timeLeft = Long.parseLong(value);
+                case "max_memory" -> maxMemory = Long.parseLong(value);
+                case "thread_num" -> threads = Math.max(1, Integer.parseInt(value));
+                case "rule" -> setRule(Integer.parseInt(value));
+                default -> TRACE.debug("忽略 INFO {}", args);
+            }
+        } catch (NumberFormatException e) {
+            TRACE.warn("INFO 数值无效: {}", args);
+        }
+    }
+
+    /** 协议中的规则位：1 恰好五连，2 连续对局，4 连珠，8 Caro（不支持，按无禁手下） */
+    private void setRule(int bits) {
+        RuleSet next = (bits & 4) != 0 ? RuleSet.RENJU : (bits & 1) != 0 ? RuleSet.STANDARD : RuleSet.FREESTYLE;
+        if ((bits & 8) != 0) out.println("MESSAGE caro rule is not supported, playing freestyle");
+        if (next == rule) return;
+        rule = next;
+        newGame();
+        if (position == null) return;
+        // 按新规则重放已有的着法
+        Position replay = Position.empty(position.size(), rule);
+        for (int i = 0; i < position.moveCount(); i++) {
+            int move = position.packedMove(i);
+            replay.make(MoveStack.row(move), MoveStack.col(move));
+        }
+        position = replay;
+    }
+
+    private boolean ready() {
+        if (position != null) return true;
+        error("no START yet");
+        return false;
+    }
+
+    /** 搜索并输出己方着法 */
+    private void move() {
+        if (position.board().isFull()) {
+            error("board is full");
+            return;
+        }
+        SearchResult result = engine().search(position, budget());
+        if (!result.hasMove()) {
+            error("no legal move");
+            return;
+        }
+        out.println("MESSAGE " + result);
+        position.make(result.row(), result.col());
+        out.println(result.col() + "," + result.row());
+    }
+
+    /** 本步用时：有整局时限时按剩余时间分配，硬时限不超过扣除余量后的每步时限 */
+    TimeManager.Budget budget() {
+        long limit = timeoutTurn > 0 ? timeoutTurn : MIN_MILLIS;
+        limit = Math.max(MIN_MILLIS, limit - Math.max(OVERHEAD_MILLIS, limit / 10));
+        if (timeoutMatch <= 0) return TimeManager.fixed(limit);
+        long left = timeLeft == Long.MAX_VALUE ? timeoutMatch : timeLeft;
+        return TimeManager.forClock(left, 0, position.moveCount() / 2).cap(limit);
+    }
+
+    /** 按当前的内存限制与线程数准备引擎，置换表大小改变时重建 */
+    private SearchEngine engine() {
+        int hashMb = DEFAULT_HASH_MB;
+        if (maxMemory > 0) {
+            hashMb = (int) Math.min(DEFAULT_HASH_MB, maxMemory / HASH_SHARE >> 20);
+            hashMb = Math.max(1, Integer.highestOneBit(Math.max(1, hashMb)));
+        }
+        if (engine == null || engineHashMb != hashMb) {
+            if (engine != null) engine.close();
+            Evaluator nnue = NnueEvaluator.shared();
+            engine = new SearchEngine(nnue != null ? nnue : new PatternEvaluator(), new TranspositionTable(hashMb));
+            engine.setOpeningBook(OpeningBook.shared());
+            engineHashMb = hashMb;
+        }
+        engine.setThreads(threads);
+        return engine;
+    }
+
+    private void error(String message) {
+        out.println("ERROR " + message);
+    }
+
+    /** 解析逗号分隔的整数，格式不对时返回 null */
+    private static int[] parse(String text) {
+        String[] parts = text.split(",");
+        int[] values = new int[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) values[i] = Integer.parseInt(parts[i].strip());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return values.length >= 2 ? values : null;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // 标准输出只留给协议
+        Tracer.setOutput(System.err);
+        PrintStream out = new PrintStream(System.out, false, StandardCharsets.UTF_8);
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        new GomocupBrain(in, out).run();
+        out.flush();
+    }
+}
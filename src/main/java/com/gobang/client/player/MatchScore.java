@@ -0,0 +1,88 @@
+package com.gobang.client.player;
+
+/**
+ * 两个对手之间的比分（以 A 方为视角），由比分估计 Elo 差、95% 置信区间，以及序贯概率比检验的对数似然比
+ *
+ * Elo 差由得分率 s 换算：-400·log10(1/s - 1)；区间按每局得分的样本方差估计
+ * 对数似然比采用正态近似的广义 SPRT：N·(s1 - s0)·(2x - s0 - s1) / (2σ²)，
+ * 其中 x 为平均得分，σ² 为每局得分的方差，s0、s1 为两个假设 Elo 差对应的期望得分
+ * 线程安全
+ */
+public final class MatchScore {
+    // 得分率为 0 或 1 时 Elo 为无穷，换算前夹在这个范围内
+    private static final double EPSILON = 1e-4;
+    private static final double Z95 = 1.959964;
+
+    private int wins, draws, losses;
+
+    /** 记录一局：1 为 A 胜、0 为和、-1 为 A 负 */
+    public synchronized void add(int outcome) {
+        if (outcome > 0) wins++;
+        else if (outcome < 0) losses++;
+        else draws++;
+    }
+
+    public synchronized int wins() { return wins; }
+
+    public synchronized int draws() { return draws; }
+
+    public synchronized int losses() { return losses; }
+
+    public synchronized int games() { return wins + draws + losses; }
+
+    /** A 方的得分率，和棋算半分 */
+    public synchronized double score() {
+        int n = wins + draws + losses;
+        return n == 0 ? 0.5 : (wins + draws * 0.5) / n;
+    }
+
+    /** 估计的 Elo 差，A 强为正 */
+    public double elo() {
+        return elo(score());
+    }
+
+    /** 95% 置信区间的半宽（Elo） */
+    public synchronized double eloMargin() {
+        int n = wins + draws + losses;
+        if (n < 2) return Double.POSITIVE_INFINITY;
+        double s = (wins + draws * 0.5) / n;
+        double deviation = Math.sqrt(variance(s) / n);
+        return (elo(s + Z95 * deviation) - elo(s - Z95 * deviation)) / 2;
+    }
+
+    /**
+     * 假设 H0：Elo 差为 elo0，H1：Elo 差为 elo1 时的对数似然比，
+     * 大于 ln((1-β)/α) 接受 H1，小于 ln(β/(1-α)) 接受 H0
+     */
+    public synchronized double llr(double elo0, double elo1) {
+        int n = wins + draws + losses;
+        if (n == 0) return 0;
+        double x = (wins + draws * 0.5) / n;
+        double variance = variance(x);
+        if (variance == 0) return 0;
+        double s0 = expectedScore(elo0), s1 = expectedScore(elo1);
+        return n * (s1 - s0) * (2 * x - s0 - s1) / (2 * variance);
+    }
+
+    /** 每局得分（1、0.5、0）相对平均得分 mean 的方差 */
+    private double variance(double mean) {
+        int n = wins + draws + losses;
+        return (wins * (1 - mean) * (1 - mean) + draws * (0.5 - mean) * (0.5 - mean) + losses * mean * mean) / n;
+    }
+
+    /** 得分率对应的 Elo 差 */
+    public static double elo(double score) {
+        double s = Math.min(1 - EPSILON, Math.max(EPSILON, score));
+        return -400 * Math.log10(1 / s - 1);
+    }
+
+    /** Elo 差对应的期望得分率 */
+    public static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("+%d -%d =%d, Elo %.1f ± %.1f", wins, losses, draws, elo(), eloMargin());
+    }
+}
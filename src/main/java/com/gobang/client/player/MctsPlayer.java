@@ -0,0 +1,124 @@
+package com.gobang.client.player;
+
+import com.gobang.client.player.engine.MctsEngine;
+import com.gobang.client.player.engine.SearchExecutor;
+import com.gobang.client.player.engine.SearchHandle;
+import com.gobang.client.player.engine.SearchResult;
+import com.gobang.common.logic.Game;
+import com.gobang.common.logic.Position;
+import com.gobang.common.model.Piece;
+import com.gobang.common.trace.Tracer;
+
+import java.util.function.Consumer;
+
+/**
+ * 蒙特卡洛树搜索玩家：与 {@link AIPlayer} 用法相同，可直接传给 {@link Game#setPlayers}
+ * 搜索树在相邻两步之间保留，对手的着法落在树中时继续使用对应的子树
+ * 与 {@link AIPlayer} 共用 {@link SearchExecutor}，悔棋或重新开局时由 {@link Game} 取消
+ */
+public class MctsPlayer implements Player {
+    private static final Tracer TRACE = Tracer.get("MCTS");
+    public static final long DEFAULT_THINK_TIME = 1000;
+
+    private Piece myColor;
+    private String name = "MCTS";
+    // 每步的搜索时间（毫秒）
+    private volatile long thinkTime = DEFAULT_THINK_TIME;
+    // 落子后是否在对手思考期间继续扩展搜索树
+    private volatile boolean pondering = true;
+    // 每步至少间隔的时间（毫秒），默认算完立即落子
+    private volatile long minThinkTime;
+    private final MctsEngine engine;
+    private final SearchExecutor executor;
+    // 尚未交付的搜索
+    private volatile SearchHandle pending;
+    private volatile Consumer<SearchResult> resultListener;
+
+    public MctsPlayer(String name, Piece color) {
+        this(name, color, new MctsEngine());
+    }
+
+    public MctsPlayer(String name, Piece color, MctsEngine engine) {
+        this(name, color, engine, SearchExecutor.shared());
+    }
+
+    public MctsPlayer(String name, Piece color, MctsEngine engine, SearchExecutor executor) {
+        this.name = name;
+        this.myColor = color;
+        this.engine = engine;
+        this.executor = executor;
+    }
+
+    @Override
+    public Piece getColor() { return myColor; }
+
+    @Override
+    public void setColor(Piece color) { this.myColor = color; }
+
+    @Override
+    public String getName() { return name; }
+
+    public long getThinkTime() { return thinkTime; }
+
+    /** 设置每步的搜索时间（毫秒） */
+    public void setThinkTime(long millis) { this.thinkTime = millis; }
+
+    public long getMinThinkTime() { return minThinkTime; }
+
+    /** 设置每步的最短思考时间（毫秒），搜索提前结束时延后落子 */
+    public void setMinThinkTime(long millis) { this.minThinkTime = Math.max(0, millis); }
+
+    public boolean isPondering() { return pondering; }
+
+    /** 是否在对手思考期间继续扩展搜索树，关闭时立即停止正在进行的思考 */
+    public void setPondering(boolean enabled) {
+        this.pondering = enabled;
+        if (!enabled) engine.stopPondering();
+    }
+
+    public MctsEngine getEngine() { return engine; }
+
+    /** 每步搜索完成、落子之前回调一次，在搜索线程中执行 */
+    public void setResultListener(Consumer<SearchResult> listener) { this.resultListener = listener; }
+
+    /** 停止后台思考，悔棋或重新开局后调用 */
+    public void stopPondering() { engine.stopPondering(); }
+
+    @Override
+    public void onTurn(Game game) {
+        TRACE.debug("轮到MCTS下棋，颜色: {}", myColor);
+
+        // 在搜索执行器中计算；模拟本身在引擎的 ForkJoinPool 中并行执行
+        SearchHandle previous = pending;
+        if (previous != null) previous.cancel();
+        Position position = game.snapshot();
+        long budget = thinkTime;
+        // 取消只置位这一次搜索的停止标志，不会误停之后的搜索
+        pending = executor.submit(stop -> engine.search(position, budget, stop), minThinkTime,
+                result -> play(game, position, result));
+    }
+
+    /** 取消尚未落子的搜索并停止后台思考 */
+    @Override
+    public void cancelTurn() {
+        SearchHandle handle = pending;
+        if (handle != null && handle.cancel()) TRACE.debug("MCTS 搜索已取消");
+        engine.stopPondering();
+    }
+
+    private void play(Game game, Position position, SearchResult result) {
+        if (!result.hasMove()) {
+            TRACE.warn("无法找到下棋位置");
+            return;
+        }
+        TRACE.info("搜索完成: 模拟 {} 次，{} 次/秒，期望得分 {}‱", result.nodes(), result.nps(), result.score());
+        Consumer<SearchResult> listener = resultListener;
+        if (listener != null) listener.accept(result);
+        game.submitMove(result.row(), result.col(), myColor, position.hash()).thenAccept(placed -> {
+            if (!placed || !pondering) return;
+            Position after = position.copy();
+            after.make(result.row(), result.col());
+            engine.ponder(after);
+        });
+    }
+}
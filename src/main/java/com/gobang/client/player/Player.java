@@ -26,4 +26,22 @@ public interface  Player {
      */
     void onTurn(Game game);
 
+    /**
+     * 悔棋或重新开局前由 Game 调用：放弃尚未完成的回合（如 AI 的后台搜索），之后不应再为旧局面落子
+     */
+    default void cancelTurn() {}
+
+    /**
+     * 新一局开始时调用：Game 重置时通知当前双方，中途换上的玩家由调用方通知（如对局赛在摆完开局之后）
+     * 用于复位棋钟等按局计算的状态，不应根据局面的步数推断是否开了新局
+     */
+    default void newGame() {}
+
+    /**
+     * 玩家不再使用时由持有者调用（如界面换了一盘新棋局）：放弃回合并释放资源（如 AI 堆外的置换表），之后不能再使用
+     */
+    default void close() {
+        cancelTurn();
+    }
+
 }
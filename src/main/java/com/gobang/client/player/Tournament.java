@@ -0,0 +1,459 @@
+package com.gobang.client.player;
+
+import com.gobang.client.player.engine.MctsEngine;
+import com.gobang.client.player.engine.SearchExecutor;
+import com.gobang.client.player.engine.SearchResult;
+import com.gobang.common.logic.Game;
+import com.gobang.common.logic.GameListener;
+import com.gobang.common.logic.RuleSet;
+import com.gobang.common.model.Piece;
+import com.gobang.common.trace.TraceLevel;
+import com.gobang.common.trace.Tracer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * 无界面自对弈比赛：两种 {@link Player} 配置在多个线程上并行对局，每局使用独立的 {@link Game}，不依赖 JavaFX
+ *
+ * 每个开局连下两局并交换先后手，抵消开局本身的偏向；默认开局为 26 种连珠标准开局（天元、直指或斜指、第三手在中心 5×5 内）
+ * 比赛结束或 SPRT 得出结论时输出比分、Elo 差与 95% 置信区间，以及双方每步用时（平均、中位数、95 分位、最大）和每秒结点数
+ * 每个并行槽位在自己的线程上顺序对局，复用同一对玩家，开局前清空置换表或搜索树；搜索在共享的 {@link SearchExecutor} 中执行
+ *
+ * <pre>
+ *   java -cp target/classes com.gobang.client.player.Tournament ab:200 mcts:200 \
+ *        [--games 1000] [--concurrency 处理器数] [--size 15] [--rule 0] [--openings 文件] \
+ *        [--sprt 0 10] [--alpha 0.05] [--beta 0.05]
+ * </pre>
+ * 选手写作 引擎:每步毫秒，引擎为 ab（{@link AIPlayer}）或 mcts（{@link MctsPlayer}），均为单线程、不后台思考、不用分析缓存；
+ * ab 也可以写作 ab:总毫秒+加秒毫秒，按棋钟用时（见 {@link AIPlayer#setTimeControl}）
+ * 开局文件每行为一个开局，依次为 "行,列"，以空白分隔，# 开头的行为注释
+ */
+public final class Tournament {
+    private static final Tracer TRACE = Tracer.get("TOURNAMENT");
+    // 多久没有落子视为卡死，作废该局
+    private static final long STALL_MILLIS = 60_000;
+
+    /**
+     * 一种参赛配置
+     * @param factory 按颜色和搜索执行器创建玩家，每个并行槽位调用一次，玩家在该槽位的各局之间复用
+     */
+    public record Entrant(String name, BiFunction<Piece, SearchExecutor, Player> factory) {}
+
+    /** 序贯概率比检验：H0 为 Elo 差 elo0，H1 为 Elo 差 elo1，α、β 为两类错误率 */
+    public record Sprt(double elo0, double elo1, double alpha, double beta) {
+
+        public double lowerBound() { return Math.log(beta / (1 - alpha)); }
+
+        public double upperBound() { return Math.log((1 - beta) / alpha); }
+
+        /** 1 接受 H1，-1 接受 H0，0 继续 */
+        public int decide(MatchScore score) {
+            double llr = score.llr(elo0, elo1);
+            return llr >= upperBound() ? 1 : llr <= lowerBound() ? -1 : 0;
+        }
+    }
+
+    /** 每步用时与结点数的统计，线程安全 */
+    public static final class MoveStats {
+        private long[] millis = new long[256];
+        private int moves;
+        private long nodes, totalMillis, depths;
+
+        public synchronized void add(SearchResult result) {
+            if (moves == millis.length) millis = Arrays.copyOf(millis, moves * 2);
+            millis[moves++] = result.millis();
+            nodes += result.nodes();
+            totalMillis += result.millis();
+            depths += result.depth();
+        }
+
+        public synchronized int moves() { return moves; }
+
+        /** 每秒结点数（MCTS 为每秒模拟次数） */
+        public synchronized long nps() { return totalMillis == 0 ? 0 : nodes * 1000 / totalMillis; }
+
+        /** 用时的 p 分位（毫秒），p 取 0~1 */
+        public synchronized long percentile(double p) {
+            if (moves == 0) return 0;
+            long[] sorted = Arrays.copyOf(millis, moves);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.min(moves - 1, Math.round(p * (moves - 1)))];
+        }
+
+        @Override
+        public synchronized String toString() {
+            if (moves == 0) return "没有着法";
+            return String.format("%d 步, 平均 %.1fms, 中位 %dms, p95 %dms, 最大 %dms, 平均深度 %.1f, nps %d",
+                    moves, (double) totalMillis / moves, percentile(0.5), percentile(0.95), percentile(1),
+                    (double) depths / moves, nps());
+        }
+    }
+
+    private final Entrant a, b;
+    private int boardSize = Game.DEFAULT_BOARD_SIZE;
+    private RuleSet rule = RuleSet.FREESTYLE;
+    private int games = 1000;
+    private int concurrency = Runtime.getRuntime().availableProcessors();
+    private List<int[][]> openings;
+    private Sprt sprt;
+    private int reportInterval = 20;
+    private Consumer<String> output = System.out::println;
+
+    private final MatchScore score = new MatchScore();
+    private final MoveStats statsA = new MoveStats(), statsB = new MoveStats();
+    private final AtomicInteger aborted = new AtomicInteger();
+
+    public Tournament(Entrant a, Entrant b) {
+        this.a = a;
+        this.b = b;
+    }
+
+    public void setBoardSize(int boardSize) { this.boardSize = boardSize; }
+
+    public void setRule(RuleSet rule) { this.rule = rule; }
+
+    /** 最多对局数，按开局成对进行，奇数时向上取偶 */
+    public void setGames(int games) { this.games = games + (games & 1); }
+
+    /** 同时进行的对局数，默认为处理器核数 */
+    public void setConcurrency(int concurrency) { this.concurrency = Math.max(1, concurrency); }
+
+    /** 开局列表，每个开局为依次落下的 {行, 列}；默认为 {@link #standardOpenings} */
+    public void setOpenings(List<int[][]> openings) { this.openings = openings; }
+
+    /** 设置后每局结束检查一次，得出结论即停止 */
+    public void setSprt(Sprt sprt) { this.sprt = sprt; }
+
+    /** 每完成多少局输出一次进度 */
+    public void setReportInterval(int games) { this.reportInterval = Math.max(1, games); }
+
+    public void setOutput(Consumer<String> output) { this.output = output; }
+
+    public MatchScore getScore() { return score; }
+
+    public MoveStats getStatsA() { return statsA; }
+
+    public MoveStats getStatsB() { return statsB; }
+
+    /** 因卡死或开局非法而作废的局数 */
+    public int getAborted() { return aborted.get(); }
+
+    /** 进行比赛直到下满局数或 SPRT 得出结论，返回以 A 方为视角的比分 */
+    public MatchScore run() throws InterruptedException {
+        List<int[][]> book = openings != null ? openings : standardOpenings(boardSize);
+        if (book.isEmpty()) throw new IllegalStateException("没有可用的开局");
+        output.accept(String.format("%s vs %s, %d 局, %d 路 %s, %d 个开局, 并行 %d", a.name(), b.name(), games,
+                boardSize, rule.getName(), book.size(), concurrency));
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+        AtomicBoolean decided = new AtomicBoolean();
+        long start = System.nanoTime();
+        try (SearchExecutor executor = new SearchExecutor(concurrency)) {
+            AtomicInteger counter = new AtomicInteger();
+            ExecutorService slots = Executors.newFixedThreadPool(concurrency, r -> {
+                Thread thread = new Thread(r, "tournament-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            List<Future<?>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(slots.submit(() -> {
+                    Slot slot = new Slot(executor);
+                    for (int index = next.getAndIncrement(); index < games && !decided.get(); index = next.getAndIncrement()) {
+                        boolean aBlack = (index & 1) == 0;
+                        Integer outcome = slot.play(book.get(index / 2 % book.size()), aBlack);
+                        if (outcome == null) {
+                            aborted.incrementAndGet();
+                            continue;
+                        }
+                        score.add(outcome);
+                        int done = finished.incrementAndGet();
+                        if (sprt != null && sprt.decide(score) != 0) decided.set(true);
+                        if (done % reportInterval == 0) report(done, start);
+                    }
+                    slot.close();
+                    return null;
+                }));
+            }
+            try {
+                for (Future<?> future : futures) future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("对局线程异常", e.getCause());
+            } finally {
+                slots.shutdownNow();
+            }
+        }
+
+        report(score.games(), start);
+        if (sprt != null) {
+            int decision = sprt.decide(score);
+            output.accept(String.format("SPRT [%.1f, %.1f]: %s", sprt.elo0(), sprt.elo1(),
+                    decision > 0 ? "接受 H1" : decision < 0 ? "接受 H0" : "尚无结论"));
+        }
+        if (aborted.get() > 0) output.accept("作废 " + aborted.get() + " 局");
+        output.accept(a.name() + ": " + statsA);
+        output.accept(b.name() + ": " + statsB);
+        return score;
+    }
+
+    private void report(int done, long start) {
+        String line = String.format("%d 局 %s, 得分率 %.1f%%, 用时 %ds", done, score, score.score() * 100,
+                (System.nanoTime() - start) / 1_000_000_000L);
+        if (sprt != null) {
+            line += String.format(", LLR %.2f [%.2f, %.2f]", score.llr(sprt.elo0(), sprt.elo1()),
+                    sprt.lowerBound(), sprt.upperBound());
+        }
+        output.accept(line);
+    }
+
+    /** 一个并行槽位：自己的棋局和一对玩家，顺序对局 */
+    private final class Slot implements GameListener {
+        private final Game game = new Game(boardSize);
+        private final Player playerA, playerB;
+        private final Player idleBlack = new Idle(), idleWhite = new Idle();
+        private volatile CountDownLatch over;
+        private volatile Piece winner;
+        private volatile long lastMove;
+
+        Slot(SearchExecutor executor) {
+            game.setRule(rule);
+            game.setListener(this);
+            playerA = a.factory().apply(Piece.BLACK, executor);
+            playerB = b.factory().apply(Piece.WHITE, executor);
+            attach(playerA, statsA);
+            attach(playerB, statsB);
+        }
+
+        /**
+         * 下一局
+         * @return A 方视角的结果（1 胜、0 和、-1 负），作废时返回 null
+         */
+        Integer play(int[][] opening, boolean aBlack) throws InterruptedException {
+            // 摆开局时不触发 AI
+            game.setPlayers(idleBlack, idleWhite);
+            game.reset();
+            Piece color = Piece.BLACK;
+            for (int[] move : opening) {
+                if (!game.placePiece(move[0], move[1], color)) {
+                    TRACE.warn("开局着法非法: ({},{})", move[0], move[1]);
+                    return null;
+                }
+                color = color.getOpposite();
+            }
+            if (game.getCurrentTurn() == null) return null;
+
+            Player black = aBlack ? playerA : playerB;
+            Player white = aBlack ? playerB : playerA;
+            prepare(black);
+            prepare(white);
+            CountDownLatch latch = new CountDownLatch(1);
+            over = latch;
+            winner = null;
+            lastMove = System.nanoTime();
+            game.setPlayers(black, white);
+            (game.getCurrentTurn() == Piece.BLACK ? black : white).onTurn(game);
+
+            while (!latch.await(1, TimeUnit.SECONDS)) {
+                if (System.nanoTime() - lastMove > STALL_MILLIS * 1_000_000L) {
+                    TRACE.warn("对局卡死，作废: {} 手", game.getMoveCount());
+                    black.cancelTurn();
+                    white.cancelTurn();
+                    return null;
+                }
+            }
+            Piece result = winner;
+            if (result == Piece.EMPTY) return 0;
+            return (result == Piece.BLACK) == aBlack ? 1 : -1;
+        }
+
+        void close() {
+            playerA.close();
+            playerB.close();
+        }
+
+        @Override
+        public void onChessPlaced(int row, int col, Piece color) { lastMove = System.nanoTime(); }
+
+        @Override
+        public void onGameOver(Piece result) {
+            winner = result;
+            CountDownLatch latch = over;
+            if (latch != null) latch.countDown();
+        }
+
+        @Override
+        public void onTurnChanged(Piece nextTurn) {}
+
+        @Override
+        public void onGameReset() {}
+
+        @Override
+        public void onUndo(int row, int col) {}
+
+        @Override
+        public void onRedrawAll() {}
+    }
+
+    /** 摆开局期间占位的玩家，轮到时什么也不做 */
+    private static final class Idle implements Player {
+        private Piece color;
+
+        @Override
+        public Piece getColor() { return color; }
+
+        @Override
+        public void setColor(Piece color) { this.color = color; }
+
+        @Override
+        public String getName() { return "开局"; }
+
+        @Override
+        public void onTurn(Game game) {}
+    }
+
+    private static void attach(Player player, MoveStats stats) {
+        if (player instanceof AIPlayer ai) ai.setResultListener(stats::add);
+        else if (player instanceof MctsPlayer mcts) mcts.setResultListener(stats::add);
+    }
+
+    /**
+     * 每局开始前清空上一局留下的置换表或搜索树，各局互不影响；
+     * 双方在摆完开局后才换上，Game 重置时通知不到，在这里复位棋钟
+     */
+    private static void prepare(Player player) {
+        player.newGame();
+        if (player instanceof AIPlayer ai) ai.getEngine().getTable().clear();
+        else if (player instanceof MctsPlayer mcts) mcts.getEngine().clear();
+    }
+
+    /**
+     * 26 种连珠标准开局：黑天元，白直指（正上方）或斜指（右上方），黑第三手在以天元为中心的 5×5 内，
+     * 与前两手构成的对称轴对称的位置只取一个
+     */
+    public static List<int[][]> standardOpenings(int boardSize) {
+        int c = boardSize / 2;
+        List<int[][]> openings = new ArrayList<>();
+        int[][] seconds = {{-1, 0}, {-1, 1}};
+        for (int[] second : seconds) {
+            boolean direct = second[1] == 0;
+            for (int dr = -2; dr <= 2; dr++) {
+                for (int dc = -2; dc <= 2; dc++) {
+                    if (dr == 0 && dc == 0 || dr == second[0] && dc == second[1]) continue;
+                    // 直指关于竖线对称，斜指关于过两子的斜线对称（(dr, dc) ↔ (-dc, -dr)）
+                    if (direct ? dc < 0 : dr > -dc) continue;
+                    openings.add(new int[][]{{c, c}, {c + second[0], c + second[1]}, {c + dr, c + dc}});
+                }
+            }
+        }
+        return openings;
+    }
+
+    /** 读取开局文件：每行一个开局，"行,列" 以空白分隔，# 开头的行为注释 */
+    public static List<int[][]> readOpenings(Path file) throws IOException {
+        List<int[][]> openings = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] moves = line.split("\\s+");
+            int[][] opening = new int[moves.length][];
+            for (int i = 0; i < moves.length; i++) {
+                String[] rc = moves[i].split(",");
+                opening[i] = new int[]{Integer.parseInt(rc[0].strip()), Integer.parseInt(rc[1].strip())};
+            }
+            openings.add(opening);
+        }
+        return openings;
+    }
+
+    /** 由 "ab:200"、"mcts:500" 这样的写法创建参赛配置 */
+    static Entrant entrant(String spec) {
+        String[] parts = spec.split(":");
+        String kind = parts[0].toLowerCase();
+        String time = parts.length > 1 ? parts[1] : String.valueOf(AIPlayer.DEFAULT_THINK_TIME);
+        int plus = time.indexOf('+');
+        long millis = Long.parseLong(plus < 0 ? time : time.substring(0, plus));
+        long increment = plus < 0 ? 0 : Long.parseLong(time.substring(plus + 1));
+        String name = kind + "-" + time + "ms";
+        return switch (kind) {
+            case "ab" -> new Entrant(name, (color, executor) -> {
+                AIPlayer player = new AIPlayer(name, color, executor);
+                if (plus < 0) player.setThinkTime(millis);
+                else player.setTimeControl(millis, increment);
+                player.setMinThinkTime(0);
+                player.setPondering(false);
+                player.getEngine().setThreads(1);
+                player.getEngine().setAnalysisCache(null);
+                return player;
+            });
+            case "mcts" -> new Entrant(name, (color, executor) -> {
+                MctsPlayer player = new MctsPlayer(name, color, new MctsEngine(1), executor);
+                player.setThinkTime(millis);
+                player.setPondering(false);
+                return player;
+            });
+            default -> throw new IllegalArgumentException("未知的引擎: " + spec);
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (System.getProperty("gobang.trace") == null) Tracer.setLevel(TraceLevel.WARN);
+        List<String> entrants = new ArrayList<>();
+        int games = 1000, size = Game.DEFAULT_BOARD_SIZE, rule = 0;
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        Path openingFile = null;
+        double elo0 = 0, elo1 = 0, alpha = 0.05, beta = 0.05;
+        boolean useSprt = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games" -> games = Integer.parseInt(args[++i]);
+                case "--concurrency" -> concurrency = Integer.parseInt(args[++i]);
+                case "--size" -> size = Integer.parseInt(args[++i]);
+                case "--rule" -> rule = Integer.parseInt(args[++i]);
+                case "--openings" -> openingFile = Path.of(args[++i]);
+                case "--sprt" -> {
+                    elo0 = Double.parseDouble(args[++i]);
+                    elo1 = Double.parseDouble(args[++i]);
+                    useSprt = true;
+                }
+                case "--alpha" -> alpha = Double.parseDouble(args[++i]);
+                case "--beta" -> beta = Double.parseDouble(args[++i]);
+                default -> entrants.add(args[i]);
+            }
+        }
+        if (entrants.size() != 2) {
+            System.err.println("用法: Tournament 引擎:毫秒 引擎:毫秒 [--games 1000] [--concurrency N] [--size 15] [--rule 0]"
+                    + " [--openings 文件] [--sprt elo0 elo1] [--alpha 0.05] [--beta 0.05]");
+            System.exit(2);
+        }
+
+        Entrant a = entrant(entrants.get(0)), b = entrant(entrants.get(1));
+        if (a.name().equals(b.name())) {
+            a = new Entrant(a.name() + "-A", a.factory());
+            b = new Entrant(b.name() + "-B", b.factory());
+        }
+        Tournament tournament = new Tournament(a, b);
+        tournament.setGames(games);
+        tournament.setConcurrency(concurrency);
+        tournament.setBoardSize(size);
+        tournament.setRule(RuleSet.byId(rule));
+        if (openingFile != null) tournament.setOpenings(readOpenings(openingFile));
+        if (useSprt) tournament.setSprt(new Sprt(elo0, elo1, alpha, beta));
+        tournament.run();
+    }
+}
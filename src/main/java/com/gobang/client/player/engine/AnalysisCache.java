@@ -0,0 +1,420 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.MoveStack;
+import com.gobang.common.logic.Position;
+import com.gobang.common.trace.Tracer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * 分析缓存：把深度足够的搜索结果保存在磁盘上，下次启动后遇到同一局面直接给出着法
+ *
+ * 局面与 {@link OpeningBook} 一样按 8 种对称变换取规范键，着法以规范形坐标保存；
+ * 文件只追加写入，每条记录带 CRC 校验，进程中途退出时最多丢失最后一条不完整的记录，打开时截掉即可
+ * 同一局面的新记录覆盖旧记录；内存中按最近使用排序，关闭时（或废记录过多时）整理：
+ * 丢弃超过保存期限和超出条数上限中最久未用的局面，重写为每个局面一条记录
+ *
+ * 文件格式（大端序）：24 字节文件头（int 魔数 "GBAC"、int 版本、long 创建时间、long 引擎指纹），之后是 32 字节的记录
+ * <pre>
+ *   long 规范键、byte 棋盘边长、byte 规则编号、byte 深度、byte 标志（1 必胜、2 必败）、
+ *   short 行、short 列、short 应着行、short 应着列（没有时为 -1）、int 分值、int 最近使用时间（秒）、int CRC
+ * </pre>
+ * 引擎指纹见 {@link SearchEngine#fingerprint}，打开时与文件头不符（换了估值参数或搜索实现）则丢弃全部记录重新开始
+ * 只支持有边界棋盘；同一文件同一时间只能由一个进程打开
+ */
+public final class AnalysisCache implements AutoCloseable {
+    private static final Tracer TRACE = Tracer.get("CACHE");
+
+    /** 指定默认缓存文件的系统属性，值为 off 时不使用缓存 */
+    public static final String PROPERTY = "gobang.cache";
+    public static final int DEFAULT_MIN_DEPTH = 7;
+    public static final int DEFAULT_MAX_ENTRIES = 1 << 20;
+    public static final long DEFAULT_MAX_AGE_DAYS = 180;
+
+    static final int MAGIC = 'G' << 24 | 'B' << 16 | 'A' << 8 | 'C';
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 24;
+    static final int RECORD_BYTES = 32;
+    static final int WIN = 1, LOSS = 2;
+    // 废记录超过有效局面数的倍数时在打开后立即整理
+    private static final int GARBAGE_FACTOR = 2;
+
+    private static volatile AnalysisCache shared;
+    private static volatile boolean sharedLoaded;
+
+    private final Path file;
+    private final long fingerprint;
+    private FileChannel channel;
+    private FileLock lock;
+    // 合并了棋盘边长与规则的键 -> 条目，按访问顺序排列，最久未用的在前
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(1 << 10, 0.75f, true);
+    private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES);
+    private final CRC32 crc = new CRC32();
+    private long records;
+    private boolean touched;
+    private volatile int minDepth = DEFAULT_MIN_DEPTH;
+    private volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+    private volatile long maxAgeSeconds = TimeUnit.DAYS.toSeconds(DEFAULT_MAX_AGE_DAYS);
+    private long hits, misses, stores;
+
+    /** 缓存中的一个局面，坐标为规范形坐标 */
+    private record Entry(long key, int size, int rule, int depth, int flags,
+                         int row, int col, int replyRow, int replyCol, int score, long stamp) {
+
+        Entry touch(long now) {
+            return new Entry(key, size, rule, depth, flags, row, col, replyRow, replyCol, score, now);
+        }
+    }
+
+    private AnalysisCache(Path file, long fingerprint) {
+        this.file = file;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * 打开缓存文件，不存在时创建；已被其他进程打开时抛出 IOException
+     * @param fingerprint 写入结果的引擎的 {@link SearchEngine#fingerprint}，与文件中的不同时清空已有记录
+     */
+    public static AnalysisCache open(Path file, long fingerprint) throws IOException {
+        AnalysisCache cache = new AnalysisCache(file, fingerprint);
+        try {
+            cache.load();
+        } catch (IOException | RuntimeException e) {
+            cache.release();
+            throw e;
+        }
+        return cache;
+    }
+
+    /**
+     * 所有 AI 共用的缓存：文件由系统属性 {@value #PROPERTY} 指定，未指定时为用户目录下的 .gobang/analysis.cache
+     * 第一次调用时才打开文件并注册退出时整理关闭的钩子；整个进程只有一个共用缓存，按第一次调用的指纹打开
+     * @param fingerprint 调用方引擎的 {@link SearchEngine#fingerprint}
+     * @return 已关闭缓存、打开失败或共用缓存属于指纹不同的引擎时返回 null
+     */
+    public static AnalysisCache shared(long fingerprint) {
+        if (!sharedLoaded) {
+            synchronized (AnalysisCache.class) {
+                if (!sharedLoaded) {
+                    String path = System.getProperty(PROPERTY);
+                    if (path == null || path.isBlank()) {
+                        path = Path.of(System.getProperty("user.home"), ".gobang", "analysis.cache").toString();
+                    }
+                    if (!path.equalsIgnoreCase("off")) {
+                        try {
+                            Path location = Path.of(path).toAbsolutePath();
+                            Files.createDirectories(location.getParent());
+                            AnalysisCache cache = open(location, fingerprint);
+                            Runtime.getRuntime().addShutdownHook(new Thread(cache::close, "cache-flush"));
+                            shared = cache;
+                            TRACE.info("分析缓存已加载: {}", cache);
+                        } catch (IOException | RuntimeException e) {
+                            TRACE.warn("无法打开分析缓存 {}", path, e);
+                        }
+                    }
+                    sharedLoaded = true;
+                }
+            }
+        }
+        AnalysisCache cache = shared;
+        return cache != null && cache.fingerprint == fingerprint ? cache : null;
+    }
+
+    /** 写入结果的引擎指纹 */
+    public long getFingerprint() { return fingerprint; }
+
+    public int getMinDepth() { return minDepth; }
+
+    /** 只保存不浅于该深度的结果（已求出胜负的结果不受此限） */
+    public void setMinDepth(int depth) { this.minDepth = Math.max(1, depth); }
+
+    /** 整理时最多保留的局面数，超出部分按最久未用淘汰 */
+    public void setMaxEntries(int count) { this.maxEntries = Math.max(1, count); }
+
+    /** 整理时丢弃多久未用的局面 */
+    public void setMaxAge(long amount, TimeUnit unit) { this.maxAgeSeconds = unit.toSeconds(amount); }
+
+    /** 缓存中的局面数 */
+    public synchronized int size() { return entries.size(); }
+
+    /**
+     * 查询局面，命中时返回保存的结果（结点数与用时为 0，主要变例为着法和应着）
+     * @return 不在缓存中或保存的着法在 position 上不合法时返回 null
+     */
+    public synchronized SearchResult probe(Position position) {
+        if (channel == null || position.size() == Board.UNBOUNDED) return null;
+        long canonical = OpeningBook.canonicalKey(position);
+        int symmetry = (int) (canonical & (OpeningBook.SYMMETRIES - 1));
+        long key = canonical & -OpeningBook.SYMMETRIES;
+        int size = position.size();
+        int rule = position.rule().getId();
+        Entry entry = entries.get(mapKey(key, size, rule));
+        if (entry == null || entry.size != size || entry.rule != rule) {
+            misses++;
+            return null;
+        }
+        int row = OpeningBook.inverseRow(symmetry, entry.row, entry.col, size);
+        int col = OpeningBook.inverseCol(symmetry, entry.row, entry.col, size);
+        // 哈希碰撞时保存的着法可能已被占据
+        if (!position.isLegal(row, col)) {
+            misses++;
+            return null;
+        }
+        hits++;
+        touched = true;
+        entries.put(mapKey(key, size, rule), entry.touch(now()));
+
+        int move = MoveStack.pack(row, col, position.sideToMove());
+        int[] pv = {move};
+        if (entry.replyRow >= 0) {
+            int r = OpeningBook.inverseRow(symmetry, entry.replyRow, entry.replyCol, size);
+            int c = OpeningBook.inverseCol(symmetry, entry.replyRow, entry.replyCol, size);
+            pv = new int[]{move, MoveStack.pack(r, c, position.sideToMove().getOpposite())};
+        }
+        return new SearchResult(move, entry.score, entry.depth, 0, 0, pv);
+    }
+
+    /**
+     * 保存搜索结果：深度不足且未分胜负、或不如已有记录（更浅、且没有新求出胜负）时忽略
+     * @return 是否写入了记录
+     */
+    public synchronized boolean store(Position position, SearchResult result) {
+        if (channel == null || position.size() == Board.UNBOUNDED || !result.hasMove()) return false;
+        int flags = result.isWin() ? WIN : result.isLoss() ? LOSS : 0;
+        if (flags == 0 && result.depth() < minDepth) return false;
+
+        long canonical = OpeningBook.canonicalKey(position);
+        int symmetry = (int) (canonical & (OpeningBook.SYMMETRIES - 1));
+        long key = canonical & -OpeningBook.SYMMETRIES;
+        int size = position.size();
+        int rule = position.rule().getId();
+        Entry old = entries.get(mapKey(key, size, rule));
+        if (old != null && old.size == size && old.rule == rule
+                && (old.flags != 0 || flags == 0 && old.depth >= result.depth())) {
+            return false;
+        }
+
+        int move = result.move();
+        int row = OpeningBook.row(symmetry, MoveStack.row(move), MoveStack.col(move), size);
+        int col = OpeningBook.col(symmetry, MoveStack.row(move), MoveStack.col(move), size);
+        int replyRow = -1, replyCol = -1;
+        int[] pv = result.pv();
+        if (pv.length > 1 && pv[0] == move) {
+            replyRow = OpeningBook.row(symmetry, MoveStack.row(pv[1]), MoveStack.col(pv[1]), size);
+            replyCol = OpeningBook.col(symmetry, MoveStack.row(pv[1]), MoveStack.col(pv[1]), size);
+        }
+        Entry entry = new Entry(key, size, rule, Math.min(result.depth(), 127), flags,
+                row, col, replyRow, replyCol, result.score(), now());
+        try {
+            append(entry);
+        } catch (IOException e) {
+            // 写入失败后不再写入，已有的记录仍可查询
+            TRACE.warn("分析缓存写入失败，停止保存: {}", file, e);
+            release();
+            return false;
+        }
+        entries.put(mapKey(key, size, rule), entry);
+        stores++;
+        return true;
+    }
+
+    /**
+     * 整理：丢弃过期与超出条数上限的局面，每个局面只留一条记录，按最久未用到最近使用的顺序重写
+     * 先写临时文件再替换，整理中途退出不会破坏原文件
+     */
+    public synchronized void compact() throws IOException {
+        if (channel == null) return;
+        long oldest = now() - maxAgeSeconds;
+        int excess = entries.size() - maxEntries;
+        List<Entry> kept = new ArrayList<>(entries.size());
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+            Entry entry = it.next();
+            if (excess-- > 0 || entry.stamp < oldest) it.remove();
+            else kept.add(entry);
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, header());
+            ByteBuffer block = ByteBuffer.allocate(RECORD_BYTES * 1024);
+            for (Entry entry : kept) {
+                if (block.remaining() < RECORD_BYTES) {
+                    writeFully(out, block.flip());
+                    block.clear();
+                }
+                encode(entry, block);
+            }
+            writeFully(out, block.flip());
+            out.force(true);
+        }
+        release();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        openChannel();
+        records = kept.size();
+        touched = false;
+        TRACE.debug("分析缓存整理完成: {}", this);
+    }
+
+    /** 整理后关闭；之后查询一律不命中 */
+    @Override
+    public synchronized void close() {
+        if (channel == null) return;
+        try {
+            if (touched || records > entries.size()) compact();
+            else channel.force(true);
+        } catch (IOException e) {
+            TRACE.warn("分析缓存整理失败: {}", file, e);
+        }
+        release();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s, %d 个局面, %d 条记录, 命中 %d 次, 未命中 %d 次, 新增 %d 条",
+                file.getFileName(), entries.size(), records, hits, misses, stores);
+    }
+
+    // --- 文件读写 ---
+
+    private void load() throws IOException {
+        boolean created = !Files.exists(file) || Files.size(file) == 0;
+        openChannel();
+        if (created) {
+            writeFully(channel, header());
+            channel.force(true);
+            return;
+        }
+
+        ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(head, 0);
+        if (head.position() < 8 || head.getInt(0) != MAGIC) throw new IOException("不是分析缓存文件: " + file);
+        int version = head.getInt(4);
+        long owner = head.position() < HEADER_BYTES ? 0 : head.getLong(16);
+        if (version != VERSION || head.position() < HEADER_BYTES || owner != fingerprint) {
+            // 旧版本或其他引擎算出的结果不可信，整个文件重新开始
+            TRACE.info("分析缓存 {} 由其他版本或估值写入（版本 {}，指纹 {}），已清空",
+                    file.getFileName(), version, Long.toHexString(owner));
+            channel.truncate(0);
+            writeFully(channel.position(0), header());
+            channel.force(true);
+            return;
+        }
+
+        long size = channel.size();
+        long valid = HEADER_BYTES;
+        ByteBuffer block = ByteBuffer.allocate(RECORD_BYTES * 1024);
+        read:
+        while (valid + RECORD_BYTES <= size) {
+            block.clear();
+            long read = channel.read(block, valid);
+            if (read < RECORD_BYTES) break;
+            block.flip();
+            while (block.remaining() >= RECORD_BYTES) {
+                Entry entry = decode(block);
+                if (entry == null) break read;
+                entries.put(mapKey(entry.key, entry.size, entry.rule), entry);
+                records++;
+                valid += RECORD_BYTES;
+            }
+        }
+        if (valid != size) {
+            TRACE.warn("分析缓存末尾有 {} 字节不完整或已损坏的记录，已截断", size - valid);
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+        if (records > (long) entries.size() * GARBAGE_FACTOR + 1024) compact();
+    }
+
+    private void openChannel() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // 本进程中已有另一个实例打开了同一文件
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            channel = null;
+            throw new IOException("分析缓存已被其他进程打开: " + file);
+        }
+        channel.position(channel.size());
+    }
+
+    private void release() {
+        try {
+            if (lock != null) lock.release();
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            TRACE.warn("关闭分析缓存失败: {}", file, e);
+        }
+        lock = null;
+        channel = null;
+    }
+
+    private void append(Entry entry) throws IOException {
+        buffer.clear();
+        encode(entry, buffer);
+        writeFully(channel, buffer.flip());
+        records++;
+    }
+
+    private ByteBuffer header() {
+        return ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION)
+                .putLong(System.currentTimeMillis()).putLong(fingerprint).flip();
+    }
+
+    private void encode(Entry entry, ByteBuffer out) {
+        int start = out.position();
+        out.putLong(entry.key)
+                .put((byte) entry.size).put((byte) entry.rule).put((byte) entry.depth).put((byte) entry.flags)
+                .putShort((short) entry.row).putShort((short) entry.col)
+                .putShort((short) entry.replyRow).putShort((short) entry.replyCol)
+                .putInt(entry.score).putInt((int) entry.stamp);
+        crc.reset();
+        crc.update(out.array(), out.arrayOffset() + start, RECORD_BYTES - 4);
+        out.putInt((int) crc.getValue());
+    }
+
+    /** 读出一条记录，校验失败时返回 null */
+    private Entry decode(ByteBuffer in) {
+        int start = in.position();
+        crc.reset();
+        crc.update(in.array(), in.arrayOffset() + start, RECORD_BYTES - 4);
+        if (in.getInt(start + RECORD_BYTES - 4) != (int) crc.getValue()) return null;
+        Entry entry = new Entry(in.getLong(), in.get() & 0xFF, in.get() & 0xFF, in.get(), in.get(),
+                in.getShort(), in.getShort(), in.getShort(), in.getShort(), in.getInt(),
+                Integer.toUnsignedLong(in.getInt()));
+        in.getInt();
+        return entry;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) out.write(data);
+    }
+
+    /** 规范键混入棋盘边长与规则后作为内存中的键，不同棋盘上的同形局面互不干扰 */
+    private static long mapKey(long key, int size, int rule) {
+        return key ^ ((long) size << 2 | rule) * 0x9E3779B97F4A7C15L;
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
@@ -0,0 +1,215 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.LinePatterns;
+import com.gobang.common.logic.MoveStack;
+import com.gobang.common.logic.Position;
+import com.gobang.common.model.Piece;
+
+import java.util.Arrays;
+
+/**
+ * 增量维护的候选点集合：所有距离某个棋子不超过 2 格（5x5 邻域）的空位
+ * 每个格子记录邻域内的棋子数（引用计数），落子时邻域计数加一、计数由 0 变 1 的空位加入集合，
+ * 撤销时减一、计数归零的移出集合，因此撤销后集合与落子前完全相同
+ * 集合用稠密数组 + 位置下标实现，加入、移出、遍历都不分配对象
+ *
+ * 有边界棋盘以 行 * 边长 + 列 为格子编号；无边界棋盘用开放寻址表给见过的格子分配编号，表只增不减
+ *
+ * 冲四点、活三点、对方的成五点都在某个己方棋子两格之内，因此各个引擎的威胁扫描也可以只遍历这个集合
+ * 集合绑定一个局面，之后必须通过 {@link #make}/{@link #unmake} 落子和撤销，不是线程安全的
+ */
+public final class CandidateSet {
+    public static final int RADIUS = 2;
+
+    private static final long FREE = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int DEFENSE_NUM = 4, DEFENSE_DEN = 5;
+
+    private final Position position;
+    private final Board board;
+    private final int size;
+
+    // 按格子编号：邻域棋子数、在稠密数组中的下标（不在集合中为 -1）、坐标
+    private int[] refs;
+    private int[] where;
+    private int[] rows;
+    private int[] cols;
+    // 无边界棋盘：编号 -> 坐标键，未使用为 FREE
+    private long[] keys;
+    private int used;
+
+    private int[] dense;
+    private int count;
+
+    public CandidateSet(Position position) {
+        this.position = position;
+        this.board = position.board();
+        this.size = board.size();
+        int capacity = size == Board.UNBOUNDED ? INITIAL_CAPACITY : size * size;
+        allocate(capacity);
+        if (size != Board.UNBOUNDED) {
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    rows[r * size + c] = r;
+                    cols[r * size + c] = c;
+                }
+            }
+        }
+        board.forEachStone((r, c, color) -> adjust(r, c, 1));
+    }
+
+    private void allocate(int capacity) {
+        refs = new int[capacity];
+        where = new int[capacity];
+        rows = new int[capacity];
+        cols = new int[capacity];
+        Arrays.fill(where, -1);
+        if (size == Board.UNBOUNDED) {
+            keys = new long[capacity];
+            Arrays.fill(keys, FREE);
+        }
+        dense = new int[Math.min(capacity, 1024)];
+        count = 0;
+    }
+
+    public Position position() { return position; }
+
+    /** 候选点个数 */
+    public int size() { return count; }
+
+    public int row(int index) { return rows[dense[index]]; }
+
+    public int col(int index) { return cols[dense[index]]; }
+
+    /** 第 index 个候选点，编码为 {@link MoveStack#pack}，颜色为 color */
+    public int move(int index, Piece color) {
+        int id = dense[index];
+        return MoveStack.pack(rows[id], cols[id], color);
+    }
+
+    /** (row, col) 是否在集合中 */
+    public boolean contains(int row, int col) {
+        int id = find(row, col);
+        return id >= 0 && where[id] >= 0;
+    }
+
+    /** 当前行棋方在 (row, col) 落子并更新集合 */
+    public void make(int row, int col) {
+        position.make(row, col);
+        adjust(row, col, 1);
+    }
+
+    /** 撤销最后一手并更新集合 */
+    public void unmake() {
+        int last = position.lastMove();
+        position.unmake();
+        adjust(MoveStack.row(last), MoveStack.col(last), -1);
+    }
+
+    private void adjust(int row, int col, int delta) {
+        for (int r = row - RADIUS; r <= row + RADIUS; r++) {
+            for (int c = col - RADIUS; c <= col + RADIUS; c++) {
+                if (!board.contains(r, c)) continue;
+                int id = slot(r, c);
+                refs[id] += delta;
+                boolean candidate = refs[id] > 0 && board.isEmpty(r, c);
+                if (candidate && where[id] < 0) add(id);
+                else if (!candidate && where[id] >= 0) removeAt(where[id]);
+            }
+        }
+    }
+
+    /**
+     * 按局部威胁分排序的候选点：行棋方在该点的棋型分加上对方在该点的棋型分（防守价值打八折）
+     * @return 着法数量，着法为 {@link MoveStack#pack} 编码，颜色为行棋方
+     */
+    public int ordered(int[] moves, int[] scores) {
+        Piece me = position.sideToMove();
+        Piece opp = me.getOpposite();
+        int n = Math.min(count, moves.length);
+        for (int i = 0; i < n; i++) {
+            int id = dense[i];
+            int r = rows[id], c = cols[id];
+            int attack = 0, defense = 0;
+            for (int dir = 0; dir < 4; dir++) {
+                attack += ShapeTable.score(LinePatterns.index(board.lineWindow(r, c, dir, me)));
+                defense += ShapeTable.score(LinePatterns.index(board.lineWindow(r, c, dir, opp)));
+            }
+            moves[i] = MoveStack.pack(r, c, me);
+            scores[i] = attack + defense / DEFENSE_DEN * DEFENSE_NUM;
+        }
+        MoveGenerator.sort(moves, scores, n);
+        return n;
+    }
+
+    // --- 稠密集合 ---
+
+    private void add(int id) {
+        if (count == dense.length) dense = Arrays.copyOf(dense, count * 2);
+        where[id] = count;
+        dense[count++] = id;
+    }
+
+    private void removeAt(int index) {
+        int id = dense[index];
+        int moved = dense[--count];
+        dense[index] = moved;
+        where[moved] = index;
+        where[id] = -1;
+    }
+
+    // --- 格子编号 ---
+
+    private int find(int row, int col) {
+        if (size != Board.UNBOUNDED) return board.contains(row, col) ? row * size + col : -1;
+        long key = key(row, col);
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == key) return i;
+            if (keys[i] == FREE) return -1;
+        }
+    }
+
+    /** 格子编号，无边界棋盘上第一次出现的格子分配新编号 */
+    private int slot(int row, int col) {
+        if (size != Board.UNBOUNDED) return row * size + col;
+        if ((used + 1) * 2 > keys.length) grow();
+        long key = key(row, col);
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (keys[i] != FREE) {
+            if (keys[i] == key) return i;
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        rows[i] = row;
+        cols[i] = col;
+        used++;
+        return i;
+    }
+
+    /** 扩容后编号全部改变，按新编号重建计数与集合 */
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldRefs = refs;
+        int[] oldWhere = where;
+        allocate(oldKeys.length * 2);
+        used = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == FREE) continue;
+            int id = slot((int) (oldKeys[i] >> 32), (int) oldKeys[i]);
+            refs[id] = oldRefs[i];
+            if (oldWhere[i] >= 0) add(id);
+        }
+    }
+
+    private static long key(int row, int col) {
+        return (long) row << 32 | (col & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+}
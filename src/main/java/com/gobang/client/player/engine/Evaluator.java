@@ -0,0 +1,33 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Position;
+
+/**
+ * 局面估值接口，分值以当前行棋方为视角，正数表示行棋方占优
+ * 引擎持有一个原型，每个搜索线程通过 {@link #bind} 得到自己的实例；
+ * 增量实现在 {@link #played}/{@link #undone} 中随局面更新，无状态的实现直接返回自身
+ */
+public interface Evaluator {
+    int evaluate(Position position);
+
+    /** 为绑定到 position 的搜索线程创建实例，之后 position 的每次落子和撤销都要通知它 */
+    default Evaluator bind(Position position) {
+        return this;
+    }
+
+    /** 绑定的局面刚在 (row, col) 落子 */
+    default void played(int row, int col) {}
+
+    /** 绑定的局面刚撤销了一手 */
+    default void undone() {}
+
+    /** 行棋方落在 (row, col) 后估值的变化（以行棋方为视角），用于着法排序；不支持时返回 0 */
+    default int moveDelta(int row, int col) {
+        return 0;
+    }
+
+    /** 估值的指纹：参数或实现改变时随之改变，用于丢弃 {@link AnalysisCache} 中由别的估值算出的结果 */
+    default long fingerprint() {
+        return getClass().getName().hashCode();
+    }
+}
@@ -0,0 +1,405 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.MoveStack;
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+import com.gobang.common.model.Piece;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 蒙特卡洛树搜索引擎：UCT 选择 + 渐进展开 + 快速模拟
+ *
+ * 候选着法取自 {@link MoveGenerator}（棋子周围两格、按棋型分值排序，能成五/必须堵时只保留相应的点），
+ * 结点被访问得越多，允许参与选择的候选越多（渐进展开）；模拟时能成五就成五，对方能成五就堵，
+ * 否则在最近几手附近随机落子
+ *
+ * 多线程采用树并行：ForkJoinPool 中的每个工作线程在同一棵树上反复"选择-展开-模拟-回溯"，
+ * 下行时给经过的结点加虚拟损失，统计量无锁累加。搜索结束后保留整棵树，下一次搜索时如果新局面
+ * 是上次根结点之后走了几手，就沿这几手找到对应的子树继续使用；{@link #ponder} 在对手思考期间继续扩展这棵树
+ * 每次搜索有自己的停止标志，取消一次搜索不会误停之后的搜索；{@link #stopPondering} 只通知思考线程停止，不等待
+ *
+ * 返回的 {@link SearchResult} 中 nodes 为模拟次数，score 为根结点行棋方的期望得分（万分比），
+ * depth 为访问次数最多的变例长度
+ */
+public class MctsEngine {
+    private static final double EXPLORATION = 0.7;
+    private static final int VIRTUAL_LOSS = 3;
+    // 渐进展开：允许的子结点数 = WIDEN_BASE + visits^WIDEN_EXPONENT
+    private static final int WIDEN_BASE = 3;
+    private static final double WIDEN_EXPONENT = 0.4;
+    private static final int MAX_PLAYOUT = 80;
+    private static final int MAX_TREE_DEPTH = 64;
+    private static final int DEFAULT_MAX_NODES = 4_000_000;
+    private static final int RANDOM_TRIES = 16;
+    private static final int RECENT_MOVES = 4;
+    private static final int REACH = 4;
+    private static final long PONDER_LIMIT_MILLIS = 60_000;
+
+    private final ForkJoinPool pool;
+    private final int threads;
+    // 正在进行的搜索的停止标志，stop() 全部置位
+    private final Set<AtomicBoolean> running = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nodeCount = new AtomicLong();
+    private final long maxNodes;
+
+    // 上一次搜索的根结点与根局面，用于复用子树
+    private MctsNode root;
+    private Position rootPosition;
+    // 后台思考的工作任务与停止标志，由 ponderLock 保护；停止后工作任务保留到下一次搜索或思考入口处等待其退出
+    private final Object ponderLock = new Object();
+    private List<ForkJoinTask<?>> ponderWorkers;
+    private AtomicBoolean ponderStop;
+
+    public MctsEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public MctsEngine(int threads) {
+        this(threads, DEFAULT_MAX_NODES);
+    }
+
+    /** @param maxNodes 树的结点数上限，达到后不再创建新结点，只从叶结点继续模拟 */
+    public MctsEngine(int threads, long maxNodes) {
+        if (threads < 1) throw new IllegalArgumentException("线程数至少为 1: " + threads);
+        this.threads = threads;
+        this.maxNodes = maxNodes;
+        this.pool = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("mcts-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    public int getThreads() { return threads; }
+
+    /** 请求正在进行的搜索（包括后台思考）尽快结束 */
+    public void stop() {
+        for (AtomicBoolean flag : running) flag.set(true);
+        stopPondering();
+    }
+
+    /** 丢弃保留的树 */
+    public synchronized void clear() {
+        awaitPonder();
+        root = null;
+        rootPosition = null;
+        nodeCount.set(0);
+    }
+
+    /**
+     * 在 position 的副本上搜索 timeLimitMillis 毫秒，不修改传入的局面
+     * 正在后台思考时先结束思考，思考期间在对手实际着法之下积累的模拟随子树一起复用
+     */
+    public SearchResult search(Position position, long timeLimitMillis) {
+        return search(position, timeLimitMillis, new AtomicBoolean());
+    }
+
+    /**
+     * @param stop 本次搜索的停止标志，置位时尽快结束（搜索开始前已置位则几乎立即返回）；{@link #stop} 也会将其置位
+     */
+    public SearchResult search(Position position, long timeLimitMillis, AtomicBoolean stop) {
+        running.add(stop);
+        try {
+            synchronized (this) {
+                awaitPonder();
+                long start = System.nanoTime();
+                long deadline = start + timeLimitMillis * 1_000_000L;
+                MctsNode searchRoot = reuse(position);
+                long before = searchRoot.visits();
+
+                for (ForkJoinTask<?> worker : startWorkers(searchRoot, position, deadline, stop)) worker.join();
+
+                long millis = (System.nanoTime() - start) / 1_000_000L;
+                long playouts = searchRoot.visits() - before;
+                return result(searchRoot, playouts, millis);
+            }
+        } finally {
+            running.remove(stop);
+        }
+    }
+
+    /**
+     * 在对手思考期间后台模拟：以 position（己方刚走完的局面）为根继续扩展整棵树，不猜测对手的着法，
+     * 直到下一次 {@link #search}、{@link #stopPondering} 或思考时间上限
+     */
+    public synchronized void ponder(Position position) {
+        awaitPonder();
+        if (position.lastMoveWins() || position.board().isFull()) return;
+        AtomicBoolean flag = new AtomicBoolean();
+        MctsNode ponderRoot = reuse(position);
+        List<ForkJoinTask<?>> workers = startWorkers(ponderRoot, position,
+                System.nanoTime() + PONDER_LIMIT_MILLIS * 1_000_000L, flag);
+        synchronized (ponderLock) {
+            ponderStop = flag;
+            ponderWorkers = workers;
+        }
+    }
+
+    /**
+     * 结束后台思考，树保留
+     * 只通知工作线程停止，不等待它们退出，也不占用引擎的锁，可以在界面线程或棋局的写线程中调用；
+     * 下一次搜索或思考会在入口处等它们返回
+     */
+    public void stopPondering() {
+        synchronized (ponderLock) {
+            if (ponderStop != null) ponderStop.set(true);
+        }
+    }
+
+    public boolean isPondering() {
+        synchronized (ponderLock) {
+            return ponderStop != null && !ponderStop.get();
+        }
+    }
+
+    /** 停止后台思考并等待工作线程退出，调用方持有引擎的锁 */
+    private void awaitPonder() {
+        List<ForkJoinTask<?>> workers;
+        synchronized (ponderLock) {
+            workers = ponderWorkers;
+            if (ponderStop != null) ponderStop.set(true);
+            ponderWorkers = null;
+            ponderStop = null;
+        }
+        if (workers != null) {
+            for (ForkJoinTask<?> worker : workers) worker.join();
+        }
+    }
+
+    private List<ForkJoinTask<?>> startWorkers(MctsNode searchRoot, Position position, long deadline,
+                                               AtomicBoolean stopFlag) {
+        List<ForkJoinTask<?>> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            long seed = System.nanoTime() * 31 + i;
+            Position copy = position.copy();
+            workers.add(pool.submit(() -> run(searchRoot, copy, deadline, stopFlag, new SplittableRandom(seed))));
+        }
+        return workers;
+    }
+
+    /** 找到可复用的子树并设为根，找不到时新建 */
+    private MctsNode reuse(Position position) {
+        MctsNode node = null;
+        if (root != null && continues(rootPosition, position)) {
+            node = root;
+            for (int i = rootPosition.moveCount(); i < position.moveCount() && node != null; i++) {
+                node = node.find(position.packedMove(i));
+            }
+        }
+        if (node == null) {
+            node = new MctsNode(-1);
+            nodeCount.set(1);
+        } else {
+            // 丢弃的兄弟子树不再计数；每个结点至少被访问过一次，访问数是子树结点数的上界
+            nodeCount.set(node.visits() + 1);
+        }
+        root = node;
+        rootPosition = position.copy();
+        return node;
+    }
+
+    /** position 是否为 previous 之后又走了若干手得到的局面 */
+    private static boolean continues(Position previous, Position position) {
+        if (previous.size() != position.size() || previous.rule() != position.rule()) return false;
+        if (position.moveCount() < previous.moveCount()) return false;
+        for (int i = 0; i < previous.moveCount(); i++) {
+            if (previous.packedMove(i) != position.packedMove(i)) return false;
+        }
+        return true;
+    }
+
+    // --- 工作线程 ---
+
+    private void run(MctsNode root, Position position, long deadline, AtomicBoolean stop, SplittableRandom random) {
+        MoveGenerator generator = new MoveGenerator(1);
+        // 只随树中的着法更新，模拟中的着法在回到树之前都会撤销，期间不使用候选集合
+        CandidateSet set = new CandidateSet(position);
+        generator.use(set);
+        MctsNode[] path = new MctsNode[MAX_TREE_DEPTH + 1];
+        Piece rootMover = position.sideToMove().getOpposite();
+        int iterations = 0;
+        while (!stop.get() && ((++iterations & 15) != 0 || System.nanoTime() < deadline)) {
+            int length = 0;
+            MctsNode node = root;
+            node.addVirtualLoss(VIRTUAL_LOSS);
+            path[length++] = node;
+            Piece winner = null;
+
+            // 选择与展开
+            while (true) {
+                int[] moves = node.candidates();
+                if (moves == null) {
+                    int[] generated = candidates(position, generator);
+                    // 必须应对却无子可下（堵点是禁手），等同于上一手已经获胜
+                    if (generated.length == 0 && generator.status(0) == MoveGenerator.FORCED) {
+                        node.terminal = MctsNode.WIN;
+                    }
+                    moves = node.publishCandidates(generated);
+                }
+                if (node.terminal == MctsNode.WIN) {
+                    winner = position.sideToMove().getOpposite();
+                    break;
+                }
+                if (moves.length == 0 || length > MAX_TREE_DEPTH) {
+                    winner = Piece.EMPTY;
+                    break;
+                }
+                int index = select(node, moves.length);
+                MctsNode child = node.child(index);
+                boolean fresh = child == null;
+                if (fresh) {
+                    if (nodeCount.get() >= maxNodes) break;
+                    child = node.expand(index);
+                    nodeCount.incrementAndGet();
+                }
+                set.make(MoveStack.row(child.move), MoveStack.col(child.move));
+                child.addVirtualLoss(VIRTUAL_LOSS);
+                path[length++] = child;
+                node = child;
+                if (position.lastMoveWins()) {
+                    child.terminal = MctsNode.WIN;
+                    winner = MoveStack.color(child.move);
+                    break;
+                }
+                if (fresh || child.visits() <= VIRTUAL_LOSS) break;
+            }
+
+            // 模拟
+            int treeMoves = length - 1;
+            if (winner == null) {
+                int before = position.moveCount();
+                winner = playout(position, random);
+                while (position.moveCount() > before) position.unmake();
+            }
+            for (int i = 0; i < treeMoves; i++) set.unmake();
+
+            // 回溯：每个结点按走出这一手的一方计分
+            for (int i = 0; i < length; i++) {
+                MctsNode visited = path[i];
+                Piece mover = visited.move == -1 ? rootMover : MoveStack.color(visited.move);
+                int points = winner == Piece.EMPTY ? 1 : winner == mover ? 2 : 0;
+                visited.update(points, VIRTUAL_LOSS);
+            }
+        }
+    }
+
+    /** UCT 选择，只在渐进展开允许的前若干个候选中挑选，未访问过的候选优先 */
+    private static int select(MctsNode node, int count) {
+        long parentVisits = Math.max(1, node.visits());
+        int allowed = Math.min(count, WIDEN_BASE + (int) Math.pow(parentVisits, WIDEN_EXPONENT));
+        double logParent = Math.log(parentVisits);
+        int best = 0;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < allowed; i++) {
+            MctsNode child = node.child(i);
+            if (child == null) return i;
+            long visits = child.visits();
+            if (visits == 0) return i;
+            if (child.terminal == MctsNode.WIN) return i;
+            double value = child.score() / (2.0 * visits) + EXPLORATION * Math.sqrt(logParent / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static int[] candidates(Position position, MoveGenerator generator) {
+        int count = generator.generate(position, 0);
+        int[] moves = new int[count];
+        System.arraycopy(generator.moves(0), 0, moves, 0, count);
+        return moves;
+    }
+
+    // --- 模拟 ---
+
+    /** 快速模拟到终局或步数上限，返回胜方，和棋或未分胜负返回 EMPTY；调用方负责撤销 */
+    private static Piece playout(Position position, SplittableRandom random) {
+        Board board = position.board();
+        RuleSet rule = position.rule();
+        for (int ply = 0; ply < MAX_PLAYOUT; ply++) {
+            if (board.isFull()) return Piece.EMPTY;
+            Piece side = position.sideToMove();
+            int move = playoutMove(position, board, rule, side, random);
+            if (move == -1) return Piece.EMPTY;
+            position.make(MoveStack.row(move), MoveStack.col(move));
+            if (position.lastMoveWins()) return side;
+        }
+        return Piece.EMPTY;
+    }
+
+    /** 能成五就成五，对方能成五就堵，否则在最近几手附近随机选一个合法点 */
+    private static int playoutMove(Position position, Board board, RuleSet rule, Piece side, SplittableRandom random) {
+        int count = position.moveCount();
+        if (count == 0) {
+            int center = board.size() == Board.UNBOUNDED ? 0 : board.size() / 2;
+            return MoveStack.pack(center, center, side);
+        }
+        if (count >= 2) {
+            int win = fiveNear(position, position.packedMove(count - 2), side);
+            if (win != -1) return win;
+        }
+        int block = fiveNear(position, position.packedMove(count - 1), side.getOpposite());
+        if (block != -1 && position.isLegal(MoveStack.row(block), MoveStack.col(block))) {
+            return MoveStack.pack(MoveStack.row(block), MoveStack.col(block), side);
+        }
+        for (int i = 0; i < RANDOM_TRIES; i++) {
+            int anchor = position.packedMove(count - 1 - random.nextInt(Math.min(count, RECENT_MOVES)));
+            int r = MoveStack.row(anchor) + random.nextInt(5) - 2;
+            int c = MoveStack.col(anchor) + random.nextInt(5) - 2;
+            if (position.isLegal(r, c)) return MoveStack.pack(r, c, side);
+        }
+        // 最近几手附近都已占满，退回到全盘包围盒内扫描
+        for (int r = board.minRow() - 1; r <= board.maxRow() + 1; r++) {
+            for (int c = board.minCol() - 1; c <= board.maxCol() + 1; c++) {
+                if (position.isLegal(r, c)) return MoveStack.pack(r, c, side);
+            }
+        }
+        return -1;
+    }
+
+    /** color 在 around 所在四条线上 ±4 内的成五点，没有返回 -1 */
+    private static int fiveNear(Position position, int around, Piece color) {
+        int row = MoveStack.row(around), col = MoveStack.col(around);
+        for (int dir = 0; dir < 4; dir++) {
+            int dr = Board.DIRECTIONS[dir][0], dc = Board.DIRECTIONS[dir][1];
+            for (int k = -REACH; k <= REACH; k++) {
+                int r = row + k * dr, c = col + k * dc;
+                if (k != 0 && position.contains(r, c) && position.isEmpty(r, c) && position.isWin(r, c, color)) {
+                    return MoveStack.pack(r, c, color);
+                }
+            }
+        }
+        return -1;
+    }
+
+    // --- 结果 ---
+
+    private static SearchResult result(MctsNode root, long playouts, long millis) {
+        List<Integer> line = new ArrayList<>();
+        MctsNode node = root.mostVisited();
+        MctsNode first = node;
+        while (node != null && line.size() < MAX_TREE_DEPTH) {
+            line.add(node.move);
+            node = node.mostVisited();
+        }
+        int[] pv = line.stream().mapToInt(Integer::intValue).toArray();
+        if (first == null) return new SearchResult(-1, 0, 0, playouts, millis, pv);
+        // 子结点的分值以根结点行棋方为视角
+        int expected = first.visits() == 0 ? 5000 : (int) (first.score() * 5000 / first.visits());
+        return new SearchResult(first.move, expected, pv.length, playouts, millis, pv);
+    }
+}
@@ -0,0 +1,115 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.MoveStack;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 蒙特卡洛搜索树的结点，多个线程不加锁地并发读写
+ * 统计量用 VarHandle 原子累加；候选着法在第一次访问时生成并用 CAS 发布，子结点按需创建，同样用 CAS 放入数组
+ * 分值以"走出本结点这一手的一方"为视角，胜 2 分、和 1 分、负 0 分
+ */
+final class MctsNode {
+    /** 本结点这一手已经获胜：成五，或对方无法应对 */
+    static final int WIN = 1;
+
+    private static final VarHandle VISITS;
+    private static final VarHandle SCORE;
+    private static final VarHandle CANDIDATES;
+    private static final VarHandle CHILDREN;
+    private static final VarHandle CHILD = MethodHandles.arrayElementVarHandle(MctsNode[].class);
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VISITS = lookup.findVarHandle(MctsNode.class, "visits", long.class);
+            SCORE = lookup.findVarHandle(MctsNode.class, "score", long.class);
+            CANDIDATES = lookup.findVarHandle(MctsNode.class, "candidates", int[].class);
+            CHILDREN = lookup.findVarHandle(MctsNode.class, "children", MctsNode[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** 压缩编码的着法，根结点为 -1 */
+    final int move;
+    volatile int terminal;
+    private volatile long visits;
+    private volatile long score;
+    // 按先验排序的候选着法，生成前为 null
+    private volatile int[] candidates;
+    private volatile MctsNode[] children;
+
+    MctsNode(int move) {
+        this.move = move;
+    }
+
+    long visits() { return visits; }
+
+    long score() { return score; }
+
+    /** 加上虚拟损失（只增加访问数，不加分），让并发的其他线程倾向于选择别的分支 */
+    void addVirtualLoss(int loss) {
+        VISITS.getAndAdd(this, (long) loss);
+    }
+
+    /** 回溯一次模拟结果，同时撤销下行时加上的虚拟损失 */
+    void update(int points, int virtualLoss) {
+        VISITS.getAndAdd(this, (long) (1 - virtualLoss));
+        SCORE.getAndAdd(this, (long) points);
+    }
+
+    int[] candidates() { return candidates; }
+
+    /** 发布候选着法，已有其他线程发布时返回那一份 */
+    int[] publishCandidates(int[] moves) {
+        if (CANDIDATES.compareAndSet(this, (int[]) null, moves)) {
+            CHILDREN.compareAndSet(this, (MctsNode[]) null, new MctsNode[moves.length]);
+            return moves;
+        }
+        return candidates;
+    }
+
+    /** 第 index 个子结点，尚未创建时返回 null */
+    MctsNode child(int index) {
+        MctsNode[] array = children;
+        return array == null ? null : (MctsNode) CHILD.getVolatile(array, index);
+    }
+
+    /** 创建第 index 个子结点，并发创建时所有线程得到同一个 */
+    MctsNode expand(int index) {
+        MctsNode[] array = children;
+        while (array == null) {
+            Thread.onSpinWait();
+            array = children;
+        }
+        MctsNode created = new MctsNode(candidates[index]);
+        MctsNode existing = (MctsNode) CHILD.compareAndExchange(array, index, (MctsNode) null, created);
+        return existing == null ? created : existing;
+    }
+
+    /** 访问次数最多的已创建子结点 */
+    MctsNode mostVisited() {
+        int[] moves = candidates;
+        MctsNode best = null;
+        if (moves == null) return null;
+        for (int i = 0; i < moves.length; i++) {
+            MctsNode child = child(i);
+            if (child != null && (best == null || child.visits > best.visits)) best = child;
+        }
+        return best;
+    }
+
+    /** 着法为 move（只比较坐标）的已创建子结点 */
+    MctsNode find(int move) {
+        int[] moves = candidates;
+        if (moves == null) return null;
+        for (int i = 0; i < moves.length; i++) {
+            if (MoveStack.row(moves[i]) == MoveStack.row(move) && MoveStack.col(moves[i]) == MoveStack.col(move)) {
+                return child(i);
+            }
+        }
+        return null;
+    }
+}
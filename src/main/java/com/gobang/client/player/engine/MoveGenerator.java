@@ -0,0 +1,242 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.BitBoard;
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.LinePatterns;
+import com.gobang.common.logic.MoveStack;
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+import com.gobang.common.model.Piece;
+
+import java.util.Arrays;
+
+/**
+ * 候选着法生成：已有棋子周围两格内的空位，按进攻与防守棋型打分
+ * 绑定了 {@link CandidateSet} 时直接取其中增量维护的候选点，否则每次重新扫描棋盘
+ * 同时做威胁剪枝：能成五时只返回成五点；对方能成五时只返回堵点；
+ * 对方有活三（能走成活四）时只返回堵点和自己能成四的反击点
+ * 每层搜索使用独立的缓冲区，生成过程不分配对象
+ */
+final class MoveGenerator {
+    /** 生成结果状态 */
+    static final int NORMAL = 0;
+    static final int WIN_NOW = 1;    // 行棋方可以直接成五，唯一的着法即成五点
+    static final int FORCED = 2;     // 必须应对对方的成五或活四威胁
+
+    private static final int RADIUS = 2;
+    private static final int DEFENSE_NUM = 4, DEFENSE_DEN = 5;
+
+    private int[][] moves;
+    private int[][] scores;
+    private final int[] status;
+    // 分类用的临时缓冲区
+    private int[] blocks = new int[64];
+    private int[] counters = new int[64];
+    private CandidateSet set;
+
+    MoveGenerator(int maxPly) {
+        this.moves = new int[maxPly][256];
+        this.scores = new int[maxPly][256];
+        this.status = new int[maxPly];
+    }
+
+    /** 之后的 generate 从 set 中取候选点，调用方保证 set 与传入 generate 的局面一致 */
+    void use(CandidateSet set) {
+        this.set = set;
+    }
+
+    int[] moves(int ply) { return moves[ply]; }
+
+    int[] scores(int ply) { return scores[ply]; }
+
+    int status(int ply) { return status[ply]; }
+
+    /**
+     * 为当前行棋方生成着法，按分值从高到低排序
+     * @return 着法数量，着法为 {@link MoveStack#pack} 编码
+     */
+    int generate(Position position, int ply) {
+        Board board = position.board();
+        RuleSet rule = position.rule();
+        Piece me = position.sideToMove();
+        Piece opp = me.getOpposite();
+        boolean myExact = rule.isExactFive(me);
+        boolean oppExact = rule.isExactFive(opp);
+
+        int count = 0;
+        int blockCount = 0;
+        int counterCount = 0;
+        boolean oppThree = false;
+        int[] cells = candidates(position);
+        int cellCount = candidateCount;
+        ensure(ply, cellCount);
+        int[] out = moves[ply];
+        int[] outScores = scores[ply];
+
+        for (int i = 0; i < cellCount; i++) {
+            int row = MoveStack.row(cells[i]);
+            int col = MoveStack.col(cells[i]);
+            int attack = 0, defense = 0;
+            boolean myFour = false, oppFive = false, oppFour = false;
+            for (int dir = 0; dir < 4; dir++) {
+                int own = board.lineWindow(row, col, dir, me);
+                int info = LinePatterns.info(own, myExact);
+                if (LinePatterns.isFive(info)) {
+                    out[0] = MoveStack.pack(row, col, me);
+                    outScores[0] = Integer.MAX_VALUE;
+                    status[ply] = WIN_NOW;
+                    return 1;
+                }
+                myFour |= LinePatterns.fours(info) > 0;
+                attack += ShapeTable.score(LinePatterns.index(own));
+
+                int window = board.lineWindow(row, col, dir, opp);
+                int theirs = LinePatterns.info(window, oppExact);
+                oppFive |= LinePatterns.isFive(theirs);
+                oppFour |= LinePatterns.fours(theirs) > 0;
+                oppThree |= LinePatterns.isStraightFour(theirs);
+                defense += ShapeTable.score(LinePatterns.index(window));
+            }
+            int move = MoveStack.pack(row, col, me);
+            if (oppFive) blocks = push(blocks, blockCount++, move);
+            if (myFour || oppFour) counters = push(counters, counterCount++, move);
+            if (rule.isForbidden(board, row, col, me)) continue;
+            out[count] = move;
+            outScores[count] = attack + defense / DEFENSE_DEN * DEFENSE_NUM;
+            count++;
+        }
+
+        status[ply] = NORMAL;
+        if (blockCount > 0) {
+            // 对方下一手成五：只能堵；堵点是自己的禁手时没有着法，由搜索判负
+            count = keepOnly(out, outScores, count, blocks, blockCount);
+            status[ply] = FORCED;
+        } else if (oppThree) {
+            // 对方能走成活四：只考虑堵点（对方成四的点）和自己成四的反击
+            int kept = keepOnly(out, outScores, count, counters, counterCount);
+            if (kept > 0) {
+                count = kept;
+                status[ply] = FORCED;
+            }
+        }
+        sort(out, outScores, count);
+        return count;
+    }
+
+    // --- 候选点 ---
+
+    private int[] candidateBuffer = new int[256];
+    private int candidateCount;
+    private final long[] occupied = new long[BitBoard.MAX_SIZE];
+    private final long[] spread = new long[BitBoard.MAX_SIZE];
+
+    /** 收集已有棋子周围 RADIUS 格内的空位，空盘时返回中心点 */
+    private int[] candidates(Position position) {
+        candidateCount = 0;
+        Board board = position.board();
+        if (board.count() == 0) {
+            int center = board.size() == Board.UNBOUNDED ? 0 : board.size() / 2;
+            candidateBuffer[candidateCount++] = MoveStack.pack(center, center, position.sideToMove());
+            return candidateBuffer;
+        }
+        BitBoard bits = position.bitBoard();
+        if (set != null) {
+            Piece side = position.sideToMove();
+            for (int i = 0; i < set.size(); i++) addCandidate(set.move(i, side));
+        } else if (bits != null) {
+            collectBits(bits, position.sideToMove());
+        } else {
+            collectSparse(board, position.sideToMove());
+        }
+        return candidateBuffer;
+    }
+
+    private void collectBits(BitBoard board, Piece side) {
+        int size = board.size();
+        long full = size == 64 ? -1L : (1L << size) - 1;
+        for (int r = 0; r < size; r++) {
+            long o = board.rowBits(Piece.BLACK, r) | board.rowBits(Piece.WHITE, r);
+            occupied[r] = o;
+            spread[r] = (o | o << 1 | o >>> 1 | o << 2 | o >>> 2) & full;
+        }
+        for (int r = 0; r < size; r++) {
+            long near = 0;
+            for (int k = Math.max(0, r - RADIUS); k <= Math.min(size - 1, r + RADIUS); k++) near |= spread[k];
+            long empty = near & ~occupied[r];
+            while (empty != 0) {
+                int c = Long.numberOfTrailingZeros(empty);
+                empty &= empty - 1;
+                addCandidate(MoveStack.pack(r, c, side));
+            }
+        }
+    }
+
+    private void collectSparse(Board board, Piece side) {
+        for (int r = board.minRow() - RADIUS; r <= board.maxRow() + RADIUS; r++) {
+            for (int c = board.minCol() - RADIUS; c <= board.maxCol() + RADIUS; c++) {
+                if (board.contains(r, c) && board.isEmpty(r, c) && hasNeighbor(board, r, c)) {
+                    addCandidate(MoveStack.pack(r, c, side));
+                }
+            }
+        }
+    }
+
+    private static boolean hasNeighbor(Board board, int row, int col) {
+        for (int r = row - RADIUS; r <= row + RADIUS; r++) {
+            for (int c = col - RADIUS; c <= col + RADIUS; c++) {
+                if (board.contains(r, c) && !board.isEmpty(r, c)) return true;
+            }
+        }
+        return false;
+    }
+
+    private void addCandidate(int move) {
+        candidateBuffer = push(candidateBuffer, candidateCount++, move);
+    }
+
+    // --- 工具 ---
+
+    private void ensure(int ply, int capacity) {
+        if (moves[ply].length < capacity) {
+            moves[ply] = Arrays.copyOf(moves[ply], Integer.highestOneBit(capacity) << 1);
+            scores[ply] = Arrays.copyOf(scores[ply], moves[ply].length);
+        }
+    }
+
+    private static int[] push(int[] array, int index, int value) {
+        if (index == array.length) array = Arrays.copyOf(array, array.length * 2);
+        array[index] = value;
+        return array;
+    }
+
+    /** 只保留出现在 allowed 中的着法，返回新的数量 */
+    private static int keepOnly(int[] moves, int[] scores, int count, int[] allowed, int allowedCount) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < allowedCount; j++) {
+                if (allowed[j] == moves[i]) {
+                    moves[kept] = moves[i];
+                    scores[kept] = scores[i];
+                    kept++;
+                    break;
+                }
+            }
+        }
+        return kept;
+    }
+
+    /** 按分值降序的插入排序，候选数通常只有几十个 */
+    static void sort(int[] moves, int[] scores, int count) {
+        for (int i = 1; i < count; i++) {
+            int move = moves[i], score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 估值速度基准：在一批随机中局局面上，对每个候选点按搜索中的方式落子、估值、撤销，
+ * 比较 {@link PatternEvaluator} 与 {@link NnueEvaluator}（逐元素与 SIMD 两种实现）每秒的估值次数；
+ * 另外给出不走增量路径、每次从头计算的估值速度
+ * 校验和一列为所有估值之和，NNUE 两种实现应当相同
+ *
+ * <pre>
+ *   java --add-modules jdk.incubator.vector -cp target/classes com.gobang.client.player.engine.NnueBenchmark [秒] [网络文件]
+ * </pre>
+ * 不给网络文件时使用 15 路的随机网络（{@value #HIDDEN}→{@value #L1}→{@value #L2}），速度与训练好的同尺寸网络相同
+ */
+public final class NnueBenchmark {
+    private static final int SIZE = 15;
+    private static final int HIDDEN = 128, L1 = 32, L2 = 32;
+    private static final int POSITIONS = 200;
+    private static final int MIN_STONES = 6, MAX_STONES = 60;
+    // 候选点：与已有棋子距离不超过该值的空点
+    private static final int REACH = 2;
+    private static final long SEED = 20240601L;
+    private static final double DEFAULT_SECONDS = 3;
+
+    private NnueBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : DEFAULT_SECONDS;
+        NnueNetwork network = args.length > 1 ? NnueNetwork.load(Path.of(args[1]))
+                : NnueNetwork.random(SIZE, HIDDEN, L1, L2, SEED);
+        List<Position> positions = positions(network.getBoardSize());
+        NnueKernel preferred = NnueKernel.preferred();
+        System.out.printf("%s, %d positions, %s%n", network, positions.size(),
+                preferred == NnueKernel.SCALAR ? "vector module not loaded" : preferred);
+
+        List<String> names = new ArrayList<>();
+        List<Evaluator> evaluators = new ArrayList<>();
+        names.add("pattern");
+        evaluators.add(new PatternEvaluator());
+        names.add("nnue scalar");
+        evaluators.add(new NnueEvaluator(network, NnueKernel.SCALAR));
+        if (preferred != NnueKernel.SCALAR) {
+            names.add("nnue " + preferred);
+            evaluators.add(new NnueEvaluator(network, preferred));
+        }
+
+        // 预热，让 JIT 编译完热点代码
+        for (Evaluator evaluator : evaluators) {
+            incremental(evaluator, positions, seconds / 4);
+            refresh(evaluator, positions, seconds / 8);
+        }
+
+        System.out.printf("%-22s %14s %14s %20s%n", "evaluator", "incremental/s", "refresh/s", "checksum");
+        for (int i = 0; i < evaluators.size(); i++) {
+            long[] incremental = incremental(evaluators.get(i), positions, seconds);
+            long[] refresh = refresh(evaluators.get(i), positions, seconds / 2);
+            System.out.printf("%-22s %14d %14d %20d%n", names.get(i), incremental[0], refresh[0], incremental[1]);
+        }
+    }
+
+    /**
+     * 绑定后对每个候选点落子、估值、撤销，重复整批局面直到用满 seconds
+     * @return {每秒估值次数, 第一遍的估值之和}
+     */
+    private static long[] incremental(Evaluator prototype, List<Position> positions, double seconds) {
+        long evaluations = 0, checksum = 0;
+        long start = System.nanoTime(), limit = (long) (seconds * 1e9);
+        boolean first = true;
+        do {
+            for (Position position : positions) {
+                Evaluator evaluator = prototype.bind(position);
+                int size = position.size();
+                for (int row = 0; row < size; row++) {
+                    for (int col = 0; col < size; col++) {
+                        if (!candidate(position, row, col)) continue;
+                        position.make(row, col);
+                        evaluator.played(row, col);
+                        int score = evaluator.evaluate(position);
+                        evaluator.undone();
+                        position.unmake();
+                        if (first) checksum += score;
+                        evaluations++;
+                    }
+                }
+            }
+            first = false;
+        } while (System.nanoTime() - start < limit);
+        return new long[]{(long) (evaluations / ((System.nanoTime() - start) / 1e9)), checksum};
+    }
+
+    /** 未绑定的原型对整批局面从头估值 */
+    private static long[] refresh(Evaluator prototype, List<Position> positions, double seconds) {
+        long evaluations = 0, checksum = 0;
+        long start = System.nanoTime(), limit = (long) (seconds * 1e9);
+        do {
+            for (Position position : positions) {
+                checksum += prototype.evaluate(position);
+                evaluations++;
+            }
+        } while (System.nanoTime() - start < limit);
+        return new long[]{(long) (evaluations / ((System.nanoTime() - start) / 1e9)), checksum};
+    }
+
+    private static boolean candidate(Position position, int row, int col) {
+        if (!position.isEmpty(row, col)) return false;
+        for (int dr = -REACH; dr <= REACH; dr++) {
+            for (int dc = -REACH; dc <= REACH; dc++) {
+                int r = row + dr, c = col + dc;
+                if (position.contains(r, c) && !position.isEmpty(r, c)) return true;
+            }
+        }
+        return false;
+    }
+
+    /** 从天元开始，在已有棋子附近随机落子得到的局面 */
+    private static List<Position> positions(int size) {
+        Random random = new Random(SEED);
+        List<Position> positions = new ArrayList<>();
+        for (int p = 0; p < POSITIONS; p++) {
+            Position position = Position.empty(size, RuleSet.FREESTYLE);
+            List<int[]> stones = new ArrayList<>();
+            stones.add(new int[]{size / 2, size / 2});
+            position.make(size / 2, size / 2);
+            int count = MIN_STONES + random.nextInt(MAX_STONES - MIN_STONES);
+            while (position.moveCount() < count) {
+                int[] near = stones.get(random.nextInt(stones.size()));
+                int row = near[0] + random.nextInt(2 * REACH + 1) - REACH;
+                int col = near[1] + random.nextInt(2 * REACH + 1) - REACH;
+                if (!position.contains(row, col) || !position.isEmpty(row, col)) continue;
+                position.make(row, col);
+                stones.add(new int[]{row, col});
+            }
+            positions.add(position);
+        }
+        return positions;
+    }
+}
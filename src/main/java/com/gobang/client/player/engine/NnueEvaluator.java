@@ -0,0 +1,175 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.Position;
+import com.gobang.common.model.Piece;
+import com.gobang.common.trace.Tracer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * 可增量更新的神经网络估值（NNUE），网络结构与量化方式见 {@link NnueNetwork}
+ *
+ * 黑、白两个视角各有一个累加器，落一子只需把该子在两个视角下的权重列加到累加器上，撤销时减去，
+ * 不随棋子数增长；估值时按行棋方取两个累加器做一次小规模前向计算
+ * 累加器加减与全连接层的点积在加载了 jdk.incubator.vector 模块时用 SIMD 计算
+ * （运行时需加 --add-modules jdk.incubator.vector，mvn javafx:run 已配置），否则退化为逐元素计算，结果相同
+ *
+ * 未绑定的原型持有只读的网络参数，可被多个引擎共用；网络不支持的局面（棋盘边长不同、无边界棋盘）
+ * 交给 {@link PatternEvaluator}。不提供 {@link #moveDelta}，着法排序只依靠棋型
+ */
+public final class NnueEvaluator implements Evaluator {
+    private static final Tracer TRACE = Tracer.get("NNUE");
+
+    /** 指定默认网络文件的系统属性 */
+    public static final String PROPERTY = "gobang.nnue";
+
+    private static final Evaluator FALLBACK = new PatternEvaluator();
+
+    private static volatile NnueEvaluator shared;
+    private static volatile boolean sharedLoaded;
+
+    private final NnueNetwork network;
+    private final NnueKernel kernel;
+    private final Board board;
+    private final int cells;
+    // 黑方、白方视角的累加器
+    private final short[] black, white;
+    // 前向计算的各层激活值，复用以免每次分配
+    private final short[] input, hidden1, hidden2;
+    // 每一手落下的棋子：格下标 × 2 + 是否白子，撤销时按原样减去
+    private int[] stones;
+    private int depth;
+
+    /** 未绑定的原型，使用可用的最快实现 */
+    public NnueEvaluator(NnueNetwork network) {
+        this(network, NnueKernel.preferred());
+    }
+
+    NnueEvaluator(NnueNetwork network, NnueKernel kernel) {
+        this.network = network;
+        this.kernel = kernel;
+        this.board = null;
+        this.cells = network.boardSize * network.boardSize;
+        this.black = this.white = this.input = this.hidden1 = this.hidden2 = null;
+    }
+
+    private NnueEvaluator(NnueEvaluator prototype, Position position) {
+        this.network = prototype.network;
+        this.kernel = prototype.kernel;
+        this.board = position.board();
+        this.cells = prototype.cells;
+        this.black = network.inputBias.clone();
+        this.white = network.inputBias.clone();
+        this.input = new short[2 * network.hidden];
+        this.hidden1 = new short[network.l1];
+        this.hidden2 = new short[network.l2];
+        this.stones = new int[128];
+        board.forEachStone((row, col, color) -> add(row * network.boardSize + col, color == Piece.WHITE));
+    }
+
+    /**
+     * 由系统属性 {@value #PROPERTY} 指定的网络，所有 AI 共用一份参数
+     * @return 未指定或读取失败时返回 null
+     */
+    public static NnueEvaluator shared() {
+        if (!sharedLoaded) {
+            synchronized (NnueEvaluator.class) {
+                if (!sharedLoaded) {
+                    String path = System.getProperty(PROPERTY);
+                    if (path != null && !path.isBlank()) {
+                        try {
+                            shared = new NnueEvaluator(NnueNetwork.load(Path.of(path)));
+                            TRACE.info("网络已加载: {}，{}", shared.network, shared.kernel);
+                            if (!shared.isVectorized()) {
+                                TRACE.warn("未加载 jdk.incubator.vector 模块，NNUE 以逐元素方式计算，"
+                                        + "启动参数加 --add-modules jdk.incubator.vector 可启用 SIMD");
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            TRACE.warn("无法读取网络 {}", path, e);
+                        }
+                    }
+                    sharedLoaded = true;
+                }
+            }
+        }
+        return shared;
+    }
+
+    public NnueNetwork getNetwork() { return network; }
+
+    /** 是否使用 SIMD 实现 */
+    public boolean isVectorized() { return kernel != NnueKernel.SCALAR; }
+
+    /** 网络不支持的局面交给棋型估值，两者都计入 */
+    @Override
+    public long fingerprint() {
+        return network.fingerprint() * 31 + FALLBACK.fingerprint();
+    }
+
+    @Override
+    public Evaluator bind(Position position) {
+        if (!network.supports(position)) return FALLBACK.bind(position);
+        return new NnueEvaluator(this, position);
+    }
+
+    @Override
+    public int evaluate(Position position) {
+        if (board == null) {
+            // 原型每次从头累加，只用于搜索之外的零星估值
+            return network.supports(position) ? new NnueEvaluator(this, position).evaluate(position)
+                    : FALLBACK.evaluate(position);
+        }
+        return position.sideToMove() == Piece.BLACK ? forward(black, white) : forward(white, black);
+    }
+
+    @Override
+    public void played(int row, int col) {
+        boolean isWhite = board.get(row, col) == Piece.WHITE;
+        int cell = row * network.boardSize + col;
+        if (depth == stones.length) stones = Arrays.copyOf(stones, depth * 2);
+        stones[depth++] = cell << 1 | (isWhite ? 1 : 0);
+        add(cell, isWhite);
+    }
+
+    @Override
+    public void undone() {
+        int stone = stones[--depth];
+        int cell = stone >> 1;
+        boolean isWhite = (stone & 1) != 0;
+        kernel.subtract(black, network.inputWeights, featureOffset(cell, isWhite));
+        kernel.subtract(white, network.inputWeights, featureOffset(cell, !isWhite));
+    }
+
+    private void add(int cell, boolean isWhite) {
+        kernel.add(black, network.inputWeights, featureOffset(cell, isWhite));
+        kernel.add(white, network.inputWeights, featureOffset(cell, !isWhite));
+    }
+
+    /** 某视角下 (格, 是否对方子) 特征的权重列起点 */
+    private int featureOffset(int cell, boolean opponent) {
+        return ((opponent ? cells : 0) + cell) * network.hidden;
+    }
+
+    /** 以 us 为行棋方视角的前向计算 */
+    private int forward(short[] us, short[] them) {
+        NnueNetwork net = network;
+        kernel.clip(us, input, 0);
+        kernel.clip(them, input, net.hidden);
+        int width = 2 * net.hidden;
+        for (int j = 0; j < net.l1; j++) {
+            hidden1[j] = activate(kernel.dot(input, net.l1Weights, j * width) + net.l1Bias[j]);
+        }
+        for (int j = 0; j < net.l2; j++) {
+            hidden2[j] = activate(kernel.dot(hidden1, net.l2Weights, j * net.l1) + net.l2Bias[j]);
+        }
+        long out = (kernel.dot(hidden2, net.outputWeights, 0) + (long) net.outputBias) / net.outputDivisor;
+        return (int) Math.max(-SearchEngine.WIN / 2, Math.min(SearchEngine.WIN / 2, out));
+    }
+
+    private static short activate(int sum) {
+        return (short) Math.max(0, Math.min(NnueNetwork.CLIP, sum >> NnueNetwork.SHIFT));
+    }
+}
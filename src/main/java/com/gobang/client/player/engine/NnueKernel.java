@@ -0,0 +1,71 @@
+package com.gobang.client.player.engine;
+
+import java.util.Optional;
+
+/**
+ * {@link NnueEvaluator} 的整数向量运算；{@link #SCALAR} 为逐元素实现，
+ * 运行时加载了 jdk.incubator.vector 模块时改用 VectorNnueKernel，两者结果逐位相同
+ *
+ * VectorNnueKernel 在 src/main/vector 下，由单独的编译步骤加上 --add-modules jdk.incubator.vector 编译，
+ * 模块描述不声明对孵化模块的依赖，主代码的编译不出现孵化模块警告；运行时按名字反射加载
+ */
+interface NnueKernel {
+    NnueKernel SCALAR = new Scalar();
+    String VECTOR_KERNEL = "com.gobang.client.player.engine.VectorNnueKernel";
+
+    /** acc[i] += weights[offset + i] */
+    void add(short[] acc, short[] weights, int offset);
+
+    /** acc[i] -= weights[offset + i] */
+    void subtract(short[] acc, short[] weights, int offset);
+
+    /** out[outOffset + i] = clamp(acc[i], 0, 127) */
+    void clip(short[] acc, short[] out, int outOffset);
+
+    /** Σ input[i] × weights[offset + i]，i < input.length，int32 累加 */
+    int dot(short[] input, short[] weights, int offset);
+
+    /** 可用时返回 SIMD 实现，否则返回 {@link #SCALAR} */
+    static NnueKernel preferred() {
+        Optional<Module> vector = ModuleLayer.boot().findModule("jdk.incubator.vector");
+        if (vector.isEmpty()) return SCALAR;
+        try {
+            // 以模块方式运行时本模块默认不读取孵化模块，先补上读取关系
+            NnueKernel.class.getModule().addReads(vector.get());
+            return (NnueKernel) Class.forName(VECTOR_KERNEL).getDeclaredMethod("create").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+
+    final class Scalar implements NnueKernel {
+        private Scalar() {}
+
+        @Override
+        public void add(short[] acc, short[] weights, int offset) {
+            for (int i = 0; i < acc.length; i++) acc[i] += weights[offset + i];
+        }
+
+        @Override
+        public void subtract(short[] acc, short[] weights, int offset) {
+            for (int i = 0; i < acc.length; i++) acc[i] -= weights[offset + i];
+        }
+
+        @Override
+        public void clip(short[] acc, short[] out, int outOffset) {
+            for (int i = 0; i < acc.length; i++) {
+                out[outOffset + i] = (short) Math.max(0, Math.min(NnueNetwork.CLIP, acc[i]));
+            }
+        }
+
+        @Override
+        public int dot(short[] input, short[] weights, int offset) {
+            int sum = 0;
+            for (int i = 0; i < input.length; i++) sum += input[i] * weights[offset + i];
+            return sum;
+        }
+
+        @Override
+        public String toString() { return "scalar"; }
+    }
+}
@@ -0,0 +1,218 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Position;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * {@link NnueEvaluator} 的量化网络参数，加载后只读，可被多个引擎共用
+ *
+ * 结构：输入为 (格, 颜色) 稀疏特征，分“己方子”“对方子”两个平面，共 2 × 边长² 个；
+ * 每个视角一个 H 维 int16 累加器 = 输入偏置 + 棋盘上所有棋子对应的权重列
+ * 前向计算时把行棋方、对方两个累加器裁剪到 [0, 127] 后拼成 2H 维输入，再经过两个 int8 权重的全连接层
+ * （int32 累加，右移 {@value #SHIFT} 位后裁剪到 [0, 127]），最后一层输出一个 int32，除以输出除数得到估值
+ *
+ * 文件格式（大端序）：32 字节文件头，之后依次是各层参数，文件长度必须与文件头给出的尺寸完全一致
+ * <pre>
+ *   文件头：int 魔数 "GBNN"、int 版本、int 棋盘边长、int H、int L1、int L2、int 输出除数、int 保留
+ *   short 输入权重 [2 × 边长²][H]、short 输入偏置 [H]
+ *   byte  L1 权重 [L1][2H]、int L1 偏置 [L1]
+ *   byte  L2 权重 [L2][L1]、int L2 偏置 [L2]
+ *   byte  输出权重 [L2]、int 输出偏置
+ * </pre>
+ * 训练不在本项目中进行，由外部训练脚本按上述格式导出；{@link #random} 只用于基准测试，不具备棋力
+ */
+public final class NnueNetwork {
+    static final int MAGIC = 'G' << 24 | 'B' << 16 | 'N' << 8 | 'N';
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    /** 隐藏层定点数的小数位数 */
+    static final int SHIFT = 6;
+    /** 裁剪 ReLU 的上限 */
+    static final int CLIP = 127;
+
+    final int boardSize, hidden, l1, l2, outputDivisor;
+    // int8 权重以 short 保存，便于与 int16 激活值直接相乘
+    final short[] inputWeights, inputBias;
+    final short[] l1Weights, l2Weights, outputWeights;
+    final int[] l1Bias, l2Bias;
+    final int outputBias;
+    // fingerprint() 的结果，参数只读，算一次即可；0 表示尚未计算
+    private long fingerprint;
+
+    private NnueNetwork(int boardSize, int hidden, int l1, int l2, int outputDivisor,
+                        short[] inputWeights, short[] inputBias, short[] l1Weights, int[] l1Bias,
+                        short[] l2Weights, int[] l2Bias, short[] outputWeights, int outputBias) {
+        this.boardSize = boardSize;
+        this.hidden = hidden;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.outputDivisor = outputDivisor;
+        this.inputWeights = inputWeights;
+        this.inputBias = inputBias;
+        this.l1Weights = l1Weights;
+        this.l1Bias = l1Bias;
+        this.l2Weights = l2Weights;
+        this.l2Bias = l2Bias;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /** 读取网络文件 */
+    public static NnueNetwork load(Path file) throws IOException {
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            if (data.byteSize() < HEADER_BYTES || data.get(OpeningBook.INT, 0) != MAGIC) {
+                throw new IOException("不是网络文件");
+            }
+            int version = data.get(OpeningBook.INT, 4);
+            if (version != VERSION) throw new IOException("不支持的网络版本: " + version);
+            int boardSize = data.get(OpeningBook.INT, 8);
+            int hidden = data.get(OpeningBook.INT, 12);
+            int l1 = data.get(OpeningBook.INT, 16);
+            int l2 = data.get(OpeningBook.INT, 20);
+            int divisor = data.get(OpeningBook.INT, 24);
+            if (boardSize < 5 || boardSize > 64 || hidden <= 0 || hidden > 4096 || l1 <= 0 || l1 > 4096
+                    || l2 <= 0 || l2 > 4096 || divisor <= 0 || data.byteSize() != fileBytes(boardSize, hidden, l1, l2)) {
+                throw new IOException("网络文件已损坏");
+            }
+            long offset = HEADER_BYTES;
+            short[] inputWeights = new short[2 * boardSize * boardSize * hidden];
+            offset = read(data, offset, inputWeights);
+            short[] inputBias = new short[hidden];
+            offset = read(data, offset, inputBias);
+            short[] l1Weights = new short[l1 * 2 * hidden];
+            offset = readBytes(data, offset, l1Weights);
+            int[] l1Bias = new int[l1];
+            offset = read(data, offset, l1Bias);
+            short[] l2Weights = new short[l2 * l1];
+            offset = readBytes(data, offset, l2Weights);
+            int[] l2Bias = new int[l2];
+            offset = read(data, offset, l2Bias);
+            short[] outputWeights = new short[l2];
+            offset = readBytes(data, offset, outputWeights);
+            int outputBias = data.get(OpeningBook.INT, offset);
+            return new NnueNetwork(boardSize, hidden, l1, l2, divisor, inputWeights, inputBias,
+                    l1Weights, l1Bias, l2Weights, l2Bias, outputWeights, outputBias);
+        }
+    }
+
+    /** 按 {@link #load} 能读取的格式写出 */
+    public void save(Path file) throws IOException {
+        try (OutputStream stream = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(boardSize);
+            out.writeInt(hidden);
+            out.writeInt(l1);
+            out.writeInt(l2);
+            out.writeInt(outputDivisor);
+            out.writeInt(0);
+            for (short w : inputWeights) out.writeShort(w);
+            for (short b : inputBias) out.writeShort(b);
+            for (short w : l1Weights) out.writeByte(w);
+            for (int b : l1Bias) out.writeInt(b);
+            for (short w : l2Weights) out.writeByte(w);
+            for (int b : l2Bias) out.writeInt(b);
+            for (short w : outputWeights) out.writeByte(w);
+            out.writeInt(outputBias);
+        }
+    }
+
+    /** 随机参数的网络，只用于基准测试和检验文件格式 */
+    public static NnueNetwork random(int boardSize, int hidden, int l1, int l2, long seed) {
+        Random random = new Random(seed);
+        short[] inputWeights = new short[2 * boardSize * boardSize * hidden];
+        // 棋盘摆满时累加器也不会溢出 int16
+        int inputRange = Math.max(1, Short.MAX_VALUE / (boardSize * boardSize) / 2);
+        for (int i = 0; i < inputWeights.length; i++) inputWeights[i] = (short) (random.nextInt(2 * inputRange + 1) - inputRange);
+        short[] inputBias = new short[hidden];
+        for (int i = 0; i < hidden; i++) inputBias[i] = (short) random.nextInt(CLIP + 1);
+        short[] l1Weights = randomBytes(random, l1 * 2 * hidden);
+        short[] l2Weights = randomBytes(random, l2 * l1);
+        short[] outputWeights = randomBytes(random, l2);
+        int[] l1Bias = new int[l1], l2Bias = new int[l2];
+        for (int i = 0; i < l1; i++) l1Bias[i] = random.nextInt(1 << SHIFT * 2) - (1 << SHIFT * 2 - 1);
+        for (int i = 0; i < l2; i++) l2Bias[i] = random.nextInt(1 << SHIFT * 2) - (1 << SHIFT * 2 - 1);
+        return new NnueNetwork(boardSize, hidden, l1, l2, 1, inputWeights, inputBias,
+                l1Weights, l1Bias, l2Weights, l2Bias, outputWeights, 0);
+    }
+
+    public int getBoardSize() { return boardSize; }
+
+    /** 累加器宽度 H */
+    public int getHiddenSize() { return hidden; }
+
+    /** 网络是否适用于该局面：只支持与训练时边长相同的有边界棋盘 */
+    public boolean supports(Position position) {
+        return position.size() == boardSize;
+    }
+
+    /** 结构与全部参数的哈希，换了网络文件时随之改变 */
+    public long fingerprint() {
+        if (fingerprint == 0) fingerprint = hash() | 1;
+        return fingerprint;
+    }
+
+    private long hash() {
+        long hash = ((long) boardSize << 48 | (long) hidden << 32 | (long) l1 << 16 | l2) ^ outputDivisor;
+        hash = mix(hash, inputWeights);
+        hash = mix(hash, inputBias);
+        hash = mix(hash, l1Weights);
+        hash = mix(hash, l2Weights);
+        hash = mix(hash, outputWeights);
+        for (int b : l1Bias) hash = (hash ^ b) * 0x100000001B3L;
+        for (int b : l2Bias) hash = (hash ^ b) * 0x100000001B3L;
+        return (hash ^ outputBias) * 0x100000001B3L;
+    }
+
+    private static long mix(long hash, short[] values) {
+        for (short v : values) hash = (hash ^ v) * 0x100000001B3L;
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NNUE %dx%d, %d->%d->%d->1", boardSize, boardSize, 2 * hidden, l1, l2);
+    }
+
+    static long fileBytes(int boardSize, int hidden, int l1, int l2) {
+        return HEADER_BYTES + 2L * (2L * boardSize * boardSize * hidden + hidden)
+                + (long) l1 * 2 * hidden + 4L * l1 + (long) l2 * l1 + 4L * l2 + l2 + 4;
+    }
+
+    private static long read(MemorySegment data, long offset, short[] target) {
+        MemorySegment.copy(data, OpeningBook.SHORT, offset, target, 0, target.length);
+        return offset + 2L * target.length;
+    }
+
+    private static long read(MemorySegment data, long offset, int[] target) {
+        MemorySegment.copy(data, OpeningBook.INT, offset, target, 0, target.length);
+        return offset + 4L * target.length;
+    }
+
+    /** 读取 int8 参数并扩展为 short */
+    private static long readBytes(MemorySegment data, long offset, short[] target) {
+        for (int i = 0; i < target.length; i++) target[i] = data.get(ValueLayout.JAVA_BYTE, offset + i);
+        return offset + target.length;
+    }
+
+    private static short[] randomBytes(Random random, int length) {
+        short[] values = new short[length];
+        for (int i = 0; i < length; i++) values[i] = (short) (random.nextInt(64) - 32);
+        return values;
+    }
+}
@@ -0,0 +1,260 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.MoveStack;
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+import com.gobang.common.logic.Zobrist;
+import com.gobang.common.model.Piece;
+import com.gobang.common.trace.Tracer;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 开局库：以内存映射方式打开，打开时不读取条目，启动时间与库的大小无关
+ *
+ * 局面先在棋盘的 8 种对称变换（4 种旋转 × 是否镜像）下取 Zobrist 哈希最小者作为规范形，
+ * 库中的键与着法都以规范形的坐标保存，查询时再变换回实际局面的坐标，一个定式只需要存一份
+ *
+ * 文件格式（大端序）：32 字节文件头，之后是按键升序排列的 16 字节条目
+ * <pre>
+ *   文件头：int 魔数 "GBOK"、int 版本、int 棋盘边长、int 规则编号、long 条目数、long 建库局数
+ *   条目：  long 规范键、short 行、short 列、int 权重
+ * </pre>
+ * 同一局面的多个着法相邻存放，查询为一次二分查找，由 {@link OpeningBookBuilder} 生成
+ * 只支持有边界棋盘；规则或棋盘大小与库不一致的局面一律不命中
+ */
+public final class OpeningBook implements AutoCloseable {
+    private static final Tracer TRACE = Tracer.get("BOOK");
+
+    /** 指定默认开局库文件的系统属性 */
+    public static final String PROPERTY = "gobang.book";
+
+    static final int MAGIC = 'G' << 24 | 'B' << 16 | 'O' << 8 | 'K';
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int ENTRY_BYTES = 16;
+    // Zobrist 哈希不含行棋方，键再异或上这个值加以区分
+    static final long WHITE_TO_MOVE = 0x6A09E667F3BCC909L;
+    /** 对称变换的个数 */
+    static final int SYMMETRIES = 8;
+
+    static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.BIG_ENDIAN);
+    static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG.withOrder(ByteOrder.BIG_ENDIAN);
+    static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private static volatile OpeningBook shared;
+    private static volatile boolean sharedLoaded;
+
+    private final Arena arena;
+    private final MemorySegment data;
+    private final int boardSize;
+    private final RuleSet rule;
+    private final long entries;
+    private final long games;
+
+    private OpeningBook(Arena arena, MemorySegment data) throws IOException {
+        this.arena = arena;
+        this.data = data;
+        if (data.byteSize() < HEADER_BYTES || data.get(INT, 0) != MAGIC) throw new IOException("不是开局库文件");
+        int version = data.get(INT, 4);
+        if (version != VERSION) throw new IOException("不支持的开局库版本: " + version);
+        this.boardSize = data.get(INT, 8);
+        try {
+            this.rule = RuleSet.byId(data.get(INT, 12));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        this.entries = data.get(LONG, 16);
+        this.games = data.get(LONG, 24);
+        if (boardSize < 5 || boardSize > 64 || HEADER_BYTES + entries * ENTRY_BYTES != data.byteSize()) {
+            throw new IOException("开局库文件已损坏");
+        }
+    }
+
+    /** 以只读内存映射打开开局库，调用 {@link #close} 后解除映射 */
+    public static OpeningBook open(Path file) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return new OpeningBook(arena, data);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 由系统属性 {@value #PROPERTY} 指定的开局库，所有 AI 共用一份映射
+     * @return 未指定或打开失败时返回 null
+     */
+    public static OpeningBook shared() {
+        if (!sharedLoaded) {
+            synchronized (OpeningBook.class) {
+                if (!sharedLoaded) {
+                    String path = System.getProperty(PROPERTY);
+                    if (path != null && !path.isBlank()) {
+                        try {
+                            shared = open(Path.of(path));
+                            TRACE.info("开局库已加载: {}", shared);
+                        } catch (IOException | RuntimeException e) {
+                            TRACE.warn("无法打开开局库 {}", path, e);
+                        }
+                    }
+                    sharedLoaded = true;
+                }
+            }
+        }
+        return shared;
+    }
+
+    public int getBoardSize() { return boardSize; }
+
+    public RuleSet getRule() { return rule; }
+
+    /** 条目数（局面 × 着法） */
+    public long size() { return entries; }
+
+    /** 建库时使用的对局数 */
+    public long getGames() { return games; }
+
+    /**
+     * 按权重随机选一个库内着法
+     * @return {@link MoveStack#pack} 编码、颜色为行棋方的着法；不在库中时返回 -1
+     */
+    public int pick(Position position) {
+        return pick(position, ThreadLocalRandom.current());
+    }
+
+    public int pick(Position position, Random random) {
+        int[] moves = moves(position);
+        if (moves.length == 0) return -1;
+        long total = 0;
+        for (int i = 1; i < moves.length; i += 2) total += moves[i];
+        long target = random.nextLong(total);
+        for (int i = 0; i < moves.length; i += 2) {
+            target -= moves[i + 1];
+            if (target < 0) return moves[i];
+        }
+        return moves[moves.length - 2];
+    }
+
+    /**
+     * 局面的全部库内着法
+     * @return 依次为 着法、权重 交替的数组，着法已变换回 position 的坐标；不在库中时为空数组
+     */
+    public int[] moves(Position position) {
+        if (position.size() != boardSize || position.rule().getId() != rule.getId()) return new int[0];
+        long canonical = canonicalKey(position);
+        int symmetry = (int) (canonical & (SYMMETRIES - 1));
+        long key = canonical & -SYMMETRIES;
+        long first = lowerBound(key);
+        long last = first;
+        while (last < entries && keyAt(last) == key) last++;
+
+        Board board = position.board();
+        Piece side = position.sideToMove();
+        int[] result = new int[(int) (last - first) * 2];
+        int n = 0;
+        for (long i = first; i < last; i++) {
+            long offset = HEADER_BYTES + i * ENTRY_BYTES;
+            int row = data.get(SHORT, offset + 8);
+            int col = data.get(SHORT, offset + 10);
+            int weight = data.get(INT, offset + 12);
+            int r = inverseRow(symmetry, row, col, boardSize);
+            int c = inverseCol(symmetry, row, col, boardSize);
+            // 库文件与局面不符（哈希碰撞或文件损坏）时跳过非法着法
+            if (weight <= 0 || !board.contains(r, c) || !board.isEmpty(r, c)) continue;
+            result[n++] = MoveStack.pack(r, c, side);
+            result[n++] = weight;
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    private long lowerBound(long key) {
+        long lo = 0, hi = entries;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (keyAt(mid) < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private long keyAt(long index) {
+        return data.get(LONG, HEADER_BYTES + index * ENTRY_BYTES);
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%dx%d %s, %d 条, %d 局", boardSize, boardSize, rule.getName(), entries, games);
+    }
+
+    // --- 对称变换 ---
+
+    /**
+     * 局面的规范键：8 种对称变换下键的最小值，低 3 位为取得最小值的变换编号
+     * 规范形坐标 = ({@link #row}, {@link #col})(变换编号, 实际坐标)
+     */
+    static long canonicalKey(Position position) {
+        long[] keys = symmetryKeys(position);
+        int symmetry = 0;
+        for (int s = 1; s < SYMMETRIES; s++) {
+            if (keys[s] < keys[symmetry]) symmetry = s;
+        }
+        return keys[symmetry] | symmetry;
+    }
+
+    /** 局面在每种对称变换下的键：变换后棋盘的 Zobrist 哈希异或行棋方，低 3 位清零 */
+    static long[] symmetryKeys(Position position) {
+        int size = position.size();
+        long[] keys = new long[SYMMETRIES];
+        position.board().forEachStone((r, c, color) -> {
+            for (int s = 0; s < SYMMETRIES; s++) {
+                keys[s] ^= Zobrist.key(color, row(s, r, c, size), col(s, r, c, size));
+            }
+        });
+        long side = position.sideToMove() == Piece.WHITE ? WHITE_TO_MOVE : 0L;
+        for (int s = 0; s < SYMMETRIES; s++) keys[s] = (keys[s] ^ side) & -SYMMETRIES;
+        return keys;
+    }
+
+    /** 变换 s 下 (r, c) 的行：第 2 位为转置，第 0 位为上下翻转，第 1 位为左右翻转，依次作用 */
+    static int row(int s, int r, int c, int size) {
+        int t = (s & 4) != 0 ? c : r;
+        return (s & 1) != 0 ? size - 1 - t : t;
+    }
+
+    static int col(int s, int r, int c, int size) {
+        int t = (s & 4) != 0 ? r : c;
+        return (s & 2) != 0 ? size - 1 - t : t;
+    }
+
+    /** 变换 s 的逆：先撤销翻转，再撤销转置 */
+    static int inverseRow(int s, int r, int c, int size) {
+        int fr = (s & 1) != 0 ? size - 1 - r : r;
+        int fc = (s & 2) != 0 ? size - 1 - c : c;
+        return (s & 4) != 0 ? fc : fr;
+    }
+
+    static int inverseCol(int s, int r, int c, int size) {
+        int fr = (s & 1) != 0 ? size - 1 - r : r;
+        int fc = (s & 2) != 0 ? size - 1 - c : c;
+        return (s & 4) != 0 ? fr : fc;
+    }
+}
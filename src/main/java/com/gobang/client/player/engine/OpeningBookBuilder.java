@@ -0,0 +1,224 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+import com.gobang.common.record.GameRecord;
+import com.gobang.common.record.GameRecordReader;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 由归档棋谱（{@link GameRecordReader} 格式）生成 {@link OpeningBook}
+ *
+ * 对每局的前若干手，按 (局面规范键, 规范坐标下的着法) 统计出现局数与该着法一方的得分（胜 2、和 1、负 0）；
+ * 出现局数不少于阈值且得分大于 0 的着法写入开局库，权重即为得分，因此常下且常赢的着法被选中的概率更高
+ * 对称局面（如只有天元一子）下等价的着法取坐标最小的规范形，避免同一着法的统计被拆成几份
+ * 未结束的对局、棋盘大小或规则不符的对局不参与统计
+ *
+ * <pre>
+ *   java -cp target/classes com.gobang.client.player.engine.OpeningBookBuilder 输出文件 棋谱文件... \
+ *        [--size 15] [--rule 0] [--plies 16] [--min-games 2]
+ * </pre>
+ */
+public final class OpeningBookBuilder {
+    public static final int DEFAULT_SIZE = 15;
+    public static final int DEFAULT_PLIES = 16;
+    public static final int DEFAULT_MIN_GAMES = 2;
+
+    // 规范键低 3 位恒为 0，用 1 表示空槽
+    private static final long FREE = 1L;
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    private final int boardSize;
+    private final RuleSet rule;
+    private final int plies;
+    private final int minGames;
+
+    // 开放寻址聚合表：(规范键, 规范着法 行 * 边长 + 列) -> 局数、得分
+    private long[] keys;
+    private int[] moves;
+    private int[] counts;
+    private int[] points;
+    private int used;
+    private long games;
+
+    public OpeningBookBuilder(int boardSize, RuleSet rule, int plies, int minGames) {
+        if (boardSize < 5 || boardSize > 64) throw new IllegalArgumentException("开局库只支持 5~64 路棋盘: " + boardSize);
+        this.boardSize = boardSize;
+        this.rule = rule;
+        this.plies = plies;
+        this.minGames = Math.max(1, minGames);
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /** 已统计的对局数 */
+    public long getGames() { return games; }
+
+    /** 已统计的不同 (局面, 着法) 个数 */
+    public int getEdges() { return used; }
+
+    /**
+     * 统计一局的前 plies 手
+     * @return 对局被跳过（未结束、棋盘或规则不符）时返回 false
+     */
+    public boolean add(GameRecord record) {
+        if (record.getBoardSize() != boardSize || record.getRule().getId() != rule.getId()) return false;
+        GameRecord.Result result = record.getResult();
+        if (result == GameRecord.Result.UNFINISHED) return false;
+
+        Position position = Position.empty(boardSize, rule);
+        int n = Math.min(plies, record.getMoveCount());
+        for (int i = 0; i < n; i++) {
+            int row = record.getRow(i), col = record.getCol(i);
+            // 非法着法之后的部分不可信，只统计之前的手
+            if (!position.isLegal(row, col)) break;
+            long[] symmetryKeys = OpeningBook.symmetryKeys(position);
+            long key = Long.MAX_VALUE;
+            for (long k : symmetryKeys) key = Math.min(key, k);
+            int move = Integer.MAX_VALUE;
+            for (int s = 0; s < OpeningBook.SYMMETRIES; s++) {
+                if (symmetryKeys[s] != key) continue;
+                move = Math.min(move, OpeningBook.row(s, row, col, boardSize) * boardSize
+                        + OpeningBook.col(s, row, col, boardSize));
+            }
+            int score = result == GameRecord.Result.DRAW ? 1
+                    : result == GameRecord.Result.winner(position.sideToMove()) ? 2 : 0;
+            int slot = slot(key, move);
+            counts[slot]++;
+            points[slot] += score;
+            position.make(row, col);
+            if (position.lastMoveWins()) break;
+        }
+        games++;
+        return true;
+    }
+
+    /** 统计一个棋谱文件中的所有对局，返回其中被采用的局数 */
+    public long addAll(Path file) throws IOException {
+        long accepted = 0;
+        try (InputStream in = Files.newInputStream(file);
+             GameRecordReader reader = new GameRecordReader(in)) {
+            for (GameRecord record = reader.read(); record != null; record = reader.read()) {
+                if (add(record)) accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * 写出开局库：先写临时文件再替换，写到一半失败不会破坏已有的库
+     * @return 写入的条目数
+     */
+    public long write(Path file) throws IOException {
+        Integer[] order = new Integer[used];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE && counts[i] >= minGames && points[i] > 0) order[n++] = i;
+        }
+        order = Arrays.copyOf(order, n);
+        // 同一局面内按权重从高到低，便于直接查看库文件
+        Arrays.sort(order, Comparator.<Integer>comparingLong(i -> keys[i]).thenComparingInt(i -> -points[i]));
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            out.writeInt(boardSize);
+            out.writeInt(rule.getId());
+            out.writeLong(n);
+            out.writeLong(games);
+            for (int i : order) {
+                out.writeLong(keys[i]);
+                out.writeShort(moves[i] / boardSize);
+                out.writeShort(moves[i] % boardSize);
+                out.writeInt(points[i]);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return n;
+    }
+
+    // --- 聚合表 ---
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        moves = new int[capacity];
+        counts = new int[capacity];
+        points = new int[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    private int slot(long key, int move) {
+        if ((used + 1) * 2 > keys.length) grow();
+        int mask = keys.length - 1;
+        int i = hash(key, move) & mask;
+        while (keys[i] != FREE) {
+            if (keys[i] == key && moves[i] == move) return i;
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        moves[i] = move;
+        used++;
+        return i;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldMoves = moves, oldCounts = counts, oldPoints = points;
+        allocate(oldKeys.length * 2);
+        used = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == FREE) continue;
+            int slot = slot(oldKeys[i], oldMoves[i]);
+            counts[slot] = oldCounts[i];
+            points[slot] = oldPoints[i];
+        }
+    }
+
+    private static int hash(long key, int move) {
+        long h = (key ^ move) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int size = DEFAULT_SIZE, rule = 0, plies = DEFAULT_PLIES, minGames = DEFAULT_MIN_GAMES;
+        Path output = null;
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--size" -> size = Integer.parseInt(args[++i]);
+                case "--rule" -> rule = Integer.parseInt(args[++i]);
+                case "--plies" -> plies = Integer.parseInt(args[++i]);
+                case "--min-games" -> minGames = Integer.parseInt(args[++i]);
+                default -> {
+                    if (output == null) output = Path.of(args[i]);
+                    else inputs.add(Path.of(args[i]));
+                }
+            }
+        }
+        if (output == null || inputs.isEmpty()) {
+            System.err.println("用法: OpeningBookBuilder 输出文件 棋谱文件... [--size 15] [--rule 0] [--plies 16] [--min-games 2]");
+            System.exit(2);
+        }
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(size, RuleSet.byId(rule), plies, minGames);
+        long start = System.currentTimeMillis();
+        for (Path input : inputs) {
+            long accepted = builder.addAll(input);
+            System.out.printf("%s: %d 局%n", input, accepted);
+        }
+        long entries = builder.write(output);
+        System.out.printf("%s: %d 局, %d 个局面着法, 写入 %d 条, 用时 %d ms%n", output, builder.getGames(),
+                builder.getEdges(), entries, System.currentTimeMillis() - start);
+    }
+}
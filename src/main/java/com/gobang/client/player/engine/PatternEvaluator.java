@@ -0,0 +1,125 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.LinePatterns;
+import com.gobang.common.logic.Position;
+import com.gobang.common.model.Piece;
+
+import java.util.Arrays;
+
+/**
+ * 增量查表估值：与 {@link ScanEvaluator} 结果完全相同，但不再每次遍历所有棋子
+ *
+ * 估值为每个棋子在四个方向上的单线棋型分之和（{@link ShapeTable}，以前后各 5 格的三进制下标查表）。
+ * 落下一子只会改变经过它的四条线上距离 5 以内的棋子在该方向上的窗口，因此 {@link #played} 只重算这些棋子：
+ * 它们落子前的窗口就是落子后的窗口去掉新棋子那一位，不需要在落子前另行计算。
+ * 双方总分按手数压栈，{@link #undone} 直接出栈，撤销是精确的
+ *
+ * 未绑定的原型（{@code new PatternEvaluator()}）退化为全盘扫描；搜索线程通过 {@link #bind} 得到增量实例
+ */
+public final class PatternEvaluator implements Evaluator {
+    private static final int REACH = 5;
+    private static final ScanEvaluator SCAN = new ScanEvaluator();
+
+    private final Position position;
+    private final Board board;
+    // 双方的棋型总分
+    private long black, white;
+    // lineDelta 的结果 {黑, 白}，复用以免每步分配
+    private final long[] delta = new long[2];
+    // 每一手之前的总分
+    private long[] history;
+    private int depth;
+
+    /** 未绑定的原型 */
+    public PatternEvaluator() {
+        this.position = null;
+        this.board = null;
+    }
+
+    @Override
+    public long fingerprint() {
+        return ShapeTable.fingerprint();
+    }
+
+    private PatternEvaluator(Position position) {
+        this.position = position;
+        this.board = position.board();
+        this.history = new long[128];
+        board.forEachStone((row, col, color) -> {
+            int sum = 0;
+            for (int dir = 0; dir < 4; dir++) {
+                sum += ShapeTable.score(LinePatterns.index(board.lineWindow(row, col, dir, color)));
+            }
+            if (color == Piece.BLACK) black += sum;
+            else white += sum;
+        });
+    }
+
+    @Override
+    public Evaluator bind(Position position) {
+        return new PatternEvaluator(position);
+    }
+
+    @Override
+    public int evaluate(Position position) {
+        if (this.position == null) return SCAN.evaluate(position);
+        return position.sideToMove() == Piece.BLACK
+                ? ScanEvaluator.combine(black, white)
+                : ScanEvaluator.combine(white, black);
+    }
+
+    @Override
+    public void played(int row, int col) {
+        if (depth + 2 > history.length) history = Arrays.copyOf(history, history.length * 2);
+        history[depth++] = black;
+        history[depth++] = white;
+        lineDelta(row, col, board.get(row, col));
+        black += delta[0];
+        white += delta[1];
+    }
+
+    @Override
+    public void undone() {
+        white = history[--depth];
+        black = history[--depth];
+    }
+
+    /**
+     * 行棋方落在 (row, col) 后估值的变化：自己新增的棋型分，加上对方被挡住而损失的棋型分
+     * 与 {@link #evaluate} 的视角与加权一致，只是不做上下限裁剪
+     */
+    @Override
+    public int moveDelta(int row, int col) {
+        Piece side = position.sideToMove();
+        position.make(row, col);
+        lineDelta(row, col, side);
+        position.unmake();
+        long mine = delta[side.getValue() - 1];
+        long theirs = delta[side.getOpposite().getValue() - 1];
+        return (int) (mine + mine / 4 - theirs);
+    }
+
+    /** (row, col) 刚落下 color 后双方总分的变化，写入 {@link #delta} */
+    private void lineDelta(int row, int col, Piece color) {
+        delta[0] = delta[1] = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            delta[color.getValue() - 1] += ShapeTable.score(LinePatterns.index(board.lineWindow(row, col, dir, color)));
+            int dr = Board.DIRECTIONS[dir][0], dc = Board.DIRECTIONS[dir][1];
+            for (int k = -REACH; k <= REACH; k++) {
+                if (k == 0) continue;
+                int r = row + k * dr, c = col + k * dc;
+                if (!board.contains(r, c)) continue;
+                Piece stone = board.get(r, c);
+                if (stone == Piece.EMPTY) continue;
+                int after = board.lineWindow(r, c, dir, stone);
+                // 新棋子相对 (r, c) 的偏移为 -k，对应窗口中的第 bit 位；同色在己方位，异色在阻挡位
+                int offset = -k;
+                int bit = offset < 0 ? offset + 5 : offset + 4;
+                int before = after & ~(1 << (stone == color ? bit : bit + 10));
+                delta[stone.getValue() - 1] += ShapeTable.score(LinePatterns.index(after))
+                        - ShapeTable.score(LinePatterns.index(before));
+            }
+        }
+    }
+}
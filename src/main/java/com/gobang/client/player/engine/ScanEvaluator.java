@@ -0,0 +1,35 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.LinePatterns;
+import com.gobang.common.logic.Position;
+import com.gobang.common.model.Piece;
+
+/**
+ * 基础估值：遍历所有棋子，对每个棋子四个方向的棋型查 {@link ShapeTable} 求和
+ * 行棋方的棋型额外加权，因为轮到谁走，谁就能先把棋型变成威胁
+ */
+public final class ScanEvaluator implements Evaluator {
+
+    @Override
+    public int evaluate(Position position) {
+        Board board = position.board();
+        long[] totals = new long[2];
+        board.forEachStone((row, col, color) -> {
+            int sum = 0;
+            for (int dir = 0; dir < 4; dir++) {
+                sum += ShapeTable.score(LinePatterns.index(board.lineWindow(row, col, dir, color)));
+            }
+            totals[color.getValue() - 1] += sum;
+        });
+        Piece side = position.sideToMove();
+        long mine = totals[side.getValue() - 1];
+        long theirs = totals[side.getOpposite().getValue() - 1];
+        return combine(mine, theirs);
+    }
+
+    /** 双方棋型总分 -> 行棋方视角的估值，行棋方加权四分之一，结果限制在必胜分值的一半以内 */
+    static int combine(long mine, long theirs) {
+        return (int) Math.max(-SearchEngine.WIN / 2, Math.min(SearchEngine.WIN / 2, mine + mine / 4 - theirs));
+    }
+}
@@ -0,0 +1,509 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.MoveStack;
+import com.gobang.common.logic.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 五子棋搜索引擎：迭代加深的 alpha-beta 搜索，在给定时间内返回找到的最佳着法
+ * 置换表在多次搜索之间保留，同一盘棋后续着法的搜索可以复用之前的结果
+ * 搜索前先查 {@link OpeningBook}（如已设置），库内局面直接按权重选着；再查 {@link AnalysisCache}（如已设置），
+ * 以前算过的局面直接给出保存的着法，足够深的新结果算完后写入缓存；
+ * 只有一个着法可走（直接成五、唯一的堵点）时立即落子；
+ * 然后用 {@link ThreatSolver} 在一小部分时间内寻找 VCF/VCT，找到即直接走
+ * 用时由 {@link TimeManager} 管理：软时限决定是否开始下一轮迭代，最佳着法不稳定或对方刚形成威胁时放宽，硬时限到时中止
+ *
+ * 己方走完后可以调用 {@link #ponder} 在对手思考期间继续搜索预测的应着之后的局面，
+ * 下一次 {@link #search} 时猜中直接复用，猜错也保留了置换表中的结果
+ *
+ * 多线程时采用 Lazy SMP：调用线程作为主线程，其余辅助线程在同一根局面上各自做迭代加深，
+ * 起始深度错开，彼此之间只通过共享的置换表交换结果；到时只返回主线程的结果
+ * 不依赖 JavaFX，可以在任何线程中使用；每一轮迭代完成后可通过监听器获得深度、分值、节点数和主要变例
+ * 每次搜索有自己的停止标志，同一引擎上的搜索（包括后台思考）依次进行：被取消的上一次搜索返回之前，下一次在入口处等待
+ *
+ * <pre>
+ *   SearchEngine engine = new SearchEngine();
+ *   SearchResult result = engine.search(game.snapshot(), 1000);
+ * </pre>
+ * 置换表在堆外，只有 {@link #close} 才会释放；不再使用的引擎必须关闭
+ */
+public class SearchEngine implements AutoCloseable {
+    /** 必胜分值，实际分值为 WIN - 到达成五所需的步数 */
+    public static final int WIN = 100_000_000;
+    public static final int MAX_DEPTH = Searcher.MAX_PLY - 4;
+    // 威胁空间搜索的预算：时间占比（分母）与结点数
+    private static final int VCF_TIME_SHARE = 10, VCT_TIME_SHARE = 5;
+    private static final long VCF_NODES = 200_000, VCT_NODES = 200_000;
+    // 后台思考的时间上限，以及其中威胁空间搜索按多少时间分配预算（过大会拖慢结束思考）
+    private static final long PONDER_LIMIT_MILLIS = 60_000, PONDER_THREAT_MILLIS = 1_000;
+    // 搜索实现的代次，计入 fingerprint()；搜索或剪枝改动后旧的缓存结果不再可信时加一
+    private static final int CACHE_GENERATION = 1;
+
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    // 只在持有 runLock 时使用，同一时刻只属于一次搜索
+    private final ThreatSolver solver = new ThreatSolver();
+    private final ReentrantLock runLock = new ReentrantLock();
+    // 已关闭：不再开始新的搜索，置换表由最后一个持有 runLock 的线程释放
+    private volatile boolean closed;
+    private boolean released;
+    // 新一局后的第一次搜索前清空置换表与威胁求解器的记忆表；上一次搜索所用的规则，规则改变时同样清空
+    // （两者的键都不含规则，换规则后旧结论不可信）
+    private volatile boolean newGame;
+    private int lastRule = -1;
+    private volatile boolean threatSearch = true;
+    // 尚未返回的搜索各自的停止标志，stop() 全部置位
+    private final Set<AtomicBoolean> running = ConcurrentHashMap.newKeySet();
+    private volatile int threads = Runtime.getRuntime().availableProcessors();
+    // 辅助搜索与后台思考所用的线程，未设置时用 SearchExecutor.shared()
+    private volatile SearchExecutor executor;
+    private volatile Consumer<SearchResult> infoListener;
+    private volatile OpeningBook book;
+    private volatile AnalysisCache cache;
+    // 首次需要时再打开共用的分析缓存
+    private volatile boolean sharedCache;
+    // 后台思考：任务、所思考的局面（已走完预测着法）、停止标志
+    private final Object ponderLock = new Object();
+    private volatile Future<SearchResult> ponderTask;
+    private Position ponderPosition;
+    private volatile AtomicBoolean ponderStop;
+    private final LongAdder ponderHits = new LongAdder();
+    private final LongAdder ponderMisses = new LongAdder();
+
+    public SearchEngine() {
+        this(new PatternEvaluator());
+    }
+
+    /** @param hashMb 置换表大小（MB） */
+    public SearchEngine(int hashMb) {
+        this(new PatternEvaluator(), new TranspositionTable(hashMb));
+    }
+
+    public SearchEngine(Evaluator evaluator) {
+        this(evaluator, new TranspositionTable());
+    }
+
+    public SearchEngine(Evaluator evaluator, TranspositionTable table) {
+        this.evaluator = evaluator;
+        this.table = table;
+    }
+
+    /** 置换表，可读取命中率、冲突率和填充率 */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /** 是否在搜索前先求解 VCF/VCT */
+    public void setThreatSearch(boolean enabled) {
+        this.threatSearch = enabled;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * 辅助搜索与后台思考从该执行器的 {@link SearchExecutor#tryHelper 辅助线程} 中取线程，默认为 {@link SearchExecutor#shared()}
+     * 所有引擎共用有上限的辅助线程，不再每个引擎各开一组
+     */
+    public void setExecutor(SearchExecutor executor) {
+        this.executor = executor;
+    }
+
+    private SearchExecutor executor() {
+        SearchExecutor current = executor;
+        return current != null ? current : SearchExecutor.shared();
+    }
+
+    /** 搜索线程数（含调用线程），默认为处理器核数；辅助线程不足时实际少于此数 */
+    public void setThreads(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("线程数至少为 1: " + threads);
+        this.threads = threads;
+    }
+
+    public OpeningBook getOpeningBook() {
+        return book;
+    }
+
+    /** 搜索前先查询的开局库，为 null 时不使用 */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /** 所用的分析缓存；共用缓存尚未打开时为 null */
+    public AnalysisCache getAnalysisCache() {
+        return cache;
+    }
+
+    /** 跨会话保存分析结果的缓存，为 null 时不使用 */
+    public void setAnalysisCache(AnalysisCache cache) {
+        this.sharedCache = false;
+        this.cache = cache;
+    }
+
+    /**
+     * 使用 {@link AnalysisCache#shared} 共用缓存，第一次搜索需要时才打开，
+     * 只创建而不搜索的引擎（或之后改用 {@link #setAnalysisCache} 的引擎）不会打开和锁定缓存文件
+     */
+    public void useSharedAnalysisCache() {
+        this.cache = null;
+        this.sharedCache = true;
+    }
+
+    /** 引擎与估值的指纹，写入分析缓存的文件头，不同指纹算出的记录不会被复用 */
+    public long fingerprint() {
+        return (evaluator.fingerprint() * 31 + CACHE_GENERATION) * 0x9E3779B97F4A7C15L;
+    }
+
+    private AnalysisCache analysisCache() {
+        if (sharedCache) {
+            sharedCache = false;
+            cache = AnalysisCache.shared(fingerprint());
+        }
+        return cache;
+    }
+
+    /** 每完成一轮迭代回调一次，在搜索线程中执行 */
+    public void setInfoListener(Consumer<SearchResult> listener) {
+        this.infoListener = listener;
+    }
+
+    /** 请求正在进行的搜索（包括后台思考）尽快结束，返回已完成的最深一轮的结果 */
+    public void stop() {
+        for (AtomicBoolean flag : running) flag.set(true);
+        AtomicBoolean pondering = ponderStop;
+        if (pondering != null) pondering.set(true);
+    }
+
+    /**
+     * 新一局：停止后台思考，下一次搜索前清空置换表和威胁求解器记住的结论
+     * 只做标记、不等待正在退出的搜索，可以在界面线程或棋局的写线程中调用
+     */
+    public void newGame() {
+        stopPondering();
+        newGame = true;
+    }
+
+    /** 每步固定用时搜索，见 {@link TimeManager#fixed} */
+    public SearchResult search(Position position, long timeLimitMillis) {
+        return search(position, TimeManager.fixed(timeLimitMillis), MAX_DEPTH);
+    }
+
+    public SearchResult search(Position position, long timeLimitMillis, int maxDepth) {
+        return search(position, TimeManager.fixed(timeLimitMillis), maxDepth);
+    }
+
+    public SearchResult search(Position position, TimeManager.Budget budget) {
+        return search(position, budget, MAX_DEPTH);
+    }
+
+    /** @param stop 本次搜索的停止标志，置位时尽快结束，不影响其他搜索 */
+    public SearchResult search(Position position, TimeManager.Budget budget, AtomicBoolean stop) {
+        return search(position, budget, MAX_DEPTH, stop);
+    }
+
+    public SearchResult search(Position position, TimeManager.Budget budget, int maxDepth) {
+        return search(position, budget, maxDepth, new AtomicBoolean());
+    }
+
+    /**
+     * 在 position 的副本上搜索，不修改传入的局面
+     * 如果正在后台思考，先结束思考：猜中时复用思考结果，只用剩余的时间继续加深；猜错时置换表中的结果仍然保留
+     * @param budget   软、硬时限
+     * @param maxDepth 最大搜索深度
+     * @param stop     本次搜索的停止标志，置位时尽快结束；{@link #stop} 也会将其置位
+     */
+    public SearchResult search(Position position, TimeManager.Budget budget, int maxDepth, AtomicBoolean stop) {
+        running.add(stop);
+        try {
+            SearchResult pondered = finishPondering(position);
+            if (pondered == null) return run(position, budget, maxDepth, budget.hardMillis(), stop, true);
+
+            // 思考用掉的时间算在对手头上，已超过软时限时直接使用思考结果（结果中的用时与结点数为思考期间的统计）
+            if (pondered.millis() >= budget.softMillis() || pondered.isWin()) return pondered;
+            SearchResult fresh = run(position, budget.after(pondered.millis()), maxDepth, budget.hardMillis(), stop, true);
+            return fresh.isWin() || fresh.depth() >= pondered.depth() ? fresh : pondered;
+        } finally {
+            running.remove(stop);
+        }
+    }
+
+    /**
+     * 在对手思考期间后台搜索：假设对手在 position（己方刚走完的局面）上走 predicted，搜索之后的局面，
+     * 直到下一次 {@link #search}、{@link #stopPondering} 或思考时间上限；结果写入置换表，猜中时由下一次搜索直接复用
+     * @param predicted 预测的对手着法，通常为上一次搜索主要变例的第二手；为 -1 或不合法时取生成器排序第一的着法
+     */
+    public void ponder(Position position, int predicted) {
+        if (position.lastMoveWins() || position.board().isFull()) return;
+        Position target = position.copy();
+        if (predicted == -1 || !target.isLegal(MoveStack.row(predicted), MoveStack.col(predicted))) {
+            predicted = fallbackMove(target);
+            if (predicted == -1) return;
+        }
+        target.make(MoveStack.row(predicted), MoveStack.col(predicted));
+        if (target.lastMoveWins() || target.board().isFull()) return;
+
+        synchronized (ponderLock) {
+            stopPondering();
+            if (closed) return;
+            AtomicBoolean flag = new AtomicBoolean();
+            Future<SearchResult> task = executor().tryHelper(() -> run(target, TimeManager.fixed(PONDER_LIMIT_MILLIS),
+                    MAX_DEPTH, PONDER_THREAT_MILLIS, flag, false));
+            // 辅助线程都在忙时不做后台思考
+            if (task == null) return;
+            ponderStop = flag;
+            ponderPosition = target;
+            ponderTask = task;
+        }
+    }
+
+    /**
+     * 结束后台思考并丢弃结果（置换表中的条目保留），例如悔棋或重新开局时
+     * 只通知思考线程停止，不等待它退出，可以在界面线程或棋局的写线程中调用；
+     * 下一次搜索或思考会在入口处等它返回
+     */
+    public void stopPondering() {
+        synchronized (ponderLock) {
+            if (ponderTask == null) return;
+            ponderTask = null;
+            ponderPosition = null;
+            signalPonder();
+        }
+    }
+
+    public boolean isPondering() {
+        return ponderTask != null;
+    }
+
+    /** 后台思考猜中对手着法的次数 */
+    public long getPonderHits() { return ponderHits.sum(); }
+
+    /** 后台思考猜错对手着法的次数 */
+    public long getPonderMisses() { return ponderMisses.sum(); }
+
+    /** 结束后台思考，思考的正是 position 时返回思考结果，否则返回 null */
+    private SearchResult finishPondering(Position position) {
+        synchronized (ponderLock) {
+            Future<SearchResult> task = ponderTask;
+            if (task == null) return null;
+            Position pondered = ponderPosition;
+            ponderTask = null;
+            ponderPosition = null;
+            SearchResult result = awaitPonder(task);
+            boolean hit = pondered.hash() == position.hash() && pondered.sideToMove() == position.sideToMove()
+                    && pondered.moveCount() == position.moveCount();
+            if (hit) ponderHits.increment();
+            else ponderMisses.increment();
+            return hit && result != null && result.hasMove() ? result : null;
+        }
+    }
+
+    private void signalPonder() {
+        AtomicBoolean flag = ponderStop;
+        if (flag != null) flag.set(true);
+        ponderStop = null;
+    }
+
+    private SearchResult awaitPonder(Future<SearchResult> task) {
+        signalPonder();
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("后台思考线程异常", e.getCause());
+        }
+    }
+
+    /**
+     * 迭代加深搜索；上一次搜索（可能已被取消、正在退出）返回之前在此等待，
+     * 置换表之外的搜索状态（威胁求解器、辅助线程）不会被两次搜索同时使用
+     * @param threatMillis 威胁空间搜索按此时间分配预算
+     * @param fromBook     是否查询开局库（后台思考时不查）
+     */
+    private SearchResult run(Position position, TimeManager.Budget budget, int maxDepth, long threatMillis,
+                             AtomicBoolean stop, boolean fromBook) {
+        runLock.lock();
+        try {
+            if (closed) return new SearchResult(-1, 0, 0, 0, 0, new int[0]);
+            return runExclusive(position, budget, maxDepth, threatMillis, stop, fromBook);
+        } finally {
+            runLock.unlock();
+            // 关闭发生在搜索进行中时，由退出的搜索代为释放
+            if (closed) release();
+        }
+    }
+
+    /**
+     * 停止所有搜索与后台思考并释放置换表，之后的搜索直接返回没有着法的结果
+     * 不等待正在退出的搜索：它返回时再释放，可以在界面线程中调用
+     */
+    @Override
+    public void close() {
+        closed = true;
+        stop();
+        stopPondering();
+        release();
+    }
+
+    /** 没有搜索持有 runLock 时释放置换表；正在搜索时由该搜索退出后再调用 */
+    private void release() {
+        if (!runLock.tryLock()) return;
+        try {
+            if (released) return;
+            released = true;
+            table.close();
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    private SearchResult runExclusive(Position position, TimeManager.Budget budget, int maxDepth, long threatMillis,
+                                      AtomicBoolean stop, boolean fromBook) {
+        long start = System.nanoTime();
+        if (newGame || position.rule().getId() != lastRule) {
+            newGame = false;
+            lastRule = position.rule().getId();
+            solver.clear();
+            table.clear();
+        }
+        TimeManager clock = new TimeManager(budget);
+        long deadline = clock.hardDeadline();
+        OpeningBook openingBook = book;
+        if (fromBook && openingBook != null) {
+            int move = openingBook.pick(position);
+            if (move != -1) return new SearchResult(move, 0, 0, 0, 0, new int[]{move});
+        }
+        AnalysisCache analysis = analysisCache();
+        if (analysis != null) {
+            SearchResult cached = analysis.probe(position);
+            if (cached != null) return cached;
+        }
+        // 直接成五或只有一个堵点时不必搜索；对方刚形成威胁时多给一些时间
+        MoveGenerator generator = new MoveGenerator(1);
+        int count = generator.generate(position, 0);
+        int status = generator.status(0);
+        if (status == MoveGenerator.WIN_NOW || status == MoveGenerator.FORCED && count == 1) {
+            int move = generator.moves(0)[0];
+            int score = status == MoveGenerator.WIN_NOW ? WIN - 1 : 0;
+            return new SearchResult(move, score, 1, 0, clock.elapsedMillis(), new int[]{move});
+        }
+        if (status == MoveGenerator.FORCED) clock.threat();
+        Consumer<SearchResult> listener = fromBook ? infoListener : null;
+        if (threatSearch) {
+            SearchResult forced = solveThreats(position, threatMillis, stop);
+            if (forced != null) {
+                if (listener != null) listener.accept(forced);
+                if (analysis != null) analysis.store(position, forced);
+                return forced;
+            }
+        }
+        table.newSearch();
+        Searcher searcher = new Searcher(position.copy(), evaluator, table, stop);
+        searcher.agePeriod();
+        int limit = Math.min(maxDepth, MAX_DEPTH);
+        // 辅助线程只看这个标志：主线程因到时或 stop 退出循环后置位
+        AtomicBoolean helpersDone = new AtomicBoolean();
+        List<Future<Long>> helpers = startHelpers(position, deadline, limit, helpersDone);
+
+        SearchResult best = new SearchResult(fallbackMove(position), 0, 0, 0, 0, new int[0]);
+        int guess = 0;
+        for (int depth = 1; depth <= limit; depth++) {
+            int score = searcher.searchRoot(depth, guess, deadline);
+            long elapsed = System.nanoTime() - start;
+            if (searcher.aborted()) break;
+
+            int[] pv = searcher.principalVariation();
+            if (pv.length == 0) break;
+            guess = score;
+            best = new SearchResult(pv[0], score, depth, searcher.nodes(), elapsed / 1_000_000L, pv);
+            if (listener != null) listener.accept(best);
+
+            // 已分出胜负，或已用时间超过（按最佳着法的稳定程度调整后的）软时限
+            if (Math.abs(score) > WIN - Searcher.MAX_PLY) break;
+            if (clock.iterationDone(pv[0])) break;
+        }
+        helpersDone.set(true);
+        long nodes = searcher.nodes() + joinHelpers(helpers);
+        long elapsed = (System.nanoTime() - start) / 1_000_000L;
+        SearchResult result = new SearchResult(best.move(), best.score(), best.depth(), nodes, elapsed, best.pv());
+        if (analysis != null) analysis.store(position, result);
+        return result;
+    }
+
+    /**
+     * 启动至多 threads - 1 个辅助线程，第 i 个从深度 1 + i % 2 开始，奇数号线程每轮多跳一层，
+     * 让各线程尽量不在同一时刻搜索同一深度；共用的辅助线程用完时少开几个
+     */
+    private List<Future<Long>> startHelpers(Position position, long deadline, int maxDepth, AtomicBoolean done) {
+        int count = threads - 1;
+        List<Future<Long>> futures = new ArrayList<>(count);
+        if (count == 0) return futures;
+        SearchExecutor pool = executor();
+        for (int i = 1; i <= count; i++) {
+            int id = i;
+            Searcher helper = new Searcher(position.copy(), evaluator, table, done);
+            Future<Long> future = pool.tryHelper(() -> {
+                int guess = 0;
+                int step = 1 + (id & 1);
+                for (int depth = 1 + id % 2; depth <= maxDepth && !done.get(); depth += step) {
+                    int score = helper.searchRoot(depth, guess, deadline);
+                    if (helper.aborted()) break;
+                    guess = score;
+                    if (Math.abs(score) > WIN - Searcher.MAX_PLY) break;
+                }
+                return helper.nodes();
+            });
+            if (future == null) break;
+            futures.add(future);
+        }
+        return futures;
+    }
+
+    /** 等待辅助线程退出，返回它们访问的结点总数 */
+    private static long joinHelpers(List<Future<Long>> helpers) {
+        long nodes = 0;
+        for (Future<Long> helper : helpers) {
+            try {
+                nodes += helper.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("辅助搜索线程异常", e.getCause());
+            }
+        }
+        return nodes;
+    }
+
+    /** 先找连续冲四胜，再找连续威胁胜，都没有时返回 null */
+    private SearchResult solveThreats(Position position, long timeLimitMillis, AtomicBoolean stop) {
+        SearchResult vcf = solver.solveVcf(position, VCF_NODES, timeLimitMillis / VCF_TIME_SHARE, stop);
+        if (vcf.hasMove()) return vcf;
+        if (stop.get()) return null;
+        SearchResult vct = solver.solveVct(position, VCT_NODES, timeLimitMillis / VCT_TIME_SHARE, stop);
+        return vct.hasMove() ? vct : null;
+    }
+
+    /** 还没有完成任何一轮时使用的着法：空盘走天元，否则为生成器排序第一的着法 */
+    private static int fallbackMove(Position position) {
+        if (position.board().count() == 0) {
+            int center = position.size() == Board.UNBOUNDED ? 0 : position.size() / 2;
+            return MoveStack.pack(center, center, position.sideToMove());
+        }
+        MoveGenerator generator = new MoveGenerator(1);
+        int count = generator.generate(position, 0);
+        return count == 0 ? -1 : generator.moves(0)[0];
+    }
+}
@@ -0,0 +1,164 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.trace.Tracer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * AI 搜索专用的执行器：固定数量的工作线程，超出的搜索排队等待，不再每步新建线程
+ *
+ * 每次提交返回一个 {@link SearchHandle}，悔棋、重新开局时取消即可，过时的结果不会再被交付；
+ * 搜索比最短思考时间结束得早时，由计时线程延后交付，不占用工作线程睡眠
+ * 回调在工作线程或计时线程中执行，与 JavaFX 无关；需要更新界面的调用方自行转交给界面线程
+ *
+ * 默认共用一个 {@link #shared()} 实例，服务端同时进行很多局人机对战时也只占用固定数量的线程
+ *
+ * 另有一组辅助线程（{@link #tryHelper}）供引擎的 Lazy SMP 辅助搜索和后台思考使用，所有引擎共用、总数有上限；
+ * 没有空闲的辅助线程时任务不排队而是直接放弃，搜索少开辅助线程、或不做后台思考，不会等待
+ */
+public final class SearchExecutor implements AutoCloseable {
+    private static final Tracer TRACE = Tracer.get("AIExecutor");
+
+    /** 共享实例的工作线程数，可由系统属性 {@value #WORKERS_PROPERTY} 指定 */
+    public static final int DEFAULT_WORKERS = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    public static final String WORKERS_PROPERTY = "gobang.ai.workers";
+    /** 辅助线程数的上限，可由系统属性 {@value #HELPERS_PROPERTY} 指定 */
+    public static final int DEFAULT_HELPERS = Runtime.getRuntime().availableProcessors();
+    public static final String HELPERS_PROPERTY = "gobang.ai.helpers";
+    // 空闲的辅助线程保留多久
+    private static final long HELPER_KEEP_ALIVE_SECONDS = 30;
+
+    private static volatile SearchExecutor shared;
+
+    private final ExecutorService workers;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService helpers;
+    private final int size;
+
+    public SearchExecutor(int workers) {
+        this(workers, Integer.getInteger(HELPERS_PROPERTY, DEFAULT_HELPERS));
+    }
+
+    /** @param helpers 辅助线程数的上限，0 表示不提供辅助线程 */
+    public SearchExecutor(int workers, int helpers) {
+        if (workers < 1) throw new IllegalArgumentException("工作线程数至少为 1: " + workers);
+        if (helpers < 0) throw new IllegalArgumentException("辅助线程数不能为负: " + helpers);
+        this.size = workers;
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "ai-search-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "ai-delivery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.timer = scheduler;
+        AtomicInteger helperCounter = new AtomicInteger();
+        // 不排队：线程数到上限后直接拒绝
+        this.helpers = new ThreadPoolExecutor(0, Math.max(1, helpers), HELPER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> {
+            Thread thread = new Thread(r, "search-helper-" + helperCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (helpers == 0) this.helpers.shutdown();
+    }
+
+    /** 所有 AI 共用的执行器 */
+    public static SearchExecutor shared() {
+        SearchExecutor executor = shared;
+        if (executor == null) {
+            synchronized (SearchExecutor.class) {
+                executor = shared;
+                if (executor == null) {
+                    executor = new SearchExecutor(Integer.getInteger(WORKERS_PROPERTY, DEFAULT_WORKERS));
+                    shared = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    public int getWorkers() { return size; }
+
+    /**
+     * 在辅助线程中执行 task
+     * @return 没有空闲的辅助线程（或已关闭）时返回 null，task 不会执行
+     */
+    public <T> Future<T> tryHelper(Callable<T> task) {
+        try {
+            return helpers.submit(task);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 提交一次搜索
+     * @param search        在工作线程中执行的搜索
+     * @param stopper       取消时调用，通知引擎尽快结束（如 {@link SearchEngine#stop}），可以为 null
+     * @param minThinkMillis 从提交起至少经过这么久才交付结果
+     * @param callback      结果回调，只在未取消时调用一次
+     */
+    public SearchHandle submit(Supplier<SearchResult> search, Runnable stopper, long minThinkMillis,
+                               Consumer<SearchResult> callback) {
+        return submit(new SearchHandle(stopper, callback), stop -> search.get(), minThinkMillis);
+    }
+
+    /**
+     * 提交一次搜索，搜索轮询句柄自己的停止标志（如 {@link SearchEngine#search(com.gobang.common.logic.Position,
+     * TimeManager.Budget, AtomicBoolean)}），取消时只停止这一次
+     * @param search 参数为本次搜索的停止标志
+     */
+    public SearchHandle submit(Function<AtomicBoolean, SearchResult> search, long minThinkMillis,
+                               Consumer<SearchResult> callback) {
+        return submit(new SearchHandle(null, callback), search, minThinkMillis);
+    }
+
+    private SearchHandle submit(SearchHandle handle, Function<AtomicBoolean, SearchResult> search, long minThinkMillis) {
+        long submitted = System.nanoTime();
+        handle.attach(workers.submit(() -> {
+            if (handle.isCancelled()) return;
+            SearchResult result;
+            try {
+                result = search.apply(handle.stopFlag());
+            } catch (RuntimeException e) {
+                TRACE.warn("AI 搜索异常", e);
+                handle.cancel();
+                return;
+            }
+            long wait = minThinkMillis - (System.nanoTime() - submitted) / 1_000_000L;
+            if (wait <= 0 || handle.isCancelled()) {
+                handle.deliver(result);
+            } else {
+                handle.attach(timer.schedule(() -> handle.deliver(result), wait, TimeUnit.MILLISECONDS));
+            }
+        }));
+        return handle;
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        timer.shutdownNow();
+        helpers.shutdownNow();
+    }
+}
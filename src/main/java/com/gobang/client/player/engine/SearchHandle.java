@@ -0,0 +1,65 @@
+package com.gobang.client.player.engine;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 一次提交给 {@link SearchExecutor} 的搜索，可以在任何线程中取消
+ * 取消后正在进行的搜索会被通知尽快结束，结果即使已经算出也不会再交给回调；
+ * 结果交付与取消之间用 CAS 决出先后，二者只会发生其一
+ * 每个句柄有自己的停止标志，取消只停止这一次搜索，不会影响同一引擎上之后提交的搜索
+ */
+public final class SearchHandle {
+    private static final int PENDING = 0, DELIVERED = 1, CANCELLED = 2;
+
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+    private final AtomicBoolean stop = new AtomicBoolean();
+    private final Runnable stopper;
+    private final Consumer<SearchResult> callback;
+    private volatile Future<?> future;
+    private volatile SearchResult result;
+
+    SearchHandle(Runnable stopper, Consumer<SearchResult> callback) {
+        this.stopper = stopper;
+        this.callback = callback;
+    }
+
+    void attach(Future<?> future) {
+        this.future = future;
+        // 提交与取消并发时，保证排队中的任务也被撤下
+        if (isCancelled()) future.cancel(false);
+    }
+
+    /**
+     * 取消搜索：排队中的不再开始，进行中的请求引擎停止，已算出但尚未交付的结果被丢弃
+     * @return 本次调用取消了搜索时返回 true；结果已交付或早已取消时返回 false
+     */
+    public boolean cancel() {
+        if (!state.compareAndSet(PENDING, CANCELLED)) return false;
+        Future<?> pending = future;
+        if (pending != null) pending.cancel(false);
+        stop.set(true);
+        if (stopper != null) stopper.run();
+        return true;
+    }
+
+    public boolean isCancelled() { return state.get() == CANCELLED; }
+
+    /** 本次搜索的停止标志，取消时置位 */
+    AtomicBoolean stopFlag() { return stop; }
+
+    /** 结果已交给回调 */
+    public boolean isDelivered() { return state.get() == DELIVERED; }
+
+    /** 已交付的结果，未交付或已取消时为 null */
+    public SearchResult result() { return result; }
+
+    /** 交付结果，已取消时什么也不做 */
+    void deliver(SearchResult searched) {
+        if (!state.compareAndSet(PENDING, DELIVERED)) return;
+        result = searched;
+        callback.accept(searched);
+    }
+}
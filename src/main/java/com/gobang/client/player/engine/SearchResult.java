@@ -0,0 +1,47 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.MoveStack;
+
+/**
+ * 一次搜索（或迭代加深中的一轮）的结果
+ * @param move    最佳着法（{@link MoveStack#pack} 编码），没有可走的着法时为 -1
+ * @param score   以行棋方为视角的分值，绝对值接近 {@link SearchEngine#WIN} 表示必胜/必败
+ * @param depth   完成的搜索深度
+ * @param nodes   访问的节点数
+ * @param millis  用时（毫秒）
+ * @param pv      主要变例，同样为压缩编码
+ */
+public record SearchResult(int move, int score, int depth, long nodes, long millis, int[] pv) {
+
+    public int row() { return MoveStack.row(move); }
+
+    public int col() { return MoveStack.col(move); }
+
+    public boolean hasMove() { return move != -1; }
+
+    /** 每秒节点数 */
+    public long nps() {
+        return millis == 0 ? nodes * 1000 : nodes * 1000 / millis;
+    }
+
+    /** 是否找到必胜 */
+    public boolean isWin() {
+        return score > SearchEngine.WIN - Searcher.MAX_PLY;
+    }
+
+    /** 是否已经必败 */
+    public boolean isLoss() {
+        return score < -SearchEngine.WIN + Searcher.MAX_PLY;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder line = new StringBuilder();
+        for (int move : pv) {
+            if (!line.isEmpty()) line.append(' ');
+            line.append('(').append(MoveStack.row(move)).append(',').append(MoveStack.col(move)).append(')');
+        }
+        return String.format("depth %d score %d nodes %d nps %d time %dms pv %s",
+                depth, score, nodes, nps(), millis, line);
+    }
+}
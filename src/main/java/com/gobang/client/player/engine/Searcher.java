@@ -0,0 +1,260 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.MoveStack;
+import com.gobang.common.logic.Position;
+import com.gobang.common.model.Piece;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 单线程搜索器：在自己的局面副本上做迭代加深的 negamax alpha-beta 搜索
+ * 主要变例搜索（PVS）、渴望窗口、置换表、杀手着法与历史表排序，单一应着时延伸一层
+ * 搜索器不是线程安全的，每个搜索线程各持有一个
+ */
+final class Searcher {
+    static final int MAX_PLY = 64;
+    static final int INFINITY = SearchEngine.WIN + 1;
+
+    private static final int ASPIRATION = 2_000;
+    private static final int HISTORY_SIZE = 1 << 12;
+    private static final int PV_BONUS = 1 << 30;
+    private static final int HASH_BONUS = 3 << 28;
+    private static final int KILLER_BONUS = 1 << 29;
+    private static final int[] WIDTH = {24, 18, 14, 12, 10, 9, 8};
+    private static final int CHECK_INTERVAL = 63;
+    // Zobrist 哈希不含行棋方，置换表的键再异或上这个值加以区分
+    private static final long WHITE_TO_MOVE = 0x2D358DCCAA6C78A5L;
+    // 后期着法削减（LMR）：从第几个着法、剩余深度至少多少时开始削减一层
+    private static final int LMR_MOVES = 3;
+    private static final int LMR_DEPTH = 3;
+    // 剩余深度至少多少时排序参考估值器的着法增量
+    private static final int DELTA_DEPTH = 5;
+
+    private final Position position;
+    // 绑定到本线程局面的估值实例
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    private final MoveGenerator generator = new MoveGenerator(MAX_PLY);
+    private final CandidateSet candidates;
+    private final AtomicBoolean stop;
+
+    private final int[][] killers = new int[MAX_PLY][2];
+    // [颜色][坐标散列] 历史分值
+    private final int[][] history = new int[2][HISTORY_SIZE];
+    // 三角形主要变例表
+    private final int[][] pv = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    // 上一轮迭代的主要变例，用于本轮排序
+    private int[] previousPv = new int[0];
+    private boolean followPv;
+
+    private long nodes;
+    private long deadline;
+    private boolean aborted;
+
+    Searcher(Position position, Evaluator evaluator, TranspositionTable table, AtomicBoolean stop) {
+        this.position = position;
+        this.evaluator = evaluator.bind(position);
+        this.table = table;
+        this.stop = stop;
+        this.candidates = new CandidateSet(position);
+        generator.use(candidates);
+    }
+
+    long nodes() { return nodes; }
+
+    boolean aborted() { return aborted; }
+
+    int[] principalVariation() {
+        return Arrays.copyOf(pv[0], pvLength[0]);
+    }
+
+    /**
+     * 搜索一轮固定深度，使用以 guess 为中心的渴望窗口，失败时逐步放宽
+     * @return 分值；超时或被停止时结果无效，见 {@link #aborted()}
+     */
+    int searchRoot(int depth, int guess, long deadlineNanos) {
+        this.deadline = deadlineNanos;
+        this.aborted = false;
+        int delta = ASPIRATION;
+        boolean useWindow = depth > 2 && Math.abs(guess) < SearchEngine.WIN / 2;
+        int alpha = useWindow ? guess - delta : -INFINITY;
+        int beta = useWindow ? guess + delta : INFINITY;
+        while (true) {
+            followPv = true;
+            int score = search(depth, alpha, beta, 0);
+            if (aborted) return score;
+            if (score <= alpha && alpha > -INFINITY) {
+                delta *= 4;
+                alpha = delta > SearchEngine.WIN / 4 ? -INFINITY : Math.max(-INFINITY, score - delta);
+            } else if (score >= beta && beta < INFINITY) {
+                delta *= 4;
+                beta = delta > SearchEngine.WIN / 4 ? INFINITY : Math.min(INFINITY, score + delta);
+            } else {
+                previousPv = principalVariation();
+                return score;
+            }
+        }
+    }
+
+    private int search(int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        if ((++nodes & CHECK_INTERVAL) == 0 && (stop.get() || System.nanoTime() > deadline)) aborted = true;
+        if (aborted) return 0;
+        if (position.board().isFull()) return 0;
+        if (ply >= MAX_PLY - 1) return evaluator.evaluate(position);
+
+        long key = position.hash() ^ (position.sideToMove() == Piece.WHITE ? WHITE_TO_MOVE : 0L);
+        long entry = table.probe(key);
+        int hashMove = -1;
+        if (entry != TranspositionTable.MISS) {
+            hashMove = TranspositionTable.move(entry, position.sideToMove());
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || bound == TranspositionTable.LOWER && score >= beta
+                        || bound == TranspositionTable.UPPER && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        int count = generator.generate(position, ply);
+        int[] moves = generator.moves(ply);
+        int status = generator.status(ply);
+        if (status == MoveGenerator.WIN_NOW) {
+            pv[ply][ply] = moves[0];
+            pvLength[ply] = ply + 1;
+            return SearchEngine.WIN - ply - 1;
+        }
+        if (count == 0) {
+            // 被迫应对却无子可下（堵点是禁手），或棋盘已无空位
+            return status == MoveGenerator.FORCED ? -(SearchEngine.WIN - ply - 2) : 0;
+        }
+        if (depth <= 0) return evaluator.evaluate(position);
+
+        order(moves, generator.scores(ply), count, ply, depth, hashMove);
+        int width = ply < WIDTH.length ? WIDTH[ply] : WIDTH[WIDTH.length - 1];
+        if (count > width && status != MoveGenerator.FORCED) count = width;
+        // 唯一应着不消耗深度
+        int nextDepth = count == 1 ? depth : depth - 1;
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = -1;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            candidates.make(MoveStack.row(move), MoveStack.col(move));
+            evaluator.played(MoveStack.row(move), MoveStack.col(move));
+            int score;
+            if (i == 0) {
+                score = -search(nextDepth, -beta, -alpha, ply + 1);
+            } else {
+                // 排序靠后的着法先以减少的深度做零窗口搜索，超过 alpha 再按完整深度验证
+                int reduction = i >= LMR_MOVES && depth >= LMR_DEPTH && status == MoveGenerator.NORMAL ? 1 : 0;
+                score = -search(nextDepth - reduction, -alpha - 1, -alpha, ply + 1);
+                if (reduction > 0 && score > alpha) score = -search(nextDepth, -alpha - 1, -alpha, ply + 1);
+                if (score > alpha && score < beta) score = -search(nextDepth, -beta, -alpha, ply + 1);
+            }
+            evaluator.undone();
+            candidates.unmake();
+            if (aborted) return 0;
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        storeCutoff(move, depth, ply);
+                        break;
+                    }
+                }
+            }
+        }
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * 上一轮主要变例 > 置换表着法 > 杀手着法 > 历史分值 + 棋型分
+     * 剩余深度较大的结点（数量少、排序收益大）再加上估值器给出的整盘估值变化
+     */
+    private void order(int[] moves, int[] scores, int count, int ply, int depth, int hashMove) {
+        boolean deltas = depth >= DELTA_DEPTH;
+        int pvMove = -1;
+        if (followPv) {
+            if (ply < previousPv.length) pvMove = previousPv[ply];
+            else followPv = false;
+        }
+        boolean foundPv = false;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (move == pvMove) {
+                scores[i] = PV_BONUS;
+                foundPv = true;
+            } else if (move == hashMove) {
+                scores[i] = HASH_BONUS;
+            } else if (move == killers[ply][0] || move == killers[ply][1]) {
+                scores[i] = KILLER_BONUS + (scores[i] >> 2);
+            } else {
+                scores[i] = (scores[i] >> 2) + history[colorIndex(move)][historyIndex(move)];
+                if (deltas) scores[i] += evaluator.moveDelta(MoveStack.row(move), MoveStack.col(move)) >> 3;
+            }
+        }
+        if (!foundPv) followPv = false;
+        MoveGenerator.sort(moves, scores, count);
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][ply] = move;
+        int length = pvLength[ply + 1];
+        System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, length - ply - 1);
+        pvLength[ply] = Math.max(length, ply + 1);
+    }
+
+    private void storeCutoff(int move, int depth, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] table = history[colorIndex(move)];
+        int index = historyIndex(move);
+        table[index] = Math.min(table[index] + depth * depth, KILLER_BONUS >> 2);
+    }
+
+    /** 新的一次搜索前衰减历史分值，保留少量经验 */
+    void agePeriod() {
+        for (int[] table : history) {
+            for (int i = 0; i < table.length; i++) table[i] >>= 3;
+        }
+        for (int[] pair : killers) Arrays.fill(pair, -1);
+        previousPv = new int[0];
+    }
+
+    /** 必胜/必败分值在置换表中存为相对当前结点的步数，取出时换算回相对根结点 */
+    private static int toTable(int score, int ply) {
+        if (score > SearchEngine.WIN - MAX_PLY) return score + ply;
+        if (score < -SearchEngine.WIN + MAX_PLY) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score > SearchEngine.WIN - MAX_PLY) return score - ply;
+        if (score < -SearchEngine.WIN + MAX_PLY) return score + ply;
+        return score;
+    }
+
+    private static int colorIndex(int move) {
+        return MoveStack.color(move).getValue() - 1;
+    }
+
+    private static int historyIndex(int move) {
+        return (MoveStack.row(move) * 67 + MoveStack.col(move)) & (HISTORY_SIZE - 1);
+    }
+}
@@ -0,0 +1,99 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.LinePatterns;
+
+/**
+ * 单线棋型分值表，与 {@link LinePatterns} 使用同一套 11 格三进制下标
+ * 分值 = 经过中心的 5 个五连窗口中未被阻挡者按己方子数加权求和，再加上成五、活四、冲四、活三（连三/跳三）、活二的奖励
+ * 中心视为己方棋子：既可以给已落下的棋子估值，也可以给"假设落在这里"的空位估值
+ */
+final class ShapeTable {
+    static final int FIVE = 1_000_000;
+    static final int STRAIGHT_FOUR = 50_000;
+    static final int FOUR = 5_000;
+    static final int OPEN_THREE = 3_000;
+    static final int SPLIT_THREE = 2_500;
+    static final int OPEN_TWO = 200;
+
+    // 窗口中己方子数（含中心）对应的权重
+    private static final int[] WINDOW_WEIGHT = {0, 1, 8, 60, 400, FIVE};
+    private static final int[] SCORES = new int[LinePatterns.TABLE_SIZE];
+
+    static {
+        int[] cells = new int[11];
+        for (int index = 0; index < SCORES.length; index++) {
+            int value = index;
+            for (int i = 0; i < 10; i++) {
+                cells[i < 5 ? i : i + 1] = value % 3;
+                value /= 3;
+            }
+            cells[5] = 1;
+            SCORES[index] = windows(cells) + bonus(index, cells);
+        }
+    }
+
+    private ShapeTable() {}
+
+    /** 下标为 {@link LinePatterns#index} 的结果 */
+    static int score(int index) {
+        return SCORES[index];
+    }
+
+    /** 整张分值表的哈希，棋型分值调整后随之改变 */
+    static long fingerprint() {
+        long hash = SCORES.length;
+        for (int score : SCORES) hash = (hash ^ score) * 0x100000001B3L;
+        return hash;
+    }
+
+    private static int windows(int[] cells) {
+        int sum = 0;
+        for (int start = 1; start <= 5; start++) {
+            int own = 0;
+            boolean blocked = false;
+            for (int i = start; i < start + 5; i++) {
+                if (cells[i] == 2) blocked = true;
+                else if (cells[i] == 1) own++;
+            }
+            if (!blocked) sum += WINDOW_WEIGHT[own];
+        }
+        return Math.min(sum, FIVE);
+    }
+
+    private static int bonus(int index, int[] cells) {
+        // 分值表不区分长连规则，统一按五连及以上成五计算
+        int window = decodeWindow(index);
+        int info = LinePatterns.info(window, false);
+        if (LinePatterns.isFive(info)) return FIVE;
+        if (LinePatterns.isStraightFour(info)) return STRAIGHT_FOUR;
+        int fours = LinePatterns.fours(info);
+        if (fours > 0) return fours * FOUR;
+        if (LinePatterns.isOpenThree(info)) return centerRun(cells) >= 3 ? OPEN_THREE : SPLIT_THREE;
+        // 活二：再下一子即可成为经过中心的活三
+        for (int bit = 0; bit < 10; bit++) {
+            if ((window >>> bit & 1) != 0 || (window >>> (bit + 10) & 1) != 0) continue;
+            if (LinePatterns.isOpenThree(LinePatterns.info(window | 1 << bit, false))) return OPEN_TWO;
+        }
+        return 0;
+    }
+
+    /** 窗口中包含中心的连续己方子数 */
+    private static int centerRun(int[] cells) {
+        int from = 5, to = 5;
+        while (from > 0 && cells[from - 1] == 1) from--;
+        while (to < cells.length - 1 && cells[to + 1] == 1) to++;
+        return to - from + 1;
+    }
+
+    /** 由三进制下标还原 {@link com.gobang.common.logic.Board#lineWindow} 形式的位串 */
+    private static int decodeWindow(int index) {
+        int own = 0, blocked = 0;
+        for (int bit = 0; bit < 10; bit++) {
+            int digit = index % 3;
+            index /= 3;
+            if (digit == 1) own |= 1 << bit;
+            else if (digit == 2) blocked |= 1 << bit;
+        }
+        return own | blocked << 10;
+    }
+}
@@ -0,0 +1,78 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+
+/**
+ * Lazy SMP 扩展性基准：对几个中局局面分别用 1、2、4、8、16 个线程搜索到固定深度，
+ * 输出到达该深度的平均用时、每秒结点数以及相对单线程的加速比；单线程时另外逐个局面输出用时与每秒结点数
+ *
+ * <pre>
+ *   java -cp target/classes com.gobang.client.player.engine.SmpBenchmark [深度] [置换表MB] [最多线程数]
+ * </pre>
+ * 验收标准：单核上单线程每个局面 8 层用时都不超过 1 秒。在项目编译目标的 JDK 上用
+ * taskset -c 0 java ... SmpBenchmark 8 64 1 测量，三次运行取中间一次，看单线程逐个局面的用时
+ */
+public final class SmpBenchmark {
+    private static final int[] THREADS = {1, 2, 4, 8, 16};
+    private static final int DEFAULT_DEPTH = 10;
+    private static final int DEFAULT_HASH_MB = 64;
+    private static final long NO_TIME_LIMIT = 3_600_000L;
+
+    // 中局局面，依次为黑白交替的落子；都在 10 层内没有必胜，否则求出胜负后迭代提前结束，测不到到达深度的用时
+    private static final int[][][] POSITIONS = {
+            {{7, 7}, {7, 8}, {8, 8}, {6, 6}, {8, 6}, {8, 7}, {9, 7}, {6, 9}, {6, 7}, {5, 8}},
+            {{7, 7}, {8, 8}, {7, 9}, {6, 8}, {8, 9}, {7, 8}, {6, 6}, {9, 9}},
+            {{7, 7}, {7, 8}, {6, 8}, {8, 6}, {6, 6}, {5, 5}, {8, 8}, {9, 9}, {6, 9}, {6, 10}},
+    };
+
+    private SmpBenchmark() {}
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        int hashMb = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_HASH_MB;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : THREADS[THREADS.length - 1];
+        System.out.printf("depth %d, hash %dMB, %d processors%n", depth, hashMb,
+                Runtime.getRuntime().availableProcessors());
+
+        // 辅助线程数按要测的最多线程数准备，不受默认上限（处理器核数）限制
+        SearchExecutor executor = new SearchExecutor(1, maxThreads - 1);
+        // 预热，让 JIT 编译完热点代码
+        run(executor, 1, Math.min(depth, 8), hashMb, false);
+
+        System.out.printf("%8s %12s %12s %10s%n", "threads", "time(ms)", "nps", "speedup");
+        double baseline = 0;
+        for (int threads : THREADS) {
+            if (threads > maxThreads) break;
+            long[] totals = run(executor, threads, depth, hashMb, threads == 1);
+            double millis = (double) totals[0] / POSITIONS.length;
+            long nps = totals[0] == 0 ? 0 : totals[1] * 1000 / totals[0];
+            if (threads == 1) baseline = millis;
+            System.out.printf("%8d %12.1f %12d %9.2fx%n", threads, millis, nps, baseline / millis);
+        }
+        executor.close();
+    }
+
+    /** 依次搜索所有局面，返回 {总用时毫秒, 总结点数}；verbose 时逐个局面输出 */
+    private static long[] run(SearchExecutor executor, int threads, int depth, int hashMb, boolean verbose) {
+        long millis = 0, nodes = 0;
+        for (int i = 0; i < POSITIONS.length; i++) {
+            Position position = Position.empty(15, RuleSet.FREESTYLE);
+            for (int[] move : POSITIONS[i]) position.make(move[0], move[1]);
+            try (TranspositionTable table = new TranspositionTable(hashMb)) {
+                SearchEngine engine = new SearchEngine(new PatternEvaluator(), table);
+                engine.setExecutor(executor);
+                engine.setThreads(threads);
+                engine.setThreatSearch(false);
+                SearchResult result = engine.search(position, NO_TIME_LIMIT, depth);
+                millis += result.millis();
+                nodes += result.nodes();
+                if (verbose) {
+                    System.out.printf("%8s %12d %12d   position %d, depth %d%n", "", result.millis(),
+                            result.millis() == 0 ? 0 : result.nodes() * 1000 / result.millis(), i + 1, result.depth());
+                }
+            }
+        }
+        return new long[]{millis, nodes};
+    }
+}
@@ -0,0 +1,400 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.LinePatterns;
+import com.gobang.common.logic.MoveStack;
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+import com.gobang.common.model.Piece;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 威胁空间搜索：只搜索威胁着法的连续冲四胜（VCF）与连续威胁胜（VCT）求解器
+ *
+ * 进攻方只走冲四（VCT 中还可以走活三），防守方只考虑必要的应着：
+ * 冲四只能堵唯一的成五点；活三可以堵该线上的空位，或者用自己的冲四反击。
+ * 防守方因此几乎没有分支，15~20 层的 VCF 通常只需要几百到几千个结点
+ * 已求解的局面按哈希记在表里，同一局面经不同次序到达时不再重复搜索；
+ * 必胜的局面同时记下胜着，再次到达时先重走这一步，恢复完整的变例和步数
+ * 冲四点、活三点和成五点都在某个棋子两格之内，扫描只遍历增量维护的 {@link CandidateSet}
+ *
+ * 求解器不是线程安全的；可以在搜索引擎的根结点调用，也可以单独用于解题和分析
+ */
+public final class ThreatSolver {
+    public static final int DEFAULT_VCF_DEPTH = 20;
+    public static final int DEFAULT_VCT_DEPTH = 6;
+
+    private static final int MAX_DEPTH = 32;
+    private static final int REACH = 4;
+    private static final int CHECK_INTERVAL = 63;
+    private static final int MEMO_BITS = 16;
+    // 哈希不含行棋方、求解模式与规则，写入记忆表前分别异或上
+    private static final long WHITE_TO_MOVE = 0x2D358DCCAA6C78A5L;
+    private static final long VCT_MODE = 0x5851F42D4C957F2DL;
+    private static final long RULE_MIX = 0x9E3779B97F4A7C15L;
+
+    private Position position;
+    private CandidateSet set;
+    private Board board;
+    private RuleSet rule;
+    private long ruleKey;
+    private Piece attacker;
+    private Piece defender;
+    private boolean vct;
+
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    private AtomicBoolean stop;
+    private boolean aborted;
+
+    // 每层的候选着法与分值
+    private final int[][] moves = new int[MAX_DEPTH][64];
+    private final int[][] scores = new int[MAX_DEPTH][64];
+    // 每层防守方的应着
+    private final int[][] replies = new int[MAX_DEPTH][64];
+    // 三角形变例表，按半步（进攻与防守各一步）计
+    private final int[][] line = new int[2 * MAX_DEPTH + 2][2 * MAX_DEPTH + 2];
+    private final int[] lineLength = new int[2 * MAX_DEPTH + 2];
+    private final int[] fives = new int[8];
+
+    // 记忆表：key -> 已证明必胜（~胜着的坐标，为负数），或者搜索到某个深度仍未找到（该深度）
+    private final long[] memoKeys;
+    private final int[] memoValues;
+    private final int memoMask;
+
+    public ThreatSolver() {
+        this(MEMO_BITS);
+    }
+
+    /** @param memoBits 记忆表大小为 2^memoBits 个条目 */
+    public ThreatSolver(int memoBits) {
+        this.memoKeys = new long[1 << memoBits];
+        this.memoValues = new int[1 << memoBits];
+        this.memoMask = (1 << memoBits) - 1;
+    }
+
+    /** 清空记忆表，换一盘棋或换规则时调用 */
+    public void clear() {
+        Arrays.fill(memoKeys, 0L);
+    }
+
+    public SearchResult solveVcf(Position position, long maxNodes, long timeLimitMillis) {
+        return solve(position, false, DEFAULT_VCF_DEPTH, maxNodes, timeLimitMillis, null);
+    }
+
+    /** @param stop 置位时尽快放弃求解，可以为 null */
+    public SearchResult solveVcf(Position position, long maxNodes, long timeLimitMillis, AtomicBoolean stop) {
+        return solve(position, false, DEFAULT_VCF_DEPTH, maxNodes, timeLimitMillis, stop);
+    }
+
+    public SearchResult solveVct(Position position, long maxNodes, long timeLimitMillis) {
+        return solve(position, true, DEFAULT_VCT_DEPTH, maxNodes, timeLimitMillis, null);
+    }
+
+    /** @param stop 置位时尽快放弃求解，可以为 null */
+    public SearchResult solveVct(Position position, long maxNodes, long timeLimitMillis, AtomicBoolean stop) {
+        return solve(position, true, DEFAULT_VCT_DEPTH, maxNodes, timeLimitMillis, stop);
+    }
+
+    public SearchResult solve(Position position, boolean vct, int maxDepth, long maxNodes, long timeLimitMillis) {
+        return solve(position, vct, maxDepth, maxNodes, timeLimitMillis, null);
+    }
+
+    /**
+     * 为 position 的行棋方求解，不修改传入的局面
+     * @param vct      是否允许活三（VCT），否则只走冲四（VCF）
+     * @param maxDepth 进攻方最多走几步
+     * @param stop     与结点数、时间预算一起定期检查，置位时按超出预算处理；可以为 null
+     * @return 找到必胜时 move 为第一步、pv 为主要变例、score 为 WIN - 步数；
+     *         没有找到（或超出预算）时 move 为 -1
+     */
+    public SearchResult solve(Position position, boolean vct, int maxDepth, long maxNodes, long timeLimitMillis,
+                              AtomicBoolean stop) {
+        long start = System.nanoTime();
+        this.position = position.copy();
+        this.set = new CandidateSet(this.position);
+        this.board = this.position.board();
+        this.rule = this.position.rule();
+        this.ruleKey = (rule.getId() + 1L) * RULE_MIX;
+        this.attacker = position.sideToMove();
+        this.defender = attacker.getOpposite();
+        this.vct = vct;
+        this.nodes = 0;
+        this.maxNodes = maxNodes;
+        this.deadline = start + timeLimitMillis * 1_000_000L;
+        this.stop = stop;
+        this.aborted = false;
+
+        int depth = Math.min(maxDepth, MAX_DEPTH - 1);
+        boolean win = false;
+        lineLength[0] = 0;
+        // 进攻方已经能成五
+        int five = firstFive(attacker);
+        if (five != -1) {
+            line[0][0] = five;
+            lineLength[0] = 1;
+            win = true;
+        } else {
+            // 防守方已经有成五点：必须先堵，有两个以上则无解
+            int count = allFives(defender);
+            if (count < 2) win = attack(depth, count == 1 ? fives[0] : -1, 0, 0);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000L;
+        if (!win || aborted) return new SearchResult(-1, 0, 0, nodes, millis, new int[0]);
+        int[] pv = Arrays.copyOf(line[0], lineLength[0]);
+        return new SearchResult(pv[0], SearchEngine.WIN - pv.length, pv.length, nodes, millis, pv);
+    }
+
+    public long nodes() { return nodes; }
+
+    /**
+     * 进攻方结点：是否存在一步威胁使进攻方必胜
+     * @param forced 防守方的成五点，进攻方必须落在这里，没有时为 -1
+     * @param ply    当前半步数，用于记录变例
+     */
+    private boolean attack(int depth, int forced, int level, int ply) {
+        lineLength[ply] = ply;
+        // 超出结点预算立即记为中止，否则上层会把预算截断当作“该深度内无解”写入记忆表
+        if (++nodes > maxNodes || (nodes & CHECK_INTERVAL) == 0 && (System.nanoTime() > deadline
+                || stop != null && stop.get())) {
+            aborted = true;
+        }
+        if (aborted || depth <= 0) return false;
+
+        long key = position.hash() ^ (position.sideToMove() == Piece.WHITE ? WHITE_TO_MOVE : 0L)
+                ^ (vct ? VCT_MODE : 0L) ^ ruleKey;
+        int slot = (int) (key ^ key >>> 32) & memoMask;
+        int proven = -1;
+        if (memoKeys[slot] == key) {
+            int value = memoValues[slot];
+            if (value >= depth) return false;
+            // 已证明必胜：先重走记下的胜着，顺带得到变例与步数；剩余深度不够时再搜其余着法
+            if (value < 0) proven = ~value;
+        }
+
+        int count = threats(forced, level);
+        int[] list = moves[level];
+        if (proven != -1) promote(list, count, proven);
+        for (int i = 0; i < count && !aborted; i++) {
+            int move = list[i];
+            int row = MoveStack.row(move), col = MoveStack.col(move);
+            set.make(row, col);
+            boolean win = afterThreat(row, col, depth, level, ply);
+            set.unmake();
+            if (win) {
+                line[ply][ply] = move;
+                System.arraycopy(line[ply + 1], ply + 1, line[ply], ply + 1, lineLength[ply + 1] - ply - 1);
+                lineLength[ply] = lineLength[ply + 1];
+                memoKeys[slot] = key;
+                memoValues[slot] = ~MoveStack.pack(row, col, Piece.EMPTY);
+                return true;
+            }
+        }
+        if (!aborted) {
+            memoKeys[slot] = key;
+            memoValues[slot] = depth;
+        }
+        return false;
+    }
+
+    /** 进攻方刚在 (row, col) 走出威胁，轮到防守方：是否所有应着都挡不住 */
+    private boolean afterThreat(int row, int col, int depth, int level, int ply) {
+        int count = fivesThrough(row, col, attacker);
+        if (count >= 2) return finish(ply + 1);
+        if (count == 1) {
+            // 冲四：防守方只能堵成五点，堵点是禁手时无法防守
+            int block = fives[0];
+            int br = MoveStack.row(block), bc = MoveStack.col(block);
+            if (rule.isForbidden(board, br, bc, defender)) return finish(ply + 1);
+            return reply(MoveStack.pack(br, bc, defender), depth, level, ply + 1);
+        }
+        // 活三：防守方可以堵这条线上的空位，也可以用冲四反击，所有应着都必须被攻破
+        int replyCount = defenses(row, col, level);
+        int[] list = replies[level];
+        for (int i = 0; i < replyCount; i++) {
+            if (!reply(list[i], depth, level, ply + 1) || aborted) return false;
+        }
+        return replyCount > 0;
+    }
+
+    /** 防守方走 move 之后进攻方是否仍然必胜 */
+    private boolean reply(int move, int depth, int level, int ply) {
+        lineLength[ply] = ply;
+        int row = MoveStack.row(move), col = MoveStack.col(move);
+        set.make(row, col);
+        boolean win;
+        if (rule.isWin(board, row, col, defender)) {
+            win = false;
+        } else {
+            // 防守方的应着自己成了冲四：进攻方下一步必须去堵
+            int count = fivesThrough(row, col, defender);
+            win = count < 2 && attack(depth - 1, count == 1 ? fives[0] : -1, level + 1, ply + 1);
+        }
+        set.unmake();
+        if (win) {
+            line[ply][ply] = move;
+            System.arraycopy(line[ply + 1], ply + 1, line[ply], ply + 1, lineLength[ply + 1] - ply - 1);
+            lineLength[ply] = lineLength[ply + 1];
+        }
+        return win;
+    }
+
+    /** 进攻方刚走出胜着，变例到此为止 */
+    private boolean finish(int ply) {
+        lineLength[ply] = ply;
+        return true;
+    }
+
+    // --- 着法生成 ---
+
+    /**
+     * 进攻方的威胁着法：冲四（成四的点），VCT 中再加上活三，按棋型分值排序
+     * forced 不为 -1 时只考虑这一点
+     */
+    private int threats(int forced, int level) {
+        int count = 0;
+        if (forced != -1) {
+            int score = threatScore(MoveStack.row(forced), MoveStack.col(forced));
+            if (score > 0) {
+                moves[level][0] = MoveStack.pack(MoveStack.row(forced), MoveStack.col(forced), attacker);
+                count = 1;
+            }
+            return count;
+        }
+        for (int i = 0; i < set.size(); i++) {
+            int r = set.row(i), c = set.col(i);
+            int score = threatScore(r, c);
+            if (score <= 0) continue;
+            count = push(moves, scores, level, count, MoveStack.pack(r, c, attacker), score);
+        }
+        MoveGenerator.sort(moves[level], scores[level], count);
+        return count;
+    }
+
+    /** 进攻方落在 (r, c) 的威胁分值，不构成所需威胁或是禁手时返回 0 */
+    private int threatScore(int r, int c) {
+        boolean exact = rule.isExactFive(attacker);
+        int fours = 0;
+        boolean three = false;
+        int score = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            int window = board.lineWindow(r, c, dir, attacker);
+            int info = LinePatterns.info(window, exact);
+            fours += LinePatterns.fours(info);
+            three |= LinePatterns.isOpenThree(info);
+            score += ShapeTable.score(LinePatterns.index(window));
+        }
+        if (fours == 0 && !(vct && three)) return 0;
+        if (rule.isForbidden(board, r, c, attacker)) return 0;
+        // 冲四优先于活三，分值再区分四三、双四
+        return (fours > 0 ? ShapeTable.STRAIGHT_FOUR : 0) + score;
+    }
+
+    /** 防守方对 (row, col) 处活三的应着：所在线上 ±4 内的空位，加上防守方所有冲四点 */
+    private int defenses(int row, int col, int level) {
+        int count = 0;
+        int[] out = replies[level];
+        for (int dir = 0; dir < 4; dir++) {
+            int info = LinePatterns.info(board.lineWindow(row, col, dir, attacker), rule.isExactFive(attacker));
+            if (!LinePatterns.isOpenThree(info)) continue;
+            int dr = Board.DIRECTIONS[dir][0], dc = Board.DIRECTIONS[dir][1];
+            for (int k = -REACH; k <= REACH; k++) {
+                int r = row + k * dr, c = col + k * dc;
+                if (k == 0 || !board.contains(r, c) || !board.isEmpty(r, c)) continue;
+                if (rule.isForbidden(board, r, c, defender)) continue;
+                out = addReply(out, level, count++, MoveStack.pack(r, c, defender));
+            }
+        }
+        boolean exact = rule.isExactFive(defender);
+        for (int i = 0; i < set.size(); i++) {
+            int r = set.row(i), c = set.col(i);
+            boolean four = false;
+            for (int dir = 0; dir < 4 && !four; dir++) {
+                four = LinePatterns.fours(LinePatterns.info(board.lineWindow(r, c, dir, defender), exact)) > 0;
+            }
+            if (!four || rule.isForbidden(board, r, c, defender)) continue;
+            int move = MoveStack.pack(r, c, defender);
+            if (!contains(out, count, move)) out = addReply(out, level, count++, move);
+        }
+        return count;
+    }
+
+    /** color 在 (row, col) 所在四条线上 ±4 内的成五点，结果放在 fives 中 */
+    private int fivesThrough(int row, int col, Piece color) {
+        int count = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            int dr = Board.DIRECTIONS[dir][0], dc = Board.DIRECTIONS[dir][1];
+            for (int k = -REACH; k <= REACH; k++) {
+                int r = row + k * dr, c = col + k * dc;
+                if (k == 0 || !board.contains(r, c) || !board.isEmpty(r, c)) continue;
+                if (!rule.isWin(board, r, c, color)) continue;
+                int move = MoveStack.pack(r, c, color);
+                if (!contains(fives, count, move)) {
+                    fives[count++] = move;
+                    if (count == fives.length) return count;
+                }
+            }
+        }
+        return count;
+    }
+
+    /** 全盘扫描 color 的成五点，只在根结点使用 */
+    private int allFives(Piece color) {
+        int count = 0;
+        for (int i = 0; i < set.size(); i++) {
+            int r = set.row(i), c = set.col(i);
+            if (rule.isWin(board, r, c, color)) {
+                fives[count++] = MoveStack.pack(r, c, color);
+                if (count == fives.length) return count;
+            }
+        }
+        return count;
+    }
+
+    private int firstFive(Piece color) {
+        return allFives(color) > 0 ? fives[0] : -1;
+    }
+
+    // --- 工具 ---
+
+    private static int push(int[][] moves, int[][] scores, int level, int index, int move, int score) {
+        if (index == moves[level].length) {
+            moves[level] = Arrays.copyOf(moves[level], index * 2);
+            scores[level] = Arrays.copyOf(scores[level], index * 2);
+        }
+        moves[level][index] = move;
+        scores[level][index] = score;
+        return index + 1;
+    }
+
+    private int[] addReply(int[] out, int level, int index, int move) {
+        if (index == out.length) {
+            out = Arrays.copyOf(out, index * 2);
+            replies[level] = out;
+        }
+        out[index] = move;
+        return out;
+    }
+
+    /** 把坐标与 cell 相同的着法移到最前，其余顺序不变 */
+    private static void promote(int[] list, int count, int cell) {
+        int row = MoveStack.row(cell), col = MoveStack.col(cell);
+        for (int i = 0; i < count; i++) {
+            int move = list[i];
+            if (MoveStack.row(move) != row || MoveStack.col(move) != col) continue;
+            System.arraycopy(list, 0, list, 1, i);
+            list[0] = move;
+            return;
+        }
+    }
+
+    private static boolean contains(int[] array, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (array[i] == value) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,110 @@
+package com.gobang.client.player.engine;
+
+/**
+ * 用时管理：为一步棋分配软、硬两个时限，并在迭代加深过程中决定何时停止
+ *
+ * 软时限：一轮迭代完成时已用时间超过它就不再开始下一轮；下一轮通常比之前所有轮加起来还长，所以软时限取目标用时的一部分
+ * 硬时限：搜索在此时无条件中止，返回已完成的最深一轮的结果
+ * 最佳着法在最近一轮发生变化时放宽软时限，连续几轮不变时收紧；对方刚走出冲四或活三时同样放宽，
+ * 放宽后仍不超过硬时限。只有一个着法可走（直接成五、唯一的堵点）时由 {@link SearchEngine} 直接落子，不计时
+ *
+ * <pre>
+ *   Budget budget = TimeManager.forClock(剩余毫秒, 每步加秒毫秒, 己方已走步数);
+ *   SearchResult result = engine.search(position, budget);
+ * </pre>
+ */
+public final class TimeManager {
+    // 按还要走多少步平分剩余时间：开局时估计的步数，以及无论走到第几步都至少按这么多步留时间
+    static final int EXPECTED_MOVES = 35, MIN_MOVES_TO_GO = 10;
+    // 软时限占目标用时的比例；硬时限最多为目标用时的几倍、剩余时间的几分之一
+    static final double SOFT_SHARE = 0.6;
+    static final int HARD_FACTOR = 3, HARD_SHARE = 4;
+    // 留给通信与调度的余量：至少这么多毫秒，或剩余时间的几分之一
+    static final long SAFETY_MILLIS = 50;
+    static final int SAFETY_SHARE = 20;
+    static final long MIN_MILLIS = 5;
+    // 最佳着法刚变化、连续多轮未变、对方刚形成威胁时软时限的倍数
+    static final double UNSTABLE_SCALE = 1.6, STABLE_SCALE = 0.7, THREAT_SCALE = 1.5;
+    static final int STABLE_ITERATIONS = 4;
+
+    /** 一步棋的时限（毫秒） */
+    public record Budget(long softMillis, long hardMillis) {
+
+        /** 硬时限不超过 maxMillis，例如每步时限 */
+        public Budget cap(long maxMillis) {
+            long hard = Math.max(MIN_MILLIS, Math.min(hardMillis, maxMillis));
+            return new Budget(Math.min(softMillis, hard), hard);
+        }
+
+        /** 已经用掉 millis 之后剩下的时限 */
+        public Budget after(long millis) {
+            return new Budget(Math.max(0, softMillis - millis), Math.max(MIN_MILLIS, hardMillis - millis));
+        }
+    }
+
+    /** 每步固定用时：最多用满 millis，已用过半就不再开始新一轮 */
+    public static Budget fixed(long millis) {
+        long hard = Math.max(MIN_MILLIS, millis);
+        return new Budget(hard / 2, hard);
+    }
+
+    /**
+     * 按棋钟分配
+     * @param remainingMillis 己方剩余时间
+     * @param incrementMillis 每走一步增加的时间
+     * @param movesPlayed     己方已走的步数
+     */
+    public static Budget forClock(long remainingMillis, long incrementMillis, int movesPlayed) {
+        long usable = remainingMillis - Math.max(SAFETY_MILLIS, remainingMillis / SAFETY_SHARE);
+        if (usable <= MIN_MILLIS) return new Budget(0, MIN_MILLIS);
+        int movesToGo = Math.max(MIN_MOVES_TO_GO, EXPECTED_MOVES - movesPlayed);
+        long target = usable / movesToGo + incrementMillis * 3 / 4;
+        long hard = Math.min(target * HARD_FACTOR, usable / HARD_SHARE);
+        hard = Math.max(MIN_MILLIS, Math.min(usable, Math.max(hard, target)));
+        return new Budget(Math.min(hard, (long) (target * SOFT_SHARE)), hard);
+    }
+
+    private final Budget budget;
+    private final long start;
+    private boolean threat;
+    private int lastMove = -1;
+    private int stable;
+
+    /** 开始计时 */
+    public TimeManager(Budget budget) {
+        this.budget = budget;
+        this.start = System.nanoTime();
+    }
+
+    public Budget budget() { return budget; }
+
+    /** 硬时限对应的 {@link System#nanoTime} 时刻 */
+    public long hardDeadline() {
+        return start + budget.hardMillis() * 1_000_000L;
+    }
+
+    public long elapsedMillis() {
+        return (System.nanoTime() - start) / 1_000_000L;
+    }
+
+    /** 对方刚形成需要应对的威胁，本步多给一些时间 */
+    public void threat() {
+        threat = true;
+    }
+
+    /**
+     * 一轮迭代完成后调用，记录本轮的最佳着法
+     * @return 是否应当停止，不再开始下一轮
+     */
+    public boolean iterationDone(int bestMove) {
+        if (bestMove == lastMove) stable++;
+        else stable = 0;
+        boolean changed = lastMove != -1 && bestMove != lastMove;
+        lastMove = bestMove;
+
+        double scale = changed ? UNSTABLE_SCALE : stable >= STABLE_ITERATIONS ? STABLE_SCALE : 1;
+        if (threat) scale *= THREAT_SCALE;
+        double soft = Math.min(budget.hardMillis(), budget.softMillis() * scale);
+        return System.nanoTime() - start > soft * 1_000_000L;
+    }
+}
@@ -0,0 +1,233 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.MoveStack;
+import com.gobang.common.model.Piece;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 置换表：固定大小，存放在堆外的 {@link MemorySegment} 中，不产生任何 Java 对象，也不给 GC 增加负担
+ *
+ * 每个桶 64 字节（一条缓存行），含 4 个 16 字节的条目，每个条目为两个 long：
+ * <pre>
+ *   word0 = key ^ data
+ *   word1 = data：着法 16 位 | 分值 32 位 | 深度 8 位 | 边界类型 2 位 | 世代 6 位
+ * </pre>
+ * 多个搜索线程不加锁地并发读写，写到一半的条目在读取时 key ^ word0 与 word1 对不上，会被当作未命中丢弃
+ *
+ * 着法只保存坐标（各 8 位），颜色由探测时的行棋方补上；超出 8 位范围的坐标（无边界棋盘的远处）不保存着法
+ */
+public final class TranspositionTable implements AutoCloseable {
+    public static final int DEFAULT_SIZE_MB = 16;
+
+    /** 边界类型 */
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;   // 分值 >= 存储值（发生剪枝）
+    public static final int UPPER = 3;   // 分值 <= 存储值（所有着法都没有超过 alpha）
+
+    /** 未命中时 {@link #probe} 的返回值（合法条目的边界类型不为 0，data 不可能为 0） */
+    public static final long MISS = 0L;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+    private static final int NO_MOVE = 0xFFFF;
+    private static final int AGE_MASK = 0x3F;
+    // 统计填充率时抽样的桶数
+    private static final int FILL_SAMPLE = 1000;
+
+    private final Arena arena;
+    private final MemorySegment table;
+    private final long bucketMask;
+    private final int sizeMb;
+    private volatile int age;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    /**
+     * 置换表统计
+     * @param collisions  写入时覆盖了本次搜索中另一个局面的条目的次数
+     * @param fillPermille 抽样得到的、属于当前世代的条目千分比
+     */
+    public record Stats(int sizeMb, long capacity, long probes, long hits, long stores, long collisions,
+                        int fillPermille) {
+        public double hitRate() { return probes == 0 ? 0 : (double) hits / probes; }
+
+        public double collisionRate() { return stores == 0 ? 0 : (double) collisions / stores; }
+
+        @Override
+        public String toString() {
+            return String.format("tt %dMB entries %d probes %d hit %.1f%% collision %.2f%% fill %d‰",
+                    sizeMb, capacity, probes, hitRate() * 100, collisionRate() * 100, fillPermille);
+        }
+    }
+
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /** @param sizeMb 表的大小（MB），向下取整到 2 的幂个桶 */
+    public TranspositionTable(int sizeMb) {
+        if (sizeMb < 1) throw new IllegalArgumentException("置换表大小至少为 1MB: " + sizeMb);
+        long buckets = Long.highestOneBit((long) sizeMb * (1 << 20) / BUCKET_BYTES);
+        this.sizeMb = sizeMb;
+        this.bucketMask = buckets - 1;
+        this.arena = Arena.ofShared();
+        this.table = arena.allocate(buckets * BUCKET_BYTES, BUCKET_BYTES);
+    }
+
+    /** 条目总数 */
+    public long capacity() {
+        return (bucketMask + 1) * BUCKET_ENTRIES;
+    }
+
+    /** 开始新的一次搜索：旧世代的条目优先被替换 */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /** 清空表和统计 */
+    public void clear() {
+        table.fill((byte) 0);
+        probes.reset();
+        hits.reset();
+        stores.reset();
+        collisions.reset();
+    }
+
+    /**
+     * 查找局面，返回条目的 data，未命中返回 {@link #MISS}
+     * 用 {@link #move}、{@link #score}、{@link #depth}、{@link #bound} 解码
+     */
+    public long probe(long key) {
+        probes.increment();
+        long base = bucket(key);
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            long offset = base + (long) i * ENTRY_BYTES;
+            long data = table.get(ValueLayout.JAVA_LONG, offset + 8);
+            if ((table.get(ValueLayout.JAVA_LONG, offset) ^ data) == key && data != MISS) {
+                hits.increment();
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * 写入局面：同一局面直接覆盖（新结果没有着法时保留旧着法），
+     * 否则替换桶中最没有价值的条目：空位优先，其次是旧世代、深度浅的条目
+     * @param move 压缩编码的着法，没有时为 -1
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        stores.increment();
+        long base = bucket(key);
+        int currentAge = age;
+        long victim = base;
+        int victimValue = Integer.MAX_VALUE;
+        long victimData = MISS;
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            long offset = base + (long) i * ENTRY_BYTES;
+            long data = table.get(ValueLayout.JAVA_LONG, offset + 8);
+            if (data == MISS) {
+                victim = offset;
+                victimData = MISS;
+                break;
+            }
+            if ((table.get(ValueLayout.JAVA_LONG, offset) ^ data) == key) {
+                if (move == -1) move = decodeMove(data);
+                victim = offset;
+                victimData = MISS;
+                break;
+            }
+            // 每相差一个世代相当于浅 8 层
+            int value = depth(data) - 8 * ((currentAge - age(data)) & AGE_MASK);
+            if (value < victimValue) {
+                victim = offset;
+                victimValue = value;
+                victimData = data;
+            }
+        }
+        if (victimData != MISS && age(victimData) == currentAge) collisions.increment();
+
+        long data = encode(move, score, depth, bound, currentAge);
+        table.set(ValueLayout.JAVA_LONG, victim, key ^ data);
+        table.set(ValueLayout.JAVA_LONG, victim + 8, data);
+    }
+
+    private long bucket(long key) {
+        // 低位决定桶，高位由 key 校验，避免二者相关
+        return ((key ^ key >>> 32) & bucketMask) * BUCKET_BYTES;
+    }
+
+    // --- 编码 ---
+
+    private static long encode(int move, int score, int depth, int bound, int age) {
+        return (long) encodeMove(move) << 48
+                | (score & 0xFFFFFFFFL) << 16
+                | (long) (Math.min(depth, 0xFF) & 0xFF) << 8
+                | (long) bound << 6
+                | age;
+    }
+
+    private static int encodeMove(int move) {
+        if (move == -1) return NO_MOVE;
+        int row = MoveStack.row(move), col = MoveStack.col(move);
+        if (row < -128 || row > 127 || col < -128 || col > 127) return NO_MOVE;
+        return (row & 0xFF) << 8 | (col & 0xFF);
+    }
+
+    private static int decodeMove(long data) {
+        int bits = (int) (data >>> 48);
+        if (bits == NO_MOVE) return -1;
+        // 颜色在 store 中无关紧要，重新编码时只取坐标
+        return MoveStack.pack((byte) (bits >>> 8), (byte) bits, Piece.BLACK);
+    }
+
+    /** 条目中的着法，color 为该局面的行棋方，没有着法返回 -1 */
+    public static int move(long data, Piece color) {
+        int bits = (int) (data >>> 48);
+        if (bits == NO_MOVE) return -1;
+        return MoveStack.pack((byte) (bits >>> 8), (byte) bits, color);
+    }
+
+    public static int score(long data) { return (int) (data >>> 16); }
+
+    public static int depth(long data) { return (int) (data >>> 8) & 0xFF; }
+
+    public static int bound(long data) { return (int) (data >>> 6) & 3; }
+
+    private static int age(long data) { return (int) data & AGE_MASK; }
+
+    // --- 统计 ---
+
+    /** 抽样前若干个桶，返回属于当前世代的条目千分比 */
+    public int fillPermille() {
+        long buckets = Math.min(FILL_SAMPLE, bucketMask + 1);
+        int currentAge = age;
+        int used = 0;
+        for (long b = 0; b < buckets; b++) {
+            for (int i = 0; i < BUCKET_ENTRIES; i++) {
+                long data = table.get(ValueLayout.JAVA_LONG, b * BUCKET_BYTES + (long) i * ENTRY_BYTES + 8);
+                if (data != MISS && age(data) == currentAge) used++;
+            }
+        }
+        return (int) (used * 1000L / (buckets * BUCKET_ENTRIES));
+    }
+
+    public Stats stats() {
+        return new Stats(sizeMb, capacity(), probes.sum(), hits.sum(), stores.sum(), collisions.sum(),
+                fillPermille());
+    }
+
+    /** 释放堆外内存，之后不能再使用 */
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -4,6 +4,8 @@ import com.gobang.common.logic.Game;
 import com.gobang.common.logic.GameService;
 import com.gobang.common.model.Piece;
 
+import java.util.concurrent.CompletableFuture;
+
 public class LocalGameService implements GameService {
     private final Game game;
 
@@ -12,19 +14,19 @@ public class LocalGameService implements GameService {
     }
 
     @Override
-    public boolean requestMove(int row, int col, Piece color) {
+    public CompletableFuture<Boolean> requestMove(int row, int col, Piece color) {
         // 如果没指定颜色，使用当前回合颜色
         if (color == null) {
             color = game.getCurrentTurn();
         }
-        return game.placePiece(row, col, color);
+        return game.submitMove(row, col, color);
     }
 
     @Override
-    public void requestUndo() { game.undo(); }
+    public void requestUndo() { game.submitUndo(); }
 
     @Override
-    public void requestReset() { game.reset(); }
+    public void requestReset() { game.submitReset(); }
 
     @Override
     public void sendChat(String message) {
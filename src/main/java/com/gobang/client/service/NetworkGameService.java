@@ -6,8 +6,13 @@ import com.gobang.common.model.Move;
 import com.gobang.common.model.Piece;
 import com.gobang.common.network.Message;
 import com.gobang.common.network.MessageType;
+import com.gobang.common.trace.Tracer;
+
+import java.util.concurrent.CompletableFuture;
 
 public class NetworkGameService implements GameService {
+    private static final Tracer TRACE = Tracer.get("NetworkService");
+
     private final NetClient netClient;
     private final Piece myColor;
     private final String userName;
@@ -20,37 +25,37 @@ public class NetworkGameService implements GameService {
     }
 
     @Override
-    public boolean requestMove(int row, int col, Piece color) {
-        if (color != myColor) return false;
-        System.out.println("[NetworkService] 发送落子消息: (" + row + "," + col + "), 颜色: " + color);
+    public CompletableFuture<Boolean> requestMove(int row, int col, Piece color) {
+        if (color != myColor) return CompletableFuture.completedFuture(false);
+        TRACE.debug("发送落子消息: ({},{}), 颜色: {}", row, col, color);
         netClient.sendMessage(new Message(MessageType.MOVE, new Move(row, col, color)));
-        return true;
+        return CompletableFuture.completedFuture(true);
     }
 
     @Override
     public void requestUndo() {
-        System.out.println("[NetworkService] 发送悔棋请求");
+        TRACE.debug("发送悔棋请求");
         netClient.sendMessage(new Message(MessageType.REGRET_REQUEST, userName + "请求悔棋"));
     }
 
 
     @Override
     public void requestReset() {
-        System.out.println("[NetworkService] 发送重置请求");
+        TRACE.debug("发送重置请求");
         netClient.sendMessage(new Message(MessageType.RESET_REQUEST, userName + "请求新一局"));
     }
 
 
     @Override
     public void sendChat(String msg) {
-        System.out.println("[NetworkService] 发送聊天: " + msg);
+        TRACE.debug("发送聊天: {}", msg);
         netClient.sendMessage(new Message(MessageType.CHAT, msg));
     }
 
 
     @Override
     public void surrender() {
-        System.out.println("[NetworkService] 发送认输");
+        TRACE.debug("发送认输");
         netClient.sendMessage(new Message(MessageType.SURRENDER, "认输"));
     }
 }
\ No newline at end of file
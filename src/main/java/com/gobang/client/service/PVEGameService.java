@@ -1,63 +1,65 @@
 package com.gobang.client.service;
 
 import com.gobang.client.player.AIPlayer;
+import com.gobang.client.player.MctsPlayer;
 import com.gobang.client.player.Player;
 import com.gobang.common.logic.Game;
 import com.gobang.common.logic.GameService;
 import com.gobang.common.model.Piece;
+import com.gobang.common.trace.Tracer;
+
+import java.util.concurrent.CompletableFuture;
 
 public class PVEGameService implements GameService {
+    private static final Tracer TRACE = Tracer.get("PVEService");
+
     private final Game  game;
 
     public PVEGameService(Game game) {
         this.game = game;
+        // 人机对战中 UI 线程和 AI 线程都会落子，统一交给棋局的写线程串行处理
+        game.startEventLoop();
     }
 
     @Override
-    public boolean requestMove(int row, int col, Piece color)
+    public CompletableFuture<Boolean> requestMove(int row, int col, Piece color)
     {
-        System.out.println("[PVEService] 请求落子: (" + row + "," + col + "), 颜色: " + color);
-
-        // 直接调用游戏的落子逻辑
-        boolean success = game.placePiece(row, col, color);
-        System.out.println("[PVEService] 落子结果: " + success);
-
-        return success;
+        TRACE.debug("请求落子: ({},{}), 颜色: {}", row, col, color);
 
+        // 交给棋局的写线程执行，界面线程不等待
+        return game.submitMove(row, col, color).thenApply(success -> {
+            TRACE.debug("落子结果: {}", success);
+            return success;
+        });
     }
 
     @Override
     public void requestUndo()
     {
-        // PVE模式需要连续悔棋两次（玩家一步，AI一步）
-        game.undo();
-        if (game.getCurrentTurn() != null) {
-            Player currentPlayer = (game.getCurrentTurn() == Piece.BLACK) ?
-                    game.playerBlack : game.playerWhite;
-            if (currentPlayer instanceof AIPlayer) {
-                game.undo();
+        // PVE模式需要连续悔棋两次（玩家一步，AI一步）；第二次在第一次完成后由写线程判断
+        game.submitUndo().thenCompose(done -> {
+            Piece turn = game.getCurrentTurn();
+            if (turn == null) return CompletableFuture.completedFuture(null);
+            Player currentPlayer = turn == Piece.BLACK ? game.playerBlack : game.playerWhite;
+            if (currentPlayer instanceof AIPlayer || currentPlayer instanceof MctsPlayer) {
+                return game.submitUndo();
             }
-        }
+            return CompletableFuture.completedFuture(null);
+        });
     }
 
     @Override
     public void requestReset() {
-        System.out.println("[PVEService] 重置请求");
-        game.reset();
-
-        // 重置后，如果是AI先手，触发AI下棋
-        if (game.getCurrentTurn() == Piece.BLACK && game.playerBlack != null &&
-                game.playerBlack instanceof AIPlayer) {
-            System.out.println("[PVEService] 重置后AI先手，触发AI下棋");
-            game.playerBlack.onTurn(game);
-        }
+        TRACE.debug("重置请求");
+        // 重置后由棋局触发先手玩家的回合，AI 先手时会自动开始搜索
+        game.submitReset();
     }
 
     @Override
     public void sendChat(String message) {
-        System.out.println("[PVE] 聊天: " + message);
+        TRACE.debug("聊天: {}", message);
     }
 
     @Override
-    public void surrender() { System.out.println("玩家认输"); }
+    public void surrender() { TRACE.info("玩家认输"); }
 }
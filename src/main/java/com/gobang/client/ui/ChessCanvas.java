@@ -1,5 +1,7 @@
 package com.gobang.client.ui;
 
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.Game;
 import com.gobang.common.model.Piece;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
@@ -9,17 +11,66 @@ import javafx.scene.paint.CycleMethod;
 import javafx.scene.paint.Stop;
 
 public class ChessCanvas extends Canvas {
-    private final int BOARD_SIZE = 15;
+    // 无边界棋盘初始显示的路数及视窗扩展时保留的边距
+    private static final int UNBOUNDED_VIEW_LINES = 15;
+    private static final int VIEW_MARGIN = 2;
+
+    // 当前显示的路数
+    private int lines = Game.DEFAULT_BOARD_SIZE;
+    private boolean unbounded;
+    // 视窗左上角对应的棋盘坐标，有边界棋盘恒为 (0, 0)
+    private int originRow;
+    private int originCol;
     private double cellSize;
     private final double padding = 30.0;
 
     public void initBoard(double size) {
+        initBoard(size, Game.DEFAULT_BOARD_SIZE);
+    }
+
+    /**
+     * @param boardSize 棋盘边长，{@link Board#UNBOUNDED} 表示无边界棋盘
+     */
+    public void initBoard(double size, int boardSize) {
         this.setWidth(size);
         this.setHeight(size);
-        this.cellSize = (size - padding * 2) / (BOARD_SIZE - 1);
+        this.unbounded = boardSize == Board.UNBOUNDED;
+        if (unbounded) {
+            // 以 (0, 0) 为中心显示
+            this.lines = UNBOUNDED_VIEW_LINES;
+            this.originRow = this.originCol = -(UNBOUNDED_VIEW_LINES / 2);
+        } else {
+            this.lines = boardSize;
+            this.originRow = this.originCol = 0;
+        }
+        updateCellSize();
         drawBoard();
     }
 
+    /**
+     * 无边界棋盘：若 (row, col) 靠近或超出视窗边缘则扩大视窗
+     * @return 视窗是否发生变化（变化后需要整体重绘）
+     */
+    public boolean ensureVisible(int row, int col) {
+        if (!unbounded) return false;
+        int minRow = Math.min(originRow, row - VIEW_MARGIN);
+        int minCol = Math.min(originCol, col - VIEW_MARGIN);
+        int maxRow = Math.max(originRow + lines - 1, row + VIEW_MARGIN);
+        int maxCol = Math.max(originCol + lines - 1, col + VIEW_MARGIN);
+        int newLines = Math.max(maxRow - minRow, maxCol - minCol) + 1;
+        if (minRow == originRow && minCol == originCol && newLines == lines) return false;
+
+        originRow = minRow;
+        originCol = minCol;
+        lines = newLines;
+        updateCellSize();
+        return true;
+    }
+
+    private void updateCellSize() {
+        this.cellSize = (getWidth() - padding * 2) / (lines - 1);
+    }
+
     public void drawBoard() {
         GraphicsContext gc = getGraphicsContext2D();
         gc.clearRect(0, 0, getWidth(), getHeight());
@@ -31,7 +82,7 @@ public class ChessCanvas extends Canvas {
         // 2. 绘制网格线
         gc.setStroke(Color.BLACK);
         gc.setLineWidth(1.0);
-        for (int i = 0; i < BOARD_SIZE; i++) {
+        for (int i = 0; i < lines; i++) {
             double pos = padding + i * cellSize;
             gc.strokeLine(padding, pos, getWidth() - padding, pos); // 横线
             gc.strokeLine(pos, padding, pos, getHeight() - padding); // 竖线
@@ -40,9 +91,10 @@ public class ChessCanvas extends Canvas {
 
     public void drawPiece(int row, int col, Piece color) {
         if (color == Piece.EMPTY) return;
+        if (row < originRow || row >= originRow + lines || col < originCol || col >= originCol + lines) return;
         GraphicsContext gc = getGraphicsContext2D();
-        double x = padding + col * cellSize;
-        double y = padding + row * cellSize;
+        double x = padding + (col - originCol) * cellSize;
+        double y = padding + (row - originRow) * cellSize;
         double r = cellSize * 0.45;
 
         // 使用径向渐变提升立体感
@@ -56,6 +108,6 @@ public class ChessCanvas extends Canvas {
         gc.fillOval(x - r, y - r, r * 2, r * 2);
     }
 
-    public int getRowByY(double y) { return (int) Math.round((y - padding) / cellSize); }
-    public int getColByX(double x) { return (int) Math.round((x - padding) / cellSize); }
+    public int getRowByY(double y) { return (int) Math.round((y - padding) / cellSize) + originRow; }
+    public int getColByX(double x) { return (int) Math.round((x - padding) / cellSize) + originCol; }
 }
\ No newline at end of file
@@ -0,0 +1,273 @@
+package com.gobang.common.logic;
+
+import com.gobang.common.model.Piece;
+
+import java.util.Arrays;
+
+/**
+ * 位棋盘：棋局的原始表示
+ * 每种颜色按行、列、主对角线、副对角线各保存一份 long 位图，
+ * 落子/悔棋只是置位/清位，五连判定通过移位运算在常数时间内完成
+ */
+public final class BitBoard implements Board {
+    public static final int MAX_SIZE = 64;
+
+    private final int size;
+    // [颜色][行]，第 c 位表示第 c 列
+    private final long[][] rows;
+    // [颜色][列]，第 r 位表示第 r 行
+    private final long[][] cols;
+    // [颜色][r - c + size - 1]，第 c 位
+    private final long[][] diags;
+    // [颜色][r + c]，第 c 位
+    private final long[][] antis;
+    // 各条线上属于棋盘内的位：横竖线为整行，斜线随位置变短
+    private final long fullLine;
+    private final long[] diagMasks;
+    private final long[] antiMasks;
+    private int count;
+
+    public BitBoard(int size) {
+        if (size < 5 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("棋盘大小必须在 5 到 " + MAX_SIZE + " 之间: " + size);
+        }
+        this.size = size;
+        this.rows = new long[2][size];
+        this.cols = new long[2][size];
+        this.diags = new long[2][2 * size - 1];
+        this.antis = new long[2][2 * size - 1];
+        this.fullLine = size == 64 ? -1L : (1L << size) - 1;
+        this.diagMasks = new long[2 * size - 1];
+        this.antiMasks = new long[2 * size - 1];
+        for (int i = 0; i < 2 * size - 1; i++) {
+            // 主对角线 r - c = i - size + 1，列范围 [max(0, -d), min(size - 1, size - 1 - d)]
+            int d = i - size + 1;
+            diagMasks[i] = bitRange(Math.max(0, -d), Math.min(size - 1, size - 1 - d));
+            // 副对角线 r + c = i，列范围 [max(0, i - size + 1), min(size - 1, i)]
+            antiMasks[i] = bitRange(Math.max(0, i - size + 1), Math.min(size - 1, i));
+        }
+    }
+
+    private BitBoard(BitBoard other) {
+        this.size = other.size;
+        this.rows = new long[][]{other.rows[0].clone(), other.rows[1].clone()};
+        this.cols = new long[][]{other.cols[0].clone(), other.cols[1].clone()};
+        this.diags = new long[][]{other.diags[0].clone(), other.diags[1].clone()};
+        this.antis = new long[][]{other.antis[0].clone(), other.antis[1].clone()};
+        this.fullLine = other.fullLine;
+        this.diagMasks = other.diagMasks;
+        this.antiMasks = other.antiMasks;
+        this.count = other.count;
+    }
+
+    private static long bitRange(int from, int to) {
+        long upper = to == 63 ? -1L : (1L << (to + 1)) - 1;
+        return upper & -(1L << from);
+    }
+
+    /** 颜色在位图数组中的下标：黑 0，白 1 */
+    public static int index(Piece color) {
+        return color.getValue() - 1;
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public int count() { return count; }
+
+    @Override
+    public boolean isFull() { return count >= size * size; }
+
+    @Override
+    public boolean contains(int row, int col) {
+        return row >= 0 && row < size && col >= 0 && col < size;
+    }
+
+    @Override
+    public boolean isEmpty(int row, int col) {
+        return ((rows[0][row] | rows[1][row]) >>> col & 1L) == 0;
+    }
+
+    @Override
+    public Piece get(int row, int col) {
+        if ((rows[0][row] >>> col & 1L) != 0) return Piece.BLACK;
+        if ((rows[1][row] >>> col & 1L) != 0) return Piece.WHITE;
+        return Piece.EMPTY;
+    }
+
+    @Override
+    public void place(int row, int col, Piece color) {
+        int i = index(color);
+        long bit = 1L << col;
+        rows[i][row] |= bit;
+        cols[i][col] |= 1L << row;
+        diags[i][row - col + size - 1] |= bit;
+        antis[i][row + col] |= bit;
+        count++;
+    }
+
+    @Override
+    public void remove(int row, int col, Piece color) {
+        int i = index(color);
+        long bit = ~(1L << col);
+        rows[i][row] &= bit;
+        cols[i][col] &= ~(1L << row);
+        diags[i][row - col + size - 1] &= bit;
+        antis[i][row + col] &= bit;
+        count--;
+    }
+
+    /** 行位图（第 c 位为第 c 列），供 AI 等热点路径直接使用 */
+    public long rowBits(Piece color, int row) {
+        return rows[index(color)][row];
+    }
+
+    /** 列位图（第 r 位为第 r 行） */
+    public long colBits(Piece color, int col) {
+        return cols[index(color)][col];
+    }
+
+    /**
+     * 取 (row, col) 所在方向 dir 的整条线位图
+     * 横线与两条斜线以列号为位序，竖线以行号为位序，见 {@link #linePos}
+     */
+    public long line(Piece color, int dir, int row, int col) {
+        int i = index(color);
+        return switch (dir) {
+            case HORIZONTAL -> rows[i][row];
+            case VERTICAL -> cols[i][col];
+            case DIAGONAL -> diags[i][row - col + size - 1];
+            default -> antis[i][row + col];
+        };
+    }
+
+    /** (row, col) 所在方向 dir 的线上，属于棋盘内的位 */
+    public long lineMask(int dir, int row, int col) {
+        return switch (dir) {
+            case HORIZONTAL, VERTICAL -> fullLine;
+            case DIAGONAL -> diagMasks[row - col + size - 1];
+            default -> antiMasks[row + col];
+        };
+    }
+
+    /** (row, col) 在方向 dir 的线位图中的位序 */
+    public static int linePos(int dir, int row, int col) {
+        return dir == VERTICAL ? row : col;
+    }
+
+    @Override
+    public int runLength(int row, int col, int dir, Piece color) {
+        int pos = linePos(dir, row, col);
+        return run(line(color, dir, row, col) | 1L << pos, pos);
+    }
+
+    @Override
+    public boolean wouldWin(int row, int col, Piece color) {
+        for (int dir = 0; dir < 4; dir++) {
+            if (runLength(row, col, dir, color) >= 5) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int lineWindow(int row, int col, int dir, Piece color) {
+        int pos = linePos(dir, row, col);
+        long own = window(line(color, dir, row, col), pos);
+        long opponent = window(line(color.getOpposite(), dir, row, col), pos);
+        // 棋盘外（包括移位移入的位）都视为阻挡
+        long blocked = (opponent | ~window(lineMask(dir, row, col), pos)) & 0x7FF;
+        if (dir == ANTI_DIAGONAL) {
+            // 反斜线以列号为位序，而方向 (1, -1) 上列号递减，翻转后才与 Board 约定的偏移顺序一致
+            own = mirror(own);
+            blocked = mirror(blocked);
+        }
+        return dropCenter(own) | dropCenter(blocked) << 10;
+    }
+
+    /** 翻转 11 位窗口 */
+    private static long mirror(long window) {
+        return Integer.reverse((int) window) >>> 21;
+    }
+
+    /** 取线位图中 pos-5 ~ pos+5 共 11 位，移到低位 */
+    private static long window(long line, int pos) {
+        int shift = pos - 5;
+        return (shift >= 0 ? line >>> shift : line << -shift) & 0x7FF;
+    }
+
+    /** 去掉 11 位窗口的中心位，得到 10 位邻居 */
+    private static int dropCenter(long window) {
+        return (int) (window & 0x1F | (window >>> 6 & 0x1F) << 5);
+    }
+
+    @Override
+    public void forEachStone(StoneVisitor visitor) {
+        for (int i = 0; i < 2; i++) {
+            Piece color = i == 0 ? Piece.BLACK : Piece.WHITE;
+            for (int r = 0; r < size; r++) {
+                long bits = rows[i][r];
+                while (bits != 0) {
+                    visitor.visit(r, Long.numberOfTrailingZeros(bits), color);
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int minRow() {
+        for (int r = 0; r < size; r++) if ((rows[0][r] | rows[1][r]) != 0) return r;
+        return size;
+    }
+
+    @Override
+    public int maxRow() {
+        for (int r = size - 1; r >= 0; r--) if ((rows[0][r] | rows[1][r]) != 0) return r;
+        return -1;
+    }
+
+    @Override
+    public int minCol() {
+        for (int c = 0; c < size; c++) if ((cols[0][c] | cols[1][c]) != 0) return c;
+        return size;
+    }
+
+    @Override
+    public int maxCol() {
+        for (int c = size - 1; c >= 0; c--) if ((cols[0][c] | cols[1][c]) != 0) return c;
+        return -1;
+    }
+
+    /** 位图 line 中包含第 pos 位的连续 1 的长度（要求该位为 1） */
+    static int run(long line, int pos) {
+        int up = Long.numberOfTrailingZeros(~(line >>> pos));
+        int down = Long.numberOfLeadingZeros(~(line << (63 - pos)));
+        return up + down - 1;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < 2; i++) {
+            Arrays.fill(rows[i], 0L);
+            Arrays.fill(cols[i], 0L);
+            Arrays.fill(diags[i], 0L);
+            Arrays.fill(antis[i], 0L);
+        }
+        count = 0;
+    }
+
+    @Override
+    public BitBoard copy() {
+        return new BitBoard(this);
+    }
+
+    /** 兼容视图：复制出一份 Piece[][] */
+    public Piece[][] toArray() {
+        Piece[][] board = new Piece[size][size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) board[r][c] = get(r, c);
+        }
+        return board;
+    }
+}
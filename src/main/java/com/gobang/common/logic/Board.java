@@ -0,0 +1,92 @@
+package com.gobang.common.logic;
+
+import com.gobang.common.model.Piece;
+
+/**
+ * 棋盘存储接口
+ * 有边界棋盘使用 {@link BitBoard}，无边界（自由扩展）棋盘使用 {@link SparseBoard}
+ */
+public interface Board {
+    /** 表示无边界棋盘的大小 */
+    int UNBOUNDED = 0;
+
+    /** 四个判定方向：横、竖、主对角线（右下）、副对角线（左下） */
+    int HORIZONTAL = 0;
+    int VERTICAL = 1;
+    int DIAGONAL = 2;
+    int ANTI_DIAGONAL = 3;
+    /** 各方向的 {行增量, 列增量}，下标与上面的方向常量对应 */
+    int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    /** 棋子访问回调，用于遍历所有棋子 */
+    @FunctionalInterface
+    interface StoneVisitor {
+        void visit(int row, int col, Piece color);
+    }
+
+    /** 棋盘边长，无边界棋盘返回 {@link #UNBOUNDED} */
+    int size();
+
+    boolean contains(int row, int col);
+
+    boolean isEmpty(int row, int col);
+
+    Piece get(int row, int col);
+
+    void place(int row, int col, Piece color);
+
+    void remove(int row, int col, Piece color);
+
+    /** 棋子总数 */
+    int count();
+
+    boolean isFull();
+
+    /** 在 (row, col) 假设为 color 的情况下，该点所在方向 dir 上的连子长度 */
+    int runLength(int row, int col, int dir, Piece color);
+
+    /** 若 color 落在 (row, col)，是否形成五连或更长（不修改棋盘） */
+    default boolean wouldWin(int row, int col, Piece color) {
+        for (int dir = 0; dir < 4; dir++) {
+            if (runLength(row, col, dir, color) >= 5) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 取 (row, col) 在方向 dir 上前后各 5 格（不含自身）的线段，供棋型查表使用
+     * 低 10 位为 color 的棋子，高 10 位为阻挡（对方棋子或棋盘外）；
+     * 第 0~4 位依次为偏移 -5~-1，第 5~9 位依次为偏移 +1~+5，见 {@link LinePatterns}
+     */
+    default int lineWindow(int row, int col, int dir, Piece color) {
+        int dr = DIRECTIONS[dir][0];
+        int dc = DIRECTIONS[dir][1];
+        int own = 0;
+        int blocked = 0;
+        for (int i = 0; i < 10; i++) {
+            int offset = i < 5 ? i - 5 : i - 4;
+            int r = row + offset * dr;
+            int c = col + offset * dc;
+            if (!contains(r, c)) {
+                blocked |= 1 << i;
+            } else {
+                Piece piece = get(r, c);
+                if (piece == color) own |= 1 << i;
+                else if (piece != Piece.EMPTY) blocked |= 1 << i;
+            }
+        }
+        return own | blocked << 10;
+    }
+
+    void forEachStone(StoneVisitor visitor);
+
+    /** 棋子包围盒，空盘时 min 大于 max */
+    int minRow();
+    int maxRow();
+    int minCol();
+    int maxCol();
+
+    void clear();
+
+    Board copy();
+}
@@ -0,0 +1,19 @@
+package com.gobang.common.logic;
+
+import com.gobang.common.model.Piece;
+
+/**
+ * 无禁手规则：任意一方五连及以上即获胜
+ */
+final class FreestyleRule implements RuleSet {
+    @Override
+    public int getId() { return 0; }
+
+    @Override
+    public String getName() { return "无禁手"; }
+
+    @Override
+    public boolean isWin(Board board, int row, int col, Piece color) {
+        return board.wouldWin(row, col, color);
+    }
+}
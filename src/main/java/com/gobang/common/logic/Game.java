@@ -3,8 +3,20 @@ package com.gobang.common.logic;
 import com.gobang.client.player.Player;
 import com.gobang.common.model.Move;
 import com.gobang.common.model.Piece;
+import com.gobang.common.model.Threat;
+import com.gobang.common.model.ThreatType;
 import com.gobang.common.model.GameState;
-import java.util.Stack;
+import com.gobang.common.trace.Tracer;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 
 /**
@@ -12,14 +24,35 @@ import java.util.Stack;
  */
 
 public class Game {
-    public static final int BOARD_SIZE = 15;
-    private final Piece[][] board;
-    private Piece currentTurn;
-    private GameState state;
-    private final Stack<Move> moveHistory;
+    private static final Tracer TRACE = Tracer.get("Game");
+
+    public static final int DEFAULT_BOARD_SIZE = 15;
+    // 有边界时为位棋盘，无边界时为稀疏棋盘
+    private final Board board;
+    private volatile Piece currentTurn;
+    private volatile GameState state;
+    // 压缩的落子记录，同时保存每手之后的局面哈希
+    private final MoveStack moveHistory;
+    // 开局（最近一次重置）与每手棋落下的时刻（毫秒时间戳），随落子在写区间内记录
+    private volatile long startTime;
+    private long[] moveTimes;
+    // 局面的 Zobrist 哈希，随落子/悔棋增量维护
+    private long hash;
+    // 胜负与禁手规则
+    private RuleSet rule = RuleSet.FREESTYLE;
+    // 双方威胁点索引，随落子/悔棋增量更新
+    private final ThreatIndex threats;
+    // 顺序锁版本号：写入期间为奇数，snapshot() 据此检测读到的数据是否被并发修改
+    private volatile int version;
 
     // 监听器引用，通知UI更新
-    private GameListener listener;
+    private volatile GameListener listener;
+
+    // 事件循环模式：单写线程依次执行落子/悔棋/重置指令，另一个线程按顺序派发监听器事件
+    // 由 startEventLoop/shutdownEventLoop 在棋局锁内修改，各 submit 方法不加锁读取
+    private volatile ExecutorService commandLoop;
+    private volatile ExecutorService eventLoop;
+    private volatile Thread commandThread;
     // 玩家
     public Player playerBlack;
     public Player playerWhite;
@@ -27,8 +60,24 @@ public class Game {
 
     public Game()
     {
-        this.board = new Piece[BOARD_SIZE][BOARD_SIZE];
-        this.moveHistory = new Stack<>();
+        this(DEFAULT_BOARD_SIZE);
+    }
+
+    /**
+     * @param boardSize 棋盘边长，{@link Board#UNBOUNDED} 表示无边界棋盘
+     */
+    public Game(int boardSize)
+    {
+        if (boardSize == Board.UNBOUNDED) {
+            this.board = new SparseBoard();
+            this.moveHistory = new MoveStack(256);
+            this.moveTimes = new long[256];
+        } else {
+            this.board = new BitBoard(boardSize);
+            this.moveHistory = new MoveStack(boardSize * boardSize);
+            this.moveTimes = new long[boardSize * boardSize];
+        }
+        this.threats = new ThreatIndex(board, rule);
         reset();
     }
 
@@ -40,67 +89,287 @@ public class Game {
         // 确保玩家颜色正确设置
         if (black != null) {
             black.setColor(Piece.BLACK);
-            System.out.println("[Game] 设置黑棋玩家: " + black.getName());
+            TRACE.info("设置黑棋玩家: {}", black.getName());
         }
         if (white != null) {
             white.setColor(Piece.WHITE);
-            System.out.println("[Game] 设置白棋玩家: " + white.getName());
+            TRACE.info("设置白棋玩家: {}", white.getName());
         }
     }
+    /** 设置规则，应在开局（reset）前调用 */
+    public synchronized void setRule(RuleSet rule) {
+        this.rule = rule;
+        threats.setRule(rule);
+    }
+
+    public RuleSet getRule() { return rule; }
+
+    /** color 落在 (row, col) 是否为当前规则下的禁手 */
+    public boolean isForbidden(int row, int col, Piece color) {
+        return rule.isForbidden(board, row, col, color);
+    }
+
     public void setListener(GameListener listener) {
         this.listener = listener;
     }
 
+    /**
+     * 开启事件循环模式
+     * 之后所有落子、悔棋、重置都在唯一的写线程中串行执行，监听器回调和
+     * {@link Player#onTurn} 在独立的事件线程中按发生顺序异步派发，
+     * 界面线程、网络接收线程和 AI 线程都不会争用棋局锁，慢速监听器也不会拖住落子处理
+     */
+    public synchronized void startEventLoop() {
+        if (commandLoop != null) return;
+        commandLoop = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "game-command");
+            thread.setDaemon(true);
+            commandThread = thread;
+            return thread;
+        });
+        eventLoop = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "game-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** 关闭事件循环，已提交的指令和事件会执行完毕 */
+    public synchronized void shutdownEventLoop() {
+        if (commandLoop == null) return;
+        commandLoop.shutdown();
+        eventLoop.shutdown();
+        commandLoop = null;
+        eventLoop = null;
+        commandThread = null;
+    }
+
+    public boolean isEventLoopRunning() {
+        return commandLoop != null;
+    }
+
+    /**
+     * 异步提交落子指令，返回是否落子成功
+     * 界面线程、网络线程应使用这一组 submit 方法并在 thenAccept 中处理结果，不要等待
+     * 未开启事件循环时直接在调用线程执行
+     */
+    public CompletableFuture<Boolean> submitMove(int row, int col, Piece color) {
+        ExecutorService loop = commandLoop;
+        if (loop == null) return CompletableFuture.completedFuture(placePieceLocked(row, col, color));
+        return submit(() -> doPlacePiece(row, col, color), loop, false);
+    }
+
+    /**
+     * 异步提交落子指令，只有执行时局面哈希仍为 expectedHash 才落子
+     * 供 AI 在后台算完后提交：搜索期间发生悔棋或重置时着法作废，不会落在已经变化的棋盘上
+     */
+    public CompletableFuture<Boolean> submitMove(int row, int col, Piece color, long expectedHash) {
+        ExecutorService loop = commandLoop;
+        if (loop == null) {
+            synchronized (this) {
+                return CompletableFuture.completedFuture(doPlacePieceIf(row, col, color, expectedHash));
+            }
+        }
+        return submit(() -> doPlacePieceIf(row, col, color, expectedHash), loop, false);
+    }
+
+    /** 异步提交悔棋指令 */
+    public CompletableFuture<Void> submitUndo() {
+        ExecutorService loop = commandLoop;
+        if (loop == null) {
+            undoLocked();
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(() -> {
+            doUndo();
+            return null;
+        }, loop, null);
+    }
+
+    /** 异步提交重置指令 */
+    public CompletableFuture<Void> submitReset() {
+        ExecutorService loop = commandLoop;
+        if (loop == null) {
+            resetLocked();
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(() -> {
+            doReset();
+            return null;
+        }, loop, null);
+    }
+
+    /**
+     * 交给写线程执行；事件循环已关闭（与 shutdownEventLoop 并发）时指令被拒绝，
+     * 返回以 rejected 完成的结果：落子视为未成功，悔棋、重置不执行，不把异常抛给提交方（如 AI 的回调）
+     */
+    private static <T> CompletableFuture<T> submit(Supplier<T> command, ExecutorService loop, T rejected) {
+        try {
+            return CompletableFuture.supplyAsync(command, loop);
+        } catch (RejectedExecutionException e) {
+            TRACE.debug("事件循环已关闭，指令被丢弃");
+            return CompletableFuture.completedFuture(rejected);
+        }
+    }
+
+    /** 事件循环模式下，写线程以外的调用需要转交给写线程 */
+    private boolean mustForward() {
+        return commandLoop != null && Thread.currentThread() != commandThread;
+    }
+
+    /** 通知监听器：事件循环模式下按顺序异步派发，否则同步调用 */
+    private void publish(Consumer<GameListener> event) {
+        GameListener target = listener;
+        if (target == null) return;
+        ExecutorService events = eventLoop;
+        if (events == null) event.accept(target);
+        else post(events, () -> event.accept(target));
+    }
+
+    /** 派发到事件线程；事件循环恰好已关闭（与 shutdownEventLoop 并发）时改为在当前线程同步调用 */
+    private static void post(ExecutorService events, Runnable event) {
+        try {
+            events.execute(event);
+        } catch (RejectedExecutionException e) {
+            event.run();
+        }
+    }
+
+    // 每手都会发生的事件不经过 publish：同步模式下直接调用，不为捕获参数分配 lambda
+
+    private void firePlaced(int row, int col, Piece color) {
+        GameListener target = listener;
+        if (target == null) return;
+        ExecutorService events = eventLoop;
+        if (events == null) target.onChessPlaced(row, col, color);
+        else post(events, () -> target.onChessPlaced(row, col, color));
+    }
+
+    private void fireTurnChanged(Piece next) {
+        GameListener target = listener;
+        if (target == null) return;
+        ExecutorService events = eventLoop;
+        if (events == null) target.onTurnChanged(next);
+        else post(events, () -> target.onTurnChanged(next));
+    }
+
+    private void fireUndo(int row, int col, Piece color) {
+        GameListener target = listener;
+        if (target == null) return;
+        ExecutorService events = eventLoop;
+        if (events == null) {
+            target.onUndo(row, col);
+            target.onRedrawAll();
+            target.onTurnChanged(color);
+        } else {
+            post(events, () -> {
+                target.onUndo(row, col);
+                target.onRedrawAll();
+                target.onTurnChanged(color);
+            });
+        }
+    }
+
     /**
      * 核心方法：落子
+     * 事件循环模式下由写线程执行，写线程以外的调用会等待结果，界面和网络线程请改用 {@link #submitMove}
      * @return boolean 是否落子成功
      */
-    public synchronized boolean placePiece(int row, int col, Piece color) {
+    public boolean placePiece(int row, int col, Piece color) {
+        if (mustForward()) return submitMove(row, col, color).join();
+        return placePieceLocked(row, col, color);
+    }
+
+    /**
+     * 未开启事件循环时各线程的指令以棋局锁互斥；事件循环模式下只有写线程执行指令，不再加锁
+     * 按当前线程是否为写线程判断，而不是按 commandLoop 是否为空：读到过时的 null 的其他线程仍然加锁
+     */
+    private boolean placePieceLocked(int row, int col, Piece color) {
+        if (Thread.currentThread() == commandThread) return doPlacePiece(row, col, color);
+        synchronized (this) {
+            return doPlacePiece(row, col, color);
+        }
+    }
+
+    private void undoLocked() {
+        if (Thread.currentThread() == commandThread) {
+            doUndo();
+            return;
+        }
+        synchronized (this) {
+            doUndo();
+        }
+    }
+
+    private void resetLocked() {
+        if (Thread.currentThread() == commandThread) {
+            doReset();
+            return;
+        }
+        synchronized (this) {
+            doReset();
+        }
+    }
+
+    private boolean doPlacePiece(int row, int col, Piece color) {
         // 1. 基础校验：游戏未开始、坐标越界、位置已有棋子、非当前回合玩家
 
-        System.out.println("[Game.placePiece] 尝试落子: (" + row + "," + col + "), 颜色: " + color + ", 当前回合: " + currentTurn);
+        TRACE.debug("尝试落子: ({},{}), 颜色: {}, 当前回合: {}", row, col, color, currentTurn);
 
         if (state != GameState.PLAYING) {
-            System.out.println("[Game] 游戏状态不对: " + state);
+            TRACE.debug("游戏状态不对: {}", state);
             return false;
         }
-        if (row < 0 || row >= BOARD_SIZE || col < 0 || col >= BOARD_SIZE) {
-            System.out.println("[Game] 坐标越界");
+        if (!board.contains(row, col)) {
+            TRACE.debug("坐标越界: ({},{})", row, col);
             return false;
         }
-        if (board[row][col] != Piece.EMPTY) {
-            System.out.println("[Game] 位置已有棋子: " + board[row][col]);
+        if (!board.isEmpty(row, col)) {
+            TRACE.debug("位置已有棋子: ({},{})", row, col);
             return false;
         }
         if (color != currentTurn) {
-            System.out.println("[Game] 颜色不匹配! 传入颜色: " + color + ", 当前回合: " + currentTurn);
+            TRACE.debug("颜色不匹配! 传入颜色: {}, 当前回合: {}", color, currentTurn);
+            return false;
+        }
+        if (rule.isForbidden(board, row, col, color)) {
+            TRACE.debug("禁手: ({},{}), 规则: {}", row, col, rule.getName());
             return false;
         }
 
-        // 2. 执行落子
-        board[row][col] = color;
-        Move move = new Move(row, col, color);
-        moveHistory.push(move);
+        // 2. 执行落子，并在同一写区间内完成胜负判断和回合切换，保证快照一致
+        beginWrite();
+        board.place(row, col, color);
+        hash ^= Zobrist.key(color, row, col);
+        recordTime(moveHistory.size());
+        moveHistory.push(MoveStack.pack(row, col, color), hash);
+        threats.update(row, col);
+        boolean win = checkWin(row, col, color);
+        boolean full = !win && isBoardFull();
+        if (win || full) {
+            state = GameState.FINISHED;
+        } else {
+            currentTurn = (currentTurn == Piece.BLACK) ? Piece.WHITE : Piece.BLACK;
+        }
+        endWrite();
 
-        System.out.println("[Game] 落子成功: (" + row + "," + col + "), 颜色: " + color);
+        TRACE.debug("落子成功: ({},{}), 颜色: {}", row, col, color);
 
 
         // 3. 通知 UI 绘制
-        if (listener != null) listener.onChessPlaced(row, col, color);
+        firePlaced(row, col, color);
 
         // 4. 胜负判断
-        if (checkWin(row, col, color)) {
-            state = GameState.FINISHED;
-            if (listener != null) listener.onGameOver(color);
-        } else if(isBoardFull()) {
-            state = GameState.FINISHED;
-            if (listener != null) listener.onGameOver(Piece.EMPTY);
+        if (win) {
+            publish(l -> l.onGameOver(color));
+        } else if (full) {
+            publish(l -> l.onGameOver(Piece.EMPTY));
         } else {
             // 5. 切换回合
-            currentTurn = (currentTurn == Piece.BLACK) ? Piece.WHITE : Piece.BLACK;
-            System.out.println("[Game] 切换回合到: " + currentTurn);
+            Piece nextTurn = currentTurn;
+            TRACE.debug("切换回合到: {}", nextTurn);
 
-            if (listener != null) listener.onTurnChanged(currentTurn);
+            fireTurnChanged(nextTurn);
 
             triggerNextTurn();
         }
@@ -108,90 +377,228 @@ public class Game {
         return true;
     }
 
+    /** 记下第 ply 手的时刻；系统时钟回拨时沿用上一手的时刻，保证不递减 */
+    private void recordTime(int ply) {
+        if (ply == moveTimes.length) moveTimes = Arrays.copyOf(moveTimes, ply * 2);
+        long previous = ply == 0 ? startTime : moveTimes[ply - 1];
+        moveTimes[ply] = Math.max(previous, System.currentTimeMillis());
+    }
+
+    private boolean doPlacePieceIf(int row, int col, Piece color, long expectedHash) {
+        if (hash != expectedHash) {
+            TRACE.debug("局面已变化，拒绝落子: ({},{})", row, col);
+            return false;
+        }
+        return doPlacePiece(row, col, color);
+    }
+
+    /** 悔棋、重置前取消双方尚未完成的回合，过时的 AI 搜索结果不会再落子 */
+    private void cancelTurns() {
+        if (playerBlack != null) playerBlack.cancelTurn();
+        if (playerWhite != null) playerWhite.cancelTurn();
+    }
+
+    private void beginWrite() {
+        version++;
+        // 防止后续的棋盘写入被重排到版本号变为奇数之前
+        VarHandle.releaseFence();
+    }
+
+    private void endWrite() {
+        version++;
+    }
+
+    /**
+     * 生成当前局面的快照
+     * 采用顺序锁：读取期间若有 placePiece/undo/reset 写入则重试，调用方不会阻塞写入方，
+     * 也不会读到写了一半的棋盘。返回的快照归调用方独占，可以自由 make/unmake
+     */
+    public Position snapshot() {
+        while (true) {
+            int before = version;
+            if ((before & 1) == 0) {
+                try {
+                    Position position = new Position(board.copy(), rule, moveHistory.copy(), hash, currentTurn);
+                    // 保证上面的读取不会被重排到再次读取版本号之后
+                    VarHandle.acquireFence();
+                    if (version == before) return position;
+                } catch (RuntimeException e) {
+                    // 与写入并发时可能读到不一致的数组长度，重试即可
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
     private void triggerNextTurn() {
         Player nextPlayer = (currentTurn == Piece.BLACK) ? playerBlack : playerWhite;
         if (nextPlayer != null) {
-            System.out.println("[Game] 触发玩家回合: " + nextPlayer.getName() +
-                    " (颜色: " + nextPlayer.getColor() + ")");
-            nextPlayer.onTurn(this);
+            TRACE.debug("触发玩家回合: {} (颜色: {})", nextPlayer.getName(), nextPlayer.getColor());
+            // 事件循环模式下与监听器事件一起按顺序派发，不在写线程中执行玩家逻辑
+            ExecutorService events = eventLoop;
+            if (events == null) nextPlayer.onTurn(this);
+            else post(events, () -> nextPlayer.onTurn(this));
         } else {
-            System.out.println("[Game] 警告: 下一个玩家为null");
+            TRACE.warn("下一个玩家为null");
         }
     }
 
     /**
-     * 五子连珠判定算法
+     * 五子连珠判定算法：在位棋盘上取过该点的四条线，常数时间求连子长度，由规则决定是否成五
      */
     private boolean checkWin(int row, int col, Piece color) {
-        int[][] directions = {{0,1}, {1,0}, {1,1}, {1,-1}};
-        for (int[] dir : directions) {
-            int count = 1;
-            // 正向找
-            count += countInDirection(row, col, dir[0], dir[1], color);
-            // 反向找
-            count += countInDirection(row, col, -dir[0], -dir[1], color);
-            if (count >= 5) return true;
-        }
-        return false;
+        return rule.isWin(board, row, col, color);
     }
 
-    private int countInDirection(int row, int col, int dRow, int dCol, Piece color) {
-        int count = 0;
-        int r = row + dRow;
-        int c = col + dCol;
-        while (r >= 0 && r < BOARD_SIZE && c >= 0 && c < BOARD_SIZE && board[r][c] == color) {
-            count++;
-            r += dRow;
-            c += dCol;
+    /** 重置；事件循环模式下写线程以外的调用会等待完成，界面和网络线程请改用 {@link #submitReset} */
+    public void reset() {
+        if (mustForward()) {
+            submitReset().join();
+            return;
         }
-        return count;
+        resetLocked();
     }
 
-    public void reset() {
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) board[i][j] = Piece.EMPTY;
-        }
-        moveHistory.clear();
+    private void doReset() {
+        cancelTurns();
+        if (playerBlack != null) playerBlack.newGame();
+        if (playerWhite != null) playerWhite.newGame();
+        beginWrite();
+        board.clear();
+        hash = Zobrist.compute(board);
+        moveHistory.clear(hash);
+        startTime = System.currentTimeMillis();
+        threats.rebuild();
         currentTurn = Piece.BLACK; // 黑棋先行
         state = GameState.PLAYING;
-        System.out.println("[Game] 游戏重置，当前回合: " + currentTurn);
+        endWrite();
+        TRACE.debug("游戏重置，当前回合: {}", currentTurn);
 
-        if (listener != null) listener.onGameReset();
+        publish(GameListener::onGameReset);
 
         // 重置后立即触发第一个玩家的回合
         triggerNextTurn();
     }
 
     /**
-     * 悔棋逻辑
+     * 悔棋逻辑；事件循环模式下写线程以外的调用会等待完成，界面和网络线程请改用 {@link #submitUndo}
      */
-    public synchronized void undo() {
-        if (state != GameState.PLAYING || this.moveHistory == null || moveHistory.isEmpty()) return;
+    public void undo() {
+        if (mustForward()) {
+            submitUndo().join();
+            return;
+        }
+        undoLocked();
+    }
 
-        Move lastMove = moveHistory.pop();
-        board[lastMove.row()][lastMove.col()] = Piece.EMPTY;
-        currentTurn = lastMove.color(); // 回合退回给下棋的人
+    private void doUndo() {
+        if (state != GameState.PLAYING || this.moveHistory == null || moveHistory.isEmpty()) return;
 
-        if (listener != null) {
-            listener.onUndo(lastMove.row(), lastMove.col());
-            listener.onRedrawAll();
-            listener.onTurnChanged(currentTurn);
-        }
+        cancelTurns();
+        beginWrite();
+        int lastMove = moveHistory.pop();
+        int row = MoveStack.row(lastMove);
+        int col = MoveStack.col(lastMove);
+        Piece color = MoveStack.color(lastMove);
+        board.remove(row, col, color);
+        hash ^= Zobrist.key(color, row, col);
+        threats.update(row, col);
+        currentTurn = color; // 回合退回给下棋的人
+        endWrite();
+
+        fireUndo(row, col, color);
     }
 
     private boolean isBoardFull() {
-        return moveHistory.size() >= BOARD_SIZE * BOARD_SIZE;
+        return board.isFull();
     }
 
     // Getters 和其他工具方法
-    public Piece[][] getBoard() { return board; }
+    /**
+     * 兼容视图：返回当前棋面的副本，修改它不会影响棋局
+     * 无边界棋盘返回棋子包围盒（见 {@link Position#toArray}），但拿不到同一时刻的原点
+     * @deprecated 改用 {@link #snapshot()}：由同一个快照的 toArray() 与 board().minRow()/minCol() 得到数组和原点，
+     *             或直接在快照的 {@link Position#board()} 上查询
+     */
+    @Deprecated
+    public Piece[][] getBoard() {
+        return snapshot().toArray();
+    }
+    /**
+     * 实时位棋盘，无边界棋盘返回 null。只能由 placePiece/undo 修改；
+     * 其他线程读取时请使用 {@link #snapshot()}，避免读到写了一半的局面
+     */
+    public BitBoard getBitBoard() { return board instanceof BitBoard bitBoard ? bitBoard : null; }
+    /** 实时棋盘存储（位棋盘或稀疏棋盘），只读使用，跨线程读取请使用 {@link #snapshot()} */
+    public Board getBoardModel() { return board; }
+    /** 棋盘边长，无边界棋盘返回 {@link Board#UNBOUNDED} */
+    public int getBoardSize() { return board.size(); }
     public Piece getCurrentTurn() { return currentTurn; }
+    /** 当前局面的 64 位 Zobrist 哈希，可用于置换表、同步校验和棋谱索引 */
+    public long getHash() { return hash; }
+    /** 第 ply 手之后的局面哈希，ply 为 0 表示空盘 */
+    public long getHashAt(int ply) {
+        if (ply < 0 || ply > moveHistory.size()) {
+            throw new IndexOutOfBoundsException("ply: " + ply);
+        }
+        return moveHistory.hashAt(ply);
+    }
+    public int getMoveCount() { return moveHistory.size(); }
+    /** 开局（最近一次重置）的时刻，毫秒时间戳 */
+    public long getStartTime() { return startTime; }
+
+    /**
+     * position（本局的快照）中每手棋落下的时刻，毫秒时间戳，长度为 position.moveCount()
+     * 快照之后有悔棋或重置、这些着法已不在棋局中时返回 null，重新取快照即可
+     */
+    public long[] getMoveTimes(Position position) {
+        int count = position.moveCount();
+        while (true) {
+            int before = version;
+            if ((before & 1) == 0) {
+                try {
+                    long[] times = count <= moveHistory.size() && moveHistory.hashAt(count) == position.hash()
+                            ? Arrays.copyOf(moveTimes, count) : null;
+                    VarHandle.acquireFence();
+                    if (version == before) return times;
+                } catch (RuntimeException e) {
+                    // 与写入并发时可能读到不一致的数组长度，重试即可
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+    /** 威胁索引，可在任意线程查询 */
+    public ThreatIndex getThreatIndex() { return threats; }
+    /** color 的某一类威胁点（落在该点即形成该棋型），耗时与威胁数量成正比 */
+    public List<Threat> getThreats(Piece color, ThreatType type) { return threats.get(color, type); }
+    /** color 的全部威胁点，按威胁程度从高到低 */
+    public List<Threat> getThreats(Piece color) { return threats.get(color); }
+    /** 第 index 手（从 0 开始），按需生成 Move 对象 */
+    public Move getMove(int index) {
+        if (index < 0 || index >= moveHistory.size()) {
+            throw new IndexOutOfBoundsException("move: " + index);
+        }
+        return moveHistory.get(index);
+    }
+    /** 最后一手，尚未落子时返回 null */
+    public Move getLastMove() {
+        return moveHistory.isEmpty() ? null : moveHistory.get(moveHistory.size() - 1);
+    }
+    /** 完整落子记录的副本，取自一致的快照，可在任意线程调用 */
+    public List<Move> getMoveHistory() {
+        Position position = snapshot();
+        List<Move> moves = new ArrayList<>(position.moveCount());
+        for (int i = 0; i < position.moveCount(); i++) moves.add(position.getMove(i));
+        return moves;
+    }
+    /** 若 color 落在 (row, col) 是否成五，不修改棋盘 */
     public boolean checkWinExternal(int row, int col, Piece color){
         return checkWin(row,col,color);
     }
 
 
     public Piece getPiece(int row, int col) {
-        return board[row][col];
+        return board.get(row, col);
     }
 }
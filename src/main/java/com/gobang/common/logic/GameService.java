@@ -2,13 +2,16 @@ package com.gobang.common.logic;
 
 import com.gobang.common.model.Piece;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 游戏指令服务
  * UI 层通过此接口发送操作请求，而不必关心是本地逻辑还是发送网络包
+ * 请求都是异步的，调用线程不会等待棋局的写线程；结果通过返回值或 GameListener 回调得到
  */
 public interface GameService {
-    /** 申请落子 */
-    boolean requestMove(int row, int col, Piece color);
+    /** 申请落子，结果为是否落子成功（联机模式为是否已发出） */
+    CompletableFuture<Boolean> requestMove(int row, int col, Piece color);
 
     /** 申请悔棋 */
     void requestUndo();
@@ -0,0 +1,139 @@
+package com.gobang.common.logic;
+
+/**
+ * 单线棋型查找表
+ * 以某点为中心（视为己方棋子），取所在直线前后各 5 格编码为三进制下标
+ * （0 空、1 己方、2 阻挡），预先计算出这条线上经过中心点的棋型：
+ * 成五、长连、冲四个数、活四、活三。
+ * 禁手判定和威胁分析只需对四个方向各查一次表，不必递归试下
+ *
+ * 活三的判定不再检查活四的成五点本身是否为禁手（完整的连珠规则需要递归判断），
+ * 这种差异只出现在极少数局面中
+ */
+public final class LinePatterns {
+    public static final int FIVE = 1;
+    public static final int OVERLINE = 1 << 1;
+    private static final int FOUR_SHIFT = 2;
+    private static final int FOUR_MASK = 3 << FOUR_SHIFT;
+    public static final int STRAIGHT_FOUR = 1 << 4;
+    public static final int OPEN_THREE = 1 << 5;
+
+    /** 窗口内的格子数（含中心）与中心下标 */
+    private static final int WIDTH = 11;
+    private static final int CENTER = 5;
+    private static final int EMPTY = 0, OWN = 1, BLOCKED = 2;
+
+    public static final int TABLE_SIZE = 59049; // 3^10
+
+    // 10 位二进制掩码 -> 以 3 为底解释后的数值
+    private static final int[] TERNARY = new int[1 << 10];
+    // 恰好五连才算成五（连珠黑棋、标准五子棋）
+    private static final byte[] EXACT = new byte[TABLE_SIZE];
+    // 五连及以上都算成五（无禁手）
+    private static final byte[] FREE = new byte[TABLE_SIZE];
+
+    static {
+        for (int mask = 0; mask < TERNARY.length; mask++) {
+            int value = 0;
+            for (int bit = 9; bit >= 0; bit--) value = value * 3 + (mask >>> bit & 1);
+            TERNARY[mask] = value;
+        }
+        int[] cells = new int[WIDTH];
+        for (int index = 0; index < TABLE_SIZE; index++) {
+            decode(index, cells);
+            EXACT[index] = (byte) classify(cells, true);
+            FREE[index] = (byte) classify(cells, false);
+        }
+    }
+
+    private LinePatterns() {}
+
+    /** 将 {@link Board#lineWindow} 的结果转换为查表下标 */
+    public static int index(int window) {
+        return TERNARY[window & 0x3FF] + 2 * TERNARY[window >>> 10 & 0x3FF];
+    }
+
+    /**
+     * 查询经过中心点的棋型标志位
+     * @param exactFive 是否只有恰好五连才算成五
+     */
+    public static int info(int window, boolean exactFive) {
+        return (exactFive ? EXACT : FREE)[index(window)];
+    }
+
+    public static boolean isFive(int info) { return (info & FIVE) != 0; }
+
+    public static boolean isOverline(int info) { return (info & OVERLINE) != 0; }
+
+    /** 冲四个数（活四算一个，同一条线上最多计两个） */
+    public static int fours(int info) { return (info & FOUR_MASK) >>> FOUR_SHIFT; }
+
+    public static boolean isStraightFour(int info) { return (info & STRAIGHT_FOUR) != 0; }
+
+    public static boolean isOpenThree(int info) { return (info & OPEN_THREE) != 0; }
+
+    /** 下标 -> 11 格窗口，中心为己方 */
+    private static void decode(int index, int[] cells) {
+        for (int i = 0; i < 10; i++) {
+            cells[i < 5 ? i : i + 1] = index % 3;
+            index /= 3;
+        }
+        cells[CENTER] = OWN;
+    }
+
+    private static int classify(int[] cells, boolean exact) {
+        int info = 0;
+        int run = run(cells, CENTER);
+        if (exact ? run == 5 : run >= 5) info |= FIVE;
+        if (run >= 6) info |= OVERLINE;
+        if (run >= 5) return info;
+
+        int fiveCells = fiveCells(cells, exact);
+        if (isStraight(fiveCells)) {
+            info |= STRAIGHT_FOUR | 1 << FOUR_SHIFT;
+        } else {
+            info |= Math.min(Integer.bitCount(fiveCells), 2) << FOUR_SHIFT;
+        }
+
+        // 活三：再下一子即可形成经过中心的活四（活四中的四子必在中心 ±3 以内）
+        for (int e = CENTER - 3; e <= CENTER + 3; e++) {
+            if (cells[e] != EMPTY) continue;
+            cells[e] = OWN;
+            boolean open = run(cells, e) < 5 && isStraight(fiveCells(cells, exact));
+            cells[e] = EMPTY;
+            if (open) {
+                info |= OPEN_THREE;
+                break;
+            }
+        }
+        return info;
+    }
+
+    /** 再下一子即可形成经过中心的五连的空位集合（按窗口下标置位） */
+    private static int fiveCells(int[] cells, boolean exact) {
+        int result = 0;
+        for (int e = CENTER - 4; e <= CENTER + 4; e++) {
+            if (cells[e] != EMPTY) continue;
+            cells[e] = OWN;
+            int from = e, to = e;
+            while (from > 0 && cells[from - 1] == OWN) from--;
+            while (to < WIDTH - 1 && cells[to + 1] == OWN) to++;
+            int length = to - from + 1;
+            if (from <= CENTER && CENTER <= to && (exact ? length == 5 : length >= 5)) result |= 1 << e;
+            cells[e] = EMPTY;
+        }
+        return result;
+    }
+
+    /** 存在两个相距 5 格的成五点，即中间为连续四子：活四 */
+    private static boolean isStraight(int fiveCells) {
+        return (fiveCells & fiveCells >>> 5) != 0;
+    }
+
+    private static int run(int[] cells, int pos) {
+        int from = pos, to = pos;
+        while (from > 0 && cells[from - 1] == OWN) from--;
+        while (to < WIDTH - 1 && cells[to + 1] == OWN) to++;
+        return to - from + 1;
+    }
+}
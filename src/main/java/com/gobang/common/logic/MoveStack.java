@@ -0,0 +1,99 @@
+package com.gobang.common.logic;
+
+import com.gobang.common.model.Move;
+import com.gobang.common.model.Piece;
+
+import java.util.Arrays;
+
+/**
+ * 基于原始数组的落子栈
+ * 每手棋压缩为一个 int（颜色 2 位，行、列各 15 位），并同时记录落子后的局面哈希，
+ * 预先按棋盘格数分配容量，落子/悔棋不产生任何堆分配（无边界棋盘按需倍增）
+ * Move 对象只在 {@link #get} 等对外接口处才会创建
+ */
+public final class MoveStack {
+    private static final int COORD_BITS = 15;
+    private static final int COORD_MASK = (1 << COORD_BITS) - 1;
+    private static final int OFFSET = 1 << (COORD_BITS - 1);
+
+    private int[] moves;
+    // hashes[i] 为第 i 手之后的哈希，hashes[0] 为初始局面
+    private long[] hashes;
+    private int size;
+
+    public MoveStack(int capacity) {
+        this.moves = new int[capacity];
+        this.hashes = new long[capacity + 1];
+    }
+
+    private MoveStack(MoveStack other) {
+        this.moves = other.moves.clone();
+        this.hashes = other.hashes.clone();
+        this.size = other.size;
+    }
+
+    public static int pack(int row, int col, Piece color) {
+        return color.getValue() << (2 * COORD_BITS)
+                | (row + OFFSET) << COORD_BITS
+                | (col + OFFSET);
+    }
+
+    public static int row(int move) {
+        return (move >>> COORD_BITS & COORD_MASK) - OFFSET;
+    }
+
+    public static int col(int move) {
+        return (move & COORD_MASK) - OFFSET;
+    }
+
+    public static Piece color(int move) {
+        return Piece.of(move >>> (2 * COORD_BITS));
+    }
+
+    /** 重新开始，baseHash 为空盘（或初始局面）哈希 */
+    public void clear(long baseHash) {
+        size = 0;
+        hashes[0] = baseHash;
+    }
+
+    public void push(int move, long hashAfter) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2 + 1);
+        }
+        moves[size++] = move;
+        hashes[size] = hashAfter;
+    }
+
+    public int pop() {
+        return moves[--size];
+    }
+
+    public int peek() {
+        return moves[size - 1];
+    }
+
+    /** 第 index 手（从 0 开始）的压缩表示 */
+    public int packedAt(int index) {
+        return moves[index];
+    }
+
+    /** 第 ply 手之后的局面哈希，ply 为 0 表示初始局面 */
+    public long hashAt(int ply) {
+        return hashes[ply];
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public MoveStack copy() {
+        return new MoveStack(this);
+    }
+
+    /** 在接口边界处生成 Move 对象 */
+    public Move get(int index) {
+        int move = moves[index];
+        return new Move(row(move), col(move), color(move));
+    }
+}
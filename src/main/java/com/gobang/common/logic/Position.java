@@ -0,0 +1,127 @@
+package com.gobang.common.logic;
+
+import com.gobang.common.model.Move;
+import com.gobang.common.model.Piece;
+
+/**
+ * 局面快照：由 {@link Game#snapshot()} 生成，拥有独立的棋盘副本和落子记录
+ * 快照之间、快照与实时棋局之间互不影响，AI 搜索、界面绘制和网络处理可以各自持有一份，
+ * 在上面自由地 make/unmake 而不需要加锁
+ * 快照本身不是线程安全的，同一个快照只应由一个线程使用，需要共享时请先 {@link #copy()}
+ */
+public final class Position {
+    private final Board board;
+    private final RuleSet rule;
+    private final MoveStack moves;
+    private long hash;
+    private Piece sideToMove;
+
+    Position(Board board, RuleSet rule, MoveStack moves, long hash, Piece sideToMove) {
+        this.board = board;
+        this.rule = rule;
+        this.moves = moves;
+        this.hash = hash;
+        this.sideToMove = sideToMove;
+    }
+
+    /**
+     * 空盘局面，黑棋先行，用于不经过 Game 的回放、校验和离线分析
+     * @param boardSize 棋盘边长，{@link Board#UNBOUNDED} 表示无边界棋盘
+     */
+    public static Position empty(int boardSize, RuleSet rule) {
+        if (boardSize == Board.UNBOUNDED) {
+            return new Position(new SparseBoard(), rule, new MoveStack(256), 0L, Piece.BLACK);
+        }
+        return new Position(new BitBoard(boardSize), rule, new MoveStack(boardSize * boardSize), 0L, Piece.BLACK);
+    }
+
+    public Position copy() {
+        return new Position(board.copy(), rule, moves.copy(), hash, sideToMove);
+    }
+
+    /** 棋盘边长，无边界棋盘返回 {@link Board#UNBOUNDED} */
+    public int size() { return board.size(); }
+
+    /**
+     * 快照自己的棋盘存储，供热点路径直接读取
+     * 只能通过 {@link #make}/{@link #unmake} 修改
+     */
+    public Board board() { return board; }
+
+    /** 位棋盘视图，无边界棋盘返回 null */
+    public BitBoard bitBoard() { return board instanceof BitBoard bitBoard ? bitBoard : null; }
+
+    public RuleSet rule() { return rule; }
+
+    public long hash() { return hash; }
+
+    public Piece sideToMove() { return sideToMove; }
+
+    public int moveCount() { return moves.size(); }
+
+    public boolean contains(int row, int col) { return board.contains(row, col); }
+
+    public boolean isEmpty(int row, int col) { return board.isEmpty(row, col); }
+
+    public Piece get(int row, int col) { return board.get(row, col); }
+
+    /** 第 index 手的压缩表示，用 {@link MoveStack#row} 等方法解码 */
+    public int packedMove(int index) { return moves.packedAt(index); }
+
+    /** 最后一手的压缩表示，空盘时返回 -1 */
+    public int lastMove() { return moves.isEmpty() ? -1 : moves.peek(); }
+
+    /** 第 index 手，按需生成 Move 对象 */
+    public Move getMove(int index) { return moves.get(index); }
+
+    /** 当前行棋方落在 (row, col) 是否合法：在棋盘内、为空且不是禁手 */
+    public boolean isLegal(int row, int col) {
+        return board.contains(row, col) && board.isEmpty(row, col)
+                && !rule.isForbidden(board, row, col, sideToMove);
+    }
+
+    /** 假设 color 落在 (row, col) 是否获胜 */
+    public boolean isWin(int row, int col, Piece color) {
+        return rule.isWin(board, row, col, color);
+    }
+
+    /** 最后一手是否已经获胜 */
+    public boolean lastMoveWins() {
+        if (moves.isEmpty()) return false;
+        int last = moves.peek();
+        return rule.isWin(board, MoveStack.row(last), MoveStack.col(last), MoveStack.color(last));
+    }
+
+    /** 当前行棋方在 (row, col) 落子，调用方保证该点合法 */
+    public void make(int row, int col) {
+        board.place(row, col, sideToMove);
+        hash ^= Zobrist.key(sideToMove, row, col);
+        moves.push(MoveStack.pack(row, col, sideToMove), hash);
+        sideToMove = sideToMove.getOpposite();
+    }
+
+    /** 撤销最后一手 */
+    public void unmake() {
+        int last = moves.pop();
+        Piece color = MoveStack.color(last);
+        board.remove(MoveStack.row(last), MoveStack.col(last), color);
+        hash = moves.hashAt(moves.size());
+        sideToMove = color;
+    }
+
+    /**
+     * 兼容视图：复制出一份 Piece[][]
+     * 有边界棋盘为整个棋盘；无边界棋盘为棋子包围盒，[0][0] 对应 (board().minRow(), board().minCol())，空盘时为空数组
+     */
+    public Piece[][] toArray() {
+        if (board instanceof BitBoard bitBoard) return bitBoard.toArray();
+        if (board.count() == 0) return new Piece[0][0];
+        int top = board.minRow(), left = board.minCol();
+        int rows = board.maxRow() - top + 1, cols = board.maxCol() - left + 1;
+        Piece[][] array = new Piece[rows][cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) array[r][c] = board.get(top + r, left + c);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,48 @@
+package com.gobang.common.logic;
+
+import com.gobang.common.model.Piece;
+
+/**
+ * 连珠规则：黑棋三三、四四、长连为禁手，恰好五连优先于禁手；白棋无禁手且长连也算获胜
+ * 禁手判定对四个方向各查一次 {@link LinePatterns} 表，不做试下递归
+ */
+final class RenjuRule implements RuleSet {
+    @Override
+    public int getId() { return 2; }
+
+    @Override
+    public String getName() { return "连珠"; }
+
+    @Override
+    public boolean isWin(Board board, int row, int col, Piece color) {
+        if (color == Piece.WHITE) return board.wouldWin(row, col, color);
+        for (int dir = 0; dir < 4; dir++) {
+            if (board.runLength(row, col, dir, color) == 5) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isExactFive(Piece color) { return color == Piece.BLACK; }
+
+    @Override
+    public boolean isForbidden(Board board, int row, int col, Piece color) {
+        if (color != Piece.BLACK) return false;
+
+        boolean overline = false;
+        int fours = 0;
+        int threes = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            int info = LinePatterns.info(board.lineWindow(row, col, dir, color), true);
+            if (LinePatterns.isFive(info)) return false;
+            if (LinePatterns.isOverline(info)) {
+                overline = true;
+            } else if (LinePatterns.fours(info) > 0) {
+                fours += LinePatterns.fours(info);
+            } else if (LinePatterns.isOpenThree(info)) {
+                threes++;
+            }
+        }
+        return overline || fours >= 2 || threes >= 2;
+    }
+}
@@ -0,0 +1,43 @@
+package com.gobang.common.logic;
+
+import com.gobang.common.model.Piece;
+
+/**
+ * 规则集：决定怎样算赢、哪些点是禁手
+ * Game 通过 {@link Game#setRule} 切换，内置无禁手、标准五子棋和连珠三种
+ */
+public interface RuleSet {
+    /** 无禁手：五连及以上获胜 */
+    RuleSet FREESTYLE = new FreestyleRule();
+    /** 标准五子棋：恰好五连获胜，长连不算 */
+    RuleSet STANDARD = new StandardRule();
+    /** 连珠：黑棋恰好五连获胜，三三、四四、长连为禁手；白棋五连及以上获胜 */
+    RuleSet RENJU = new RenjuRule();
+
+    /** 规则编号，用于棋谱和网络传输 */
+    int getId();
+
+    String getName();
+
+    /** 假设 color 落在 (row, col)，是否获胜（不修改棋盘） */
+    boolean isWin(Board board, int row, int col, Piece color);
+
+    /** color 是否只有恰好五连才算成五（决定查 {@link LinePatterns} 的哪张表） */
+    default boolean isExactFive(Piece color) {
+        return false;
+    }
+
+    /** color 落在空位 (row, col) 是否为禁手 */
+    default boolean isForbidden(Board board, int row, int col, Piece color) {
+        return false;
+    }
+
+    static RuleSet byId(int id) {
+        return switch (id) {
+            case 0 -> FREESTYLE;
+            case 1 -> STANDARD;
+            case 2 -> RENJU;
+            default -> throw new IllegalArgumentException("未知规则: " + id);
+        };
+    }
+}
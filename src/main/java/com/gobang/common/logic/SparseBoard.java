@@ -0,0 +1,209 @@
+package com.gobang.common.logic;
+
+import com.gobang.common.model.Piece;
+
+/**
+ * 无边界棋盘：只存储已落下的棋子
+ * 使用线性探测的开放寻址哈希表（坐标 -> 颜色），并维护棋子包围盒，
+ * 内存与判胜开销只与棋子数量有关，与棋盘面积无关
+ */
+public final class SparseBoard implements Board {
+    /** 坐标绝对值上限，与 {@link MoveStack} 的压缩编码一致 */
+    public static final int LIMIT = 1 << 14;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys;
+    // 0 表示空槽，否则为 Piece 的数值
+    private byte[] values;
+    private int count;
+
+    private int minRow, maxRow, minCol, maxCol;
+    // 删除了位于包围盒边缘的棋子后，包围盒需要重新计算
+    private boolean boundsDirty;
+
+    public SparseBoard() {
+        this.keys = new long[INITIAL_CAPACITY];
+        this.values = new byte[INITIAL_CAPACITY];
+        resetBounds();
+    }
+
+    private SparseBoard(SparseBoard other) {
+        this.keys = other.keys.clone();
+        this.values = other.values.clone();
+        this.count = other.count;
+        this.minRow = other.minRow;
+        this.maxRow = other.maxRow;
+        this.minCol = other.minCol;
+        this.maxCol = other.maxCol;
+        this.boundsDirty = other.boundsDirty;
+    }
+
+    @Override
+    public int size() { return UNBOUNDED; }
+
+    @Override
+    public boolean contains(int row, int col) {
+        return row > -LIMIT && row < LIMIT && col > -LIMIT && col < LIMIT;
+    }
+
+    @Override
+    public boolean isEmpty(int row, int col) {
+        return values[find(key(row, col))] == 0;
+    }
+
+    @Override
+    public Piece get(int row, int col) {
+        return Piece.of(values[find(key(row, col))]);
+    }
+
+    @Override
+    public void place(int row, int col, Piece color) {
+        if ((count + 1) * 2 > keys.length) grow();
+        long key = key(row, col);
+        int slot = find(key);
+        keys[slot] = key;
+        values[slot] = (byte) color.getValue();
+        count++;
+
+        if (!boundsDirty) {
+            minRow = Math.min(minRow, row);
+            maxRow = Math.max(maxRow, row);
+            minCol = Math.min(minCol, col);
+            maxCol = Math.max(maxCol, col);
+        }
+    }
+
+    @Override
+    public void remove(int row, int col, Piece color) {
+        int slot = find(key(row, col));
+        if (values[slot] == 0) return;
+        deleteSlot(slot);
+        count--;
+
+        if (row == minRow || row == maxRow || col == minCol || col == maxCol) {
+            boundsDirty = true;
+        }
+    }
+
+    @Override
+    public int count() { return count; }
+
+    @Override
+    public boolean isFull() { return false; }
+
+    @Override
+    public int runLength(int row, int col, int dir, Piece color) {
+        int dr = DIRECTIONS[dir][0];
+        int dc = DIRECTIONS[dir][1];
+        int value = color.getValue();
+        int length = 1;
+        for (int r = row + dr, c = col + dc; values[find(key(r, c))] == value; r += dr, c += dc) length++;
+        for (int r = row - dr, c = col - dc; values[find(key(r, c))] == value; r -= dr, c -= dc) length++;
+        return length;
+    }
+
+    @Override
+    public void forEachStone(StoneVisitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != 0) visitor.visit(row(keys[i]), col(keys[i]), Piece.of(values[i]));
+        }
+    }
+
+    @Override
+    public int minRow() { updateBounds(); return minRow; }
+
+    @Override
+    public int maxRow() { updateBounds(); return maxRow; }
+
+    @Override
+    public int minCol() { updateBounds(); return minCol; }
+
+    @Override
+    public int maxCol() { updateBounds(); return maxCol; }
+
+    @Override
+    public void clear() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new byte[INITIAL_CAPACITY];
+        count = 0;
+        resetBounds();
+    }
+
+    @Override
+    public SparseBoard copy() {
+        return new SparseBoard(this);
+    }
+
+    private static long key(int row, int col) {
+        return (long) row << 32 | (col & 0xFFFFFFFFL);
+    }
+
+    private static int row(long key) { return (int) (key >> 32); }
+
+    private static int col(long key) { return (int) key; }
+
+    private int home(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32) & (keys.length - 1);
+    }
+
+    /** 返回 key 所在的槽位，不存在时返回应插入的空槽 */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = home(key);
+        while (values[slot] != 0 && keys[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /** 线性探测的反向移位删除，不留墓碑 */
+    private void deleteSlot(int hole) {
+        int mask = keys.length - 1;
+        int next = hole;
+        while (true) {
+            next = (next + 1) & mask;
+            if (values[next] == 0) break;
+            int home = home(keys[next]);
+            boolean stays = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+            if (stays) continue;
+            keys[hole] = keys[next];
+            values[hole] = values[next];
+            hole = next;
+        }
+        values[hole] = 0;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        byte[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new byte[oldValues.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void resetBounds() {
+        minRow = minCol = Integer.MAX_VALUE;
+        maxRow = maxCol = Integer.MIN_VALUE;
+        boundsDirty = false;
+    }
+
+    private void updateBounds() {
+        if (!boundsDirty) return;
+        resetBounds();
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] == 0) continue;
+            int r = row(keys[i]);
+            int c = col(keys[i]);
+            minRow = Math.min(minRow, r);
+            maxRow = Math.max(maxRow, r);
+            minCol = Math.min(minCol, c);
+            maxCol = Math.max(maxCol, c);
+        }
+    }
+}
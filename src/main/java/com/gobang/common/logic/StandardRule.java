@@ -0,0 +1,25 @@
+package com.gobang.common.logic;
+
+import com.gobang.common.model.Piece;
+
+/**
+ * 标准五子棋规则：双方都必须恰好五连，长连不算获胜
+ */
+final class StandardRule implements RuleSet {
+    @Override
+    public int getId() { return 1; }
+
+    @Override
+    public String getName() { return "标准五子棋"; }
+
+    @Override
+    public boolean isWin(Board board, int row, int col, Piece color) {
+        for (int dir = 0; dir < 4; dir++) {
+            if (board.runLength(row, col, dir, color) == 5) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isExactFive(Piece color) { return true; }
+}
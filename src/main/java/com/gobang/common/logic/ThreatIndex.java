@@ -0,0 +1,317 @@
+package com.gobang.common.logic;
+
+import com.gobang.common.model.Piece;
+import com.gobang.common.model.Threat;
+import com.gobang.common.model.ThreatType;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 增量威胁索引：记录双方每个空位落子后能形成的最高威胁（成五、活四、冲四、活三）
+ * 一个空位的棋型只取决于它四条线上前后各 5 格，因此落子或悔棋后只需重新计算
+ * 经过该点的四条线上距离 5 以内的空位（最多 41 个），每个空位对四个方向各查一次 {@link LinePatterns}
+ *
+ * 只由 Game 的写线程修改，修改的只是原始数组，不产生堆分配：每种颜色一张开放寻址表（坐标 -> 威胁类型），
+ * 以及每种威胁类型一个点列，点列用交换删除在常数时间内维护，表中记着每个点在点列中的下标
+ * 查询时只遍历点列中现有的威胁点，排序后生成不可变的列表并缓存到下一次修改，代价与威胁点数成正比、与棋盘大小无关；
+ * {@link #has} 只看各类型的点数。查询可在任意线程进行，与 {@link Game#snapshot()}
+ * 一样用版本号检测读取期间的并发修改并重试，不加锁
+ */
+public final class ThreatIndex {
+    private static final int REACH = 5;
+    private static final ThreatType[] TYPES = ThreatType.values();
+    private static final Piece[] COLORS = {Piece.BLACK, Piece.WHITE};
+    private static final Comparator<Threat> BY_CELL = Comparator.comparingInt(Threat::row).thenComparingInt(Threat::col);
+    // 空槽；坐标以 MoveStack.pack(row, col, EMPTY) 编码，总是非负
+    private static final int FREE = -1;
+    // 无边界棋盘的初始容量
+    private static final int SPARSE_CAPACITY = 256;
+
+    private final Board board;
+    private RuleSet rule;
+    // [颜色] 线性探测的开放寻址表：坐标编码、威胁类型序号，以及该点在所属类型点列中的下标；装填率不超过一半
+    private final int[][] keys = new int[2][];
+    private final byte[][] types = new byte[2][];
+    private final int[][] positions = new int[2][];
+    private final int[] sizes = new int[2];
+    // [颜色][威胁类型] 点列：前 counts 个为该类威胁点的坐标编码，顺序无关；容量为表容量的一半，不会溢出
+    private final int[][][] points = new int[2][TYPES.length][];
+    private final int[][] counts = new int[2][TYPES.length];
+    // 顺序锁版本号：修改期间为奇数
+    private volatile int version;
+    // 最近一次查询生成的列表及其对应的版本号
+    private volatile View view;
+
+    private record View(int version, List<Threat>[][] lists) {}
+
+    public ThreatIndex(Board board, RuleSet rule) {
+        this.board = board;
+        this.rule = rule;
+        int cells = board.size() == Board.UNBOUNDED ? SPARSE_CAPACITY : board.size() * board.size();
+        int capacity = Integer.highestOneBit(Math.max(16, cells) * 2 - 1) * 2;
+        for (int i = 0; i < 2; i++) {
+            keys[i] = new int[capacity];
+            types[i] = new byte[capacity];
+            positions[i] = new int[capacity];
+            Arrays.fill(keys[i], FREE);
+            for (int t = 0; t < TYPES.length; t++) points[i][t] = new int[capacity / 2];
+        }
+    }
+
+    // --- 写线程 ---
+
+    /** 规则改变后按新规则从头计算 */
+    public void setRule(RuleSet rule) {
+        this.rule = rule;
+        rebuild();
+    }
+
+    /** 清空后对所有棋子周围重新计算，用于重置或切换规则 */
+    public void rebuild() {
+        beginWrite();
+        for (int i = 0; i < 2; i++) {
+            Arrays.fill(keys[i], FREE);
+            Arrays.fill(counts[i], 0);
+            sizes[i] = 0;
+        }
+        board.forEachStone((r, c, piece) -> refreshAround(r, c));
+        endWrite();
+    }
+
+    /** (row, col) 落子或提子后调用 */
+    public void update(int row, int col) {
+        beginWrite();
+        refreshAround(row, col);
+        endWrite();
+    }
+
+    private void beginWrite() {
+        version++;
+        VarHandle.releaseFence();
+    }
+
+    private void endWrite() {
+        version++;
+    }
+
+    private void refreshAround(int row, int col) {
+        refresh(row, col);
+        for (int dir = 0; dir < 4; dir++) {
+            int dr = Board.DIRECTIONS[dir][0];
+            int dc = Board.DIRECTIONS[dir][1];
+            for (int k = 1; k <= REACH; k++) {
+                refresh(row + k * dr, col + k * dc);
+                refresh(row - k * dr, col - k * dc);
+            }
+        }
+    }
+
+    private void refresh(int row, int col) {
+        if (!board.contains(row, col)) return;
+        boolean empty = board.isEmpty(row, col);
+        int key = MoveStack.pack(row, col, Piece.EMPTY);
+        for (int i = 0; i < 2; i++) {
+            ThreatType type = empty ? classify(row, col, COLORS[i]) : null;
+            if (type == null) remove(i, key);
+            else put(i, key, type);
+        }
+    }
+
+    private int slot(int color, int key) {
+        int[] table = keys[color];
+        int mask = table.length - 1;
+        int slot = home(key, mask);
+        while (table[slot] != FREE && table[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /** 条目在表中的首选位置 */
+    private static int home(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ h >>> 16) & mask;
+    }
+
+    private void put(int color, int key, ThreatType type) {
+        int t = type.ordinal();
+        int slot = slot(color, key);
+        if (keys[color][slot] == FREE) {
+            if (2 * (sizes[color] + 1) > keys[color].length) {
+                grow(color);
+                slot = slot(color, key);
+            }
+            keys[color][slot] = key;
+            sizes[color]++;
+        } else {
+            if (types[color][slot] == t) return;
+            unlist(color, types[color][slot], positions[color][slot]);
+        }
+        types[color][slot] = (byte) t;
+        int n = counts[color][t]++;
+        points[color][t][n] = key;
+        positions[color][slot] = n;
+    }
+
+    /** 从类型 t 的点列中删掉下标 index 的点：用最后一个点填补，并更新它在表中记录的下标 */
+    private void unlist(int color, int t, int index) {
+        int[] list = points[color][t];
+        int last = --counts[color][t];
+        if (index == last) return;
+        int moved = list[last];
+        list[index] = moved;
+        positions[color][slot(color, moved)] = index;
+    }
+
+    /** 删除后把同一探测链上后面的条目前移，不留墓碑 */
+    private void remove(int color, int key) {
+        int[] table = keys[color];
+        byte[] values = types[color];
+        int[] indexes = positions[color];
+        int mask = table.length - 1;
+        int slot = slot(color, key);
+        if (table[slot] == FREE) return;
+        unlist(color, values[slot], indexes[slot]);
+        sizes[color]--;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; table[next] != FREE; next = (next + 1) & mask) {
+            int home = home(table[next], mask);
+            // home 不在 (hole, next] 之间时，该条目可以移到空位
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                values[hole] = values[next];
+                indexes[hole] = indexes[next];
+                hole = next;
+            }
+        }
+        table[hole] = FREE;
+    }
+
+    /** 无边界棋盘的威胁点超过容量一半时倍增 */
+    private void grow(int color) {
+        int[] oldKeys = keys[color];
+        byte[] oldTypes = types[color];
+        int[] oldPositions = positions[color];
+        keys[color] = new int[oldKeys.length * 2];
+        types[color] = new byte[oldKeys.length * 2];
+        positions[color] = new int[oldKeys.length * 2];
+        Arrays.fill(keys[color], FREE);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == FREE) continue;
+            int slot = slot(color, oldKeys[i]);
+            keys[color][slot] = oldKeys[i];
+            types[color][slot] = oldTypes[i];
+            positions[color][slot] = oldPositions[i];
+        }
+        for (int t = 0; t < TYPES.length; t++) points[color][t] = Arrays.copyOf(points[color][t], oldKeys.length);
+    }
+
+    /** color 落在空位 (row, col) 形成的最高威胁，没有威胁返回 null */
+    private ThreatType classify(int row, int col, Piece color) {
+        boolean exact = rule.isExactFive(color);
+        boolean straight = false;
+        boolean four = false;
+        boolean three = false;
+        for (int dir = 0; dir < 4; dir++) {
+            int info = LinePatterns.info(board.lineWindow(row, col, dir, color), exact);
+            if (LinePatterns.isFive(info)) return ThreatType.FIVE;
+            straight |= LinePatterns.isStraightFour(info);
+            four |= LinePatterns.fours(info) > 0;
+            three |= LinePatterns.isOpenThree(info);
+        }
+        if (!four && !three) return null;
+        // 禁手点不能落子，不算威胁（成五优先于禁手，已在上面返回）
+        if (rule.isForbidden(board, row, col, color)) return null;
+        if (straight) return ThreatType.OPEN_FOUR;
+        return four ? ThreatType.BROKEN_FOUR : ThreatType.OPEN_THREE;
+    }
+
+    // --- 查询，可在任意线程调用 ---
+
+    /** color 的某一类威胁点，按行、列排序 */
+    public List<Threat> get(Piece color, ThreatType type) {
+        return lists()[BitBoard.index(color)][type.ordinal()];
+    }
+
+    /** color 的全部威胁点，按威胁程度从高到低 */
+    public List<Threat> get(Piece color) {
+        List<Threat>[] lists = lists()[BitBoard.index(color)];
+        List<Threat> all = new ArrayList<>();
+        for (List<Threat> list : lists) all.addAll(list);
+        return all;
+    }
+
+    /** color 是否有不低于 type 的威胁；只读各类型的点数，不生成列表 */
+    public boolean has(Piece color, ThreatType type) {
+        int[] n = counts[BitBoard.index(color)];
+        while (true) {
+            int before = version;
+            if ((before & 1) == 0) {
+                boolean found = false;
+                for (int t = 0; t <= type.ordinal(); t++) found |= n[t] > 0;
+                VarHandle.acquireFence();
+                if (version == before) return found;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /** color 最高级别的一个威胁点，没有返回 null */
+    public Threat strongest(Piece color) {
+        for (List<Threat> list : lists()[BitBoard.index(color)]) {
+            if (!list.isEmpty()) return list.get(0);
+        }
+        return null;
+    }
+
+    /** 当前版本的不可变列表，版本未变时直接返回缓存 */
+    private List<Threat>[][] lists() {
+        while (true) {
+            int before = version;
+            View cached = view;
+            if (cached != null && cached.version() == before) return cached.lists();
+            if ((before & 1) == 0) {
+                try {
+                    List<Threat>[][] lists = build();
+                    // 保证上面的读取不会被重排到再次读取版本号之后
+                    VarHandle.acquireFence();
+                    if (version == before) {
+                        view = new View(before, lists);
+                        return lists;
+                    }
+                } catch (RuntimeException e) {
+                    // 与写入并发时可能读到正在倍增的表，重试即可
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /** 由各类型的点列生成列表，只遍历现有的威胁点 */
+    private List<Threat>[][] build() {
+        List<Threat>[][] result = emptyView();
+        for (int i = 0; i < 2; i++) {
+            for (int t = 0; t < TYPES.length; t++) {
+                int n = counts[i][t];
+                if (n == 0) continue;
+                int[] list = points[i][t];
+                Threat[] threats = new Threat[n];
+                for (int k = 0; k < n; k++) {
+                    threats[k] = new Threat(MoveStack.row(list[k]), MoveStack.col(list[k]), COLORS[i], TYPES[t]);
+                }
+                Arrays.sort(threats, BY_CELL);
+                result[i][t] = List.of(threats);
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Threat>[][] emptyView() {
+        List<Threat>[][] view = new List[2][TYPES.length];
+        for (List<Threat>[] lists : view) Arrays.fill(lists, List.of());
+        return view;
+    }
+}
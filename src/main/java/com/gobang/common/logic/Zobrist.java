@@ -0,0 +1,45 @@
+package com.gobang.common.logic;
+
+import com.gobang.common.model.Piece;
+
+/**
+ * Zobrist 哈希：每个 (颜色, 行, 列) 对应一个固定的 64 位随机数，
+ * 局面哈希为所有棋子随机数的异或，落子和悔棋都只需一次异或
+ * 随机数由固定种子生成，客户端、服务端和棋谱归档得到的哈希一致
+ */
+public final class Zobrist {
+    private static final int STRIDE = BitBoard.MAX_SIZE;
+    private static final long[] KEYS = new long[2 * STRIDE * STRIDE];
+
+    static {
+        long seed = 0x5EED_60BA_46L;
+        for (int i = 0; i < KEYS.length; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            KEYS[i] = mix(seed);
+        }
+    }
+
+    private Zobrist() {}
+
+    public static long key(Piece color, int row, int col) {
+        if (row >= 0 && row < STRIDE && col >= 0 && col < STRIDE) {
+            return KEYS[(BitBoard.index(color) * STRIDE + row) * STRIDE + col];
+        }
+        // 无边界棋盘超出预生成表的坐标，直接由坐标散列得到
+        return mix(mix((long) row << 32 | (col & 0xFFFFFFFFL)) + color.getValue());
+    }
+
+    /** 从头计算整个棋盘的哈希，仅在重置或校验时使用 */
+    public static long compute(Board board) {
+        long[] hash = {0L};
+        board.forEachStone((r, c, piece) -> hash[0] ^= key(piece, r, c));
+        return hash[0];
+    }
+
+    // SplitMix64 终结函数
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
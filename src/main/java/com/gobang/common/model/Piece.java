@@ -8,6 +8,8 @@ public enum Piece {
     BLACK(1, "黑棋"),
     WHITE(2, "白棋");
 
+    private static final Piece[] VALUES = values();
+
     private final int value;
     private final String name;
 
@@ -19,6 +21,13 @@ public enum Piece {
     public int getValue() { return value; }
     public String getName() { return name; }
 
+    /**
+     * 按数值取棋子类型，不分配新数组
+     */
+    public static Piece of(int value) {
+        return VALUES[value];
+    }
+
     /**
      * 获取对手的颜色
      */
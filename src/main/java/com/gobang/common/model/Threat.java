@@ -0,0 +1,12 @@
+package com.gobang.common.model;
+
+/**
+ * 一个威胁点：color 落在 (row, col) 会形成 type 棋型
+ */
+public record Threat(int row, int col, Piece color, ThreatType type) {
+
+    @Override
+    public String toString() {
+        return String.format("%s%s于(%d, %d)", color.getName(), type.getName(), row, col);
+    }
+}
@@ -0,0 +1,19 @@
+package com.gobang.common.model;
+
+/**
+ * [Enum] 威胁类型：在该点落子后形成的棋型，按威胁程度从高到低排列
+ */
+public enum ThreatType {
+    FIVE("成五"),              // 落子即五连获胜
+    OPEN_FOUR("活四"),         // 落子形成两端都能成五的四
+    BROKEN_FOUR("冲四"),       // 落子形成只有一个成五点的四
+    OPEN_THREE("活三");        // 落子形成再下一手即为活四的三
+
+    private final String name;
+
+    ThreatType(String name) {
+        this.name = name;
+    }
+
+    public String getName() { return name; }
+}
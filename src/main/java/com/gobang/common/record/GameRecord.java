@@ -0,0 +1,135 @@
+package com.gobang.common.record;
+
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.Game;
+import com.gobang.common.logic.MoveStack;
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+import com.gobang.common.model.Move;
+import com.gobang.common.model.Piece;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一局棋的归档记录：棋盘大小、规则、双方名称、结果、开局时间以及每手棋的坐标和时间
+ * 黑棋先行、双方交替，因此每手棋的颜色由手数推出，不单独保存
+ * 记录本身不可变，由 {@link GameRecordReader} 读出或由 {@link #fromGame} 生成
+ */
+public final class GameRecord {
+
+    /** 对局结果 */
+    public enum Result {
+        UNFINISHED, // 未结束或结果未知
+        BLACK_WIN,
+        WHITE_WIN,
+        DRAW;
+
+        private static final Result[] VALUES = values();
+
+        public static Result of(int ordinal) {
+            if (ordinal < 0 || ordinal >= VALUES.length) {
+                throw new IllegalArgumentException("未知对局结果: " + ordinal);
+            }
+            return VALUES[ordinal];
+        }
+
+        public static Result winner(Piece color) {
+            return color == Piece.BLACK ? BLACK_WIN : WHITE_WIN;
+        }
+    }
+
+    private final int boardSize;
+    private final RuleSet rule;
+    private final String blackPlayer;
+    private final String whitePlayer;
+    private final Result result;
+    private final long startTime;
+    // MoveStack 压缩格式
+    private final int[] moves;
+    // 每手棋落下的时刻（毫秒时间戳，与 startTime 同一时间基准）
+    private final long[] times;
+
+    /**
+     * @param moves 按 {@link MoveStack#pack} 压缩的落子序列
+     * @param times 每手棋的时刻，长度须与 moves 相同且不递减
+     */
+    public GameRecord(int boardSize, RuleSet rule, String blackPlayer, String whitePlayer,
+                      Result result, long startTime, int[] moves, long[] times) {
+        if (moves.length != times.length) {
+            throw new IllegalArgumentException("落子与时间数量不一致: " + moves.length + " / " + times.length);
+        }
+        this.boardSize = boardSize;
+        this.rule = rule;
+        this.blackPlayer = blackPlayer == null ? "" : blackPlayer;
+        this.whitePlayer = whitePlayer == null ? "" : whitePlayer;
+        this.result = result;
+        this.startTime = startTime;
+        this.moves = moves;
+        this.times = times;
+    }
+
+    /**
+     * 从当前棋局生成记录，结果由最后一手和棋盘是否下满推出
+     * 开局与每手的时刻取自 Game 落子时的记录
+     */
+    public static GameRecord fromGame(Game game, String blackPlayer, String whitePlayer) {
+        Position position;
+        long[] times;
+        long startTime;
+        do {
+            startTime = game.getStartTime();
+            position = game.snapshot();
+            times = game.getMoveTimes(position);
+        } while (times == null || startTime != game.getStartTime());
+        int count = position.moveCount();
+        int[] moves = new int[count];
+        for (int i = 0; i < count; i++) moves[i] = position.packedMove(i);
+        return new GameRecord(position.size(), position.rule(), blackPlayer, whitePlayer,
+                resultOf(position), startTime, moves, times);
+    }
+
+    /** 由局面推出结果：最后一手成五为胜，棋盘下满为和，否则未结束 */
+    static Result resultOf(Position position) {
+        if (position.lastMoveWins()) return Result.winner(MoveStack.color(position.lastMove()));
+        return position.board().isFull() ? Result.DRAW : Result.UNFINISHED;
+    }
+
+    public int getBoardSize() { return boardSize; }
+    public RuleSet getRule() { return rule; }
+    public String getBlackPlayer() { return blackPlayer; }
+    public String getWhitePlayer() { return whitePlayer; }
+    public Result getResult() { return result; }
+    public long getStartTime() { return startTime; }
+    public int getMoveCount() { return moves.length; }
+
+    /** 第 index 手的压缩编码，见 {@link MoveStack} */
+    public int packedMove(int index) { return moves[index]; }
+    public int getRow(int index) { return MoveStack.row(moves[index]); }
+    public int getCol(int index) { return MoveStack.col(moves[index]); }
+    public Piece getColor(int index) { return colorAt(index); }
+    public long getTime(int index) { return times[index]; }
+
+    /** 第 index 手的用时（与上一手或开局时刻之差） */
+    public long getThinkTime(int index) {
+        return times[index] - (index == 0 ? startTime : times[index - 1]);
+    }
+
+    public List<Move> getMoves() {
+        List<Move> list = new ArrayList<>(moves.length);
+        for (int move : moves) list.add(new Move(MoveStack.row(move), MoveStack.col(move), MoveStack.color(move)));
+        return list;
+    }
+
+    /** 第 index 手的颜色：黑棋先行，双方交替 */
+    static Piece colorAt(int index) {
+        return (index & 1) == 0 ? Piece.BLACK : Piece.WHITE;
+    }
+
+    @Override
+    public String toString() {
+        String size = boardSize == Board.UNBOUNDED ? "无边界" : boardSize + "x" + boardSize;
+        return String.format("%s vs %s, %s, %s, %d手, %s",
+                blackPlayer, whitePlayer, size, rule.getName(), moves.length, result);
+    }
+}
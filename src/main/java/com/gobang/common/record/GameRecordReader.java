@@ -0,0 +1,133 @@
+package com.gobang.common.record;
+
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.MoveStack;
+import com.gobang.common.logic.RuleSet;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * 二进制棋谱读取器，格式见 {@link GameRecordWriter}
+ * 逐局读取，内存占用只与单局大小有关，与文件中的局数无关，可以直接流式导入上百万局的归档
+ */
+public final class GameRecordReader implements Closeable {
+    /** 单局手数上限，防止损坏的文件导致分配超大数组 */
+    private static final int MAX_MOVES = 1 << 20;
+    private static final int MAX_NAME_BYTES = GameRecordWriter.MAX_NAME_BYTES;
+
+    private final InputStream in;
+    private final byte[] nameBuffer = new byte[MAX_NAME_BYTES];
+    private long read;
+
+    public GameRecordReader(InputStream in) throws IOException {
+        this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in, 1 << 16);
+        for (byte b : GameRecordWriter.MAGIC) {
+            if (this.in.read() != b) throw new IOException("不是棋谱文件");
+        }
+        int version = this.in.read();
+        if (version != GameRecordWriter.VERSION) throw new IOException("不支持的棋谱版本: " + version);
+    }
+
+    /**
+     * 读取下一局
+     * @return 下一局记录，已到文件末尾时返回 null
+     */
+    public GameRecord read() throws IOException {
+        int first = in.read();
+        if (first < 0) return null;
+        int size = (int) readVarint(first);
+        if (size != Board.UNBOUNDED && (size < 5 || size > 64)) throw new IOException("棋盘大小非法: " + size);
+        RuleSet rule;
+        GameRecord.Result result;
+        try {
+            rule = RuleSet.byId(readByte());
+            result = GameRecord.Result.of(readByte());
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        String black = readString();
+        String white = readString();
+        long startTime = readVarint(readByte());
+        long count = readVarint(readByte());
+        if (count > MAX_MOVES) throw new IOException("手数非法: " + count);
+
+        boolean packed = GameRecordWriter.isPacked(size);
+        int[] moves = new int[(int) count];
+        long[] times = new long[(int) count];
+        long time = startTime;
+        for (int i = 0; i < count; i++) {
+            int row, col;
+            if (packed) {
+                int b = readByte();
+                row = b >>> 4;
+                col = b & 0xF;
+            } else {
+                row = unzigzag(readVarint(readByte()));
+                col = unzigzag(readVarint(readByte()));
+            }
+            moves[i] = MoveStack.pack(row, col, GameRecord.colorAt(i));
+            time += readVarint(readByte());
+            times[i] = time;
+        }
+        read++;
+        return new GameRecord(size, rule, black, white, result, startTime, moves, times);
+    }
+
+    /** 依次处理剩余的每一局，返回处理的局数 */
+    public long forEach(Consumer<GameRecord> action) throws IOException {
+        long n = 0;
+        for (GameRecord record = read(); record != null; record = read()) {
+            action.accept(record);
+            n++;
+        }
+        return n;
+    }
+
+    /** 已读取的局数 */
+    public long getRead() { return read; }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) throw new EOFException("棋谱在第 " + (read + 1) + " 局中途截断");
+        return b;
+    }
+
+    private long readVarint(int first) throws IOException {
+        long value = first & 0x7F;
+        int shift = 7;
+        for (int b = first; (b & 0x80) != 0; shift += 7) {
+            if (shift > 63) throw new IOException("varint 过长");
+            b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+        }
+        return value;
+    }
+
+    private String readString() throws IOException {
+        long length = readVarint(readByte());
+        if (length > MAX_NAME_BYTES) throw new IOException("玩家名称过长: " + length);
+        int n = (int) length;
+        for (int off = 0; off < n; ) {
+            int k = in.read(nameBuffer, off, n - off);
+            if (k < 0) throw new EOFException("棋谱在第 " + (read + 1) + " 局中途截断");
+            off += k;
+        }
+        return new String(nameBuffer, 0, n, StandardCharsets.UTF_8);
+    }
+
+    private static int unzigzag(long value) {
+        int v = (int) value;
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
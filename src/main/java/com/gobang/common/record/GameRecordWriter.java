@@ -0,0 +1,118 @@
+package com.gobang.common.record;
+
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.MoveStack;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 二进制棋谱写入器，一个流中可以连续写入任意多局
+ *
+ * 文件格式：文件头 "GBR" + 版本号，之后每局依次为
+ * <pre>
+ *   varint 棋盘边长（0 为无边界）、byte 规则编号、byte 对局结果、
+ *   string 黑方、string 白方、varint 开局时间、varint 手数、
+ *   每手：坐标 + varint 距上一手的毫秒数
+ * </pre>
+ * 棋盘不超过 16 路时坐标为一个字节（行在高 4 位、列在低 4 位），否则为行、列两个 zigzag varint；
+ * string 为 varint 长度加 UTF-8 字节。15 路棋盘、秒级以下用时的一手棋通常只占 2~3 字节
+ */
+public final class GameRecordWriter implements Closeable {
+    static final byte[] MAGIC = {'G', 'B', 'R'};
+    static final int VERSION = 1;
+    /** 不超过该边长的棋盘每个坐标用一个字节 */
+    static final int PACKED_LIMIT = 16;
+    /** 玩家名称 UTF-8 编码后的字节数上限，读取器按同一上限拒绝 */
+    static final int MAX_NAME_BYTES = 1 << 12;
+
+    private final OutputStream out;
+    private long written;
+
+    public GameRecordWriter(OutputStream out) throws IOException {
+        this.out = out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out, 1 << 16);
+        this.out.write(MAGIC);
+        this.out.write(VERSION);
+    }
+
+    /**
+     * 写入一局；先校验再写，校验失败时流中不会留下半局
+     * @throws IllegalArgumentException 玩家名称超过 {@link #MAX_NAME_BYTES} 字节，或某一手的时间早于上一手
+     */
+    public void write(GameRecord record) throws IOException {
+        byte[] black = nameBytes(record.getBlackPlayer());
+        byte[] white = nameBytes(record.getWhitePlayer());
+        int count = record.getMoveCount();
+        long previous = record.getStartTime();
+        for (int i = 0; i < count; i++) {
+            if (record.getTime(i) < previous) throw new IllegalArgumentException("第 " + (i + 1) + " 手时间早于上一手");
+            previous = record.getTime(i);
+        }
+
+        int size = record.getBoardSize();
+        writeVarint(size);
+        out.write(record.getRule().getId());
+        out.write(record.getResult().ordinal());
+        writeString(black);
+        writeString(white);
+        writeVarint(record.getStartTime());
+        writeVarint(count);
+
+        boolean packed = isPacked(size);
+        previous = record.getStartTime();
+        for (int i = 0; i < count; i++) {
+            int move = record.packedMove(i);
+            if (packed) {
+                out.write(MoveStack.row(move) << 4 | MoveStack.col(move));
+            } else {
+                writeVarint(zigzag(MoveStack.row(move)));
+                writeVarint(zigzag(MoveStack.col(move)));
+            }
+            writeVarint(record.getTime(i) - previous);
+            previous = record.getTime(i);
+        }
+        written++;
+    }
+
+    /** 已写入的局数 */
+    public long getWritten() { return written; }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    static boolean isPacked(int size) {
+        return size != Board.UNBOUNDED && size <= PACKED_LIMIT;
+    }
+
+    static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static byte[] nameBytes(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME_BYTES) throw new IllegalArgumentException("玩家名称过长: " + bytes.length);
+        return bytes;
+    }
+
+    private void writeString(byte[] bytes) throws IOException {
+        writeVarint(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,169 @@
+package com.gobang.common.record;
+
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.Game;
+import com.gobang.common.logic.MoveStack;
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 棋谱工具：回放到 Game、合法性校验，以及与其他五子棋软件文本格式的互相转换
+ * <ul>
+ *   <li>PSQ：Piskvork / Gomocup 使用的格式，首行 "Piskvorky 15x15, ..."，之后每行 "x,y,用时"（从 1 开始）</li>
+ *   <li>坐标串：连珠记谱法，如 "h8i9j10"，列为字母 a 起，行为数字、自下而上从 1 起</li>
+ * </ul>
+ */
+public final class GameRecords {
+    private static final Pattern PSQ_HEADER = Pattern.compile("Piskvorky\\s+(\\d+)x(\\d+).*");
+    private static final Pattern PSQ_MOVE = Pattern.compile("\\s*(\\d+)\\s*,\\s*(\\d+)\\s*(?:,\\s*(\\d+))?\\s*");
+    private static final Pattern COORDINATE = Pattern.compile("([a-z])(\\d{1,2})");
+
+    private GameRecords() {}
+
+    /**
+     * 在新的 Game 上按顺序重新落子
+     * @throws IllegalArgumentException 某一手无法落下（越界、重复、禁手或对局已结束）
+     */
+    public static Game replay(GameRecord record) {
+        Game game = new Game(record.getBoardSize());
+        game.setRule(record.getRule());
+        for (int i = 0; i < record.getMoveCount(); i++) {
+            if (!game.placePiece(record.getRow(i), record.getCol(i), record.getColor(i))) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 手无法落子: "
+                        + record.getRow(i) + "," + record.getCol(i));
+            }
+        }
+        return game;
+    }
+
+    /**
+     * 校验棋谱：每手合法、分出胜负后没有多余的落子、记录的结果与棋盘一致
+     * 不经过 Game，不产生事件和日志，适合批量校验
+     * 没有成五也没有下满时，允许记录为任意结果（认输、超时、裁定）
+     * @throws IllegalArgumentException 校验失败，信息中包含出错的手数
+     */
+    public static void validate(GameRecord record) {
+        Position position = replayPosition(record);
+        GameRecord.Result actual = GameRecord.resultOf(position);
+        if (actual != GameRecord.Result.UNFINISHED && actual != record.getResult()) {
+            throw new IllegalArgumentException("记录的结果 " + record.getResult() + " 与棋盘不符: " + actual);
+        }
+    }
+
+    private static Position replayPosition(GameRecord record) {
+        Position position = Position.empty(record.getBoardSize(), record.getRule());
+        for (int i = 0; i < record.getMoveCount(); i++) {
+            int row = record.getRow(i);
+            int col = record.getCol(i);
+            if (position.lastMoveWins()) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 手在对局结束后落子");
+            }
+            if (!position.isLegal(row, col)) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 手非法: " + row + "," + col);
+            }
+            position.make(row, col);
+        }
+        return position;
+    }
+
+    // --- PSQ ---
+
+    /** 转换为 PSQ 文本，用时取每手的思考毫秒数，末尾两行为双方名称 */
+    public static String toPsq(GameRecord record) {
+        int size = requireBounded(record);
+        StringBuilder sb = new StringBuilder();
+        sb.append("Piskvorky ").append(size).append('x').append(size).append(", 11:11, 0\n");
+        for (int i = 0; i < record.getMoveCount(); i++) {
+            // PSQ 中 x 为列、y 为行
+            sb.append(record.getCol(i) + 1).append(',').append(record.getRow(i) + 1).append(',')
+                    .append(record.getThinkTime(i)).append('\n');
+        }
+        sb.append(record.getBlackPlayer()).append('\n');
+        sb.append(record.getWhitePlayer()).append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * 解析 PSQ 文本，结果由棋盘推出（PSQ 本身不记录结果）
+     * 落子行之后的前两行非数字文本视为黑方、白方名称
+     */
+    public static GameRecord fromPsq(String text, RuleSet rule) {
+        String[] lines = text.split("\\R");
+        Matcher header = PSQ_HEADER.matcher(lines.length > 0 ? lines[0].trim() : "");
+        if (!header.matches() || !header.group(1).equals(header.group(2))) {
+            throw new IllegalArgumentException("不是正方形棋盘的 PSQ 文本");
+        }
+        int size = Integer.parseInt(header.group(1));
+        int[] moves = new int[size * size];
+        long[] times = new long[size * size];
+        int count = 0;
+        long time = 0;
+        int line = 1;
+        for (; line < lines.length; line++) {
+            Matcher m = PSQ_MOVE.matcher(lines[line]);
+            if (!m.matches()) break;
+            if (count == moves.length) throw new IllegalArgumentException("落子数超过棋盘格数");
+            int col = Integer.parseInt(m.group(1)) - 1;
+            int row = Integer.parseInt(m.group(2)) - 1;
+            moves[count] = MoveStack.pack(row, col, GameRecord.colorAt(count));
+            time += m.group(3) == null ? 0 : Long.parseLong(m.group(3));
+            times[count++] = time;
+        }
+        String[] names = {"", ""};
+        for (int n = 0; line < lines.length && n < 2; line++) {
+            String name = lines[line].trim();
+            if (!name.isEmpty() && !name.matches("-?\\d+")) names[n++] = name;
+        }
+        return build(size, rule, names[0], names[1], Arrays.copyOf(moves, count), Arrays.copyOf(times, count));
+    }
+
+    // --- 坐标串 ---
+
+    /** 转换为连珠记谱法坐标串，如 "h8i9j10" */
+    public static String toCoordinates(GameRecord record) {
+        int size = requireBounded(record);
+        if (size > 26) throw new IllegalArgumentException("坐标串最多支持 26 路棋盘");
+        StringBuilder sb = new StringBuilder(record.getMoveCount() * 3);
+        for (int i = 0; i < record.getMoveCount(); i++) {
+            sb.append((char) ('a' + record.getCol(i))).append(size - record.getRow(i));
+        }
+        return sb.toString();
+    }
+
+    /** 解析连珠记谱法坐标串，忽略大小写和空白，结果由棋盘推出 */
+    public static GameRecord fromCoordinates(String text, int size, RuleSet rule) {
+        if (size == Board.UNBOUNDED || size > 26) throw new IllegalArgumentException("坐标串最多支持 26 路棋盘");
+        String compact = text.toLowerCase().replaceAll("\\s+", "");
+        Matcher m = COORDINATE.matcher(compact);
+        int[] moves = new int[size * size];
+        int count = 0;
+        int end = 0;
+        while (m.find() && m.start() == end) {
+            if (count == moves.length) throw new IllegalArgumentException("落子数超过棋盘格数");
+            int col = m.group(1).charAt(0) - 'a';
+            int row = size - Integer.parseInt(m.group(2));
+            moves[count] = MoveStack.pack(row, col, GameRecord.colorAt(count));
+            count++;
+            end = m.end();
+        }
+        if (end != compact.length()) throw new IllegalArgumentException("无法解析的坐标: " + compact.substring(end));
+        return build(size, rule, "", "", Arrays.copyOf(moves, count), new long[count]);
+    }
+
+    private static GameRecord build(int size, RuleSet rule, String black, String white, int[] moves, long[] times) {
+        GameRecord unchecked = new GameRecord(size, rule, black, white, GameRecord.Result.UNFINISHED, 0L, moves, times);
+        GameRecord.Result result = GameRecord.resultOf(replayPosition(unchecked));
+        return new GameRecord(size, rule, black, white, result, 0L, moves, times);
+    }
+
+    private static int requireBounded(GameRecord record) {
+        if (record.getBoardSize() == Board.UNBOUNDED) {
+            throw new IllegalArgumentException("无边界棋盘无法转换为文本棋谱");
+        }
+        return record.getBoardSize();
+    }
+}
@@ -0,0 +1,22 @@
+package com.gobang.common.trace;
+
+/**
+ * [Enum] 跟踪日志级别，低于当前级别的事件在调用处直接丢弃
+ */
+public enum TraceLevel {
+    DEBUG,  // 每手棋、每条消息等高频细节
+    INFO,   // 连接、房间、对局开始结束等
+    WARN,   // 可恢复的异常情况
+    ERROR,  // 需要关注的错误
+    OFF;    // 关闭全部输出
+
+    /** 按名称解析级别，无法识别时返回默认值 */
+    public static TraceLevel parse(String name, TraceLevel defaultLevel) {
+        if (name == null) return defaultLevel;
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return defaultLevel;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.gobang.common.trace;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 多生产者、单消费者的事件环形缓冲区
+ * 生产者用 CAS 领取序号后填写预先分配的槽位，最后发布序号；缓冲区满时丢弃事件并计数，从不阻塞调用线程
+ * 唯一的消费者是后台写线程，按序号顺序取出事件、格式化后批量写出；没有事件时挂起，由发布事件的生产者唤醒
+ */
+final class TraceRing {
+    /** 单个事件的槽位，参数分为 long 与 Object 两组，避免基本类型装箱 */
+    static final class Slot {
+        // 已发布的序号，写线程看到与期望序号相同时才读取其余字段
+        volatile long sequence = -1;
+        // 生产者领取到的序号，发布前只有领取者可见
+        long claimed;
+        TraceLevel level;
+        long timeMillis;
+        String thread;
+        String category;
+        String format;
+        int argCount;
+        // 第 i 个参数为 long 时置位第 i 位
+        int primitiveMask;
+        final long[] longs = new long[Tracer.MAX_ARGS];
+        final Object[] objects = new Object[Tracer.MAX_ARGS];
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    // 只由写线程修改
+    private volatile long head;
+    private final Thread writer;
+    // 写线程即将挂起或已挂起，生产者发布后据此决定是否唤醒
+    private volatile boolean parked;
+
+    private volatile PrintStream out;
+    private final StringBuilder line = new StringBuilder(256);
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+
+    TraceRing(int capacity, PrintStream out) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) slots[i] = new Slot();
+        this.mask = size - 1;
+        this.out = out;
+        this.writer = new Thread(this::drainLoop, "trace-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::drain, "trace-flush"));
+    }
+
+    /** 领取一个空槽位，缓冲区满时返回 null */
+    Slot claim() {
+        long seq;
+        do {
+            seq = tail.get();
+            if (seq - head >= slots.length) {
+                dropped.incrementAndGet();
+                return null;
+            }
+        } while (!tail.compareAndSet(seq, seq + 1));
+        Slot slot = slots[(int) seq & mask];
+        slot.claimed = seq;
+        return slot;
+    }
+
+    /** 填写完毕后发布槽位，写线程随后才能读取 */
+    void publish(Slot slot) {
+        slot.sequence = slot.claimed;
+        if (parked) LockSupport.unpark(writer);
+    }
+
+    long dropped() { return dropped.get(); }
+
+    void setOutput(PrintStream out) { this.out = out; }
+
+    private void drainLoop() {
+        while (true) {
+            if (drain() > 0) continue;
+            parked = true;
+            // 先置位再检查：生产者要么在这里被看到，要么发布后看到 parked 并唤醒，不会两头落空
+            if (!hasPublished()) LockSupport.park(this);
+            parked = false;
+        }
+    }
+
+    private boolean hasPublished() {
+        long seq = head;
+        return slots[(int) seq & mask].sequence == seq;
+    }
+
+    /** 取出并写出当前已发布的全部事件，返回条数 */
+    synchronized int drain() {
+        PrintStream target = out;
+        int n = 0;
+        long seq = head;
+        while (true) {
+            Slot slot = slots[(int) seq & mask];
+            if (slot.sequence != seq) break;
+            format(slot);
+            target.print(line);
+            clear(slot);
+            head = ++seq;
+            n++;
+        }
+        if (n > 0) {
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) target.println("[trace] 缓冲区已满，丢弃 " + lost + " 条事件");
+            target.flush();
+        }
+        return n;
+    }
+
+    private void format(Slot slot) {
+        line.setLength(0);
+        line.append(timeFormat.format(new Date(slot.timeMillis))).append(' ')
+                .append(slot.level).append(" [").append(slot.thread).append("] [")
+                .append(slot.category).append("] ");
+        String format = slot.format;
+        int arg = 0;
+        int from = 0;
+        for (int at = format.indexOf("{}"); at >= 0 && arg < slot.argCount; at = format.indexOf("{}", from)) {
+            line.append(format, from, at);
+            if ((slot.primitiveMask >>> arg & 1) != 0) line.append(slot.longs[arg]);
+            else line.append(slot.objects[arg]);
+            arg++;
+            from = at + 2;
+        }
+        line.append(format, from, format.length()).append(System.lineSeparator());
+        // 未被占位符使用的最后一个参数若为异常，附上堆栈
+        if (arg < slot.argCount && slot.objects[slot.argCount - 1] instanceof Throwable error) {
+            StringWriter trace = new StringWriter();
+            error.printStackTrace(new PrintWriter(trace));
+            line.append(trace);
+        }
+    }
+
+    private static void clear(Slot slot) {
+        // 释放参数引用，避免缓冲区长期持有对象
+        for (int i = 0; i < Tracer.MAX_ARGS; i++) slot.objects[i] = null;
+        slot.thread = null;
+        slot.format = null;
+    }
+}
@@ -0,0 +1,184 @@
+package com.gobang.common.trace;
+
+import java.io.PrintStream;
+
+/**
+ * 分级跟踪日志，取代热点路径上的 System.out.println
+ * 每个类持有一个按类别命名的 Tracer：
+ * <pre>
+ *   private static final Tracer TRACE = Tracer.get("Game");
+ *   TRACE.debug("落子成功: ({},{}), 颜色: {}", row, col, color);
+ * </pre>
+ * 未开启的级别只有一次比较分支，不拼接字符串、不装箱、不分配对象；
+ * 开启时调用线程只把参数写入预分配的环形缓冲区，格式化和输出由后台线程完成，调用方之间没有锁竞争
+ * 级别由系统属性 gobang.trace 设置（DEBUG/INFO/WARN/ERROR/OFF，默认 INFO），运行中可用 {@link #setLevel} 调整
+ */
+public final class Tracer {
+    static final int MAX_ARGS = 4;
+    private static final int CAPACITY = 1 << 14;
+
+    private static volatile int threshold =
+            TraceLevel.parse(System.getProperty("gobang.trace"), TraceLevel.INFO).ordinal();
+
+    // 首次输出事件时才创建缓冲区和写线程
+    private static final class Holder {
+        static final TraceRing RING = new TraceRing(CAPACITY, System.out);
+    }
+
+    private final String category;
+
+    private Tracer(String category) {
+        this.category = category;
+    }
+
+    public static Tracer get(String category) {
+        return new Tracer(category);
+    }
+
+    public static void setLevel(TraceLevel level) {
+        threshold = level.ordinal();
+    }
+
+    public static TraceLevel getLevel() {
+        return TraceLevel.values()[threshold];
+    }
+
+    /** 改变输出目标（默认 System.out） */
+    public static void setOutput(PrintStream out) {
+        Holder.RING.setOutput(out);
+    }
+
+    /** 同步写出缓冲区中的全部事件，用于退出前或测试 */
+    public static void flush() {
+        Holder.RING.drain();
+    }
+
+    /** 因缓冲区已满而丢弃、尚未报告的事件数 */
+    public static long dropped() {
+        return Holder.RING.dropped();
+    }
+
+    public static boolean isEnabled(TraceLevel level) {
+        return level.ordinal() >= threshold;
+    }
+
+    public boolean isDebugEnabled() {
+        return TraceLevel.DEBUG.ordinal() >= threshold;
+    }
+
+    // --- DEBUG ---
+
+    public void debug(String message) {
+        if (TraceLevel.DEBUG.ordinal() >= threshold) log(TraceLevel.DEBUG, message, 0, 0, 0L, 0L, null, null, null);
+    }
+
+    public void debug(String format, Object a) {
+        if (TraceLevel.DEBUG.ordinal() >= threshold) log(TraceLevel.DEBUG, format, 1, 0, 0L, 0L, a, null, null);
+    }
+
+    public void debug(String format, Object a, Object b) {
+        if (TraceLevel.DEBUG.ordinal() >= threshold) log(TraceLevel.DEBUG, format, 2, 0, 0L, 0L, a, b, null);
+    }
+
+    public void debug(String format, Object a, Object b, Object c) {
+        if (TraceLevel.DEBUG.ordinal() >= threshold) log(TraceLevel.DEBUG, format, 3, 0, 0L, 0L, a, b, c);
+    }
+
+    /** 坐标类事件：前两个参数为 int，不装箱 */
+    public void debug(String format, int a, int b) {
+        if (TraceLevel.DEBUG.ordinal() >= threshold) log(TraceLevel.DEBUG, format, 2, 0b11, a, b, null, null, null);
+    }
+
+    public void debug(String format, int a, int b, Object c) {
+        if (TraceLevel.DEBUG.ordinal() >= threshold) log(TraceLevel.DEBUG, format, 3, 0b11, a, b, c, null, null);
+    }
+
+    public void debug(String format, int a, int b, Object c, Object d) {
+        if (TraceLevel.DEBUG.ordinal() >= threshold) log(TraceLevel.DEBUG, format, 4, 0b11, a, b, c, d, null);
+    }
+
+    public void debug(String format, long a) {
+        if (TraceLevel.DEBUG.ordinal() >= threshold) log(TraceLevel.DEBUG, format, 1, 0b1, a, 0L, null, null, null);
+    }
+
+    // --- INFO ---
+
+    public void info(String message) {
+        if (TraceLevel.INFO.ordinal() >= threshold) log(TraceLevel.INFO, message, 0, 0, 0L, 0L, null, null, null);
+    }
+
+    public void info(String format, Object a) {
+        if (TraceLevel.INFO.ordinal() >= threshold) log(TraceLevel.INFO, format, 1, 0, 0L, 0L, a, null, null);
+    }
+
+    public void info(String format, Object a, Object b) {
+        if (TraceLevel.INFO.ordinal() >= threshold) log(TraceLevel.INFO, format, 2, 0, 0L, 0L, a, b, null);
+    }
+
+    public void info(String format, Object a, Object b, Object c) {
+        if (TraceLevel.INFO.ordinal() >= threshold) log(TraceLevel.INFO, format, 3, 0, 0L, 0L, a, b, c);
+    }
+
+    public void info(String format, int a, int b, Object c) {
+        if (TraceLevel.INFO.ordinal() >= threshold) log(TraceLevel.INFO, format, 3, 0b11, a, b, c, null, null);
+    }
+
+    // --- WARN ---
+
+    public void warn(String message) {
+        if (TraceLevel.WARN.ordinal() >= threshold) log(TraceLevel.WARN, message, 0, 0, 0L, 0L, null, null, null);
+    }
+
+    public void warn(String format, Object a) {
+        if (TraceLevel.WARN.ordinal() >= threshold) log(TraceLevel.WARN, format, 1, 0, 0L, 0L, a, null, null);
+    }
+
+    public void warn(String format, Object a, Object b) {
+        if (TraceLevel.WARN.ordinal() >= threshold) log(TraceLevel.WARN, format, 2, 0, 0L, 0L, a, b, null);
+    }
+
+    // --- ERROR ---
+
+    public void error(String message) {
+        if (TraceLevel.ERROR.ordinal() >= threshold) log(TraceLevel.ERROR, message, 0, 0, 0L, 0L, null, null, null);
+    }
+
+    /** 未被占位符使用的最后一个 Throwable 参数会连同堆栈一起输出 */
+    public void error(String format, Object a) {
+        if (TraceLevel.ERROR.ordinal() >= threshold) log(TraceLevel.ERROR, format, 1, 0, 0L, 0L, a, null, null);
+    }
+
+    public void error(String format, Object a, Object b) {
+        if (TraceLevel.ERROR.ordinal() >= threshold) log(TraceLevel.ERROR, format, 2, 0, 0L, 0L, a, b, null);
+    }
+
+    /**
+     * 写入一个事件：前两个参数可以是 long（由 primitiveMask 标记），其余为对象
+     * 参数下标：0 = p0 或 o0，1 = p1 或 o1，2 = o2，3 = o3；使用 long 时对象参数顺延
+     */
+    private void log(TraceLevel level, String format, int argCount, int primitiveMask,
+                     long p0, long p1, Object o0, Object o1, Object o2) {
+        TraceRing.Slot slot = Holder.RING.claim();
+        if (slot == null) return;
+        slot.level = level;
+        slot.timeMillis = System.currentTimeMillis();
+        slot.thread = Thread.currentThread().getName();
+        slot.category = category;
+        slot.format = format;
+        slot.argCount = argCount;
+        slot.primitiveMask = primitiveMask;
+        if (primitiveMask == 0) {
+            slot.objects[0] = o0;
+            slot.objects[1] = o1;
+            slot.objects[2] = o2;
+        } else if (primitiveMask == 0b1) {
+            slot.longs[0] = p0;
+        } else {
+            slot.longs[0] = p0;
+            slot.longs[1] = p1;
+            slot.objects[2] = o0;
+            slot.objects[3] = o1;
+        }
+        Holder.RING.publish(slot);
+    }
+}
@@ -1,5 +1,8 @@
 package com.gobang.server;
 
+import com.gobang.common.logic.BitBoard;
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.Game;
 import com.gobang.server.manager.RoomManager;
 import com.gobang.common.network.Message;
 import com.gobang.common.network.MessageType;
@@ -7,8 +10,11 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.Socket;
+import com.gobang.common.trace.Tracer;
 
 public class ClientHandler implements Runnable {
+    private static final Tracer TRACE = Tracer.get("ClientHandler");
+
     private final Socket clientSocket;
     private ObjectOutputStream out;
     private ObjectInputStream in;
@@ -37,14 +43,14 @@ public class ClientHandler implements Runnable {
                 handleMessage(message);
             }
         } catch (IOException | ClassNotFoundException e) {
-            System.out.println("客户端 " + userName + " 连接异常断开: " + e.getMessage());
+            TRACE.info("客户端 {} 连接异常断开: {}", userName, e.getMessage());
         } finally {
             close();  // 确保在 finally块中调用close
         }
     }
 
     private void handleMessage(Message message) throws IOException {
-        System.out.println("收到客户端消息类型: " + message.type() + ", 内容: " + message.content());
+        TRACE.debug("收到客户端消息类型: {}, 内容: {}", message.type(), message.content());
 
         switch (message.type()) {
             case USER_INFO:
@@ -103,7 +109,7 @@ public class ClientHandler implements Runnable {
                     }
                 }
             } catch (IOException e) {
-                e.printStackTrace();
+                TRACE.error("通知对手断开失败", e);
             }
         }
     }
@@ -118,9 +124,24 @@ public class ClientHandler implements Runnable {
         RoomManager roomManager = RoomManager.getInstance();
         GameRoom targetRoom;
 
-        if ("random".equals(reqRoomId)) {
-            targetRoom = roomManager.findAvailableRoom()
-                    .orElseGet(roomManager::createRoom);
+        if (reqRoomId.startsWith("random")) {
+            // 随机匹配可附带棋盘大小，如 "random:19"，0 表示无边界棋盘
+            int boardSize = Game.DEFAULT_BOARD_SIZE;
+            if (reqRoomId.startsWith("random:")) {
+                try {
+                    boardSize = Integer.parseInt(reqRoomId.substring(7));
+                } catch (NumberFormatException e) {
+                    sendMessage(new Message(MessageType.ERROR, "错误：棋盘大小格式不正确"));
+                    return;
+                }
+                if (boardSize != Board.UNBOUNDED && (boardSize < 5 || boardSize > BitBoard.MAX_SIZE)) {
+                    sendMessage(new Message(MessageType.ERROR, "错误：不支持的棋盘大小 " + boardSize));
+                    return;
+                }
+            }
+            int size = boardSize;
+            targetRoom = roomManager.findAvailableRoom(size)
+                    .orElseGet(() -> roomManager.createRoom(size));
         } else {
             targetRoom = roomManager.getRoom(reqRoomId);
             if (targetRoom == null) {
@@ -150,7 +171,7 @@ public class ClientHandler implements Runnable {
         if (!isConnected) return; // 防止重复关闭
 
         isConnected = false;
-        System.out.println("关闭客户端连接: " + userName + " (" + getClientAddress() + ")");
+        TRACE.info("关闭客户端连接: {} ({})", userName, getClientAddress());
 
         // 玩家退出房间
         if (currentRoom != null) {
@@ -173,10 +194,10 @@ public class ClientHandler implements Runnable {
                 clientSocket.close();
             }
         } catch (IOException e) {
-            e.printStackTrace();
+            TRACE.error("关闭客户端连接失败", e);
         }
 
-        System.out.println("客户端连接已完全关闭: " + userName);
+        TRACE.info("客户端连接已完全关闭: {}", userName);
     }
 
     public String getClientAddress() {
@@ -1,19 +1,30 @@
 package com.gobang.server;
 
+import com.gobang.common.logic.Game;
 import com.gobang.common.network.Message;
 import com.gobang.common.network.MessageType;
 import com.gobang.server.manager.RoomManager;
 import java.io.IOException;
+import com.gobang.common.trace.Tracer;
 
 public class GameRoom {
+    private static final Tracer TRACE = Tracer.get("GameRoom");
+
     private final String roomId;
+    // 棋盘边长，0 表示无边界棋盘，随 ROOM_JOINED / GAME_START 下发给客户端
+    private final int boardSize;
     private ClientHandler blackPlayer;
     private ClientHandler whitePlayer;
     private boolean isGameStarted;
     private boolean isRoomActive = true;
 
     public GameRoom(String roomId) {
+        this(roomId, Game.DEFAULT_BOARD_SIZE);
+    }
+
+    public GameRoom(String roomId, int boardSize) {
         this.roomId = roomId;
+        this.boardSize = boardSize;
         this.isGameStarted = false;
     }
 
@@ -30,9 +41,9 @@ public class GameRoom {
             // 通知玩家加入成功，等待对手
             try {
                 clientHandler.sendMessage(new Message(MessageType.ROOM_JOINED,
-                        "ROOM_ID=" + roomId + ",COLOR=BLACK,WAITING"));
+                        "ROOM_ID=" + roomId + ",COLOR=BLACK,BOARD_SIZE=" + boardSize + ",WAITING"));
             } catch (IOException e) {
-                e.printStackTrace();
+                TRACE.error("发送加入房间消息失败", e);
             }
             return true;
         } else if (whitePlayer == null) {
@@ -58,12 +69,14 @@ public class GameRoom {
         try {
             // 通知黑棋玩家
             blackPlayer.sendMessage(new Message(MessageType.GAME_START,
-                    "ROOM_ID=" + roomId + ",COLOR=BLACK,ROLE=先手,OPPONENT=" + whitePlayer.getUserName()));
+                    "ROOM_ID=" + roomId + ",COLOR=BLACK,ROLE=先手,BOARD_SIZE=" + boardSize
+                            + ",OPPONENT=" + whitePlayer.getUserName()));
             // 通知白棋玩家
             whitePlayer.sendMessage(new Message(MessageType.GAME_START,
-                    "ROOM_ID=" + roomId + ",COLOR=WHITE,ROLE=后手,OPPONENT=" + blackPlayer.getUserName()));
+                    "ROOM_ID=" + roomId + ",COLOR=WHITE,ROLE=后手,BOARD_SIZE=" + boardSize
+                            + ",OPPONENT=" + blackPlayer.getUserName()));
         } catch (IOException e) {
-            e.printStackTrace();
+            TRACE.error("发送开局消息失败", e);
         }
     }
 
@@ -73,8 +86,7 @@ public class GameRoom {
             return;
         }
 
-        System.out.println("[GameRoom] 处理消息类型: " + msg.type() + ", 发送者: " +
-                (sender != null ? sender.getUserName() : "null"));
+        TRACE.debug("处理消息类型: {}, 发送者: {}", msg.type(), sender != null ? sender.getUserName() : "null");
 
         // 处理不同类型的消息
         if (msg.type() == MessageType.REGRET_REQUEST || msg.type() == MessageType.RESET_REQUEST) {
@@ -82,7 +94,7 @@ public class GameRoom {
             ClientHandler opponent = getOpponent(sender);
             if (opponent != null && opponent.isConnected()) {
                 opponent.sendMessage(msg);
-                System.out.println("[GameRoom] 转发 " + msg.type() + " 给对手: " + opponent.getUserName());
+                TRACE.debug("转发 {} 给对手: {}", msg.type(), opponent.getUserName());
             }
         } else if (msg.type() == MessageType.CHAT) {
             // 聊天消息：只发送给对手
@@ -98,7 +110,7 @@ public class GameRoom {
             if (whitePlayer != null && whitePlayer.isConnected()) {
                 whitePlayer.sendMessage(msg);
             }
-            System.out.println("[GameRoom] 广播 " + msg.type() + " 给双方");
+            TRACE.debug("广播 {} 给双方", msg.type());
         } else if (msg.type() == MessageType.MOVE) {
             // 落子消息：广播给双方（包括发送者自己）
             if (blackPlayer != null && blackPlayer.isConnected()) {
@@ -162,7 +174,7 @@ public class GameRoom {
     }
 
     public synchronized void removePlayer(ClientHandler player) {
-        System.out.println("从房间移除玩家: " + (player != null ? player.getUserName() : "null"));
+        TRACE.info("从房间移除玩家: {}", player != null ? player.getUserName() : "null");
 
         if (player == blackPlayer) {
             blackPlayer = null;
@@ -173,7 +185,7 @@ public class GameRoom {
                     whitePlayer.setCurrentRoom(null);
                     whitePlayer.setChessColor(null);
                 } catch (IOException e) {
-                    e.printStackTrace();
+                    TRACE.error("通知对手离开失败", e);
                 }
             }
         }
@@ -186,7 +198,7 @@ public class GameRoom {
                     blackPlayer.setCurrentRoom(null);
                     blackPlayer.setChessColor(null);
                 } catch (IOException e) {
-                    e.printStackTrace();
+                    TRACE.error("通知对手离开失败", e);
                 }
             }
         }
@@ -198,12 +210,13 @@ public class GameRoom {
         if (blackPlayer == null && whitePlayer == null) {
             isRoomActive = false;
             RoomManager.getInstance().removeRoom(this.roomId);
-            System.out.println("房间 " + roomId + " 已销毁");
+            TRACE.info("房间 {} 已销毁", roomId);
         }
     }
 
     // Getters
     public String getRoomId() { return roomId; }
+    public int getBoardSize() { return boardSize; }
     public boolean isGameStarted() { return isGameStarted; }
     public ClientHandler getBlackPlayer() { return blackPlayer; }
     public ClientHandler getWhitePlayer() { return whitePlayer; }
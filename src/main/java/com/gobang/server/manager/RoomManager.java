@@ -1,5 +1,6 @@
 package com.gobang.server.manager;
 
+import com.gobang.common.logic.Game;
 import com.gobang.server.GameRoom;
 import java.util.Map;
 import java.util.Optional;
@@ -30,15 +31,26 @@ public class RoomManager {
 
     // ✅ 核心修复：新增缺失的 findAvailableRoom 方法（返回Optional）
     public Optional<GameRoom> findAvailableRoom() {
+        return findAvailableRoom(Game.DEFAULT_BOARD_SIZE);
+    }
+
+    // 查找指定棋盘大小的未满房间
+    public Optional<GameRoom> findAvailableRoom(int boardSize) {
         return roomMap.values().stream()
                 .filter(room -> !room.isFull()) // 筛选未满的房间
+                .filter(room -> room.getBoardSize() == boardSize)
                 .findFirst(); // 返回第一个可用房间
     }
 
     // 创建新房间（生成6位UUID作为房间号）
     public GameRoom createRoom() {
+        return createRoom(Game.DEFAULT_BOARD_SIZE);
+    }
+
+    // 创建指定棋盘大小的房间，0 表示无边界棋盘
+    public GameRoom createRoom(int boardSize) {
         String roomId = UUID.randomUUID().toString().substring(0, 6);
-        GameRoom newRoom = new GameRoom(roomId);
+        GameRoom newRoom = new GameRoom(roomId, boardSize);
         roomMap.put(roomId, newRoom);
         return newRoom;
     }
@@ -14,7 +14,10 @@ module com.gobang.game {
     exports com.gobang.common.model;
     exports com.gobang.common.network;
     exports com.gobang.common.logic;
+    exports com.gobang.common.record;
+    exports com.gobang.common.trace;
     exports com.gobang.client.player;
+    exports com.gobang.client.player.engine;
     exports com.gobang.client.service;
     exports com.gobang.client.ui;
     exports com.gobang;
@@ -0,0 +1,70 @@
+package com.gobang.client.player.engine;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 基于 Vector API 的 {@link NnueKernel}：累加器以 int16 通道整段加减，
+ * 点积先做 int16 乘法（激活值与 int8 权重之积不超过 127 × 128，不会溢出），再拆成两半扩展为 int32 累加
+ * 只在 jdk.incubator.vector 模块已加载时由 {@link NnueKernel#preferred} 反射创建
+ * 与主代码分开编译（见 pom.xml 的 compile-vector-kernel），主代码中不能直接引用本类
+ */
+final class VectorNnueKernel implements NnueKernel {
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    // 与 SHORTS 位宽相同的 int 向量，通道数减半
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class, SHORTS.vectorShape());
+
+    private VectorNnueKernel() {}
+
+    static NnueKernel create() {
+        return new VectorNnueKernel();
+    }
+
+    @Override
+    public void add(short[] acc, short[] weights, int offset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(acc.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, acc, i).add(ShortVector.fromArray(SHORTS, weights, offset + i)).intoArray(acc, i);
+        }
+        for (; i < acc.length; i++) acc[i] += weights[offset + i];
+    }
+
+    @Override
+    public void subtract(short[] acc, short[] weights, int offset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(acc.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, acc, i).sub(ShortVector.fromArray(SHORTS, weights, offset + i)).intoArray(acc, i);
+        }
+        for (; i < acc.length; i++) acc[i] -= weights[offset + i];
+    }
+
+    @Override
+    public void clip(short[] acc, short[] out, int outOffset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(acc.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, acc, i).max((short) 0).min((short) NnueNetwork.CLIP).intoArray(out, outOffset + i);
+        }
+        for (; i < acc.length; i++) out[outOffset + i] = (short) Math.max(0, Math.min(NnueNetwork.CLIP, acc[i]));
+    }
+
+    @Override
+    public int dot(short[] input, short[] weights, int offset) {
+        IntVector sum = IntVector.zero(INTS);
+        int i = 0;
+        for (int bound = SHORTS.loopBound(input.length); i < bound; i += SHORTS.length()) {
+            ShortVector products = ShortVector.fromArray(SHORTS, input, i).mul(ShortVector.fromArray(SHORTS, weights, offset + i));
+            sum = sum.add((IntVector) products.convert(VectorOperators.S2I, 0))
+                    .add((IntVector) products.convert(VectorOperators.S2I, 1));
+        }
+        int total = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < input.length; i++) total += input[i] * weights[offset + i];
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "vector " + SHORTS.vectorBitSize() + "-bit";
+    }
+}
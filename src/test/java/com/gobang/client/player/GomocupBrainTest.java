@@ -0,0 +1,179 @@
+package com.gobang.client.player;
+
+import com.gobang.client.player.engine.SearchEngine;
+import com.gobang.client.player.engine.TranspositionTable;
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Gomocup 协议：命令解析、BOARD 按子数推断执黑方、TAKEBACK，以及新一局和换规则时清空置换表
+ */
+class GomocupBrainTest {
+
+    @Test
+    void parsesCommands() throws IOException {
+        Session brain = new Session("");
+        assertEquals(List.of("ERROR no START yet"), brain.send("BEGIN"));
+        assertTrue(brain.send("START 3").get(0).startsWith("ERROR"));
+        assertTrue(brain.send("START abc").get(0).startsWith("ERROR"));
+        assertEquals(List.of("OK"), brain.send("start 15"));
+        assertEquals(List.of(GomocupBrain.ABOUT), brain.send("ABOUT"));
+        assertEquals(List.of("UNKNOWN FOO 1"), brain.send("FOO 1"));
+        // 未知的 INFO 键和无效数值都不应答
+        assertEquals(List.of(), brain.send("INFO evaluate 1,1"));
+        assertEquals(List.of(), brain.send("INFO timeout_turn soon"));
+        assertFalse(brain.brain.handle("END"));
+    }
+
+    @Test
+    void turnRejectsInvalidMoves() throws IOException {
+        Session brain = new Session("");
+        brain.start();
+        brain.move("TURN 7,7");
+        assertEquals(List.of("ERROR invalid move: 7,7"), brain.send("TURN 7,7"));
+        assertEquals(List.of("ERROR invalid move: 15,0"), brain.send("TURN 15,0"));
+        assertEquals(List.of("ERROR invalid move: 1"), brain.send("TURN 1"));
+    }
+
+    @Test
+    void boardWithEqualCountsLetsOwnSideMoveAsBlack() throws IOException {
+        // 己方（1）在第 0 行有四子、对方（2）四子分散：子数相等时己方执黑且轮到己方，应当连成五
+        Session brain = new Session("""
+                0,0,1
+                10,10,2
+                1,0,1
+                10,12,2
+                2,0,1
+                12,10,2
+                3,0,1
+                12,12,2
+                DONE
+                """);
+        brain.start();
+        assertEquals("4,0", brain.move("BOARD"));
+    }
+
+    @Test
+    void boardWithOneExtraOpponentStoneLetsOpponentBeBlack() throws IOException {
+        // 对方多一子时对方执黑、轮到己方；对方靠边的冲四只剩 4,0 可以连五，必须堵上
+        Session brain = new Session("""
+                0,0,2
+                10,10,1
+                1,0,2
+                10,12,1
+                2,0,2
+                12,12,1
+                3,0,2
+                DONE
+                """);
+        brain.start();
+        assertEquals("4,0", brain.move("BOARD"));
+    }
+
+    @Test
+    void boardRejectsCountsThatDoNotAlternate() throws IOException {
+        Session brain = new Session("""
+                0,0,1
+                1,0,1
+                DONE
+                """);
+        brain.start();
+        assertEquals(List.of("ERROR stone counts do not alternate: 2/0"), brain.send("BOARD"));
+    }
+
+    @Test
+    void takebackOnlyUndoesTheLastMove() throws IOException {
+        Session brain = new Session("");
+        brain.start();
+        String own = brain.move("TURN 7,7");
+        assertEquals(List.of("ERROR not the last move: 7,7"), brain.send("TAKEBACK 7,7"));
+        assertEquals(List.of("OK"), brain.send("TAKEBACK " + own));
+        assertEquals(List.of("OK"), brain.send("TAKEBACK 7,7"));
+        assertTrue(brain.send("TAKEBACK 7,7").get(0).startsWith("ERROR cannot take back"));
+        // 撤回后原位置可以重新落子
+        brain.move("TURN 7,7");
+    }
+
+    @Test
+    void newGameAndRuleChangeClearTable() {
+        SearchEngine engine = new SearchEngine(1);
+        engine.setThreatSearch(false);
+        TranspositionTable table = engine.getTable();
+        long marker = 0x5DEECE66DL;
+
+        // 同一规则的下一次搜索保留置换表（第一次搜索总会清空）
+        engine.search(opening(RuleSet.FREESTYLE), 50);
+        table.store(marker, -1, 0, 255, 0);
+        engine.search(opening(RuleSet.FREESTYLE), 50);
+        assertNotEquals(TranspositionTable.MISS, table.probe(marker));
+
+        // 换规则后的第一次搜索前清空
+        engine.search(opening(RuleSet.RENJU), 50);
+        assertEquals(TranspositionTable.MISS, table.probe(marker));
+
+        // 新一局后的第一次搜索前清空
+        table.store(marker, -1, 0, 255, 0);
+        engine.newGame();
+        engine.search(opening(RuleSet.RENJU), 50);
+        assertEquals(TranspositionTable.MISS, table.probe(marker));
+        engine.close();
+    }
+
+    private static Position opening(RuleSet rule) {
+        Position position = Position.empty(15, rule);
+        position.make(7, 7);
+        position.make(7, 8);
+        position.make(8, 8);
+        return position;
+    }
+
+    /** 一个引擎实例：BOARD 的后续行从 input 读，应答逐行收集 */
+    private static final class Session {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final GomocupBrain brain;
+
+        Session(String input) {
+            brain = new GomocupBrain(new BufferedReader(new StringReader(input)),
+                    new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        }
+
+        void start() throws IOException {
+            send("INFO timeout_turn 300");
+            assertEquals(List.of("OK"), send("START 15"));
+        }
+
+        /** 发送一条命令，返回应答行（不含 MESSAGE） */
+        List<String> send(String line) throws IOException {
+            bytes.reset();
+            brain.handle(line);
+            List<String> replies = new ArrayList<>();
+            for (String reply : bytes.toString(StandardCharsets.UTF_8).split("\\R")) {
+                if (!reply.isEmpty() && !reply.startsWith("MESSAGE")) replies.add(reply);
+            }
+            return replies;
+        }
+
+        /** 发送一条应由己方落子应答的命令，返回着法 "x,y" */
+        String move(String line) throws IOException {
+            List<String> replies = send(line);
+            assertEquals(1, replies.size(), replies.toString());
+            assertTrue(replies.get(0).matches("\\d+,\\d+"), replies.get(0));
+            return replies.get(0);
+        }
+    }
+}
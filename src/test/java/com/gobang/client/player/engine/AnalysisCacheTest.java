@@ -0,0 +1,158 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.MoveStack;
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+import com.gobang.common.model.Piece;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分析缓存的崩溃恢复：末尾不完整的记录与 CRC 不符的记录在打开时被截掉，整理时保留最近使用的局面
+ */
+class AnalysisCacheTest {
+    private static final long FINGERPRINT = 0x1234_5678_9ABC_DEF0L;
+
+    @Test
+    void storedResultsSurviveReopen(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("analysis.cache");
+        try (AnalysisCache cache = AnalysisCache.open(file, FINGERPRINT)) {
+            for (int i = 0; i < 5; i++) assertTrue(cache.store(position(i), result(i, 8)));
+            // 深度不足且未分胜负的结果不保存
+            assertFalse(cache.store(position(5), result(5, 3)));
+            // 同一局面但在另一个对称形下查询，着法变换回查询局面的坐标
+            SearchResult hit = cache.probe(mirrored(2));
+            assertNotNull(hit);
+            assertEquals(MoveStack.pack(7, 6, Piece.BLACK), hit.move());
+        }
+        try (AnalysisCache cache = AnalysisCache.open(file, FINGERPRINT)) {
+            assertEquals(5, cache.size());
+            for (int i = 0; i < 5; i++) assertEquals(i, cache.probe(position(i)).score());
+            assertNull(cache.probe(position(5)));
+            // 同一文件不能同时打开两次
+            assertThrows(IOException.class, () -> AnalysisCache.open(file, FINGERPRINT));
+        }
+        // 其他引擎写入的记录被丢弃
+        try (AnalysisCache cache = AnalysisCache.open(file, FINGERPRINT + 1)) {
+            assertEquals(0, cache.size());
+        }
+    }
+
+    @Test
+    void truncatedTailRecordIsDropped(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("analysis.cache");
+        try (AnalysisCache cache = AnalysisCache.open(file, FINGERPRINT)) {
+            for (int i = 0; i < 3; i++) cache.store(position(i), result(i, 8));
+        }
+        long full = AnalysisCache.HEADER_BYTES + 3L * AnalysisCache.RECORD_BYTES;
+        assertEquals(full, Files.size(file));
+        // 写最后一条记录时进程退出
+        truncate(file, full - 10);
+
+        try (AnalysisCache cache = AnalysisCache.open(file, FINGERPRINT)) {
+            assertEquals(2, cache.size());
+            assertNull(cache.probe(position(2)));
+            assertEquals(full - AnalysisCache.RECORD_BYTES, Files.size(file));
+            // 截断后追加的记录与之前的记录对齐
+            cache.store(position(2), result(2, 9));
+        }
+        try (AnalysisCache cache = AnalysisCache.open(file, FINGERPRINT)) {
+            assertEquals(3, cache.size());
+            assertEquals(9, cache.probe(position(2)).depth());
+        }
+    }
+
+    @Test
+    void recordWithBadCrcAndEverythingAfterItIsDropped(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("analysis.cache");
+        try (AnalysisCache cache = AnalysisCache.open(file, FINGERPRINT)) {
+            for (int i = 0; i < 5; i++) cache.store(position(i), result(i, 8));
+        }
+        // 第 3 条记录的分值被改写，CRC 不再匹配
+        long offset = AnalysisCache.HEADER_BYTES + 2L * AnalysisCache.RECORD_BYTES + 20;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F}), offset);
+        }
+
+        try (AnalysisCache cache = AnalysisCache.open(file, FINGERPRINT)) {
+            assertEquals(2, cache.size());
+            assertNotNull(cache.probe(position(1)));
+            assertNull(cache.probe(position(2)));
+            assertNull(cache.probe(position(4)));
+            assertEquals(AnalysisCache.HEADER_BYTES + 2L * AnalysisCache.RECORD_BYTES, Files.size(file));
+        }
+    }
+
+    @Test
+    void compactionKeepsMostRecentlyUsedEntries(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("analysis.cache");
+        try (AnalysisCache cache = AnalysisCache.open(file, FINGERPRINT)) {
+            for (int i = 0; i < 5; i++) cache.store(position(i), result(i, 8));
+            // 同一局面的更深结果覆盖旧结果，文件中留下两条
+            cache.store(position(3), result(3, 12));
+            // 局面 0 最近被用到；使用顺序变为 1 2 4 3 0
+            cache.probe(position(4));
+            cache.probe(position(3));
+            cache.probe(position(0));
+            cache.setMaxEntries(3);
+            cache.compact();
+            assertEquals(3, cache.size());
+            assertEquals(AnalysisCache.HEADER_BYTES + 3L * AnalysisCache.RECORD_BYTES, Files.size(file));
+        }
+        try (AnalysisCache cache = AnalysisCache.open(file, FINGERPRINT)) {
+            assertEquals(3, cache.size());
+            assertNull(cache.probe(position(1)));
+            assertNull(cache.probe(position(2)));
+            // 重写按最久未用到最近使用的顺序（4 0 3），重新打开后仍按此顺序淘汰
+            assertEquals(12, cache.probe(position(3)).depth());
+            cache.setMaxEntries(2);
+        }
+        try (AnalysisCache cache = AnalysisCache.open(file, FINGERPRINT)) {
+            assertEquals(2, cache.size());
+            assertNull(cache.probe(position(4)));
+            assertNotNull(cache.probe(position(0)));
+            assertNotNull(cache.probe(position(3)));
+        }
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    /** 天元黑子加一个第 0 行的白子，i 不同时互不对称，轮到黑方 */
+    private static Position position(int i) {
+        Position position = Position.empty(15, RuleSet.FREESTYLE);
+        position.make(7, 7);
+        position.make(0, i);
+        return position;
+    }
+
+    /** position(i) 左右翻转 */
+    private static Position mirrored(int i) {
+        Position position = Position.empty(15, RuleSet.FREESTYLE);
+        position.make(7, 7);
+        position.make(0, 14 - i);
+        return position;
+    }
+
+    private static SearchResult result(int i, int depth) {
+        int move = MoveStack.pack(7, 8, Piece.BLACK);
+        return new SearchResult(move, i, depth, 0, 0, new int[]{move});
+    }
+}
@@ -0,0 +1,60 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MCTS 的取消：每次搜索有自己的停止标志，停止后台思考不阻塞调用线程
+ */
+class MctsEngineTest {
+
+    @Test
+    void searchCancelledBeforeStartReturnsImmediately() {
+        MctsEngine engine = new MctsEngine(2);
+        AtomicBoolean stop = new AtomicBoolean(true);
+        long started = System.nanoTime();
+        engine.search(opening(), 60_000, stop);
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+
+        // 上一次的停止标志不影响下一次搜索
+        SearchResult next = engine.search(opening(), 200);
+        assertTrue(next.hasMove());
+        assertTrue(next.nodes() > 0);
+    }
+
+    @Test
+    void stopPonderingDoesNotWaitForRunningSearch() throws Exception {
+        MctsEngine engine = new MctsEngine(2);
+        Position position = opening();
+        engine.ponder(position);
+        assertTrue(engine.isPondering());
+
+        AtomicBoolean stop = new AtomicBoolean();
+        CompletableFuture<SearchResult> search = CompletableFuture.supplyAsync(() -> engine.search(position, 60_000, stop));
+        Thread.sleep(200);
+        // 搜索正持有引擎的锁，停止思考仍应立即返回
+        long started = System.nanoTime();
+        engine.stopPondering();
+        assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(100));
+        assertFalse(engine.isPondering());
+
+        stop.set(true);
+        assertTrue(search.get(10, TimeUnit.SECONDS).hasMove());
+    }
+
+    private static Position opening() {
+        Position position = Position.empty(15, RuleSet.FREESTYLE);
+        position.make(7, 7);
+        position.make(7, 8);
+        position.make(8, 8);
+        return position;
+    }
+}
@@ -0,0 +1,194 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.MoveStack;
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+import com.gobang.common.model.Piece;
+import com.gobang.common.record.GameRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 开局库：8 种对称变换与各自的逆变换一致，建库后内存映射打开，在任意对称局面下都能查回原着法
+ */
+class OpeningBookTest {
+
+    // 黑胜：第 7 行连五
+    private static final int[] BLACK_WINS = {7, 7, 0, 0, 7, 8, 0, 2, 7, 9, 0, 4, 7, 10, 0, 6, 7, 11};
+    // 白胜：黑先天元，白 (6,6) 起沿第 6 行连五
+    private static final int[] WHITE_WINS = {7, 7, 6, 6, 14, 14, 6, 7, 14, 12, 6, 8, 14, 10, 6, 9, 14, 8, 6, 10};
+
+    @Test
+    void symmetriesAreInvertedByTheirInverses() {
+        for (int size : new int[]{5, 15, 16}) {
+            for (int s = 0; s < OpeningBook.SYMMETRIES; s++) {
+                Set<Integer> images = new HashSet<>();
+                for (int r = 0; r < size; r++) {
+                    for (int c = 0; c < size; c++) {
+                        int tr = OpeningBook.row(s, r, c, size), tc = OpeningBook.col(s, r, c, size);
+                        assertTrue(tr >= 0 && tr < size && tc >= 0 && tc < size);
+                        assertEquals(r, OpeningBook.inverseRow(s, tr, tc, size));
+                        assertEquals(c, OpeningBook.inverseCol(s, tr, tc, size));
+                        images.add(tr * size + tc);
+                    }
+                }
+                // 每种变换都是棋盘上的一一映射
+                assertEquals(size * size, images.size());
+            }
+            // 8 种变换互不相同
+            Set<Integer> corner = new HashSet<>();
+            for (int s = 0; s < OpeningBook.SYMMETRIES; s++) {
+                corner.add(OpeningBook.row(s, 0, 1, size) * size + OpeningBook.col(s, 0, 1, size));
+            }
+            assertEquals(OpeningBook.SYMMETRIES, corner.size());
+        }
+    }
+
+    @Test
+    void canonicalKeyIsTheSameUnderEverySymmetry() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            int[] moves = randomMoves(random, 15, 1 + random.nextInt(12));
+            long key = OpeningBook.canonicalKey(play(15, moves, 0)) & -OpeningBook.SYMMETRIES;
+            for (int s = 1; s < OpeningBook.SYMMETRIES; s++) {
+                Position transformed = play(15, moves, s);
+                long canonical = OpeningBook.canonicalKey(transformed);
+                assertEquals(key, canonical & -OpeningBook.SYMMETRIES);
+                // 把低 3 位记录的变换作用到局面上，得到的就是规范形：它不经变换的键等于规范键
+                int symmetry = (int) (canonical & (OpeningBook.SYMMETRIES - 1));
+                Position normalized = play(15, transform(transform(moves, s, 15), symmetry, 15), 0);
+                assertEquals(key, OpeningBook.symmetryKeys(normalized)[0]);
+            }
+        }
+    }
+
+    @Test
+    void builtBookIsFoundUnderEverySymmetry(@TempDir Path dir) throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(15, RuleSet.FREESTYLE, OpeningBookBuilder.DEFAULT_PLIES, 1);
+        assertTrue(builder.add(record(RuleSet.FREESTYLE, GameRecord.Result.BLACK_WIN, BLACK_WINS)));
+        assertTrue(builder.add(record(RuleSet.FREESTYLE, GameRecord.Result.WHITE_WIN, WHITE_WINS)));
+        // 未结束、规则不符的对局不参与统计
+        assertFalse(builder.add(record(RuleSet.FREESTYLE, GameRecord.Result.UNFINISHED, BLACK_WINS)));
+        assertFalse(builder.add(record(RuleSet.RENJU, GameRecord.Result.BLACK_WIN, BLACK_WINS)));
+        Path file = dir.resolve("test.book");
+        long written = builder.write(file);
+        assertTrue(written > 0);
+
+        try (OpeningBook book = OpeningBook.open(file)) {
+            assertEquals(written, book.size());
+            assertEquals(2, book.getGames());
+
+            // 空棋盘：天元在两局中各出现一次，黑方一胜一负，得分 2
+            assertArrayEquals(new int[]{MoveStack.pack(7, 7, Piece.BLACK), 2},
+                    book.moves(play(15, new int[0], 0)));
+
+            // 只有天元时四个斜向相邻点等价，库中只存一份，查回的是其中之一
+            int[] reply = book.moves(play(15, new int[]{7, 7}, 0));
+            assertEquals(2, reply.length);
+            assertTrue(Set.of(66, 68, 86, 88).contains(MoveStack.row(reply[0]) * 10 + MoveStack.col(reply[0])),
+                    MoveStack.row(reply[0]) + "," + MoveStack.col(reply[0]));
+
+            // 输掉的一方的着法不入库
+            assertEquals(0, book.moves(play(15, Arrays.copyOf(BLACK_WINS, 6), 0)).length);
+
+            // 黑胜局的第 5 手 (7,9)：在局面的每种对称形下查回对应变换后的坐标
+            int[] prefix = Arrays.copyOf(BLACK_WINS, 8);
+            for (int s = 0; s < OpeningBook.SYMMETRIES; s++) {
+                int[] moves = book.moves(play(15, prefix, s));
+                assertEquals(2, moves.length, "symmetry " + s);
+                assertEquals(OpeningBook.row(s, 7, 9, 15), MoveStack.row(moves[0]));
+                assertEquals(OpeningBook.col(s, 7, 9, 15), MoveStack.col(moves[0]));
+                assertEquals(moves[0], book.pick(play(15, prefix, s), new Random(s)));
+            }
+
+            // 规则或棋盘大小不符时不命中
+            assertEquals(0, book.moves(Position.empty(15, RuleSet.RENJU)).length);
+            assertEquals(0, book.moves(Position.empty(19, RuleSet.FREESTYLE)).length);
+        }
+    }
+
+    @Test
+    void minGamesFiltersRareMoves(@TempDir Path dir) throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(15, RuleSet.FREESTYLE, OpeningBookBuilder.DEFAULT_PLIES, 2);
+        builder.add(record(RuleSet.FREESTYLE, GameRecord.Result.BLACK_WIN, BLACK_WINS));
+        builder.add(record(RuleSet.FREESTYLE, GameRecord.Result.WHITE_WIN, WHITE_WINS));
+        Path file = dir.resolve("test.book");
+        // 只有天元出现了两次
+        assertEquals(1, builder.write(file));
+        try (OpeningBook book = OpeningBook.open(file)) {
+            assertEquals(0, book.moves(play(15, new int[]{7, 7}, 0)).length);
+        }
+    }
+
+    @Test
+    void corruptFileIsRejected(@TempDir Path dir) throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(15, RuleSet.FREESTYLE, OpeningBookBuilder.DEFAULT_PLIES, 1);
+        builder.add(record(RuleSet.FREESTYLE, GameRecord.Result.BLACK_WIN, BLACK_WINS));
+        Path file = dir.resolve("test.book");
+        builder.write(file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        Path truncated = dir.resolve("truncated.book");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> OpeningBook.open(truncated));
+
+        Path garbage = dir.resolve("garbage.book");
+        bytes[0] = 'X';
+        Files.write(garbage, bytes);
+        assertThrows(IOException.class, () -> OpeningBook.open(garbage));
+    }
+
+    /** 按 "行, 列" 依次落子，每一手先经过变换 s */
+    private static Position play(int size, int[] moves, int s) {
+        Position position = Position.empty(size, RuleSet.FREESTYLE);
+        int[] transformed = transform(moves, s, size);
+        for (int i = 0; i < transformed.length; i += 2) position.make(transformed[i], transformed[i + 1]);
+        return position;
+    }
+
+    private static int[] transform(int[] moves, int s, int size) {
+        int[] result = new int[moves.length];
+        for (int i = 0; i < moves.length; i += 2) {
+            result[i] = OpeningBook.row(s, moves[i], moves[i + 1], size);
+            result[i + 1] = OpeningBook.col(s, moves[i], moves[i + 1], size);
+        }
+        return result;
+    }
+
+    private static int[] randomMoves(Random random, int size, int count) {
+        Set<Integer> used = new HashSet<>();
+        int[] moves = new int[count * 2];
+        for (int i = 0; i < count; ) {
+            int r = random.nextInt(size), c = random.nextInt(size);
+            if (!used.add(r * size + c)) continue;
+            moves[2 * i] = r;
+            moves[2 * i + 1] = c;
+            i++;
+        }
+        return moves;
+    }
+
+    private static GameRecord record(RuleSet rule, GameRecord.Result result, int[] coordinates) {
+        int count = coordinates.length / 2;
+        int[] moves = new int[count];
+        for (int i = 0; i < count; i++) {
+            moves[i] = MoveStack.pack(coordinates[2 * i], coordinates[2 * i + 1],
+                    i % 2 == 0 ? Piece.BLACK : Piece.WHITE);
+        }
+        return new GameRecord(15, rule, "", "", result, 0L, moves, new long[count]);
+    }
+}
@@ -0,0 +1,52 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 关闭引擎：进行中的搜索尽快返回，置换表在搜索退出后释放，之后的搜索不再进行
+ */
+class SearchEngineCloseTest {
+
+    @Test
+    void closeIdleEngineReleasesTable() {
+        SearchEngine engine = new SearchEngine(1);
+        engine.close();
+
+        assertThrows(IllegalStateException.class, () -> engine.getTable().probe(1L));
+        assertFalse(engine.search(opening(), 1000).hasMove());
+        // 重复关闭无害
+        engine.close();
+    }
+
+    @Test
+    void closeDuringSearchReleasesTableWhenSearchReturns() throws Exception {
+        SearchEngine engine = new SearchEngine(1);
+        engine.setThreatSearch(false);
+        engine.setThreads(2);
+        long started = System.nanoTime();
+        CompletableFuture<SearchResult> search = CompletableFuture.supplyAsync(() -> engine.search(opening(), 60_000));
+        Thread.sleep(200);
+        engine.close();
+
+        search.get(10, TimeUnit.SECONDS);
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(10));
+        assertThrows(IllegalStateException.class, () -> engine.getTable().probe(1L));
+    }
+
+    private static Position opening() {
+        Position position = Position.empty(15, RuleSet.FREESTYLE);
+        position.make(7, 7);
+        position.make(7, 8);
+        position.make(8, 8);
+        return position;
+    }
+}
@@ -0,0 +1,63 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 辅助线程有上限且不排队；辅助线程不够时搜索照常完成
+ */
+class SearchExecutorTest {
+
+    @Test
+    void helpersAreBoundedAndNeverQueue() throws Exception {
+        try (SearchExecutor executor = new SearchExecutor(1, 2)) {
+            CountDownLatch release = new CountDownLatch(1);
+            Future<Boolean> first = executor.tryHelper(() -> release.await(10, TimeUnit.SECONDS));
+            Future<Boolean> second = executor.tryHelper(() -> release.await(10, TimeUnit.SECONDS));
+            assertNotNull(first);
+            assertNotNull(second);
+            assertNull(executor.tryHelper(() -> true));
+
+            release.countDown();
+            assertTrue(first.get(10, TimeUnit.SECONDS));
+            assertTrue(second.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void searchUsesOnlyAvailableHelpers() throws Exception {
+        AtomicInteger helpers = new AtomicInteger();
+        try (SearchExecutor executor = new SearchExecutor(1, 1);
+             SearchEngine engine = new SearchEngine(1)) {
+            engine.setExecutor(executor);
+            engine.setThreads(8);
+            engine.setThreatSearch(false);
+            Position position = Position.empty(15, RuleSet.FREESTYLE);
+            position.make(7, 7);
+            position.make(7, 8);
+
+            SearchResult result = engine.search(position, 60_000, 4);
+            assertTrue(result.hasMove());
+            assertEquals(4, result.depth());
+            // 唯一的辅助线程在搜索结束后已经空闲，可以再次取用
+            Future<Integer> next = null;
+            for (int i = 0; i < 100 && next == null; i++) {
+                next = executor.tryHelper(helpers::incrementAndGet);
+                if (next == null) Thread.sleep(10);
+            }
+            assertNotNull(next);
+            assertEquals(1, next.get(10, TimeUnit.SECONDS));
+        }
+    }
+}
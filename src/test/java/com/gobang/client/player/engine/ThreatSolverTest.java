@@ -0,0 +1,72 @@
+package com.gobang.client.player.engine;
+
+import com.gobang.common.logic.MoveStack;
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * VCF 求解：变例可以走通，预算不足中止的求解不会在记忆表中留下“无解”的结论
+ */
+class ThreatSolverTest {
+    // 黑方有 5 步的 VCF（变例 9 个半步）
+    private static final int[][] VCF_POSITION = {
+            {8, 8}, {4, 9}, {4, 10}, {8, 5}, {9, 5}, {10, 7}, {4, 4}, {7, 7},
+            {4, 5}, {5, 6}, {5, 8}, {6, 7}, {6, 8}, {8, 6}, {10, 9},
+    };
+
+    @Test
+    void principalVariationEndsInFive() {
+        Position position = position(RuleSet.FREESTYLE);
+        SearchResult result = new ThreatSolver().solveVcf(position, 1_000_000, 10_000);
+
+        assertTrue(result.hasMove());
+        assertEquals(9, result.pv().length);
+        assertEquals(SearchEngine.WIN - 9, result.score());
+        for (int move : result.pv()) {
+            assertFalse(position.lastMoveWins());
+            assertTrue(position.isLegal(MoveStack.row(move), MoveStack.col(move)));
+            position.make(MoveStack.row(move), MoveStack.col(move));
+        }
+        // 变例止于活四或双四：防守方无论怎么走，进攻方下一手都能成五
+        for (int row = 0; row < position.size(); row++) {
+            for (int col = 0; col < position.size(); col++) {
+                if (!position.isLegal(row, col)) continue;
+                position.make(row, col);
+                assertFalse(position.lastMoveWins());
+                assertTrue(canWinNow(position), "defence at (" + row + "," + col + ") holds");
+                position.unmake();
+            }
+        }
+    }
+
+    @Test
+    void abortedSolveDoesNotHideTheWin() {
+        Position position = position(RuleSet.FREESTYLE);
+        long needed = new ThreatSolver().solveVcf(position, 1_000_000, 10_000).nodes();
+        for (long budget = 1; budget < needed; budget++) {
+            ThreatSolver solver = new ThreatSolver();
+            assertFalse(solver.solveVcf(position, budget, 10_000).hasMove());
+            assertTrue(solver.solveVcf(position, 1_000_000, 10_000).hasMove(), "after a solve limited to " + budget + " nodes");
+        }
+    }
+
+    private static boolean canWinNow(Position position) {
+        for (int row = 0; row < position.size(); row++) {
+            for (int col = 0; col < position.size(); col++) {
+                if (position.isLegal(row, col) && position.isWin(row, col, position.sideToMove())) return true;
+            }
+        }
+        return false;
+    }
+
+    private static Position position(RuleSet rule) {
+        Position position = Position.empty(15, rule);
+        for (int[] move : VCF_POSITION) position.make(move[0], move[1]);
+        return position;
+    }
+}
@@ -0,0 +1,169 @@
+package com.gobang.common.logic;
+
+import com.gobang.common.model.Piece;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 位棋盘：边、角、两条斜线上的五连判定，以及随机棋盘上与逐格扫描的结果一致
+ */
+class BitBoardTest {
+
+    @Test
+    void winsAlongEdgesAndCorners() {
+        for (int size : new int[]{5, 15, 64}) {
+            int last = size - 1;
+            // 第一行、最后一行、第一列、最后一列，都从角上开始
+            assertFive(size, 0, 0, 0, 1);
+            assertFive(size, last, last - 4, 0, 1);
+            assertFive(size, 0, 0, 1, 0);
+            assertFive(size, last - 4, last, 1, 0);
+            // 两条对角线的两端
+            assertFive(size, 0, 0, 1, 1);
+            assertFive(size, last - 4, last - 4, 1, 1);
+            assertFive(size, 0, last, 1, -1);
+            assertFive(size, last - 4, 4, 1, -1);
+        }
+    }
+
+    @Test
+    void winsOnShortDiagonals() {
+        // 长度恰好为 5 的斜线：主对角线从 (10,0) 开始，副对角线从 (0,4) 开始
+        assertFive(15, 10, 0, 1, 1);
+        assertFive(15, 0, 10, 1, 1);
+        assertFive(15, 0, 4, 1, -1);
+        assertFive(15, 10, 14, 1, -1);
+    }
+
+    @Test
+    void fourOrBrokenLineIsNotAWin() {
+        BitBoard board = new BitBoard(15);
+        for (int i = 0; i < 4; i++) board.place(3 + i, 3 + i, Piece.BLACK);
+        assertFalse(board.wouldWin(8, 8, Piece.BLACK));
+        assertTrue(board.wouldWin(7, 7, Piece.BLACK));
+        assertFalse(board.wouldWin(7, 7, Piece.WHITE));
+
+        // 相邻斜线上的子不会串进同一条线
+        BitBoard adjacent = new BitBoard(15);
+        for (int i = 0; i < 4; i++) adjacent.place(i, i + 1, Piece.BLACK);
+        assertFalse(adjacent.wouldWin(4, 4, Piece.BLACK));
+        assertTrue(adjacent.wouldWin(4, 5, Piece.BLACK));
+    }
+
+    @Test
+    void matchesScanOnRandomBoards() {
+        Random random = new Random(20240611L);
+        for (int size : new int[]{5, 7, 15, 19, 63, 64}) {
+            for (int round = 0; round < 20; round++) {
+                BitBoard board = new BitBoard(size);
+                Piece[][] cells = new Piece[size][size];
+                for (Piece[] row : cells) Arrays.fill(row, Piece.EMPTY);
+                // 密度随轮次变化，既有稀疏也有接近填满的棋盘
+                double density = 0.1 + 0.8 * round / 20;
+                for (int r = 0; r < size; r++) {
+                    for (int c = 0; c < size; c++) {
+                        if (random.nextDouble() >= density) continue;
+                        Piece color = random.nextBoolean() ? Piece.BLACK : Piece.WHITE;
+                        board.place(r, c, color);
+                        cells[r][c] = color;
+                    }
+                }
+                for (int r = 0; r < size; r++) {
+                    for (int c = 0; c < size; c++) {
+                        assertEquals(cells[r][c], board.get(r, c));
+                        for (Piece color : new Piece[]{Piece.BLACK, Piece.WHITE}) {
+                            boolean win = false;
+                            for (int dir = 0; dir < 4; dir++) {
+                                int run = scanRun(cells, r, c, dir, color);
+                                assertEquals(run, board.runLength(r, c, dir, color));
+                                assertEquals(scanWindow(cells, r, c, dir, color), board.lineWindow(r, c, dir, color));
+                                win |= run >= 5;
+                            }
+                            assertEquals(win, board.wouldWin(r, c, color));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void placeRemoveAndCopy() {
+        BitBoard board = new BitBoard(15);
+        board.place(2, 3, Piece.BLACK);
+        board.place(9, 11, Piece.WHITE);
+        assertEquals(2, board.count());
+        assertEquals(2, board.minRow());
+        assertEquals(9, board.maxRow());
+        assertEquals(3, board.minCol());
+        assertEquals(11, board.maxCol());
+
+        BitBoard copy = board.copy();
+        board.remove(2, 3, Piece.BLACK);
+        assertTrue(board.isEmpty(2, 3));
+        assertEquals(1, board.count());
+        // 副本不受影响
+        assertEquals(Piece.BLACK, copy.get(2, 3));
+        assertEquals(2, copy.count());
+
+        board.clear();
+        assertEquals(0, board.count());
+        assertEquals(15, board.minRow());
+        assertEquals(-1, board.maxCol());
+        assertThrows(IllegalArgumentException.class, () -> new BitBoard(4));
+        assertThrows(IllegalArgumentException.class, () -> new BitBoard(65));
+    }
+
+    /** 从 (row, col) 沿 (dr, dc) 摆五子，逐个检查每一点补上后都是五连 */
+    private static void assertFive(int size, int row, int col, int dr, int dc) {
+        for (int missing = 0; missing < 5; missing++) {
+            BitBoard board = new BitBoard(size);
+            for (int i = 0; i < 5; i++) {
+                if (i != missing) board.place(row + i * dr, col + i * dc, Piece.WHITE);
+            }
+            int r = row + missing * dr, c = col + missing * dc;
+            String where = "size " + size + " from " + row + "," + col + " missing " + r + "," + c;
+            assertTrue(board.wouldWin(r, c, Piece.WHITE), where);
+            assertFalse(board.wouldWin(r, c, Piece.BLACK), where);
+        }
+    }
+
+    private static int scanRun(Piece[][] cells, int row, int col, int dir, Piece color) {
+        int dr = Board.DIRECTIONS[dir][0], dc = Board.DIRECTIONS[dir][1];
+        int run = 1;
+        for (int sign = -1; sign <= 1; sign += 2) {
+            int r = row + sign * dr, c = col + sign * dc;
+            while (inside(cells, r, c) && cells[r][c] == color) {
+                run++;
+                r += sign * dr;
+                c += sign * dc;
+            }
+        }
+        return run;
+    }
+
+    /** 与 {@link Board#lineWindow} 的约定相同的逐格实现 */
+    private static int scanWindow(Piece[][] cells, int row, int col, int dir, Piece color) {
+        int dr = Board.DIRECTIONS[dir][0], dc = Board.DIRECTIONS[dir][1];
+        int own = 0, blocked = 0;
+        for (int i = 0; i < 10; i++) {
+            int offset = i < 5 ? i - 5 : i - 4;
+            int r = row + offset * dr, c = col + offset * dc;
+            if (!inside(cells, r, c)) blocked |= 1 << i;
+            else if (cells[r][c] == color) own |= 1 << i;
+            else if (cells[r][c] != Piece.EMPTY) blocked |= 1 << i;
+        }
+        return own | blocked << 10;
+    }
+
+    private static boolean inside(Piece[][] cells, int row, int col) {
+        return row >= 0 && row < cells.length && col >= 0 && col < cells.length;
+    }
+}
@@ -0,0 +1,72 @@
+package com.gobang.common.logic;
+
+import com.gobang.client.player.Player;
+import com.gobang.common.model.Piece;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 稳定状态下反复落子、悔棋不应在堆上分配：落子路径上的棋盘、棋型索引、着法栈和监听器通知都复用已有存储
+ */
+class GameAllocationTest {
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 100_000;
+
+    @Test
+    void placeAndUndoDoNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Game game = new Game();
+        game.setPlayers(new IdlePlayer(), new IdlePlayer());
+        // 先摆几手，让落子点周围有棋型需要维护
+        game.placePiece(7, 7, Piece.BLACK);
+        game.placePiece(7, 8, Piece.WHITE);
+        game.placePiece(8, 8, Piece.BLACK);
+        game.placePiece(6, 6, Piece.WHITE);
+        CountingListener listener = new CountingListener();
+        game.setListener(listener);
+
+        cycle(game, WARMUP);
+        long thread = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        cycle(game, ITERATIONS);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertEquals(2L * (WARMUP + ITERATIONS), listener.placed + listener.undone);
+        // 允许计时器等一次性分配，但不能每手都分配
+        assertTrue(allocated < ITERATIONS, "allocated " + allocated + " bytes in " + ITERATIONS + " moves");
+    }
+
+    private static void cycle(Game game, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            if (!game.placePiece(9, 9, Piece.BLACK)) throw new AssertionError("move rejected");
+            game.undo();
+        }
+    }
+
+    private static final class IdlePlayer implements Player {
+        private Piece color;
+
+        @Override public Piece getColor() { return color; }
+        @Override public void setColor(Piece color) { this.color = color; }
+        @Override public String getName() { return "idle"; }
+        @Override public void onTurn(Game game) {}
+    }
+
+    private static final class CountingListener implements GameListener {
+        long placed, undone;
+
+        @Override public void onChessPlaced(int row, int col, Piece color) { placed++; }
+        @Override public void onGameOver(Piece winner) {}
+        @Override public void onTurnChanged(Piece currentTurn) {}
+        @Override public void onGameReset() {}
+        @Override public void onUndo(int row, int col) { undone++; }
+        @Override public void onRedrawAll() {}
+    }
+}
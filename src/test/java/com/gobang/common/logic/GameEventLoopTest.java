@@ -0,0 +1,66 @@
+package com.gobang.common.logic;
+
+import com.gobang.common.model.Piece;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 事件循环模式：提交与关闭并发时提交方拿到正常完成的结果，不会收到 RejectedExecutionException
+ */
+class GameEventLoopTest {
+
+    @Test
+    void submitAfterShutdownCompletesNormally() {
+        Game game = new Game();
+        game.startEventLoop();
+        assertTrue(game.submitMove(7, 7, Piece.BLACK).join());
+        game.shutdownEventLoop();
+        // 关闭后回到同步模式
+        assertTrue(game.submitMove(7, 8, Piece.WHITE).join());
+        assertFalse(game.isEventLoopRunning());
+    }
+
+    @Test
+    void submitRacingShutdownNeverThrows() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            Game game = new Game();
+            game.startEventLoop();
+            CountDownLatch started = new CountDownLatch(1);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+            Thread submitter = new Thread(() -> {
+                started.countDown();
+                try {
+                    for (int i = 0; i < 50; i++) {
+                        CompletableFuture<Boolean> result = game.submitMove(i / 15, i % 15, i % 2 == 0 ? Piece.BLACK : Piece.WHITE);
+                        synchronized (results) {
+                            results.add(result);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            submitter.start();
+            started.await();
+            game.shutdownEventLoop();
+            submitter.join(TimeUnit.SECONDS.toMillis(10));
+
+            assertNull(failure.get(), () -> "submit threw " + failure.get());
+            synchronized (results) {
+                for (CompletableFuture<Boolean> result : results) assertNotNull(result.get(10, TimeUnit.SECONDS));
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.gobang.common.logic;
+
+import com.gobang.common.model.Piece;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 三种规则的胜负与禁手：三三、四四、长连，标准规则的恰好五连，以及连珠中成五优先于禁手
+ */
+class RuleSetTest {
+
+    @Test
+    void doubleThreeIsForbiddenForBlackInRenju() {
+        // 横向 (7,5)(7,6) 与纵向 (5,7)(6,7)，落在 (7,7) 同时形成两个活三
+        BitBoard board = board(Piece.BLACK, "7,5 7,6 5,7 6,7");
+        assertTrue(RuleSet.RENJU.isForbidden(board, 7, 7, Piece.BLACK));
+        assertFalse(RuleSet.RENJU.isForbidden(board, 7, 7, Piece.WHITE));
+        assertFalse(RuleSet.STANDARD.isForbidden(board, 7, 7, Piece.BLACK));
+        assertFalse(RuleSet.FREESTYLE.isForbidden(board, 7, 7, Piece.BLACK));
+
+        // 跳三同样是活三
+        BitBoard split = board(Piece.BLACK, "7,4 7,6 5,7 6,7");
+        assertTrue(RuleSet.RENJU.isForbidden(split, 7, 7, Piece.BLACK));
+    }
+
+    @Test
+    void blockedThreeDoesNotCount() {
+        // 横向一端被白子挡住，成不了活四，只剩一个活三
+        BitBoard board = board(Piece.BLACK, "7,5 7,6 5,7 6,7");
+        place(board, Piece.WHITE, "7,4");
+        assertFalse(RuleSet.RENJU.isForbidden(board, 7, 7, Piece.BLACK));
+    }
+
+    @Test
+    void doubleFourIsForbiddenForBlackInRenju() {
+        BitBoard board = board(Piece.BLACK, "7,4 7,5 7,6 4,7 5,7 6,7");
+        assertTrue(RuleSet.RENJU.isForbidden(board, 7, 7, Piece.BLACK));
+
+        // 一条线上的两个四：X.X?X.X
+        BitBoard line = board(Piece.BLACK, "7,3 7,5 7,7 7,9");
+        assertTrue(RuleSet.RENJU.isForbidden(line, 7, 6, Piece.BLACK));
+
+        // 四三不是禁手
+        BitBoard fourThree = board(Piece.BLACK, "7,4 7,5 7,6 5,7 6,7");
+        assertFalse(RuleSet.RENJU.isForbidden(fourThree, 7, 7, Piece.BLACK));
+    }
+
+    @Test
+    void overlineIsForbiddenForBlackAndWinsForWhiteInRenju() {
+        BitBoard board = board(Piece.BLACK, "7,2 7,3 7,4 7,6 7,7");
+        assertTrue(RuleSet.RENJU.isForbidden(board, 7, 5, Piece.BLACK));
+        assertFalse(RuleSet.RENJU.isWin(board, 7, 5, Piece.BLACK));
+
+        BitBoard white = board(Piece.WHITE, "7,2 7,3 7,4 7,6 7,7");
+        assertFalse(RuleSet.RENJU.isForbidden(white, 7, 5, Piece.WHITE));
+        assertTrue(RuleSet.RENJU.isWin(white, 7, 5, Piece.WHITE));
+    }
+
+    @Test
+    void standardRuleNeedsExactlyFive() {
+        for (Piece color : new Piece[]{Piece.BLACK, Piece.WHITE}) {
+            BitBoard five = board(color, "7,3 7,4 7,6 7,7");
+            assertTrue(RuleSet.STANDARD.isWin(five, 7, 5, color));
+            assertTrue(RuleSet.FREESTYLE.isWin(five, 7, 5, color));
+
+            BitBoard six = board(color, "7,2 7,3 7,4 7,6 7,7");
+            assertFalse(RuleSet.STANDARD.isWin(six, 7, 5, color));
+            assertTrue(RuleSet.FREESTYLE.isWin(six, 7, 5, color));
+            // 标准规则下长连只是不算赢，不是禁手
+            assertFalse(RuleSet.STANDARD.isForbidden(six, 7, 5, color));
+        }
+        assertTrue(RuleSet.STANDARD.isExactFive(Piece.WHITE));
+        assertFalse(RuleSet.RENJU.isExactFive(Piece.WHITE));
+        assertFalse(RuleSet.FREESTYLE.isExactFive(Piece.BLACK));
+    }
+
+    @Test
+    void fiveTakesPriorityOverForbiddenShapes() {
+        // 横向成五，同时纵向和斜向各成活三
+        BitBoard doubleThree = board(Piece.BLACK, "7,3 7,4 7,5 7,6 5,7 6,7 5,5 6,6");
+        assertFalse(RuleSet.RENJU.isForbidden(doubleThree, 7, 7, Piece.BLACK));
+        assertTrue(RuleSet.RENJU.isWin(doubleThree, 7, 7, Piece.BLACK));
+
+        // 横向成五，同时纵向形成长连
+        BitBoard overline = board(Piece.BLACK, "7,3 7,4 7,5 7,6 2,7 3,7 4,7 5,7 6,7");
+        assertFalse(RuleSet.RENJU.isForbidden(overline, 7, 7, Piece.BLACK));
+        assertTrue(RuleSet.RENJU.isWin(overline, 7, 7, Piece.BLACK));
+    }
+
+    @Test
+    void positionRejectsForbiddenMoves() {
+        Position position = Position.empty(15, RuleSet.RENJU);
+        // 黑 (7,5)(7,6)(5,7)(6,7)，白子远离
+        int[][] moves = {{7, 5}, {0, 0}, {7, 6}, {0, 2}, {5, 7}, {0, 4}, {6, 7}, {0, 6}};
+        for (int[] move : moves) position.make(move[0], move[1]);
+        assertFalse(position.isLegal(7, 7));
+        assertTrue(position.isLegal(7, 8));
+
+        Position freestyle = Position.empty(15, RuleSet.FREESTYLE);
+        for (int[] move : moves) freestyle.make(move[0], move[1]);
+        assertTrue(freestyle.isLegal(7, 7));
+    }
+
+    private static BitBoard board(Piece color, String stones) {
+        BitBoard board = new BitBoard(15);
+        place(board, color, stones);
+        return board;
+    }
+
+    /** stones 为空格分隔的 "行,列" */
+    private static void place(BitBoard board, Piece color, String stones) {
+        for (String stone : stones.split(" ")) {
+            String[] rc = stone.split(",");
+            board.place(Integer.parseInt(rc[0]), Integer.parseInt(rc[1]), color);
+        }
+    }
+}
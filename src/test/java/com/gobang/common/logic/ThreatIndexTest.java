@@ -0,0 +1,78 @@
+package com.gobang.common.logic;
+
+import com.gobang.common.model.Piece;
+import com.gobang.common.model.Threat;
+import com.gobang.common.model.ThreatType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 增量威胁索引：随机落子、提子后，各类型的点列与从头重建的索引一致
+ */
+class ThreatIndexTest {
+
+    @Test
+    void incrementalUpdatesMatchRebuild() {
+        Random random = new Random(42);
+        for (RuleSet rule : new RuleSet[]{RuleSet.FREESTYLE, RuleSet.STANDARD, RuleSet.RENJU}) {
+            BitBoard board = new BitBoard(15);
+            ThreatIndex index = new ThreatIndex(board, rule);
+            Deque<int[]> placed = new ArrayDeque<>();
+            for (int step = 0; step < 600; step++) {
+                // 大约三分之一的操作是提子，棋型会反复出现又消失、在类型之间升降
+                if (!placed.isEmpty() && random.nextInt(3) == 0) {
+                    int[] stone = placed.pop();
+                    board.remove(stone[0], stone[1], stone[2] == 0 ? Piece.BLACK : Piece.WHITE);
+                    index.update(stone[0], stone[1]);
+                } else {
+                    // 集中在中间 7 路，容易连成棋型
+                    int r = 4 + random.nextInt(7), c = 4 + random.nextInt(7);
+                    if (!board.isEmpty(r, c)) continue;
+                    int color = random.nextInt(2);
+                    board.place(r, c, color == 0 ? Piece.BLACK : Piece.WHITE);
+                    placed.push(new int[]{r, c, color});
+                    index.update(r, c);
+                }
+                if (step % 10 == 0) assertSameAsRebuild(board, rule, index);
+            }
+        }
+    }
+
+    @Test
+    void unboundedBoardGrowsAndStaysConsistent() {
+        SparseBoard board = new SparseBoard();
+        ThreatIndex index = new ThreatIndex(board, RuleSet.FREESTYLE);
+        // 许多互不相干的活二，威胁点远超初始容量
+        for (int k = 0; k < 200; k++) {
+            int r = (k / 20) * 10, c = (k % 20) * 10 - 100;
+            board.place(r, c, Piece.BLACK);
+            index.update(r, c);
+            board.place(r, c + 1, Piece.BLACK);
+            index.update(r, c + 1);
+        }
+        assertSameAsRebuild(board, RuleSet.FREESTYLE, index);
+        assertTrue(index.get(Piece.BLACK, ThreatType.OPEN_THREE).size() > 256);
+        assertTrue(index.has(Piece.BLACK, ThreatType.OPEN_THREE));
+        assertFalse(index.has(Piece.BLACK, ThreatType.BROKEN_FOUR));
+    }
+
+    private static void assertSameAsRebuild(Board board, RuleSet rule, ThreatIndex index) {
+        ThreatIndex fresh = new ThreatIndex(board, rule);
+        fresh.rebuild();
+        for (Piece color : new Piece[]{Piece.BLACK, Piece.WHITE}) {
+            for (ThreatType type : ThreatType.values()) {
+                assertEquals(fresh.get(color, type), index.get(color, type), color + " " + type);
+                assertEquals(fresh.has(color, type), index.has(color, type));
+            }
+            Threat strongest = fresh.strongest(color);
+            assertEquals(strongest, index.strongest(color));
+        }
+    }
+}
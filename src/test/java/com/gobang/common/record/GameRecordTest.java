@@ -0,0 +1,147 @@
+package com.gobang.common.record;
+
+import com.gobang.common.logic.Board;
+import com.gobang.common.logic.Position;
+import com.gobang.common.logic.RuleSet;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 二进制棋谱：写入后读回与原记录一致且能通过 {@link GameRecords#validate}，覆盖一字节坐标与 zigzag 坐标两种编码
+ */
+class GameRecordTest {
+
+    @Test
+    void packedBoardRoundTrip() throws IOException {
+        // 黑棋在第 14 行连成五，坐标用到了一个字节的两端
+        GameRecord fifteen = record(15, RuleSet.RENJU, "黑方", "White",
+                14, 10, 0, 0, 14, 11, 0, 14, 14, 12, 14, 0, 14, 13, 1, 1, 14, 14);
+        // 16 路仍是一字节坐标，17 路起改用 zigzag varint
+        GameRecord sixteen = record(16, RuleSet.STANDARD, "", "", 15, 15, 0, 0, 15, 0);
+        GameRecord nineteen = record(19, RuleSet.FREESTYLE, "a", "b", 18, 18, 17, 16, 9, 9);
+        assertEquals(GameRecord.Result.BLACK_WIN, fifteen.getResult());
+
+        List<GameRecord> back = roundTrip(fifteen, sixteen, nineteen);
+        assertEquals(3, back.size());
+        assertSame(fifteen, back.get(0));
+        assertSame(sixteen, back.get(1));
+        assertSame(nineteen, back.get(2));
+        back.forEach(GameRecords::validate);
+    }
+
+    @Test
+    void unboundedBoardRoundTrip() throws IOException {
+        // 负坐标和远离原点的坐标走 zigzag 编码；白棋沿副对角线成五
+        GameRecord record = record(Board.UNBOUNDED, RuleSet.FREESTYLE, "x", "y",
+                -1000, 5, -3, -3, 16000, -16000, -4, -2, 1, 1, -5, -1, 2, 2, -6, 0, 3, 3, -7, 1);
+        assertEquals(GameRecord.Result.WHITE_WIN, record.getResult());
+
+        GameRecord back = roundTrip(record).get(0);
+        assertSame(record, back);
+        GameRecords.validate(back);
+    }
+
+    @Test
+    void overlongNameIsRejectedBeforeAnythingIsWritten() throws IOException {
+        String limit = "名".repeat(GameRecordWriter.MAX_NAME_BYTES / 3) + "a";
+        String overlong = limit + "a";
+        GameRecord ok = record(15, RuleSet.FREESTYLE, limit, "", 7, 7);
+        GameRecord bad = record(15, RuleSet.FREESTYLE, "", overlong, 7, 7);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameRecordWriter writer = new GameRecordWriter(bytes)) {
+            writer.write(ok);
+            assertThrows(IllegalArgumentException.class, () -> writer.write(bad));
+            writer.write(ok);
+            assertEquals(2, writer.getWritten());
+        }
+        List<GameRecord> back = read(bytes.toByteArray());
+        assertEquals(2, back.size());
+        assertEquals(limit, back.get(1).getBlackPlayer());
+    }
+
+    @Test
+    void truncatedStreamFailsAndBadRecordFailsValidation() throws IOException {
+        byte[] bytes = write(record(15, RuleSet.FREESTYLE, "a", "b", 7, 7, 7, 8, 8, 8));
+        assertThrows(EOFException.class, () -> read(Arrays.copyOf(bytes, bytes.length - 1)));
+
+        // 记录为白胜，棋盘上却是黑棋成五
+        GameRecord won = record(15, RuleSet.FREESTYLE, "", "", 7, 0, 0, 0, 7, 1, 0, 2, 7, 2, 0, 4, 7, 3, 0, 6, 7, 4);
+        GameRecord wrong = new GameRecord(15, RuleSet.FREESTYLE, "", "", GameRecord.Result.WHITE_WIN, 0L,
+                moves(won), times(won));
+        GameRecord back = read(write(wrong)).get(0);
+        assertThrows(IllegalArgumentException.class, () -> GameRecords.validate(back));
+    }
+
+    /** 按 "行, 列" 依次落子，时刻每手递增，结果由局面推出 */
+    private static GameRecord record(int size, RuleSet rule, String black, String white, int... coordinates) {
+        Position position = Position.empty(size, rule);
+        int count = coordinates.length / 2;
+        int[] moves = new int[count];
+        long[] times = new long[count];
+        long start = 1_700_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            position.make(coordinates[2 * i], coordinates[2 * i + 1]);
+            moves[i] = position.lastMove();
+            // 间隔从零开始逐手增大，用到多字节 varint
+            times[i] = start + (long) i * i * 977;
+        }
+        return new GameRecord(size, rule, black, white, GameRecord.resultOf(position), start, moves, times);
+    }
+
+    private static List<GameRecord> roundTrip(GameRecord... records) throws IOException {
+        return read(write(records));
+    }
+
+    private static byte[] write(GameRecord... records) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameRecordWriter writer = new GameRecordWriter(bytes)) {
+            for (GameRecord record : records) writer.write(record);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<GameRecord> read(byte[] bytes) throws IOException {
+        List<GameRecord> records = new ArrayList<>();
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes))) {
+            reader.forEach(records::add);
+            assertNull(reader.read());
+        }
+        return records;
+    }
+
+    private static void assertSame(GameRecord expected, GameRecord actual) {
+        assertEquals(expected.getBoardSize(), actual.getBoardSize());
+        assertEquals(expected.getRule(), actual.getRule());
+        assertEquals(expected.getBlackPlayer(), actual.getBlackPlayer());
+        assertEquals(expected.getWhitePlayer(), actual.getWhitePlayer());
+        assertEquals(expected.getResult(), actual.getResult());
+        assertEquals(expected.getStartTime(), actual.getStartTime());
+        assertArrayEquals(moves(expected), moves(actual));
+        assertArrayEquals(times(expected), times(actual));
+    }
+
+    private static int[] moves(GameRecord record) {
+        int[] moves = new int[record.getMoveCount()];
+        for (int i = 0; i < moves.length; i++) moves[i] = record.packedMove(i);
+        return moves;
+    }
+
+    private static long[] times(GameRecord record) {
+        long[] times = new long[record.getMoveCount()];
+        for (int i = 0; i < times.length; i++) times[i] = record.getTime(i);
+        return times;
+    }
+}